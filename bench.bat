@@ -0,0 +1,9 @@
+call compile.bat
+if not exist bench\classes mkdir bench\classes
+if not exist bench\fixtures mkdir bench\fixtures
+javac -classpath . -d bench\classes bench\se\sics\tac\bench\*.java bench\se\sics\tac\aw\*.java
+if not exist bench\fixtures\phobos.events (
+  java -classpath .;bench\classes se.sics.tac.bench.FixtureGenerator -logPrefix fixture
+  move games\fixture_GAME_1.events bench\fixtures\phobos.events
+)
+java -classpath .;bench\classes se.sics.tac.bench.BenchmarkRunner -fixtures bench\fixtures -limits bench\allocation-limits.properties %*
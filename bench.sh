@@ -0,0 +1,19 @@
+# Compiles the agent ware and the micro benchmarks and runs the benchmarks.
+# The Phobos benchmarks replay a recorded game which is generated in
+# bench/fixtures the first time. Arguments are passed to the benchmark
+# runner, for example: sh bench.sh -filter message -out bench.tsv
+# The run fails if the median bytes allocated per operation of a
+# benchmark is above its limit in bench/allocation-limits.properties.
+#
+# The tick-to-trade latency of each connection and agent is measured
+# after compiling with:
+#   java -classpath .:bench/classes se.sics.tac.bench.TickToTradeBenchmark
+sh compile.sh || exit 1
+mkdir -p bench/classes bench/fixtures
+javac -classpath . -d bench/classes bench/se/sics/tac/bench/*.java bench/se/sics/tac/aw/*.java || exit 1
+if [ ! -f bench/fixtures/phobos.events ]; then
+  rm -f games/fixture_GAME_1.events
+  java -classpath .:bench/classes se.sics.tac.bench.FixtureGenerator -logPrefix fixture
+  mv games/fixture_GAME_1.events bench/fixtures/phobos.events
+fi
+java -classpath .:bench/classes se.sics.tac.bench.BenchmarkRunner -fixtures bench/fixtures -limits bench/allocation-limits.properties "$@"
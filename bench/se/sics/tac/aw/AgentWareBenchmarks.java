@@ -0,0 +1,305 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * AgentWareBenchmarks
+ *
+ * Created : 18 October, 2026
+ * Purpose : Micro benchmarks of the agent ware hot paths: parsing and
+ *           creating server messages, bid strings, the time dispatcher,
+ *           and the trip evaluation and entertainment allocation of
+ *           Phobos. The message payloads are taken from the simulated
+ *           market and the Phobos benchmarks replay a recorded game
+ *           (see bench.sh) to get a realistic mid game state.
+ */
+
+package se.sics.tac.aw;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Properties;
+
+import se.sics.tac.bench.Benchmark;
+
+public class AgentWareBenchmarks {
+
+  /** The recorded Phobos game in the fixture directory */
+  public final static String PHOBOS_EVENTS = "phobos.events";
+
+  private final static String QUOTE =
+    "<getQuote><auctionID>1</auctionID><lastAskPrice>318.0</lastAskPrice>"
+    + "<lastBidPrice>0.0</lastBidPrice><auctionStatus>1</auctionStatus>"
+    + "<nextQuoteTime>0</nextQuoteTime><lastQuoteTime>0</lastQuoteTime>"
+    + "<commandStatus>0</commandStatus></getQuote>";
+
+  private final static String BID_INFO =
+    "<bidInfo><bidID>1</bidID><auctionID>9</auctionID>"
+    + "<bidString>((5 1.0))</bidString><bidHash>1-0</bidHash>"
+    + "<rejectReason>0</rejectReason><processingState>2</processingState>"
+    + "<timeClosed>0</timeClosed><timeProcessed>1792356026</timeProcessed>"
+    + "<commandStatus>0</commandStatus></bidInfo>";
+
+  private final static String TRANS_INFO =
+    "<transInfo><transID>1</transID><auctionID>10</auctionID>"
+    + "<quantity>5</quantity><price>0.0</price>"
+    + "<commandStatus>0</commandStatus></transInfo>";
+
+  private final static String BID_STRING =
+    "((1 318.0) (1 296.5) (1 251.0) (1 204.25) (-1 400.0) (-2 512.75))";
+
+  private AgentWareBenchmarks() {
+  }
+
+  /**
+   * Adds all agent ware benchmarks to the list. The Phobos benchmarks
+   * are only added if the recorded game exists in the fixture directory.
+   */
+  public static void addBenchmarks(ArrayList list, String fixtureDir) {
+    list.add(new ParseBenchmark("message.parse.quote", "getQuote", QUOTE));
+    list.add(new ParseBenchmark("message.parse.bidInfo", "bidInfo",
+				BID_INFO));
+    list.add(new ParseBenchmark("message.parse.transInfo", "transInfo",
+				TRANS_INFO));
+    list.add(new ParseBenchmark("message.parse.gameParams", "getGameParams",
+				createGameParams()));
+    list.add(new Benchmark("message.create.submitBid") {
+	public int run() {
+	  TACMessage msg = new TACMessage("submitBid");
+	  msg.setParameter("auctionID", 9);
+	  msg.setParameter("bidString", BID_STRING);
+	  msg.setParameter("expireTime", 0);
+	  msg.setParameter("expireMode", 0);
+	  msg.setParameter("divisible", 1);
+	  return msg.getMessageString().length();
+	}
+      });
+    list.add(new Benchmark("bid.getBidString") {
+	public int run() {
+	  Bid bid = new Bid(9);
+	  bid.addBidPoint(1, 318f);
+	  bid.addBidPoint(1, 296.5f);
+	  bid.addBidPoint(1, 251f);
+	  bid.addBidPoint(1, 204.25f);
+	  return bid.getBidString().length();
+	}
+      });
+    list.add(new Benchmark("bid.parseBidString") {
+	private final Bid template = new Bid(16);
+	public int run() {
+	  Bid bid = new Bid(template, BID_STRING, "1-0");
+	  return bid.getNoBidPoints();
+	}
+      });
+    list.add(new TimeDispatcherBenchmark());
+
+    File events = new File(fixtureDir, PHOBOS_EVENTS);
+    if (events.exists()) {
+      String file = events.getPath();
+      list.add(new PhobosBenchmark("phobos.evaluateTrips", file, false));
+      list.add(new PhobosBenchmark("phobos.allocateEntertainment", file, true));
+      list.add(new ReplayBenchmark("phobos.replayGame", file, false));
+      list.add(new ReplayBenchmark("phobos.replayGame.perQuote", file, true));
+    } else {
+      System.err.println("No fixture " + events
+			 + ": skipping the Phobos benchmarks");
+    }
+  }
+
+  // Creates a game parameter reply with eight clients and twelve
+  // ticket endowments, as sent by the server at the start of a game
+  private static String createGameParams() {
+    StringBuffer sb = new StringBuffer();
+    sb.append("<getGameParams><clientPreferences><list>");
+    for (int c = 0; c < 8; c++) {
+      sb.append("<clientPrefTuple><client>").append(c + 1)
+	.append("</client><arrival>").append(1 + c % 4)
+	.append("</arrival><departure>").append(2 + (c + 1) % 4)
+	.append("</departure><hotel>").append(50 + 13 * c)
+	.append("</hotel><ticketPreferences><list>");
+      for (int t = 1; t <= 3; t++) {
+	sb.append("<typePriceTuple><type>").append(t)
+	  .append("</type><price>").append((37 * c + 59 * t) % 200)
+	  .append("</price></typePriceTuple>");
+      }
+      sb.append("</list></ticketPreferences></clientPrefTuple>");
+    }
+    sb.append("</list></clientPreferences><ticketEndowments><list>");
+    for (int t = 1; t <= 3; t++) {
+      for (int d = 1; d <= 4; d++) {
+	sb.append("<ticketEndowmentTuple><type>").append(t)
+	  .append("</type><day>").append(d)
+	  .append("</day><quantity>").append((t + d) % 3)
+	  .append("</quantity></ticketEndowmentTuple>");
+      }
+    }
+    sb.append("</list></ticketEndowments><commandStatus>0</commandStatus>"
+	      + "</getGameParams>");
+    return sb.toString();
+  }
+
+
+  // -------------------------------------------------------------------
+  // Benchmarks
+  // -------------------------------------------------------------------
+
+  // Parses a reply the same way as the agent ware: walks all tags and
+  // reads the values of the tags it knows
+  private static class ParseBenchmark extends Benchmark {
+
+    private final String type;
+    private final String payload;
+
+    ParseBenchmark(String name, String type, String payload) {
+      super(name);
+      this.type = type;
+      this.payload = payload;
+    }
+
+    public int run() {
+      TACMessage msg = new TACMessage(type);
+      msg.setReceivedMessage(payload);
+      int value = 0;
+      while (msg.nextTag()) {
+	if (msg.isTag("auctionID") || msg.isTag("client")
+	    || msg.isTag("type") || msg.isTag("quantity")
+	    || msg.isTag("auctionStatus") || msg.isTag("processingState")) {
+	  value += msg.getValueAsInt(0);
+	} else if (msg.isTag("lastAskPrice") || msg.isTag("price")) {
+	  value += (int) msg.getValueAsFloat(0f);
+	} else if (msg.isTag("bidString") || msg.isTag("bidHash")) {
+	  value += msg.getValue().length();
+	} else if (msg.isTag("timeProcessed")) {
+	  value += (int) msg.getValueAsLong(0L);
+	}
+      }
+      return value;
+    }
+
+  } // ParseBenchmark
+
+  // Adds a task and cancels it again while other tasks are pending
+  private static class TimeDispatcherBenchmark extends Benchmark
+    implements Task
+  {
+
+    private final static int PENDING = 32;
+
+    private TimeDispatcher dispatcher;
+    private final Object key = new Object();
+    private final Object[] pendingKeys = new Object[PENDING];
+
+    TimeDispatcherBenchmark() {
+      super("timeDispatcher.addCancel");
+    }
+
+    public void setUp() {
+      dispatcher = TimeDispatcher.getDefault();
+      long time = System.currentTimeMillis() + 3600000L;
+      for (int i = 0; i < PENDING; i++) {
+	pendingKeys[i] = new Object();
+	dispatcher.addTask(time + i, pendingKeys[i], null, this);
+      }
+    }
+
+    public int run() {
+      dispatcher.addTask(System.currentTimeMillis() + 1800000L,
+			 key, null, this);
+      dispatcher.cancelTask(key, this);
+      return 1;
+    }
+
+    public void tearDown() {
+      for (int i = 0; i < PENDING; i++) {
+	dispatcher.cancelTask(pendingKeys[i], this);
+      }
+    }
+
+    public void performWork(long time, Object key, Object value) {
+    }
+
+  } // TimeDispatcherBenchmark
+
+  // Replays the recorded game to Phobos until the middle of the game and
+  // then repeats either the trip evaluation or the entertainment
+  // allocation in that state
+  private static class PhobosBenchmark extends Benchmark {
+
+    private final String file;
+    private final boolean allocate;
+    private Phobos phobos;
+    private TACAgent agentWare;
+
+    PhobosBenchmark(String name, String file, boolean allocate) {
+      super(name);
+      this.file = file;
+      this.allocate = allocate;
+    }
+
+    public void setUp() throws Exception {
+      EventLog events = EventLog.load(file);
+      phobos = new Phobos();
+      agentWare = TACAgent.createReplayAgent(phobos, new Properties());
+      long midGame = -1L;
+      for (int i = 0, n = events.size(); i < n; i++) {
+	int type = events.getType(i);
+	if (type == EventLog.GAME_PARAMS) {
+	  midGame = events.getLong(i, 2) + events.getInt(i, 1) / 2;
+	} else if (midGame > 0L && events.getTime(i) >= midGame) {
+	  break;
+	}
+	agentWare.replayEvent(events, i);
+      }
+    }
+
+    public int run() {
+      if (allocate) {
+	phobos.updateAllEntertainmentBonuses();
+	return agentWare.getAllocation(TACAgent.MIN_ENTERTAINMENT);
+      }
+      return (int) phobos.evaluateAllTrips();
+    }
+
+  } // PhobosBenchmark
+
+  // Replays the whole recorded game to a new Phobos instance. The
+  // results are reported either per game or per replayed quote.
+  private static class ReplayBenchmark extends Benchmark {
+
+    private final String file;
+    private final boolean perQuote;
+    private EventReplayer replayer;
+    private EventLog events;
+    private int quotes;
+
+    ReplayBenchmark(String name, String file, boolean perQuote) {
+      super(name);
+      this.file = file;
+      this.perQuote = perQuote;
+    }
+
+    public void setUp() throws Exception {
+      events = EventLog.load(file);
+      replayer = new EventReplayer(new Properties(), Phobos.class.getName());
+      quotes = 0;
+      for (int i = 0, n = events.size(); i < n; i++) {
+	if (events.getType(i) == EventLog.QUOTE) {
+	  quotes++;
+	}
+      }
+    }
+
+    public int run() throws Exception {
+      return replayer.replay(events).getEventLog().size();
+    }
+
+    public int getOperationCount() {
+      return perQuote && quotes > 0 ? quotes : 1;
+    }
+
+  } // ReplayBenchmark
+
+} // AgentWareBenchmarks
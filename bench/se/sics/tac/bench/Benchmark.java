@@ -0,0 +1,60 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * Benchmark
+ *
+ * Created : 18 October, 2026
+ * Purpose : Base class for the micro benchmarks run by BenchmarkRunner.
+ *           A benchmark is set up once and then the operation is run
+ *           repeatedly while it is timed.
+ */
+
+package se.sics.tac.bench;
+
+public abstract class Benchmark {
+
+  private final String name;
+
+  protected Benchmark(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Prepares the benchmark. Called once before the benchmark is warmed up.
+   */
+  public void setUp() throws Exception {
+  }
+
+  /**
+   * Performs one operation. The returned value must depend on the work
+   * done by the operation and is consumed by the runner to prevent the
+   * work from being optimized away.
+   */
+  public abstract int run() throws Exception;
+
+  /**
+   * Returns the number of operations performed by each call to run().
+   * The results are reported per operation.
+   */
+  public int getOperationCount() {
+    return 1;
+  }
+
+  /**
+   * Releases any resources held by the benchmark. Called once after the
+   * benchmark has been measured.
+   */
+  public void tearDown() throws Exception {
+  }
+
+} // Benchmark
@@ -0,0 +1,397 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * BenchmarkRunner
+ *
+ * Created : 18 October, 2026
+ * Purpose : Runs the agent ware micro benchmarks. Each benchmark is
+ *           first warmed up and then measured for a number of timed
+ *           iterations. The mean time per operation and its standard
+ *           deviation over the iterations are printed together with
+ *           the median bytes allocated per operation (measured with the
+ *           ThreadMXBean of the JVM) and optionally written to a tab
+ *           separated file to compare runs.
+ *
+ *           Allocation limits can be given as a properties file with
+ *           the maximal bytes per operation for each benchmark name. The
+ *           runner exits with status 1 if the median over the iterations
+ *           of any benchmark is above its limit (the median is not moved
+ *           by a single iteration with an unusual allocation, such as
+ *           one where the JIT compiler or a cache refill happened).
+ *
+ *           Usage: java se.sics.tac.bench.BenchmarkRunner [-filter <s>]
+ *                  [-fixtures <dir>] [-limits <file>] [-out <file>]
+ */
+
+package se.sics.tac.bench;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Properties;
+
+import se.sics.tac.aw.AgentWareBenchmarks;
+import se.sics.tac.util.ArgEnumerator;
+
+public class BenchmarkRunner {
+
+  // Prevents the JIT from removing the benchmarked work
+  private static volatile int sink;
+
+  private int warmupIterations = 5;
+  private int warmupTime = 200;
+  private int iterations = 5;
+  private int iterationTime = 500;
+
+  // Null if the JVM can not measure the allocations of a thread
+  private final com.sun.management.ThreadMXBean threadBean;
+
+  private ArrayList results = new ArrayList();
+
+  public BenchmarkRunner() {
+    com.sun.management.ThreadMXBean bean = null;
+    try {
+      bean = (com.sun.management.ThreadMXBean)
+	ManagementFactory.getThreadMXBean();
+      if (bean.isThreadAllocatedMemorySupported()) {
+	bean.setThreadAllocatedMemoryEnabled(true);
+      } else {
+	bean = null;
+      }
+    } catch (Throwable e) {
+      // Not a JVM with the extended thread management interface
+      bean = null;
+    }
+    this.threadBean = bean;
+  }
+
+  public void setWarmup(int iterations, int millis) {
+    this.warmupIterations = iterations;
+    this.warmupTime = millis;
+  }
+
+  public void setMeasurement(int iterations, int millis) {
+    this.iterations = iterations;
+    this.iterationTime = millis;
+  }
+
+  public boolean isMeasuringAllocation() {
+    return threadBean != null;
+  }
+
+  /**
+   * Warms up and measures the benchmark.
+   */
+  public Result run(Benchmark benchmark) throws Exception {
+    benchmark.setUp();
+    try {
+      // Find a batch size large enough for the timer to be negligible
+      int batch = 1;
+      while (runBatch(benchmark, batch) < 100000L && batch < (1 << 24)) {
+	batch *= 2;
+      }
+      Result result = new Result(benchmark.getName(), iterations);
+      for (int i = 0; i < warmupIterations; i++) {
+	runIteration(benchmark, batch, warmupTime, null, 0);
+      }
+      System.gc();
+      for (int i = 0; i < iterations; i++) {
+	runIteration(benchmark, batch, iterationTime, result, i);
+      }
+      results.add(result);
+      return result;
+    } finally {
+      benchmark.tearDown();
+    }
+  }
+
+  private void runIteration(Benchmark benchmark, int batch, int millis,
+			    Result result, int iteration)
+    throws Exception
+  {
+    Thread thread = Thread.currentThread();
+    long bytes = threadBean != null
+      ? threadBean.getThreadAllocatedBytes(thread.getId()) : 0L;
+    long ops = 0L;
+    long elapsed = 0L;
+    long limit = millis * 1000000L;
+    do {
+      elapsed += runBatch(benchmark, batch);
+      ops += batch;
+    } while (elapsed < limit);
+    if (result != null) {
+      ops *= benchmark.getOperationCount();
+      result.nanosPerOp[iteration] = (double) elapsed / ops;
+      if (threadBean != null) {
+	bytes = threadBean.getThreadAllocatedBytes(thread.getId()) - bytes;
+	result.bytesPerOp[iteration] = (double) bytes / ops;
+      } else {
+	result.bytesPerOp[iteration] = -1.0;
+      }
+    }
+  }
+
+  private long runBatch(Benchmark benchmark, int batch) throws Exception {
+    int value = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < batch; i++) {
+      value += benchmark.run();
+    }
+    long time = System.nanoTime() - start;
+    sink += value;
+    return time;
+  }
+
+  /**
+   * Writes one line per benchmark and iteration: benchmark name,
+   * iteration, time per operation in nanoseconds, and bytes allocated
+   * per operation (-1 if not measured).
+   */
+  public void writeResults(String file) throws IOException {
+    PrintWriter out = new PrintWriter(new FileWriter(file));
+    try {
+      out.println("benchmark\titeration\tnsPerOp\tbytesPerOp");
+      for (int i = 0, n = results.size(); i < n; i++) {
+	Result result = (Result) results.get(i);
+	for (int j = 0; j < result.nanosPerOp.length; j++) {
+	  out.println(result.name + "\t" + (j + 1)
+		      + '\t' + result.nanosPerOp[j]
+		      + '\t' + result.bytesPerOp[j]);
+	}
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Compares the median bytes allocated per operation over the
+   * iterations with the limits and prints the benchmarks that exceed
+   * their limit.
+   *
+   * @return the number of benchmarks exceeding their limit
+   */
+  public int checkLimits(Properties limits) {
+    if (threadBean == null) {
+      System.err.println("Allocation limits not checked: the JVM can not"
+			 + " measure allocated bytes");
+      return 0;
+    }
+    int failed = 0;
+    for (int i = 0, n = results.size(); i < n; i++) {
+      Result result = (Result) results.get(i);
+      String value = limits.getProperty(result.name);
+      if (value != null) {
+	double limit = Double.parseDouble(value.trim());
+	double bytes = result.getMedianBytesPerOp();
+	if (bytes > limit) {
+	  System.err.println("Allocation limit exceeded by " + result.name
+			     + ": " + format(bytes) + " B/op > "
+			     + format(limit) + " B/op");
+	  failed++;
+	}
+      }
+    }
+    return failed;
+  }
+
+  static double getMean(double[] values) {
+    double sum = 0.0;
+    for (int i = 0, n = values.length; i < n; i++) {
+      sum += values[i];
+    }
+    return sum / values.length;
+  }
+
+  static double getMedian(double[] values) {
+    double[] sorted = (double[]) values.clone();
+    Arrays.sort(sorted);
+    int n = sorted.length;
+    return (n & 1) == 1
+      ? sorted[n / 2]
+      : (sorted[n / 2 - 1] + sorted[n / 2]) / 2.0;
+  }
+
+  static double getStdDev(double[] values) {
+    if (values.length < 2) {
+      return 0.0;
+    }
+    double mean = getMean(values);
+    double sum = 0.0;
+    for (int i = 0, n = values.length; i < n; i++) {
+      double d = values[i] - mean;
+      sum += d * d;
+    }
+    return Math.sqrt(sum / (values.length - 1));
+  }
+
+  private static String format(double value) {
+    if (value >= 100.0) {
+      return Long.toString(Math.round(value));
+    }
+    return Double.toString(Math.round(value * 100.0) / 100.0);
+  }
+
+
+  // -------------------------------------------------------------------
+  // Result
+  // -------------------------------------------------------------------
+
+  public static class Result {
+
+    private final String name;
+    private final double[] nanosPerOp;
+    private final double[] bytesPerOp;
+
+    Result(String name, int iterations) {
+      this.name = name;
+      this.nanosPerOp = new double[iterations];
+      this.bytesPerOp = new double[iterations];
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public double getMeanNanosPerOp() {
+      return getMean(nanosPerOp);
+    }
+
+    public double getStdDevNanosPerOp() {
+      return getStdDev(nanosPerOp);
+    }
+
+    /**
+     * Returns the mean bytes allocated per operation or a negative
+     * value if the allocations were not measured.
+     */
+    public double getMeanBytesPerOp() {
+      return getMean(bytesPerOp);
+    }
+
+    /**
+     * Returns the median bytes allocated per operation over the
+     * iterations or a negative value if the allocations were not
+     * measured.
+     */
+    public double getMedianBytesPerOp() {
+      return getMedian(bytesPerOp);
+    }
+
+  } // Result
+
+
+  // -------------------------------------------------------------------
+  // Main
+  // -------------------------------------------------------------------
+
+  public static void main(String[] args) throws Exception {
+    String usage =
+      "Usage: BenchmarkRunner [-options]\n"
+      + "where options include:\n"
+      + "    -filter <text>            only run benchmarks whose name\n"
+      + "                              contains the text\n"
+      + "    -fixtures <dir>           set the benchmark fixture directory\n"
+      + "    -warmup <n>               set the number of warmup iterations\n"
+      + "    -iterations <n>           set the number of measured iterations\n"
+      + "    -time <millis>            set the time of each iteration\n"
+      + "    -limits <file>            fail if a benchmark allocates more\n"
+      + "                              bytes per operation than its limit\n"
+      + "    -out <file>               write the results to the file\n"
+      + "    -h                        show this help message\n";
+    ArgEnumerator a = new ArgEnumerator(args, usage, true);
+    String filter = null;
+    String fixtures = "bench/fixtures";
+    String limitsFile = null;
+    String outFile = null;
+    BenchmarkRunner runner = new BenchmarkRunner();
+    int warmup = runner.warmupIterations;
+    int iterations = runner.iterations;
+    int time = runner.iterationTime;
+    while (a.hasNext()) {
+      String arg = a.next();
+      if (arg.equals("-filter")) {
+	filter = a.getString("-filter");
+      } else if (arg.equals("-fixtures")) {
+	fixtures = a.getString("-fixtures");
+      } else if (arg.equals("-warmup")) {
+	warmup = a.getInt("-warmup");
+      } else if (arg.equals("-iterations")) {
+	iterations = a.getInt("-iterations");
+      } else if (arg.equals("-time")) {
+	time = a.getInt("-time");
+      } else if (arg.equals("-limits")) {
+	limitsFile = a.getString("-limits");
+      } else if (arg.equals("-out")) {
+	outFile = a.getString("-out");
+      } else {
+	System.err.println("Unknown argument '" + arg + '\'');
+	a.usage(1);
+      }
+    }
+    if (iterations < 1 || time < 1) {
+      a.usage(1);
+    }
+    runner.setWarmup(warmup, runner.warmupTime);
+    runner.setMeasurement(iterations, time);
+
+    Properties limits = null;
+    if (limitsFile != null) {
+      limits = new Properties();
+      InputStream input = new FileInputStream(limitsFile);
+      try {
+	limits.load(input);
+      } finally {
+	input.close();
+      }
+    }
+
+    ArrayList benchmarks = new ArrayList();
+    AgentWareBenchmarks.addBenchmarks(benchmarks, fixtures);
+
+    System.out.println("Benchmark                              ns/op"
+		       + "         sd       B/op");
+    for (int i = 0, n = benchmarks.size(); i < n; i++) {
+      Benchmark benchmark = (Benchmark) benchmarks.get(i);
+      String name = benchmark.getName();
+      if (filter != null && name.indexOf(filter) < 0) {
+	continue;
+      }
+      Result result = runner.run(benchmark);
+      StringBuffer sb = new StringBuffer();
+      sb.append(name);
+      pad(sb, format(result.getMeanNanosPerOp()), 45);
+      pad(sb, format(result.getStdDevNanosPerOp()), 56);
+      double bytes = result.getMedianBytesPerOp();
+      pad(sb, bytes < 0.0 ? "-" : format(bytes), 67);
+      System.out.println(sb);
+    }
+    if (outFile != null) {
+      runner.writeResults(outFile);
+    }
+    if (limits != null && runner.checkLimits(limits) > 0) {
+      System.exit(1);
+    }
+    System.exit(0);
+  }
+
+  // Appends the value right aligned so that it ends at the column
+  private static void pad(StringBuffer sb, String value, int column) {
+    sb.append(' ');
+    while (sb.length() + value.length() < column) {
+      sb.append(' ');
+    }
+    sb.append(value);
+  }
+
+} // BenchmarkRunner
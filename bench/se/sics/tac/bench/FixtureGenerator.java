@@ -0,0 +1,93 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * FixtureGenerator
+ *
+ * Created : 18 October, 2026
+ * Purpose : Plays one game between eight Phobos agents in the simulated
+ *           market with virtual time and saves the event log of the
+ *           first agent as games/<prefix>_GAME_1.events. The process
+ *           exits when the event log has been saved.
+ *
+ *           Usage: java se.sics.tac.bench.FixtureGenerator [-seed <n>]
+ *                  [-logPrefix <prefix>]
+ */
+
+package se.sics.tac.bench;
+import java.util.Properties;
+
+import se.sics.tac.aw.Phobos;
+import se.sics.tac.aw.TACAgent;
+import se.sics.tac.sim.Market;
+import se.sics.tac.util.ArgEnumerator;
+import se.sics.tac.util.Clock;
+import se.sics.tac.util.VirtualClock;
+
+public class FixtureGenerator {
+
+  private final static int AGENTS = 8;
+  private final static String HOST = "bench";
+
+  private FixtureGenerator() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    String usage =
+      "Usage: FixtureGenerator [-options]\n"
+      + "where options include:\n"
+      + "    -seed <n>                 set the market random seed\n"
+      + "    -logPrefix <prefix>       set the prefix of the event log\n"
+      + "    -h                        show this help message\n";
+    ArgEnumerator a = new ArgEnumerator(args, usage, true);
+    int seed = 4711;
+    String logPrefix = "fixture";
+    while (a.hasNext()) {
+      String arg = a.next();
+      if (arg.equals("-seed")) {
+	seed = a.getInt("-seed");
+      } else if (arg.equals("-logPrefix")) {
+	logPrefix = a.getString("-logPrefix");
+      } else {
+	System.err.println("Unknown argument '" + arg + '\'');
+	a.usage(1);
+      }
+    }
+
+    VirtualClock clock = new VirtualClock();
+    Clock.setDefault(clock);
+    Market.setMarket(HOST, new Market(seed, clock));
+
+    // Time must not pass until all agents have asked for their first game
+    clock.beginActivity();
+    try {
+      for (int i = 0; i < AGENTS; i++) {
+	String name = "Phobos" + (i + 1);
+	Properties p = new Properties();
+	p.setProperty("agent", name);
+	p.setProperty("password", name);
+	p.setProperty("host", HOST);
+	p.setProperty("connection", "se.sics.tac.aw.LocalTACConnection");
+	p.setProperty("virtualTime", "true");
+	p.setProperty("consoleLogLevel", "5");
+	p.setProperty("fileLogLevel", "6");
+	if (i == 0) {
+	  // The recording agent exits the process when the game has ended
+	  p.setProperty("eventLog", "true");
+	  p.setProperty("logPrefix", logPrefix);
+	  p.setProperty("exitAfterGames", "1");
+	}
+	new TACAgent(new Phobos(), new ArgEnumerator(new String[0], "", false),
+		     p);
+      }
+    } finally {
+      clock.endActivity();
+    }
+  }
+
+} // FixtureGenerator
@@ -0,0 +1,104 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * LatencyRecorder
+ *
+ * Created : 18 October, 2026
+ * Purpose : Records the tick-to-trade latency of one agent as seen by
+ *           the server: the time from when the most recent quote reply
+ *           (getQuote or getQuotes) was written to the agent until the
+ *           first bid from the agent after it has been read. Later
+ *           bids before the next quote are not counted. All times are
+ *           from System.nanoTime().
+ */
+
+package se.sics.tac.bench;
+import java.util.Arrays;
+
+public class LatencyRecorder {
+
+  private long[] samples = new long[256];
+  private int sampleCount = 0;
+
+  private long lastTick = -1L;
+  private long firstRequest = -1L;
+  private long lastRequest = -1L;
+  private int requestCount = 0;
+
+  private static boolean isBid(String type) {
+    return "submitBid".equals(type) || "replaceBid".equals(type);
+  }
+
+  private static boolean isQuote(String type) {
+    return "getQuote".equals(type) || "getQuotes".equals(type);
+  }
+
+  /**
+   * Called when a request from the agent has been read.
+   */
+  public synchronized void requestReceived(String type, long nanos) {
+    if (firstRequest < 0L) {
+      firstRequest = nanos;
+    }
+    lastRequest = nanos;
+    requestCount++;
+    if (isBid(type) && lastTick >= 0L) {
+      if (sampleCount == samples.length) {
+	long[] tmp = new long[sampleCount * 2];
+	System.arraycopy(samples, 0, tmp, 0, sampleCount);
+	samples = tmp;
+      }
+      samples[sampleCount++] = nanos - lastTick;
+      // Only the first bid after a quote is counted
+      lastTick = -1L;
+    }
+  }
+
+  /**
+   * Called when a reply has been written to the agent.
+   */
+  public synchronized void replySent(String type, long nanos) {
+    if (isQuote(type)) {
+      lastTick = nanos;
+    }
+  }
+
+  public synchronized int getSampleCount() {
+    return sampleCount;
+  }
+
+  public synchronized int getRequestCount() {
+    return requestCount;
+  }
+
+  /**
+   * Returns the number of requests per second from the first to the
+   * last request.
+   */
+  public synchronized double getThroughput() {
+    long time = lastRequest - firstRequest;
+    return time > 0L ? requestCount * 1e9 / time : 0.0;
+  }
+
+  /**
+   * Returns the latency in nanoseconds at the specified quantile (0-1)
+   * or -1 if no bids have been recorded.
+   */
+  public synchronized long getPercentile(double quantile) {
+    if (sampleCount == 0) {
+      return -1L;
+    }
+    long[] sorted = new long[sampleCount];
+    System.arraycopy(samples, 0, sorted, 0, sampleCount);
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(quantile * sampleCount) - 1;
+    return sorted[Math.max(0, Math.min(sampleCount - 1, index))];
+  }
+
+} // LatencyRecorder
@@ -0,0 +1,238 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * LoopbackServer
+ *
+ * Created : 18 October, 2026
+ * Purpose : Serves a simulated market (se.sics.tac.sim.Market) on the
+ *           loopback interface so that agents can connect through the
+ *           network connections of the agent ware: the TAC socket
+ *           protocol used by TACReader (requests and replies ended by
+ *           a zero byte) or the HTTP protocol used by TACHttpConnection.
+ *           The time each request is read and each reply is written is
+ *           reported to a LatencyRecorder.
+ */
+
+package se.sics.tac.bench;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import se.sics.tac.aw.TACMessage;
+import se.sics.tac.sim.Market;
+
+public class LoopbackServer {
+
+  private static final Logger log =
+    Logger.getLogger(LoopbackServer.class.getName());
+
+  private final Market market;
+  private final LatencyRecorder recorder;
+
+  private ServerSocket serverSocket;
+  private HttpServer httpServer;
+  private int port = -1;
+
+  public LoopbackServer(Market market, LatencyRecorder recorder) {
+    this.market = market;
+    this.recorder = recorder;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  /**
+   * Starts serving the TAC socket protocol on a free loopback port.
+   */
+  public synchronized void startSocket() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getByName(null));
+    port = serverSocket.getLocalPort();
+    Thread thread = new Thread("loopback.accept") {
+	public void run() {
+	  acceptConnections();
+	}
+      };
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Starts serving the HTTP protocol on a free loopback port.
+   */
+  public synchronized void startHttp() throws IOException {
+    httpServer = HttpServer.create(
+      new InetSocketAddress(InetAddress.getByName(null), 0), 50);
+    httpServer.createContext("/", new HttpHandler() {
+	public void handle(HttpExchange exchange) throws IOException {
+	  handleHttp(exchange);
+	}
+      });
+    httpServer.start();
+    port = httpServer.getAddress().getPort();
+  }
+
+  public synchronized void stop() {
+    if (serverSocket != null) {
+      try {
+	serverSocket.close();
+      } catch (IOException e) {
+	log.log(Level.WARNING, "could not close server socket", e);
+      }
+      serverSocket = null;
+    }
+    if (httpServer != null) {
+      httpServer.stop(0);
+      httpServer = null;
+    }
+  }
+
+
+  // -------------------------------------------------------------------
+  // TAC socket protocol
+  // -------------------------------------------------------------------
+
+  private void acceptConnections() {
+    try {
+      while (true) {
+	final Socket socket = serverSocket.accept();
+	Thread thread = new Thread("loopback.connection") {
+	    public void run() {
+	      handleConnection(socket);
+	    }
+	  };
+	thread.setDaemon(true);
+	thread.start();
+      }
+    } catch (IOException e) {
+      // The server socket has been closed
+    }
+  }
+
+  private void handleConnection(Socket socket) {
+    try {
+      socket.setTcpNoDelay(true);
+      InputStream input = new BufferedInputStream(socket.getInputStream());
+      OutputStream output = socket.getOutputStream();
+      ByteArrayOutputStream request = new ByteArrayOutputStream();
+      int userID = -1;
+      int c;
+      while ((c = input.read()) != -1) {
+	if (c != 0) {
+	  request.write(c);
+	  continue;
+	}
+	long time = System.nanoTime();
+	TACMessage msg = parseRequest(request.toString());
+	request.reset();
+	String type = msg.getType();
+	recorder.requestReceived(type, time);
+	if ("auth".equals(type)) {
+	  userID = market.login(msg.getParameter("userName"),
+				msg.getParameter("userPW"));
+	}
+	String reply = market.handle(userID, msg);
+	output.write(reply.getBytes());
+	output.write(0);
+	output.flush();
+	recorder.replySent(type, System.nanoTime());
+      }
+    } catch (IOException e) {
+      log.log(Level.FINE, "connection closed", e);
+    } finally {
+      try {
+	socket.close();
+      } catch (IOException e) {
+      }
+    }
+  }
+
+
+  // -------------------------------------------------------------------
+  // HTTP protocol
+  // -------------------------------------------------------------------
+
+  // The path of each request is /<user>/<password>
+  private void handleHttp(HttpExchange exchange) throws IOException {
+    try {
+      InputStream input = exchange.getRequestBody();
+      ByteArrayOutputStream request = new ByteArrayOutputStream();
+      byte[] buffer = new byte[1024];
+      int len;
+      while ((len = input.read(buffer)) > 0) {
+	request.write(buffer, 0, len);
+      }
+      long time = System.nanoTime();
+      TACMessage msg = parseRequest(request.toString());
+      String type = msg.getType();
+      recorder.requestReceived(type, time);
+
+      String path = exchange.getRequestURI().getPath();
+      int index = path.indexOf('/', 1);
+      int userID = index > 0
+	? market.login(path.substring(1, index), path.substring(index + 1))
+	: -1;
+      byte[] reply = market.handle(userID, msg).getBytes();
+      exchange.sendResponseHeaders(200, reply.length);
+      OutputStream output = exchange.getResponseBody();
+      output.write(reply);
+      output.close();
+      recorder.replySent(type, System.nanoTime());
+    } finally {
+      exchange.close();
+    }
+  }
+
+
+  // -------------------------------------------------------------------
+  // Request parsing
+  // -------------------------------------------------------------------
+
+  /**
+   * Parses a request as created by TACMessage.getMessageString() into a
+   * message with the same type and parameters.
+   */
+  static TACMessage parseRequest(String request) {
+    int end = request.indexOf('\0');
+    if (end >= 0) {
+      request = request.substring(0, end);
+    }
+    int typeEnd = request.indexOf('>');
+    if (!request.startsWith("<") || typeEnd < 0) {
+      throw new IllegalArgumentException("malformed request: " + request);
+    }
+    String type = request.substring(1, typeEnd);
+    TACMessage msg = new TACMessage(type);
+    String endTag = "</" + type + '>';
+    int pos = typeEnd + 1;
+    while (request.startsWith("<", pos) && !request.startsWith(endTag, pos)) {
+      int nameEnd = request.indexOf('>', pos);
+      String name = request.substring(pos + 1, nameEnd);
+      int valueEnd = request.indexOf("</" + name + '>', nameEnd);
+      if (valueEnd < 0) {
+	throw new IllegalArgumentException("malformed request: " + request);
+      }
+      msg.setParameter(name, request.substring(nameEnd + 1, valueEnd));
+      pos = valueEnd + name.length() + 3;
+    }
+    return msg;
+  }
+
+} // LoopbackServer
@@ -0,0 +1,52 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * ScaledClock
+ *
+ * Created : 18 October, 2026
+ * Purpose : A clock that runs a fixed number of times faster than the
+ *           system clock. Unlike a VirtualClock it never waits for the
+ *           agents, so the time taken to handle a message is real time
+ *           and a game simply passes faster.
+ */
+
+package se.sics.tac.bench;
+import se.sics.tac.util.Clock;
+
+public class ScaledClock extends Clock {
+
+  private final long startTime = System.currentTimeMillis();
+  private final double speed;
+
+  public ScaledClock(double speed) {
+    if (speed <= 0.0) {
+      throw new IllegalArgumentException("speed must be positive: " + speed);
+    }
+    this.speed = speed;
+  }
+
+  public double getSpeed() {
+    return speed;
+  }
+
+  public long currentTimeMillis() {
+    return startTime
+      + (long) ((System.currentTimeMillis() - startTime) * speed);
+  }
+
+  public void waitUntil(Object monitor, long time)
+    throws InterruptedException
+  {
+    long delay = time - currentTimeMillis();
+    if (delay > 0) {
+      monitor.wait(Math.max(1L, (long) (delay / speed)));
+    }
+  }
+
+} // ScaledClock
@@ -0,0 +1,375 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * TickToTradeBenchmark
+ *
+ * Created : 18 October, 2026
+ * Purpose : Measures the tick-to-trade latency of an agent: the time
+ *           from when a server reply (such as a quote) has been written
+ *           to the agent until the resulting bid has been read by the
+ *           server. Each combination of connection and agent
+ *           implementation plays one game in a separate process against
+ *           a simulated market running faster than real time. The
+ *           measured agent connects through the given TACConnection
+ *           (the network connections to a LoopbackServer) while the
+ *           other seven agents are DummyAgents in the same process.
+ *
+ *           Reports the 50th, 99th, and 99.9th percentile latency and
+ *           the request throughput of the measured agent.
+ *
+ *           Usage: java se.sics.tac.bench.TickToTradeBenchmark
+ *                  [-connection <className>]... [-agent <className>]...
+ *                  [-speed <n>] [-seed <n>] [-out <file>]
+ */
+
+package se.sics.tac.bench;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Properties;
+
+import se.sics.tac.aw.AgentImpl;
+import se.sics.tac.aw.DummyAgent;
+import se.sics.tac.aw.TACAgent;
+import se.sics.tac.aw.TACMessage;
+import se.sics.tac.sim.GameListener;
+import se.sics.tac.sim.GameResult;
+import se.sics.tac.sim.Market;
+import se.sics.tac.util.ArgEnumerator;
+import se.sics.tac.util.Clock;
+
+public class TickToTradeBenchmark implements GameListener {
+
+  private final static String HOST = "bench";
+  private final static String AGENT_NAME = "Bench1";
+  private final static int AGENTS = 8;
+
+  private final static String LOCAL_CONNECTION =
+    "se.sics.tac.aw.LocalTACConnection";
+  private final static String SOCKET_CONNECTION = "se.sics.tac.aw.TACReader";
+  private final static String HTTP_CONNECTION =
+    "se.sics.tac.aw.TACHttpConnection";
+
+  // Marks the result line written by a benchmark process
+  private final static String RESULT = "result";
+
+  private final LatencyRecorder recorder = new LatencyRecorder();
+  private boolean isFinished = false;
+
+  private TickToTradeBenchmark() {
+  }
+
+  // Plays one game and returns the result line
+  private String runGame(String connection, String agentClass, double speed,
+			 long seed) throws Exception {
+    ScaledClock clock = new ScaledClock(speed);
+    Clock.setDefault(clock);
+
+    boolean isLocal = LOCAL_CONNECTION.equals(connection);
+    Market market = new TimedMarket(seed, clock, isLocal ? recorder : null);
+    market.addGameListener(this);
+    Market.setMarket(HOST, market);
+
+    String host = HOST;
+    int port = 6500;
+    LoopbackServer server = null;
+    if (!isLocal) {
+      server = new LoopbackServer(market, recorder);
+      if (HTTP_CONNECTION.equals(connection)) {
+	server.startHttp();
+      } else {
+	server.startSocket();
+      }
+      host = "127.0.0.1";
+      port = server.getPort();
+    }
+
+    AgentImpl agent = (AgentImpl) Class.forName(agentClass)
+      .getDeclaredConstructor().newInstance();
+    createAgent(agent, AGENT_NAME, host, port, connection);
+    for (int i = 2; i <= AGENTS; i++) {
+      createAgent(new DummyAgent(), "Dummy" + i, HOST, port,
+		  LOCAL_CONNECTION);
+    }
+
+    synchronized (this) {
+      while (!isFinished) {
+	wait();
+      }
+    }
+    if (server != null) {
+      server.stop();
+    }
+    return RESULT + '\t' + connection + '\t' + agentClass
+      + '\t' + recorder.getSampleCount()
+      + '\t' + recorder.getPercentile(0.5)
+      + '\t' + recorder.getPercentile(0.99)
+      + '\t' + recorder.getPercentile(0.999)
+      + '\t' + recorder.getPercentile(1.0)
+      + '\t' + recorder.getThroughput();
+  }
+
+  private void createAgent(AgentImpl agent, String name, String host,
+			   int port, String connection) {
+    Properties p = new Properties();
+    p.setProperty("agent", name);
+    p.setProperty("password", name);
+    p.setProperty("host", host);
+    p.setProperty("port", Integer.toString(port));
+    p.setProperty("connection", connection);
+    p.setProperty("consoleLogLevel", "6");
+    p.setProperty("fileLogLevel", "6");
+    new TACAgent(agent, new ArgEnumerator(new String[0], "", false), p);
+  }
+
+  public synchronized void gameFinished(Market market, GameResult result) {
+    isFinished = true;
+    notifyAll();
+  }
+
+
+  // -------------------------------------------------------------------
+  // Market recording the requests of the measured agent
+  // -------------------------------------------------------------------
+
+  // Used for the in-process connection where the market is called
+  // directly by the agent ware
+  private static class TimedMarket extends Market {
+
+    private final LatencyRecorder recorder;
+    private int userID = -1;
+
+    TimedMarket(long seed, Clock clock, LatencyRecorder recorder) {
+      super(seed, clock);
+      this.recorder = recorder;
+    }
+
+    public synchronized int login(String name, String password) {
+      int id = super.login(name, password);
+      if (AGENT_NAME.equals(name)) {
+	userID = id;
+      }
+      return id;
+    }
+
+    public String handle(int userID, TACMessage msg) {
+      if (recorder == null || userID != this.userID) {
+	return super.handle(userID, msg);
+      }
+      recorder.requestReceived(msg.getType(), System.nanoTime());
+      String reply = super.handle(userID, msg);
+      recorder.replySent(msg.getType(), System.nanoTime());
+      return reply;
+    }
+
+  } // TimedMarket
+
+
+  // -------------------------------------------------------------------
+  // Benchmark processes
+  // -------------------------------------------------------------------
+
+  // Runs one combination in a separate process and returns its result
+  // fields (without the result marker)
+  private static String[] runProcess(String connection, String agentClass,
+				     double speed, long seed)
+    throws IOException, InterruptedException
+  {
+    ArrayList command = new ArrayList();
+    command.add(System.getProperty("java.home") + File.separator + "bin"
+		+ File.separator + "java");
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(TickToTradeBenchmark.class.getName());
+    command.add("-run");
+    command.add("-connection");
+    command.add(connection);
+    command.add("-agent");
+    command.add(agentClass);
+    command.add("-speed");
+    command.add(Double.toString(speed));
+    command.add("-seed");
+    command.add(Long.toString(seed));
+    ProcessBuilder pb = new ProcessBuilder(command);
+    pb.redirectErrorStream(true);
+    Process process = pb.start();
+
+    String result = null;
+    ArrayList output = new ArrayList();
+    BufferedReader reader =
+      new BufferedReader(new InputStreamReader(process.getInputStream()));
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+	if (line.startsWith(RESULT + '\t')) {
+	  result = line.substring(RESULT.length() + 1);
+	} else {
+	  output.add(line);
+	  if (output.size() > 20) {
+	    output.remove(0);
+	  }
+	}
+      }
+    } finally {
+      reader.close();
+    }
+    int status = process.waitFor();
+    if (status != 0 || result == null) {
+      for (int i = 0, n = output.size(); i < n; i++) {
+	System.err.println(output.get(i));
+      }
+      throw new IOException("benchmark of " + agentClass + " over "
+			    + connection + " failed with status " + status);
+    }
+    return result.split("\t");
+  }
+
+  private static String formatMicros(String nanos) {
+    long value = Long.parseLong(nanos);
+    if (value < 0L) {
+      return "-";
+    }
+    return Long.toString((value + 500L) / 1000L);
+  }
+
+  private static String getShortName(String className) {
+    return className.substring(className.lastIndexOf('.') + 1);
+  }
+
+  // Appends the value right aligned so that it ends at the column
+  private static void pad(StringBuffer sb, String value, int column) {
+    sb.append(' ');
+    while (sb.length() + value.length() < column) {
+      sb.append(' ');
+    }
+    sb.append(value);
+  }
+
+  // Appends the value left aligned in a field of the specified width
+  private static void padRight(StringBuffer sb, String value, int width) {
+    int end = sb.length() + width;
+    sb.append(value);
+    do {
+      sb.append(' ');
+    } while (sb.length() < end);
+  }
+
+
+  // -------------------------------------------------------------------
+  // Main
+  // -------------------------------------------------------------------
+
+  public static void main(String[] args) throws Exception {
+    String usage =
+      "Usage: TickToTradeBenchmark [-options]\n"
+      + "where options include:\n"
+      + "    -connection <className>   add a connection to measure\n"
+      + "    -agent <className>        add an agent implementation to measure\n"
+      + "    -speed <n>                set how many times faster than real\n"
+      + "                              time the games are played\n"
+      + "    -seed <n>                 set the market random seed\n"
+      + "    -out <file>               write the results to the file\n"
+      + "    -h                        show this help message\n";
+    ArgEnumerator a = new ArgEnumerator(args, usage, true);
+    ArrayList connections = new ArrayList();
+    ArrayList agents = new ArrayList();
+    double speed = 10.0;
+    long seed = 4711L;
+    String outFile = null;
+    boolean isRun = false;
+    while (a.hasNext()) {
+      String arg = a.next();
+      if (arg.equals("-connection")) {
+	connections.add(getClassName(a.getString("-connection")));
+      } else if (arg.equals("-agent")) {
+	agents.add(getClassName(a.getString("-agent")));
+      } else if (arg.equals("-speed")) {
+	speed = Double.parseDouble(a.getString("-speed"));
+      } else if (arg.equals("-seed")) {
+	seed = Long.parseLong(a.getString("-seed"));
+      } else if (arg.equals("-out")) {
+	outFile = a.getString("-out");
+      } else if (arg.equals("-run")) {
+	isRun = true;
+      } else {
+	System.err.println("Unknown argument '" + arg + '\'');
+	a.usage(1);
+      }
+    }
+    if (connections.size() == 0) {
+      connections.add(LOCAL_CONNECTION);
+      connections.add(SOCKET_CONNECTION);
+      connections.add(HTTP_CONNECTION);
+    }
+    if (agents.size() == 0) {
+      agents.add("se.sics.tac.aw.DummyAgent");
+      agents.add("se.sics.tac.aw.Phobos");
+    }
+
+    if (isRun) {
+      // Benchmark process: play one game with the first combination
+      TickToTradeBenchmark benchmark = new TickToTradeBenchmark();
+      System.out.println(benchmark.runGame((String) connections.get(0),
+					   (String) agents.get(0),
+					   speed, seed));
+      System.exit(0);
+    }
+
+    PrintWriter out = outFile == null ? null
+      : new PrintWriter(new FileWriter(outFile));
+    if (out != null) {
+      out.println("connection\tagent\tbids\tp50Nanos\tp99Nanos\tp999Nanos"
+		  + "\tmaxNanos\trequestsPerSecond");
+    }
+    System.out.println("Connection          Agent          bids  p50(us)"
+		       + "  p99(us) p99.9(us)  max(us)    req/s");
+    try {
+      for (int c = 0, n = connections.size(); c < n; c++) {
+	for (int g = 0, m = agents.size(); g < m; g++) {
+	  String[] result = runProcess((String) connections.get(c),
+				       (String) agents.get(g), speed, seed);
+	  StringBuffer sb = new StringBuffer();
+	  padRight(sb, getShortName(result[0]), 20);
+	  padRight(sb, getShortName(result[1]), 12);
+	  pad(sb, result[2], 39);
+	  pad(sb, formatMicros(result[3]), 48);
+	  pad(sb, formatMicros(result[4]), 57);
+	  pad(sb, formatMicros(result[5]), 67);
+	  pad(sb, formatMicros(result[6]), 76);
+	  pad(sb, Long.toString(Math.round(Double.parseDouble(result[7]))), 85);
+	  System.out.println(sb);
+	  if (out != null) {
+	    StringBuffer line = new StringBuffer();
+	    for (int i = 0; i < result.length; i++) {
+	      if (i > 0) {
+		line.append('\t');
+	      }
+	      line.append(result[i]);
+	    }
+	    out.println(line);
+	  }
+	}
+      }
+    } finally {
+      if (out != null) {
+	out.close();
+      }
+    }
+    System.exit(0);
+  }
+
+  private static String getClassName(String name) {
+    return name.indexOf('.') < 0 ? "se.sics.tac.aw." + name : name;
+  }
+
+} // TickToTradeBenchmark
@@ -1,4 +1,5 @@
 javac -classpath . com/botbox/util/*.java
 javac -classpath . se/sics/tac/util/*.java
 javac -classpath . se/sics/tac/aw/*.java
-jar cfm tacagent.jar AWManifest.txt com/botbox/util/*.class se/sics/tac/aw/*.class se/sics/tac/util/*.class
+javac -classpath . se/sics/tac/sim/*.java
+jar cfm tacagent.jar AWManifest.txt com/botbox/util/*.class se/sics/tac/aw/*.class se/sics/tac/util/*.class se/sics/tac/sim/*.class
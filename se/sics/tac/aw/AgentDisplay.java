@@ -39,6 +39,9 @@ import javax.swing.table.TableModel;
 
 public class AgentDisplay implements ActionListener, WindowListener {
 
+  // Milliseconds between the repaints of the changed table rows
+  private final static int TICK = 250;
+
   private JFrame window;
   private JTable agentTable;
   private TACAgent agent;
@@ -60,7 +63,7 @@ public class AgentDisplay implements ActionListener, WindowListener {
     panel.add(new JScrollPane(agentTable), BorderLayout.CENTER);
     panel.add(status = new JLabel(" - "), BorderLayout.SOUTH);
     window.getContentPane().add(panel);
-    timer = new Timer(1000, this);
+    timer = new Timer(TICK, this);
   }
 
   public void setVisible(boolean visible) {
@@ -94,9 +97,14 @@ public class AgentDisplay implements ActionListener, WindowListener {
 	isClosing = false;
 	setVisible(false);
       } else {
-	status.setText("Messages sent: " + TACMessage.getMessageCount() +
+	agent.updateDisplay();
+	LatencyHistogram total = agent.getMessageStatistics().getTotal();
+	status.setText("Messages sent: " + total.getCount() +
 		       "  Avg. response time: " +
-		       TACMessage.getAverageResponseTime() + " msek" +
+		       MessageStatistics.toMillis(Math.round(total.getMean())) +
+		       " msek  p99: " +
+		       MessageStatistics.toMillis(total.getPercentile(0.99)) +
+		       " msek" +
 		       "  Time left: " + agent.getGameTimeLeftAsString());
       }
     }
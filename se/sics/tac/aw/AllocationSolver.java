@@ -0,0 +1,462 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * AllocationSolver
+ *
+ * Created : 18 October, 2026
+ * Purpose : Finds the allocation of flights and hotels to the eight
+ *	     clients that maximizes the total trip utility minus the cost
+ *	     of the goods that must be bought.
+ *
+ *	     Each good has a number of free units (already owned or
+ *	     assumed to be won), a price for any further unit and an
+ *	     optional limit on the total number of units. The solver does
+ *	     a branch and bound search over the trips of each client with
+ *	     an optimistic bound per client, and works on primitive arrays
+ *	     only so it can be run many times per quote round.
+ *
+ *	     Entertainment is not part of the allocation.
+ */
+
+package se.sics.tac.aw;
+
+public class AllocationSolver {
+
+	public static final int CLIENTS = 8;
+
+	/** Used as limit for goods that can be bought without limit */
+	public static final int NO_LIMIT = -1;
+
+	// Only flights and hotels are allocated (auctions 0 - 15)
+	private static final int GOODS = TACAgent.MIN_ENTERTAINMENT;
+
+	// All trips: in day 1 - 4, out day 2 - 5 and two hotel types
+	private static final int TRIPS = 20;
+
+	// Number of cost adjustments for the Lagrangian bound
+	private static final int LAGRANGE_ITERATIONS = 8;
+	private static final int[] tripIn = new int[TRIPS];
+	private static final int[] tripOut = new int[TRIPS];
+	private static final int[] tripType = new int[TRIPS];
+	private static final int[][] tripGoods = new int[TRIPS][];
+
+	static {
+		int trip = 0;
+		for (int in = 1; in < 5; in++) {
+			for (int out = in + 1; out < 6; out++) {
+				for (int type = TACAgent.TYPE_CHEAP_HOTEL;
+						type <= TACAgent.TYPE_GOOD_HOTEL; type++) {
+					int[] goods = new int[2 + out - in];
+					goods[0] = TACAgent.getAuctionFor(TACAgent.CAT_FLIGHT,
+							TACAgent.TYPE_INFLIGHT, in);
+					goods[1] = TACAgent.getAuctionFor(TACAgent.CAT_FLIGHT,
+							TACAgent.TYPE_OUTFLIGHT, out);
+					for (int day = in; day < out; day++) {
+						goods[2 + day - in] =
+							TACAgent.getAuctionFor(TACAgent.CAT_HOTEL, type, day);
+					}
+					tripIn[trip] = in;
+					tripOut[trip] = out;
+					tripType[trip] = type;
+					tripGoods[trip] = goods;
+					trip++;
+				}
+			}
+		}
+	}
+
+	// Client preferences
+	private final int[] arrival = new int[CLIENTS];
+	private final int[] departure = new int[CLIENTS];
+	private final int[] hotelValue = new int[CLIENTS];
+
+	// Market
+	private final int[] free = new int[GOODS];
+	private final int[] limit = new int[GOODS];
+	private final float[] price = new float[GOODS];
+
+	// Search state
+	private final float[][] tripUtility = new float[CLIENTS][TRIPS];
+	private final int[][] tripOrder = new int[CLIENTS][TRIPS + 1];
+	private final int[] clientOrder = new int[CLIENTS];
+	private final float[] optimistic = new float[CLIENTS];
+	private final float[] tripBound = new float[TRIPS];
+	private final float[] remainingBound = new float[CLIENTS + 1];
+	private final int[] usage = new int[GOODS];
+	private final int[] demand = new int[GOODS];
+	private final float[] lambda = new float[GOODS];
+	private final int[] current = new int[CLIENTS];
+	private final int[] best = new int[CLIENTS];
+	private float bestValue;
+	private long nodes;
+
+	public AllocationSolver() {
+		for (int a = 0; a < GOODS; a++) {
+			limit[a] = NO_LIMIT;
+		}
+	}
+
+	public void setClient(int client, int arrival, int departure,
+			int hotelValue) {
+		this.arrival[client] = arrival;
+		this.departure[client] = departure;
+		this.hotelValue[client] = hotelValue;
+		for (int trip = 0; trip < TRIPS; trip++) {
+			float utility = 1000 - 100 * (Math.abs(tripIn[trip] - arrival)
+					+ Math.abs(departure - tripOut[trip]));
+			if (tripType[trip] == TACAgent.TYPE_GOOD_HOTEL) {
+				utility += hotelValue;
+			}
+			tripUtility[client][trip] = utility;
+		}
+	}
+
+	/**
+	 * Sets the client preferences from the current game.
+	 */
+	public void setClients(TACAgent agent) {
+		for (int client = 0; client < CLIENTS; client++) {
+			setClient(client,
+					agent.getClientPreference(client, TACAgent.ARRIVAL),
+					agent.getClientPreference(client, TACAgent.DEPARTURE),
+					agent.getClientPreference(client, TACAgent.HOTEL_VALUE));
+		}
+	}
+
+	/**
+	 * Sets the market for a good.
+	 * @param auction the flight or hotel auction
+	 * @param free the number of units available without cost
+	 * @param price the price of each unit beyond the free units
+	 * @param limit the maximal number of units or NO_LIMIT
+	 */
+	public void setGood(int auction, int free, float price, int limit) {
+		this.free[auction] = free;
+		this.price[auction] = price;
+		this.limit[auction] = limit;
+	}
+
+	public int getFree(int auction) {
+		return free[auction];
+	}
+
+	public float getPrice(int auction) {
+		return price[auction];
+	}
+
+	public int getLimit(int auction) {
+		return limit[auction];
+	}
+
+	/**
+	 * Finds the best allocation for the current market.
+	 * @return the value (utility minus cost) of the best allocation
+	 */
+	public float solve() {
+		nodes = 0;
+		prepareSearch();
+		for (int c = 0; c < CLIENTS; c++) {
+			best[c] = -1;
+		}
+		bestValue = 0f;
+		greedy();
+		for (int a = 0; a < GOODS; a++) {
+			usage[a] = 0;
+		}
+		search(0, 0f);
+		return bestValue;
+	}
+
+	/**
+	 * @return the index of the trip given to the client in the last
+	 * solution or -1 if the client got no trip
+	 */
+	public int getTrip(int client) {
+		return best[client];
+	}
+
+	public static int getTripCount() {
+		return TRIPS;
+	}
+
+	public static int getInFlight(int trip) {
+		return tripIn[trip];
+	}
+
+	public static int getOutFlight(int trip) {
+		return tripOut[trip];
+	}
+
+	public static int getHotelType(int trip) {
+		return tripType[trip];
+	}
+
+	/**
+	 * @return the number of units of the good used by the last solution
+	 */
+	public int getUsage(int auction) {
+		int units = 0;
+		for (int c = 0; c < CLIENTS; c++) {
+			int trip = best[c];
+			if (trip >= 0) {
+				int[] goods = tripGoods[trip];
+				for (int i = 0, n = goods.length; i < n; i++) {
+					if (goods[i] == auction) {
+						units++;
+					}
+				}
+			}
+		}
+		return units;
+	}
+
+	/**
+	 * @return the number of search nodes visited by the last solve
+	 */
+	public long getNodeCount() {
+		return nodes;
+	}
+
+	// Computes the optimistic value of each client and orders clients and
+	// trips with the most promising first
+	private void prepareSearch() {
+		for (int c = 0; c < CLIENTS; c++) {
+			float[] utility = tripUtility[c];
+			int[] order = tripOrder[c];
+			float[] bound = tripBound;
+			int count = 0;
+			float clientBest = 0f;
+			for (int trip = 0; trip < TRIPS; trip++) {
+				// Units beyond the free ones are always paid
+				float value = utility[trip];
+				int[] goods = tripGoods[trip];
+				boolean feasible = true;
+				for (int i = 0, n = goods.length; i < n; i++) {
+					int a = goods[i];
+					if (limit[a] == 0) {
+						feasible = false;
+						break;
+					}
+					if (free[a] <= 0) {
+						value -= price[a];
+					}
+				}
+				if (feasible && value > 0f) {
+					// Insertion sort on the optimistic value
+					int pos = count++;
+					while (pos > 0 && bound[pos - 1] < value) {
+						bound[pos] = bound[pos - 1];
+						order[pos] = order[pos - 1];
+						pos--;
+					}
+					bound[pos] = value;
+					order[pos] = trip;
+					if (value > clientBest) {
+						clientBest = value;
+					}
+				}
+			}
+			order[count] = -1;
+			optimistic[c] = clientBest;
+		}
+
+		for (int c = 0; c < CLIENTS; c++) {
+			int pos = c;
+			while (pos > 0 && optimistic[clientOrder[pos - 1]] < optimistic[c]) {
+				clientOrder[pos] = clientOrder[pos - 1];
+				pos--;
+			}
+			clientOrder[pos] = c;
+		}
+		remainingBound[CLIENTS] = 0f;
+		for (int i = CLIENTS - 1; i >= 0; i--) {
+			remainingBound[i] = remainingBound[i + 1] + optimistic[clientOrder[i]];
+		}
+	}
+
+	// Gives each client in turn its best trip given the earlier clients
+	// to start the search with a good incumbent
+	private void greedy() {
+		for (int a = 0; a < GOODS; a++) {
+			usage[a] = 0;
+		}
+		float value = 0f;
+		for (int i = 0; i < CLIENTS; i++) {
+			int client = clientOrder[i];
+			int[] order = tripOrder[client];
+			int bestTrip = -1;
+			float bestTripValue = 0f;
+			for (int j = 0; order[j] >= 0; j++) {
+				int trip = order[j];
+				float v = getTripValue(client, trip);
+				if (v > bestTripValue) {
+					bestTripValue = v;
+					bestTrip = trip;
+				}
+			}
+			current[client] = bestTrip;
+			if (bestTrip >= 0) {
+				addTrip(bestTrip);
+				value += bestTripValue;
+			}
+		}
+		bestValue = value;
+		System.arraycopy(current, 0, best, 0, CLIENTS);
+	}
+
+	private void search(int depth, float value) {
+		nodes++;
+		if (depth == CLIENTS) {
+			if (value > bestValue) {
+				bestValue = value;
+				System.arraycopy(current, 0, best, 0, CLIENTS);
+			}
+			return;
+		}
+		if (value + remainingBound[depth] <= bestValue
+				|| value + getBound(depth) <= bestValue) {
+			return;
+		}
+
+		int client = clientOrder[depth];
+		int[] order = tripOrder[client];
+		for (int j = 0; order[j] >= 0; j++) {
+			int trip = order[j];
+			float v = getTripValue(client, trip);
+			if (v > 0f) {
+				current[client] = trip;
+				addTrip(trip);
+				search(depth + 1, value + v);
+				removeTrip(trip);
+			}
+		}
+		current[client] = -1;
+		search(depth + 1, value);
+	}
+
+	// Returns an upper bound on the value the clients from the depth on
+	// can add. The first bound gives each client its best trip as if it
+	// alone could use the free units that are left. The second is a
+	// Lagrangian bound where each free unit that is left is given a cost
+	// between 0 and its price, adjusted by the demand for it.
+	private float getBound(int depth) {
+		float bound = 0f;
+		for (int i = depth; i < CLIENTS; i++) {
+			int client = clientOrder[i];
+			int[] order = tripOrder[client];
+			float clientBest = 0f;
+			for (int j = 0; order[j] >= 0; j++) {
+				float v = getTripValue(client, order[j]);
+				if (v > clientBest) {
+					clientBest = v;
+				}
+			}
+			bound += clientBest;
+		}
+
+		for (int a = 0; a < GOODS; a++) {
+			lambda[a] = price[a];
+		}
+		float step = 0.5f;
+		for (int iteration = 0; iteration < LAGRANGE_ITERATIONS; iteration++) {
+			float lagrange = 0f;
+			for (int a = 0; a < GOODS; a++) {
+				demand[a] = 0;
+				if (free[a] > usage[a]) {
+					lagrange += lambda[a] * (free[a] - usage[a]);
+				}
+			}
+			for (int i = depth; i < CLIENTS; i++) {
+				int client = clientOrder[i];
+				int[] order = tripOrder[client];
+				float clientBest = 0f;
+				int bestTrip = -1;
+				for (int j = 0; order[j] >= 0; j++) {
+					int trip = order[j];
+					float v = tripUtility[client][trip];
+					int[] goods = tripGoods[trip];
+					for (int k = 0, n = goods.length; k < n; k++) {
+						int a = goods[k];
+						if (limit[a] >= 0 && usage[a] >= limit[a]) {
+							v = 0f;
+							break;
+						}
+						v -= lambda[a];
+					}
+					if (v > clientBest) {
+						clientBest = v;
+						bestTrip = trip;
+					}
+				}
+				if (bestTrip >= 0) {
+					int[] goods = tripGoods[bestTrip];
+					for (int k = 0, n = goods.length; k < n; k++) {
+						demand[goods[k]]++;
+					}
+				}
+				lagrange += clientBest;
+			}
+			if (lagrange < bound) {
+				bound = lagrange;
+			}
+
+			// Free units in short supply should cost more and vice versa
+			boolean changed = false;
+			for (int a = 0; a < GOODS; a++) {
+				int left = free[a] - usage[a];
+				if (left > 0 && demand[a] != left) {
+					float l = lambda[a] + (demand[a] > left ? step : -step) * price[a];
+					l = l < 0f ? 0f : (l > price[a] ? price[a] : l);
+					if (l != lambda[a]) {
+						lambda[a] = l;
+						changed = true;
+					}
+				}
+			}
+			if (!changed) {
+				break;
+			}
+			step *= 0.5f;
+		}
+		return bound;
+	}
+
+	// Returns the utility minus the cost of the trip given the current
+	// usage or a negative value if the trip is not feasible
+	private float getTripValue(int client, int trip) {
+		float value = tripUtility[client][trip];
+		int[] goods = tripGoods[trip];
+		for (int i = 0, n = goods.length; i < n; i++) {
+			int a = goods[i];
+			int units = usage[a] + 1;
+			if (limit[a] >= 0 && units > limit[a]) {
+				return -1f;
+			}
+			if (units > free[a]) {
+				value -= price[a];
+			}
+		}
+		return value;
+	}
+
+	private void addTrip(int trip) {
+		int[] goods = tripGoods[trip];
+		for (int i = 0, n = goods.length; i < n; i++) {
+			usage[goods[i]]++;
+		}
+	}
+
+	private void removeTrip(int trip) {
+		int[] goods = tripGoods[trip];
+		for (int i = 0, n = goods.length; i < n; i++) {
+			usage[goods[i]]--;
+		}
+	}
+
+} // AllocationSolver
@@ -26,6 +26,8 @@
 package se.sics.tac.aw;
 import java.util.StringTokenizer;
 
+import se.sics.tac.util.Clock;
+
 public class Bid {
 
   public final static String EMPTY_BID_STRING = "()";
@@ -102,6 +104,12 @@ public class Bid {
   private Bid replacing;
   private long timeSubmitted = 0L;
 
+  // Order in which the agent ware has seen this bid instance in the game
+  private int sequence = -1;
+
+  // The lifecycle record of this bid in the BidTracker
+  private int trackerRecord = -1;
+
   // Transaction clearing
   private int clearID = -1;
   private String clearHash;
@@ -126,9 +134,26 @@ public class Bid {
     this.timeProcessed = oldBid.timeProcessed;
     this.timeClosed = timeClosed;
     this.timeSubmitted = timeSubmitted;
+    this.trackerRecord = oldBid.trackerRecord;
     parseBidString(bidString);
   }
 
+  void setSequence(int sequence) {
+    this.sequence = sequence;
+  }
+
+  int getSequence() {
+    return sequence;
+  }
+
+  void setTrackerRecord(int record) {
+    this.trackerRecord = record;
+  }
+
+  int getTrackerRecord() {
+    return trackerRecord;
+  }
+
   // Should this be public? FIX THIS!!
   private boolean isSubmitted() {
     return timeSubmitted > 0;
@@ -138,7 +163,8 @@ public class Bid {
     if (timeSubmitted > 0) {
       throw new IllegalStateException("Bid already submitted");
     }
-    timeSubmitted = System.currentTimeMillis();
+    timeSubmitted = Clock.getDefault().currentTimeMillis();
+    recordTransition("created", "submitted");
   }
 
   void setID(int bidID) {
@@ -146,6 +172,7 @@ public class Bid {
       throw new IllegalStateException("Bid ID already set " + id);
     }
     id = bidID;
+    recordTransition("submitted", "accepted");
   }
 
   void setRejectReason(int reason) {
@@ -189,7 +216,23 @@ public class Bid {
   }
 
   void setProcessingState(int state) {
-    processingState = state;
+    if (state != processingState) {
+      String from = getProcessingStateAsString();
+      processingState = state;
+      recordTransition(from, getProcessingStateAsString());
+    }
+  }
+
+  private void recordTransition(String from, String to) {
+    FlightEvents.BidTransition event = new FlightEvents.BidTransition();
+    if (event.shouldCommit()) {
+      event.auction = auction;
+      event.bidID = id;
+      event.from = from;
+      event.to = to;
+      event.rejectReason = rejectReason;
+      event.commit();
+    }
   }
 
   public int getProcessingState() {
@@ -0,0 +1,422 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * BidTracker
+ *
+ * Created : 18 October, 2026
+ * Purpose : Follows each bid of the current game from submission,
+ *           through the server reply and bid info, to its final
+ *           state (including bids reverted or replaced by the agent
+ *           ware), and aggregates per auction category how long the
+ *           server takes to acknowledge and process the bids and
+ *           where the bids end up. The records are kept in primitive
+ *           columns indexed by bid ID and by auction.
+ */
+
+package se.sics.tac.aw;
+import se.sics.tac.util.IntIntMap;
+
+public class BidTracker {
+
+  /** Outcome of a bid that could not be placed (the auction had closed) */
+  public final static int ERROR = 7;
+
+  // Outcomes are the processing states of Bid plus ERROR
+  private final static String[] outcomeName = {
+    "unprocessed",
+    "rejected",
+    "valid",
+    "withdrawn",
+    "transacted",
+    "replaced",
+    "expired",
+    "error"
+  };
+
+  private final static int CATEGORIES = 3;
+
+  // Bid records of the current game (one per submitted bid)
+  private int[] auction = new int[256];
+  private int[] bidID = new int[256];
+  private int[] outcome = new int[256];
+  private int[] rejectReason = new int[256];
+  private int[] transacted = new int[256];
+  private long[] submitNanos = new long[256];
+  private long[] ackMicros = new long[256];
+  private long[] processedMicros = new long[256];
+  private int recordCount = 0;
+
+  private final IntIntMap recordByID = new IntIntMap(256, -1);
+  private final int[][] recordsByAuction = new int[TACAgent.getAuctionNo()][];
+  private final int[] recordsByAuctionCount = new int[TACAgent.getAuctionNo()];
+
+  // Statistics over all games per auction category
+  private final LatencyHistogram[] ackLatency =
+    new LatencyHistogram[CATEGORIES];
+  private final LatencyHistogram[] processedLatency =
+    new LatencyHistogram[CATEGORIES];
+  private final long[] submitted = new long[CATEGORIES];
+  private final long[][] outcomes = new long[CATEGORIES][outcomeName.length];
+
+  public BidTracker() {
+    for (int i = 0; i < CATEGORIES; i++) {
+      ackLatency[i] = new LatencyHistogram();
+      processedLatency[i] = new LatencyHistogram();
+    }
+    for (int i = 0, n = recordsByAuction.length; i < n; i++) {
+      recordsByAuction[i] = new int[16];
+    }
+  }
+
+  public static String outcomeToString(int outcome) {
+    return outcome >= 0 && outcome < outcomeName.length
+      ? outcomeName[outcome]
+      : Integer.toString(outcome);
+  }
+
+  /**
+   * Forgets the bid records of the previous game (the statistics are
+   * kept).
+   */
+  public synchronized void clear() {
+    recordCount = 0;
+    recordByID.clear();
+    for (int i = 0, n = recordsByAuctionCount.length; i < n; i++) {
+      recordsByAuctionCount[i] = 0;
+    }
+  }
+
+
+  // -------------------------------------------------------------------
+  // Bid lifecycle (called by the agent ware)
+  // -------------------------------------------------------------------
+
+  synchronized void submitted(Bid bid, Bid replacedBid) {
+    if (recordCount == auction.length) {
+      grow(recordCount * 2);
+    }
+    int record = recordCount++;
+    int auction = bid.getAuction();
+    this.auction[record] = auction;
+    this.bidID[record] = Bid.NO_ID;
+    this.outcome[record] = Bid.UNPROCESSED;
+    this.rejectReason[record] = Bid.NOT_REJECTED;
+    this.transacted[record] = 0;
+    this.submitNanos[record] = System.nanoTime();
+    this.ackMicros[record] = -1L;
+    this.processedMicros[record] = -1L;
+    bid.setTrackerRecord(record);
+
+    int[] records = recordsByAuction[auction];
+    int count = recordsByAuctionCount[auction];
+    if (count == records.length) {
+      int[] tmp = new int[count * 2];
+      System.arraycopy(records, 0, tmp, 0, count);
+      recordsByAuction[auction] = records = tmp;
+    }
+    records[count] = record;
+    recordsByAuctionCount[auction] = count + 1;
+
+    int category = TACAgent.getAuctionCategory(auction);
+    submitted[category]++;
+    outcomes[category][Bid.UNPROCESSED]++;
+
+    if (replacedBid != null) {
+      int old = getRecord(replacedBid);
+      if (old >= 0 && (outcome[old] == Bid.VALID
+		       || outcome[old] == Bid.UNPROCESSED)) {
+	setOutcome(old, Bid.REPLACED);
+      }
+    }
+  }
+
+  // The reply to submitBid or replaceBid has arrived
+  synchronized void acknowledged(Bid bid) {
+    int record = getRecord(bid);
+    if (record >= 0 && ackMicros[record] < 0) {
+      long micros = (System.nanoTime() - submitNanos[record]) / 1000;
+      ackMicros[record] = micros;
+      ackLatency[getCategory(record)].record(micros);
+      int id = bid.getID();
+      if (id != Bid.NO_ID) {
+	bidID[record] = id;
+	recordByID.put(id, record);
+      }
+      if (bid.isRejected()) {
+	rejectReason[record] = bid.getRejectReason();
+	setOutcome(record, Bid.REJECTED);
+      }
+    }
+  }
+
+  // The bid was rejected by the agent ware itself or could not be placed
+  synchronized void reverted(Bid bid, int status) {
+    int record = getRecord(bid);
+    if (record >= 0) {
+      if (status != TACAgent.NO_ERROR) {
+	setOutcome(record, ERROR);
+      } else {
+	rejectReason[record] = bid.getRejectReason();
+	setOutcome(record, Bid.REJECTED);
+      }
+    }
+  }
+
+  // Bid info with the processing state from the server has arrived
+  synchronized void updated(Bid bid) {
+    int record = getRecord(bid);
+    if (record >= 0) {
+      int state = bid.getProcessingState();
+      if (processedMicros[record] < 0 && state != Bid.UNPROCESSED) {
+	long micros = (System.nanoTime() - submitNanos[record]) / 1000;
+	processedMicros[record] = micros;
+	processedLatency[getCategory(record)].record(micros);
+      }
+      if (state == Bid.REJECTED) {
+	rejectReason[record] = bid.getRejectReason();
+      }
+      // A replaced bid stays replaced even if the server still reports
+      // it as valid
+      if (state != Bid.UNPROCESSED
+	  && !(state == Bid.VALID && outcome[record] == Bid.REPLACED)) {
+	setOutcome(record, state);
+      }
+    }
+  }
+
+  // Units of the active bid in the auction have transacted
+  synchronized void transacted(Bid bid, int quantity) {
+    int record = getRecord(bid);
+    if (record >= 0) {
+      transacted[record] += quantity < 0 ? -quantity : quantity;
+      setOutcome(record, Bid.TRANSACTED);
+    }
+  }
+
+  private int getRecord(Bid bid) {
+    int record = bid.getTrackerRecord();
+    // Bids never submitted (such as recovered bids) or bids of earlier
+    // games have no record
+    return record >= 0 && record < recordCount
+      && auction[record] == bid.getAuction() ? record : -1;
+  }
+
+  private int getCategory(int record) {
+    return TACAgent.getAuctionCategory(auction[record]);
+  }
+
+  private void setOutcome(int record, int outcome) {
+    int old = this.outcome[record];
+    if (old != outcome) {
+      long[] counts = outcomes[getCategory(record)];
+      counts[old]--;
+      counts[outcome]++;
+      this.outcome[record] = outcome;
+    }
+  }
+
+  private void grow(int size) {
+    auction = grow(auction, size);
+    bidID = grow(bidID, size);
+    outcome = grow(outcome, size);
+    rejectReason = grow(rejectReason, size);
+    transacted = grow(transacted, size);
+    submitNanos = grow(submitNanos, size);
+    ackMicros = grow(ackMicros, size);
+    processedMicros = grow(processedMicros, size);
+  }
+
+  private static int[] grow(int[] array, int size) {
+    int[] tmp = new int[size];
+    System.arraycopy(array, 0, tmp, 0, array.length);
+    return tmp;
+  }
+
+  private static long[] grow(long[] array, int size) {
+    long[] tmp = new long[size];
+    System.arraycopy(array, 0, tmp, 0, array.length);
+    return tmp;
+  }
+
+
+  // -------------------------------------------------------------------
+  // Bid records of the current game
+  // -------------------------------------------------------------------
+
+  public synchronized int getRecordCount() {
+    return recordCount;
+  }
+
+  /**
+   * Returns the latest record of the bid with the specified ID or -1
+   * if no such bid has been seen in this game.
+   */
+  public synchronized int getRecordByID(int bidID) {
+    return recordByID.get(bidID);
+  }
+
+  /**
+   * Returns the records of all bids submitted to the auction in this
+   * game, in the order submitted.
+   */
+  public synchronized int[] getRecordsByAuction(int auction) {
+    int count = recordsByAuctionCount[auction];
+    int[] records = new int[count];
+    System.arraycopy(recordsByAuction[auction], 0, records, 0, count);
+    return records;
+  }
+
+  public synchronized int getAuction(int record) {
+    return auction[record];
+  }
+
+  public synchronized int getBidID(int record) {
+    return bidID[record];
+  }
+
+  public synchronized int getOutcome(int record) {
+    return outcome[record];
+  }
+
+  public synchronized int getRejectReason(int record) {
+    return rejectReason[record];
+  }
+
+  public synchronized int getTransactedQuantity(int record) {
+    return transacted[record];
+  }
+
+  /**
+   * Returns the time in microseconds from submission until the server
+   * replied or -1 if no reply has arrived.
+   */
+  public synchronized long getAcknowledgeTime(int record) {
+    return ackMicros[record];
+  }
+
+  /**
+   * Returns the time in microseconds from submission until the bid
+   * info showed the bid as processed or -1 if not yet processed.
+   */
+  public synchronized long getProcessTime(int record) {
+    return processedMicros[record];
+  }
+
+
+  // -------------------------------------------------------------------
+  // Statistics per auction category
+  // -------------------------------------------------------------------
+
+  public LatencyHistogram getAcknowledgeLatency(int category) {
+    return ackLatency[category];
+  }
+
+  public LatencyHistogram getProcessLatency(int category) {
+    return processedLatency[category];
+  }
+
+  public synchronized long getSubmittedCount(int category) {
+    return submitted[category];
+  }
+
+  /**
+   * Returns the number of bids in the category currently having the
+   * outcome.
+   */
+  public synchronized long getOutcomeCount(int category, int outcome) {
+    return outcomes[category][outcome];
+  }
+
+  /**
+   * Returns the fraction of the submitted bids in the category that
+   * were rejected or could not be placed.
+   */
+  public synchronized float getRejectionRate(int category) {
+    long count = submitted[category];
+    return count > 0
+      ? (float) (outcomes[category][Bid.REJECTED] + outcomes[category][ERROR])
+      / count
+      : 0f;
+  }
+
+  /**
+   * Exports the latencies and outcomes per auction category.
+   */
+  public void addMetrics(MetricsRegistry metrics) {
+    metrics.addMetric(new MetricsRegistry.Metric("tac_bid_latency_seconds",
+			"Time from submitting a bid until the server"
+			+ " acknowledged or processed it", "summary") {
+	protected void writeSamples(StringBuffer sb) {
+	  for (int i = 0; i < CATEGORIES; i++) {
+	    String category = TACAgent.auctionCategoryToString(i);
+	    MetricsRegistry.writeHistogram(sb, getName(), "category=\""
+					   + category + "\",stage=\"ack\"",
+					   ackLatency[i]);
+	    MetricsRegistry.writeHistogram(sb, getName(), "category=\""
+					   + category
+					   + "\",stage=\"processed\"",
+					   processedLatency[i]);
+	  }
+	}
+      });
+    metrics.addMetric(new MetricsRegistry.Metric("tac_bid_outcomes",
+			"Submitted bids by their current outcome", "gauge") {
+	protected void writeSamples(StringBuffer sb) {
+	  synchronized (BidTracker.this) {
+	    for (int i = 0; i < CATEGORIES; i++) {
+	      String category = TACAgent.auctionCategoryToString(i);
+	      for (int j = 0, n = outcomeName.length; j < n; j++) {
+		MetricsRegistry.writeSample(sb, getName(), "category=\""
+					    + category + "\",outcome=\""
+					    + outcomeName[j] + '"',
+					    outcomes[i][j]);
+	      }
+	    }
+	  }
+	}
+      });
+  }
+
+  /**
+   * Returns one line per auction category with the number of submitted
+   * bids, the rejection rate, the acknowledge and process latencies in
+   * milliseconds, and the number of bids per outcome.
+   */
+  public synchronized String toString() {
+    StringBuffer sb = new StringBuffer();
+    for (int i = 0; i < CATEGORIES; i++) {
+      if (i > 0) {
+	sb.append('\n');
+      }
+      sb.append(TACAgent.auctionCategoryToString(i))
+	.append(": submitted=").append(submitted[i])
+	.append(" rejected=")
+	.append(Math.round(getRejectionRate(i) * 1000) / 10f).append('%')
+	.append(" ack p50=")
+	.append(MessageStatistics.toMillis(ackLatency[i].getPercentile(0.5)))
+	.append(" p99=")
+	.append(MessageStatistics.toMillis(ackLatency[i].getPercentile(0.99)))
+	.append(" processed p50=")
+	.append(MessageStatistics
+		.toMillis(processedLatency[i].getPercentile(0.5)))
+	.append(" p99=")
+	.append(MessageStatistics
+		.toMillis(processedLatency[i].getPercentile(0.99)))
+	.append(" ms");
+      for (int j = 0, n = outcomeName.length; j < n; j++) {
+	if (outcomes[i][j] > 0) {
+	  sb.append(' ').append(outcomeName[j]).append('=')
+	    .append(outcomes[i][j]);
+	}
+      }
+    }
+    return sb.toString();
+  }
+
+} // BidTracker
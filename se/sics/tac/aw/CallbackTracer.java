@@ -0,0 +1,378 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * CallbackTracer
+ *
+ * Created : 18 October, 2026
+ * Purpose : Times the callbacks to the agent implementation with one
+ *           LatencyHistogram per callback. Callbacks running longer
+ *           than the budget are logged and, while a callback runs,
+ *           the stack of its thread is sampled so that the slowest
+ *           invocations of each game can be written as collapsed
+ *           stacks (one "frame;frame;... weight" line per stack, as
+ *           read by flamegraph.pl and speedscope).
+ */
+
+package se.sics.tac.aw;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+public class CallbackTracer extends MetricsRegistry.HistogramFamily
+  implements Runnable {
+
+  private static final Logger log =
+    Logger.getLogger(CallbackTracer.class.getName());
+
+  private final static String AGENT_WARE_CLASS = TACAgent.class.getName();
+
+  private final MetricsRegistry.Counter overruns =
+    new MetricsRegistry.Counter("tac_agent_callback_overruns_total",
+				"Callbacks running longer than the budget");
+
+  private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+  private final boolean isCpuTimeSupported =
+    threads.isCurrentThreadCpuTimeSupported()
+    && threads.isThreadCpuTimeEnabled();
+
+  // The callback nesting depth and the CPU time at the start of the
+  // outermost callback of each thread
+  private final ThreadLocal cpuStart = new ThreadLocal() {
+	protected Object initialValue() {
+	  return new long[2];
+	}
+      };
+  private final AtomicLong cpuTime = new AtomicLong();
+
+  private long budgetMicros = 0L;
+  private int sampleInterval = 0;
+  private volatile Thread sampler;
+
+  // The outermost callback being sampled (guarded by this)
+  private Thread activeThread;
+  private String activeCallback;
+  private long activeStart;
+  private HashMap activeSamples;
+
+  // The slowest invocations of the current game, slowest first
+  // (guarded by this)
+  private Invocation[] slowest = new Invocation[0];
+  private int slowestCount = 0;
+
+  public CallbackTracer() {
+    super("tac_agent_callback_seconds",
+	  "Time spent in the agent implementation callbacks", "callback");
+  }
+
+  /**
+   * Sets the time budget of each callback in milliseconds (0 disables
+   * the budget), the interval in milliseconds between the stack samples
+   * of a running callback (0 disables sampling), and the number of
+   * slowest invocations to keep per game. Only one thread is sampled at
+   * a time: callbacks that start while a callback of another thread is
+   * sampled are timed but have no stack samples.
+   */
+  public synchronized void setBudget(int budgetMillis, int sampleInterval,
+				     int maxInvocations) {
+    this.budgetMicros = budgetMillis > 0 ? budgetMillis * 1000L : 0L;
+    this.sampleInterval = budgetMillis > 0 ? sampleInterval : 0;
+    this.slowest = new Invocation[budgetMillis > 0 ? maxInvocations : 0];
+    this.slowestCount = 0;
+    if (this.sampleInterval > 0 && sampler == null) {
+      sampler = new Thread(this, "callbackSampler");
+      sampler.setDaemon(true);
+      sampler.start();
+    }
+  }
+
+  public synchronized int getBudget() {
+    return (int) (budgetMicros / 1000);
+  }
+
+  /**
+   * Returns the CPU time in nanoseconds used by the callbacks so far
+   * (nested callbacks are only counted once) or 0 if the JVM does not
+   * measure the CPU time of threads.
+   */
+  public long getCpuTime() {
+    return cpuTime.get();
+  }
+
+  /**
+   * Returns the number of callbacks that have exceeded the budget.
+   */
+  public MetricsRegistry.Counter getOverruns() {
+    return overruns;
+  }
+
+  /**
+   * Called just before a callback to the agent implementation.
+   *
+   * @return the start time to pass to <code>end</code>
+   */
+  public long begin(String callback) {
+    if (isCpuTimeSupported) {
+      long[] cpu = (long[]) cpuStart.get();
+      if (cpu[0]++ == 0) {
+	cpu[1] = threads.getCurrentThreadCpuTime();
+      }
+    }
+    long start = System.nanoTime();
+    if (sampler != null) {
+      synchronized (this) {
+	// Only the outermost callback is sampled
+	if (activeThread == null) {
+	  activeThread = Thread.currentThread();
+	  activeCallback = callback;
+	  activeStart = start;
+	}
+      }
+    }
+    return start;
+  }
+
+  /**
+   * Called just after a callback to the agent implementation returned
+   * (or failed).
+   */
+  public void end(String callback, long start) {
+    long micros = (System.nanoTime() - start) / 1000;
+    getHistogram(callback).record(micros);
+    if (isCpuTimeSupported) {
+      long[] cpu = (long[]) cpuStart.get();
+      if (--cpu[0] == 0) {
+	cpuTime.addAndGet(threads.getCurrentThreadCpuTime() - cpu[1]);
+      }
+    }
+
+    HashMap samples = null;
+    long budgetMicros;
+    synchronized (this) {
+      if (activeThread == Thread.currentThread() && activeStart == start) {
+	samples = activeSamples;
+	activeThread = null;
+	activeCallback = null;
+	activeSamples = null;
+      }
+      budgetMicros = this.budgetMicros;
+    }
+
+    if (budgetMicros > 0 && micros > budgetMicros) {
+      overruns.increment();
+      log.warning("callback " + callback + " took "
+		  + MessageStatistics.toMillis(micros) + " ms (budget "
+		  + (budgetMicros / 1000) + " ms)");
+      addSlowest(new Invocation(callback, micros, samples));
+    }
+  }
+
+  private synchronized void addSlowest(Invocation invocation) {
+    Invocation[] slowest = this.slowest;
+    int index = slowestCount;
+    while (index > 0 && slowest[index - 1].micros < invocation.micros) {
+      index--;
+    }
+    if (index < slowest.length) {
+      int n = slowestCount < slowest.length ? slowestCount : slowestCount - 1;
+      System.arraycopy(slowest, index, slowest, index + 1, n - index);
+      slowest[index] = invocation;
+      if (slowestCount < slowest.length) {
+	slowestCount++;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of slow invocations kept since the last call to
+   * <code>clearSlowest</code>.
+   */
+  public synchronized int getSlowestCount() {
+    return slowestCount;
+  }
+
+  public synchronized void clearSlowest() {
+    for (int i = 0; i < slowestCount; i++) {
+      slowest[i] = null;
+    }
+    slowestCount = 0;
+  }
+
+  /**
+   * Returns one line per kept slow invocation, slowest first.
+   */
+  public synchronized String getSlowestSummary() {
+    StringBuffer sb = new StringBuffer();
+    for (int i = 0; i < slowestCount; i++) {
+      if (i > 0) {
+	sb.append('\n');
+      }
+      sb.append(slowest[i].callback).append(": ")
+	.append(MessageStatistics.toMillis(slowest[i].micros)).append(" ms");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Writes the stacks of the kept slow invocations as collapsed stacks
+   * weighted in microseconds. Time not covered by any stack sample is
+   * attributed to the callback itself.
+   */
+  public void writeSlowest(String file) throws IOException {
+    TreeMap stacks = new TreeMap();
+    synchronized (this) {
+      for (int i = 0; i < slowestCount; i++) {
+	slowest[i].addStacks(stacks);
+      }
+    }
+    PrintWriter out = new PrintWriter(new FileWriter(file));
+    try {
+      for (Iterator it = stacks.entrySet().iterator(); it.hasNext(); ) {
+	Map.Entry entry = (Map.Entry) it.next();
+	out.print(entry.getKey());
+	out.print(' ');
+	out.println(((long[]) entry.getValue())[0]);
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+
+  // -------------------------------------------------------------------
+  // Stack sampling
+  // -------------------------------------------------------------------
+
+  public void run() {
+    while (true) {
+      int interval;
+      synchronized (this) {
+	interval = sampleInterval;
+      }
+      try {
+	Thread.sleep(interval > 0 ? interval : 1000);
+      } catch (InterruptedException e) {
+	return;
+      }
+      if (interval > 0) {
+	sample(interval * 1000L);
+      }
+    }
+  }
+
+  private void sample(long weight) {
+    Thread thread;
+    String callback;
+    long start;
+    synchronized (this) {
+      thread = activeThread;
+      callback = activeCallback;
+      start = activeStart;
+    }
+    if (thread == null) {
+      return;
+    }
+
+    String stack = getStack(callback, thread.getStackTrace());
+    synchronized (this) {
+      // Ignore the sample if the callback ended while sampling
+      if (activeThread == thread && activeStart == start) {
+	if (activeSamples == null) {
+	  activeSamples = new HashMap();
+	}
+	addWeight(activeSamples, stack, weight);
+      }
+    }
+  }
+
+  // Returns the frames called from the agent ware (outermost first)
+  // below a root frame named after the callback. The stack is cut at the
+  // agent ware frames that made the callback, so calls from the agent
+  // implementation back into the agent ware (such as submitBid) are
+  // kept together with the agent implementation frames around them.
+  private static String getStack(String callback, StackTraceElement[] trace) {
+    int n = trace.length;
+    while (n > 0 && !AGENT_WARE_CLASS.equals(trace[n - 1].getClassName())) {
+      n--;
+    }
+    if (n == 0) {
+      n = trace.length;
+    } else {
+      while (n > 1
+	     && AGENT_WARE_CLASS.equals(trace[n - 2].getClassName())) {
+	n--;
+      }
+      n--;
+    }
+    StringBuffer sb = new StringBuffer();
+    sb.append(callback);
+    for (int i = n - 1; i >= 0; i--) {
+      sb.append(';').append(trace[i].getClassName())
+	.append('.').append(trace[i].getMethodName());
+    }
+    return sb.toString();
+  }
+
+  private static void addWeight(Map stacks, String stack, long weight) {
+    long[] value = (long[]) stacks.get(stack);
+    if (value == null) {
+      stacks.put(stack, new long[] { weight });
+    } else {
+      value[0] += weight;
+    }
+  }
+
+
+  // -------------------------------------------------------------------
+  // Invocation
+  // -------------------------------------------------------------------
+
+  private static class Invocation {
+
+    final String callback;
+    final long micros;
+    final HashMap samples;
+
+    Invocation(String callback, long micros, HashMap samples) {
+      this.callback = callback;
+      this.micros = micros;
+      this.samples = samples;
+    }
+
+    void addStacks(Map stacks) {
+      long sampled = 0L;
+      if (samples != null) {
+	for (Iterator it = samples.entrySet().iterator(); it.hasNext(); ) {
+	  Map.Entry entry = (Map.Entry) it.next();
+	  long weight = ((long[]) entry.getValue())[0];
+	  // The samples can never cover more than the invocation
+	  if (sampled + weight > micros) {
+	    weight = micros - sampled;
+	  }
+	  if (weight > 0) {
+	    addWeight(stacks, (String) entry.getKey(), weight);
+	    sampled += weight;
+	  }
+	}
+      }
+      if (sampled < micros) {
+	addWeight(stacks, callback, micros - sampled);
+      }
+    }
+
+  } // Invocation
+
+} // CallbackTracer
@@ -0,0 +1,181 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * CaptureReader
+ *
+ * Created : 18 October, 2026
+ * Purpose : Reads the records of a binary message capture (see
+ *	     MessageCapture). The file is memory mapped and the payload
+ *	     of a record is only decoded when asked for.
+ *
+ *	     Usage: java se.sics.tac.aw.CaptureReader [-dump] <capture>...
+ */
+
+package se.sics.tac.aw;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class CaptureReader {
+
+  private final String name;
+  private final MappedByteBuffer buffer;
+
+  private long time;
+  private int direction;
+  private int type;
+  private int auction;
+  private int payloadPosition;
+  private int payloadLength;
+
+  public CaptureReader(String name) throws IOException {
+    this.name = name;
+    RandomAccessFile file = new RandomAccessFile(name, "r");
+    try {
+      FileChannel channel = file.getChannel();
+      if (channel.size() > Integer.MAX_VALUE) {
+	throw new IOException("capture too large: " + name);
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+    } finally {
+      // The mapping stays valid after the file has been closed
+      file.close();
+    }
+    byte[] header = new byte[MessageCapture.HEADER.length];
+    if (buffer.remaining() < header.length) {
+      throw new IOException("not a message capture: " + name);
+    }
+    buffer.get(header);
+    for (int i = 0; i < header.length; i++) {
+      if (header[i] != MessageCapture.HEADER[i]) {
+	throw new IOException("not a message capture: " + name);
+      }
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Moves to the next record.
+   *
+   * @return false if there are no more records
+   */
+  public boolean next() {
+    if (buffer.remaining() < 4) {
+      return false;
+    }
+    int length = buffer.getInt();
+    if (length < MessageCapture.RECORD_HEADER
+	|| length > buffer.remaining()) {
+      // End of capture (or a record that was never completely written)
+      buffer.position(buffer.limit());
+      return false;
+    }
+    try {
+      time = buffer.getLong();
+      direction = buffer.get();
+      type = buffer.get();
+      auction = buffer.getShort();
+    } catch (BufferUnderflowException e) {
+      return false;
+    }
+    payloadPosition = buffer.position();
+    payloadLength = length - MessageCapture.RECORD_HEADER;
+    buffer.position(payloadPosition + payloadLength);
+    return true;
+  }
+
+  public long getTime() {
+    return time;
+  }
+
+  public boolean isSent() {
+    return direction == MessageCapture.SENT;
+  }
+
+  public int getTypeCode() {
+    return type;
+  }
+
+  public String getType() {
+    return MessageCapture.getType(type);
+  }
+
+  public int getAuction() {
+    return auction;
+  }
+
+  public int getPayloadLength() {
+    return payloadLength;
+  }
+
+  public String getPayload() {
+    char[] chars = new char[payloadLength];
+    for (int i = 0; i < payloadLength; i++) {
+      chars[i] = (char) (buffer.get(payloadPosition + i) & 0xff);
+    }
+    return new String(chars);
+  }
+
+  // -------------------------------------------------------------------
+  // Summary and dump of captures
+  // -------------------------------------------------------------------
+
+  public static void main(String[] args) throws IOException {
+    boolean dump = false;
+    int files = 0;
+    for (int i = 0; i < args.length; i++) {
+      if ("-dump".equals(args[i])) {
+	dump = true;
+	continue;
+      }
+      files++;
+      CaptureReader reader = new CaptureReader(args[i]);
+      int[] count = new int[256];
+      long[] bytes = new long[256];
+      long firstTime = 0L, lastTime = 0L;
+      int records = 0;
+      while (reader.next()) {
+	if (records++ == 0) {
+	  firstTime = reader.getTime();
+	}
+	lastTime = reader.getTime();
+	if (reader.isSent()) {
+	  count[reader.getTypeCode()]++;
+	}
+	bytes[reader.getTypeCode()] += reader.getPayloadLength();
+	if (dump) {
+	  System.out.println(reader.getTime()
+			     + (reader.isSent() ? " out " : " in  ")
+			     + reader.getAuction() + ' '
+			     + reader.getPayload());
+	}
+      }
+      System.out.println(args[i] + ": " + records + " records in "
+			 + ((lastTime - firstTime) / 1000) + " sec");
+      for (int t = 0; t < count.length; t++) {
+	if (count[t] > 0 || bytes[t] > 0) {
+	  String type = MessageCapture.getType(t);
+	  System.out.println("  " + (type == null ? "unknown" : type)
+			     + ": " + count[t] + " messages, "
+			     + bytes[t] + " bytes");
+	}
+      }
+    }
+    if (files == 0) {
+      System.err.println("Usage: CaptureReader [-dump] <capture>...");
+      System.exit(1);
+    }
+  }
+
+} // CaptureReader
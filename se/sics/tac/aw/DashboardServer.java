@@ -0,0 +1,348 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * DashboardServer
+ *
+ * Created : 18 October, 2026
+ * Purpose : A web version of the agent display for agents running
+ *           without GUI. The page at / shows the auction table and is
+ *           updated from the server-sent events at /events, where the
+ *           changes of the market state (quotes, bids, allocation, and
+ *           owned goods) are sent at most frameRate times per second.
+ *
+ *           The state is read from the agent ware by the dashboard
+ *           thread itself so the network and strategy threads never do
+ *           any work for the dashboard.
+ */
+
+package se.sics.tac.aw;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class DashboardServer implements HttpHandler, Runnable {
+
+  private static final Logger log =
+    Logger.getLogger(DashboardServer.class.getName());
+
+  // Comment sent when nothing has changed for a while to keep proxies
+  // from closing the event streams
+  private final static long KEEP_ALIVE = 15000;
+
+  private final static String[] columnKey = {
+    "id", "type", "ask", "bid", "status", "ps", "bidString", "hqw",
+    "allocation", "own", "cost"
+  };
+
+  private final TACAgent agent;
+  private final int frameInterval;
+  private HttpServer server;
+  private volatile Thread thread;
+
+  // Event streams not yet sent the full state (guarded by this)
+  private final ArrayList newClients = new ArrayList();
+
+  // Only accessed by the dashboard thread
+  private final ArrayList clients = new ArrayList();
+  private final String[][] sent =
+    new String[TACAgent.getAuctionNo()][columnKey.length];
+  private final String[] current = new String[columnKey.length];
+  private String sentStatus;
+  private long lastSent;
+
+  /**
+   * Creates a dashboard for the agent ware that sends the changes at
+   * most frameRate times per second.
+   */
+  public DashboardServer(TACAgent agent, int frameRate) {
+    this.agent = agent;
+    this.frameInterval = 1000 / (frameRate > 0 ? frameRate : 1);
+  }
+
+  /**
+   * Starts serving the dashboard on the port of all interfaces.
+   */
+  public synchronized void start(int port) throws IOException {
+    if (server != null) {
+      throw new IllegalStateException("already started");
+    }
+    server = HttpServer.create(new InetSocketAddress(port), 10);
+    server.createContext("/", this);
+    // Event streams are kept open after their request has been handled
+    // so a single daemon thread is enough
+    server.setExecutor(Executors.newSingleThreadExecutor(new ThreadFactory() {
+	public Thread newThread(Runnable r) {
+	  Thread thread = new Thread(r, "dashboardHttp");
+	  thread.setDaemon(true);
+	  return thread;
+	}
+      }));
+    server.start();
+    thread = new Thread(this, "dashboard");
+    thread.setDaemon(true);
+    thread.start();
+    log.info("serving dashboard at http://localhost:" + getPort() + '/');
+  }
+
+  public synchronized int getPort() {
+    return server != null ? server.getAddress().getPort() : -1;
+  }
+
+  public synchronized void stop() {
+    if (server != null) {
+      server.stop(0);
+      server = null;
+      thread = null;
+    }
+  }
+
+  public void handle(HttpExchange exchange) throws IOException {
+    boolean isEventStream = false;
+    try {
+      String path = exchange.getRequestURI().getPath();
+      if (!"GET".equals(exchange.getRequestMethod())) {
+	exchange.sendResponseHeaders(405, -1);
+      } else if ("/events".equals(path)) {
+	exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+	exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+	exchange.sendResponseHeaders(200, 0);
+	synchronized (this) {
+	  newClients.add(exchange);
+	}
+	isEventStream = true;
+      } else if ("/".equals(path)) {
+	byte[] data = PAGE.getBytes("UTF-8");
+	exchange.getResponseHeaders().set("Content-Type",
+					  "text/html; charset=utf-8");
+	exchange.sendResponseHeaders(200, data.length);
+	OutputStream output = exchange.getResponseBody();
+	output.write(data);
+	output.close();
+      } else {
+	exchange.sendResponseHeaders(404, -1);
+      }
+    } catch (IOException e) {
+      log.log(Level.FINE, "could not send dashboard", e);
+    } finally {
+      if (!isEventStream) {
+	exchange.close();
+      }
+    }
+  }
+
+
+
+  // -------------------------------------------------------------------
+  // Event streams
+  // -------------------------------------------------------------------
+
+  public void run() {
+    Thread currentThread = Thread.currentThread();
+    StringBuffer sb = new StringBuffer();
+    while (thread == currentThread) {
+      try {
+	Thread.sleep(frameInterval);
+      } catch (InterruptedException e) {
+	// Ignore
+      }
+
+      if (clients.size() > 0) {
+	sb.setLength(0);
+	if (appendState(sb, false)) {
+	  sendAll(sb);
+	} else if (System.currentTimeMillis() - lastSent > KEEP_ALIVE) {
+	  sb.append(":\n\n");
+	  sendAll(sb);
+	}
+      }
+
+      // New event streams start with the full state
+      Object[] added = null;
+      synchronized (this) {
+	if (newClients.size() > 0) {
+	  added = newClients.toArray();
+	  newClients.clear();
+	}
+      }
+      if (added != null) {
+	sb.setLength(0);
+	appendState(sb, true);
+	for (int i = 0, n = added.length; i < n; i++) {
+	  HttpExchange client = (HttpExchange) added[i];
+	  if (send(client, sb)) {
+	    clients.add(client);
+	  }
+	}
+      }
+    }
+    for (int i = 0, n = clients.size(); i < n; i++) {
+      ((HttpExchange) clients.get(i)).close();
+    }
+    clients.clear();
+  }
+
+  private void sendAll(StringBuffer sb) {
+    for (int i = clients.size() - 1; i >= 0; i--) {
+      if (!send((HttpExchange) clients.get(i), sb)) {
+	clients.remove(i);
+      }
+    }
+    lastSent = System.currentTimeMillis();
+  }
+
+  private boolean send(HttpExchange client, StringBuffer sb) {
+    try {
+      OutputStream output = client.getResponseBody();
+      output.write(sb.toString().getBytes("UTF-8"));
+      output.flush();
+      return true;
+    } catch (IOException e) {
+      // The page has been closed
+      client.close();
+      return false;
+    }
+  }
+
+  /**
+   * Adds an event with the state that has changed since last sent (or
+   * the full state) to the buffer.
+   *
+   * @return true if anything has changed
+   */
+  private boolean appendState(StringBuffer sb, boolean full) {
+    TACAgent agent = this.agent;
+    int start = sb.length();
+    sb.append("data: {");
+
+    String status = agent.getGameID() >= 0
+      ? "Game " + agent.getGameID() + " (" + agent.getUser()
+	+ ") time left: " + agent.getGameTimeLeftAsString()
+      : "No game playing (" + agent.getUser() + ')';
+    boolean isChanged = full || !status.equals(sentStatus);
+    if (isChanged) {
+      sb.append("\"status\":");
+      GameReport.appendString(sb, status);
+      sentStatus = status;
+    }
+
+    boolean hasRows = false;
+    for (int a = 0, n = sent.length; a < n; a++) {
+      getRow(a, current);
+      String[] sentRow = sent[a];
+      boolean hasRow = false;
+      for (int c = 0, m = current.length; c < m; c++) {
+	if (full || !current[c].equals(sentRow[c])) {
+	  if (!hasRows) {
+	    sb.append(isChanged ? ",\"rows\":{" : "\"rows\":{");
+	    hasRows = true;
+	  } else if (!hasRow) {
+	    sb.append(',');
+	  }
+	  if (!hasRow) {
+	    sb.append('"').append(a).append("\":{");
+	    hasRow = true;
+	  } else {
+	    sb.append(',');
+	  }
+	  sb.append('"').append(columnKey[c]).append("\":");
+	  GameReport.appendString(sb, current[c]);
+	  sentRow[c] = current[c];
+	}
+      }
+      if (hasRow) {
+	sb.append('}');
+      }
+    }
+    if (hasRows) {
+      sb.append('}');
+      isChanged = true;
+    }
+
+    if (!isChanged) {
+      sb.setLength(start);
+      return false;
+    }
+    sb.append("}\n\n");
+    return true;
+  }
+
+  // Same columns as the table of the agent display
+  private void getRow(int auction, String[] row) {
+    Quote quote = agent.getQuote(auction);
+    Bid bid = agent.getBid(auction);
+    int hqw = quote.getHQW();
+    row[0] = Integer.toString(agent.getServerAuctionID(auction));
+    row[1] = TACAgent.getAuctionTypeAsString(auction);
+    row[2] = Float.toString(quote.getAskPrice());
+    row[3] = Float.toString(quote.getBidPrice());
+    row[4] = quote.getAuctionStatusAsString();
+    row[5] = bid != null ? bid.getProcessingStateAsString() : "no bid";
+    row[6] = bid != null ? bid.getBidString() : "no bid";
+    row[7] = hqw >= 0 ? Integer.toString(hqw) : "";
+    row[8] = Integer.toString(agent.getAllocation(auction));
+    row[9] = Integer.toString(agent.getOwn(auction));
+    row[10] = Float.toString(agent.getCost(auction));
+  }
+
+
+
+  // -------------------------------------------------------------------
+  // The dashboard page
+  // -------------------------------------------------------------------
+
+  private final static String PAGE =
+    "<!DOCTYPE html>\n"
+    + "<html><head><meta charset=\"utf-8\">\n"
+    + "<title>Agent Display (TAC AgentWare " + TACAgent.VERSION + ")</title>\n"
+    + "<style>\n"
+    + "body{font-family:sans-serif;font-size:13px;margin:8px}\n"
+    + "table{border-collapse:collapse}\n"
+    + "th,td{border:1px solid #ccc;padding:2px 6px;text-align:left}\n"
+    + "th{background:#eee}\n"
+    + "td.changed{background:#ffe9a8}\n"
+    + "#status{margin-top:6px}\n"
+    + "</style></head><body>\n"
+    + "<table><thead><tr><th>ID</th><th>Type</th><th>Ask Price</th>"
+    + "<th>Bid Price</th><th>Status</th><th>PS</th><th>BidString</th>"
+    + "<th>HQW</th><th>Allocation</th><th>Own</th><th>Cost</th></tr>"
+    + "</thead><tbody id=\"rows\"></tbody></table>\n"
+    + "<div id=\"status\">Connecting...</div>\n"
+    + "<script>\n"
+    + "var keys=['id','type','ask','bid','status','ps','bidString','hqw',"
+    + "'allocation','own','cost'];\n"
+    + "var cells=[],rows=document.getElementById('rows');\n"
+    + "function cell(a,c){\n"
+    + " while(cells.length<=a){var tr=rows.insertRow(-1),r={};\n"
+    + "  for(var i=0;i<keys.length;i++){r[keys[i]]=tr.insertCell(-1);}\n"
+    + "  cells.push(r);}\n"
+    + " return cells[a][c];}\n"
+    + "var events=new EventSource('events');\n"
+    + "events.onmessage=function(e){\n"
+    + " var d=JSON.parse(e.data);\n"
+    + " if(d.status!==undefined){"
+    + "document.getElementById('status').textContent=d.status;}\n"
+    + " for(var a in d.rows){var r=d.rows[a];\n"
+    + "  for(var c in r){var td=cell(+a,c);td.textContent=r[c];\n"
+    + "   td.className='changed';\n"
+    + "   setTimeout(function(t){return function(){t.className='';};}(td),"
+    + "1000);}}};\n"
+    + "events.onerror=function(){"
+    + "document.getElementById('status').textContent='Disconnected';};\n"
+    + "</script></body></html>\n";
+
+} // DashboardServer
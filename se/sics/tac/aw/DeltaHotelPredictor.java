@@ -0,0 +1,66 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * DeltaHotelPredictor
+ *
+ * Created : 18 October, 2026
+ * Purpose : The original Phobos hotel estimate: the current ask price
+ *	     plus the largest price change seen between two quote rounds
+ *	     (initially 50 or "hotelDelta"). Kept for comparison with
+ *	     other predictors.
+ */
+
+package se.sics.tac.aw;
+
+public class DeltaHotelPredictor extends HotelPricePredictor {
+
+	private static final int HOTELS = 8;
+
+	private float initialDelta = 50f;
+
+	private float[] previousPrices = new float[HOTELS];
+	private float[] auctionDelta = new float[HOTELS];
+	private boolean[] closed = new boolean[HOTELS];
+
+	public void init(TACAgent agent) {
+		super.init(agent);
+		initialDelta = agent.getConfig("hotelDelta", initialDelta);
+	}
+
+	public void gameStarted() {
+		for (int i = 0; i < HOTELS; i++) {
+			previousPrices[i] = -1f;
+			auctionDelta[i] = initialDelta;
+			closed[i] = false;
+		}
+	}
+
+	public void quoteUpdated(Quote quote, long gameTime) {
+		int hotel = getHotelIndex(quote.getAuction());
+		float ask = quote.getAskPrice();
+		if (previousPrices[hotel] >= 0f
+				&& auctionDelta[hotel] < ask - previousPrices[hotel]) {
+			auctionDelta[hotel] = ask - previousPrices[hotel];
+		}
+		previousPrices[hotel] = ask;
+		closed[hotel] = quote.isAuctionClosed();
+	}
+
+	public float getExpectedPrice(int auction) {
+		int hotel = getHotelIndex(auction);
+		float ask = previousPrices[hotel] > 0f ? previousPrices[hotel] : 0f;
+		return closed[hotel] ? ask : ask + auctionDelta[hotel];
+	}
+
+	public float getPriceDeviation(int auction) {
+		int hotel = getHotelIndex(auction);
+		return closed[hotel] ? 0f : auctionDelta[hotel];
+	}
+
+} // DeltaHotelPredictor
@@ -0,0 +1,426 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * EventLog
+ *
+ * Created : 18 October, 2026
+ * Purpose : In-memory log of all inputs the agent ware passes on to the
+ *	     agent implementation during a game (game parameters,
+ *	     quotes, transactions, bid updates, etc) and of all bids
+ *	     submitted by the agent implementation.
+ *
+ *	     Events are stored in primitive columns: type and server
+ *	     time per event and a variable number of int values per
+ *	     event in a shared int pool (floats and longs are stored
+ *	     bit exact). Bids are identified by the sequence number
+ *	     the agent ware gives each bid instance during a game.
+ *
+ *	     The log can be saved to and loaded from a binary file and
+ *	     replayed with EventReplayer.
+ */
+
+package se.sics.tac.aw;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class EventLog {
+
+  private final static int MAGIC = 0x54414345; // "TACE"
+  private final static int VERSION = 1;
+
+  /** Game parameters: gameID, gameLength, startTime (long),
+   *  client preferences (8 * 6), own (28) */
+  public final static int GAME_PARAMS = 1;
+  /** Callback gameStarted() */
+  public final static int GAME_STARTED = 2;
+  /** Callback gameStopped() */
+  public final static int GAME_STOPPED = 3;
+  /** Quote: auction, status, hqw, quote bid sequence (or -1),
+   *  ask price (float), bid price (float),
+   *  next quote time (long), last quote time (long) */
+  public final static int QUOTE = 4;
+  /** Callback quoteUpdated(category): category */
+  public final static int QUOTE_CATEGORY = 5;
+  /** Transaction: auction, quantity, price (float) */
+  public final static int TRANSACTION = 6;
+  /** Callback auctionClosed(auction): auction */
+  public final static int AUCTION_CLOSED = 7;
+  /** Bid submitted by the agent: sequence, auction, text = bid string */
+  public final static int BID_SUBMITTED = 8;
+  /** Bid id assigned by the server: sequence, id, text = bid hash */
+  public final static int BID_ID = 9;
+  /** Bid info: sequence, processing state, reject reason,
+   *  time processed (long), time closed (long) */
+  public final static int BID_INFO = 10;
+  /** Bid changed by transactions: sequence, text = new bid string,
+   *  hash = new bid hash */
+  public final static int BID_CLEARED = 11;
+  /** Callback bidUpdated(bid): sequence */
+  public final static int BID_UPDATED = 12;
+  /** Bid rejected or in error: sequence, status, reject reason,
+   *  processing state */
+  public final static int BID_REVERTED = 13;
+
+  private final static String[] typeName = {
+    "none", "gameParams", "gameStarted", "gameStopped", "quote",
+    "quoteCategory", "transaction", "auctionClosed", "bidSubmitted",
+    "bidID", "bidInfo", "bidCleared", "bidUpdated", "bidReverted"
+  };
+
+  private byte[] types = new byte[256];
+  private long[] times = new long[256];
+  private int[] dataStart = new int[257];
+  private String[] texts = new String[256];
+  private String[] hashes = new String[256];
+  private int size = 0;
+
+  private int[] data = new int[1024];
+  private int dataSize = 0;
+
+  public synchronized int size() {
+    return size;
+  }
+
+  public synchronized void clear() {
+    for (int i = 0; i < size; i++) {
+      texts[i] = null;
+      hashes[i] = null;
+    }
+    size = 0;
+    dataSize = 0;
+  }
+
+  /**
+   * Returns a copy of the log (for use by another thread while this log
+   * continues with the next game).
+   */
+  public synchronized EventLog copy() {
+    EventLog log = new EventLog();
+    log.types = new byte[size + 1];
+    log.times = new long[size + 1];
+    log.dataStart = new int[size + 2];
+    log.texts = new String[size + 1];
+    log.hashes = new String[size + 1];
+    log.data = new int[dataSize + 1];
+    System.arraycopy(types, 0, log.types, 0, size);
+    System.arraycopy(times, 0, log.times, 0, size);
+    System.arraycopy(dataStart, 0, log.dataStart, 0, size + 1);
+    System.arraycopy(texts, 0, log.texts, 0, size);
+    System.arraycopy(hashes, 0, log.hashes, 0, size);
+    System.arraycopy(data, 0, log.data, 0, dataSize);
+    log.size = size;
+    log.dataSize = dataSize;
+    return log;
+  }
+
+  public static String getTypeAsString(int type) {
+    return type > 0 && type < typeName.length
+      ? typeName[type]
+      : Integer.toString(type);
+  }
+
+  public synchronized int getType(int index) {
+    checkIndex(index);
+    return types[index];
+  }
+
+  public synchronized long getTime(int index) {
+    checkIndex(index);
+    return times[index];
+  }
+
+  public synchronized int getValueCount(int index) {
+    checkIndex(index);
+    return dataStart[index + 1] - dataStart[index];
+  }
+
+  public synchronized int getInt(int index, int value) {
+    return data[getDataPos(index, value, 1)];
+  }
+
+  public synchronized float getFloat(int index, int value) {
+    return Float.intBitsToFloat(data[getDataPos(index, value, 1)]);
+  }
+
+  // A long value occupies two positions
+  public synchronized long getLong(int index, int value) {
+    int pos = getDataPos(index, value, 2);
+    return ((long) data[pos] << 32) | (data[pos + 1] & 0xffffffffL);
+  }
+
+  public synchronized String getText(int index) {
+    checkIndex(index);
+    return texts[index];
+  }
+
+  public synchronized String getHash(int index) {
+    checkIndex(index);
+    return hashes[index];
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index
+					  + ", Size: " + size);
+    }
+  }
+
+  private int getDataPos(int index, int value, int len) {
+    checkIndex(index);
+    int pos = dataStart[index] + value;
+    if (value < 0 || pos + len > dataStart[index + 1]) {
+      throw new IndexOutOfBoundsException("Value: " + value + " in "
+					  + getTypeAsString(types[index]));
+    }
+    return pos;
+  }
+
+
+  // -------------------------------------------------------------------
+  // Recording
+  // -------------------------------------------------------------------
+
+  synchronized void gameParams(long time, int gameID, int gameLength,
+			       long startTime, int[][] clientPrefs,
+			       int[] owns) {
+    begin(GAME_PARAMS, time);
+    putInt(gameID);
+    putInt(gameLength);
+    putLong(startTime);
+    for (int i = 0, n = clientPrefs.length; i < n; i++) {
+      int[] prefs = clientPrefs[i];
+      for (int j = 0, m = prefs.length; j < m; j++) {
+	putInt(prefs[j]);
+      }
+    }
+    for (int i = 0, n = owns.length; i < n; i++) {
+      putInt(owns[i]);
+    }
+    end();
+  }
+
+  synchronized void event(int type, long time) {
+    begin(type, time);
+    end();
+  }
+
+  synchronized void event(int type, long time, int value) {
+    begin(type, time);
+    putInt(value);
+    end();
+  }
+
+  synchronized void quote(long time, Quote quote, int bidSequence) {
+    begin(QUOTE, time);
+    putInt(quote.getAuction());
+    putInt(quote.getAuctionStatus());
+    putInt(quote.getHQW());
+    putInt(bidSequence);
+    putFloat(quote.getAskPrice());
+    putFloat(quote.getBidPrice());
+    putLong(quote.getNextQuoteTime());
+    putLong(quote.getLastQuoteTime());
+    end();
+  }
+
+  synchronized void transaction(long time, int auction, int quantity,
+				float price) {
+    begin(TRANSACTION, time);
+    putInt(auction);
+    putInt(quantity);
+    putFloat(price);
+    end();
+  }
+
+  synchronized void bidSubmitted(long time, Bid bid) {
+    begin(BID_SUBMITTED, time);
+    putInt(bid.getSequence());
+    putInt(bid.getAuction());
+    texts[size] = bid.getBidString();
+    end();
+  }
+
+  synchronized void bidID(long time, Bid bid, int id, String hash) {
+    begin(BID_ID, time);
+    putInt(bid.getSequence());
+    putInt(id);
+    hashes[size] = hash;
+    end();
+  }
+
+  synchronized void bidInfo(long time, Bid bid, int processingState,
+			    int rejectReason, long timeProcessed,
+			    long timeClosed) {
+    begin(BID_INFO, time);
+    putInt(bid.getSequence());
+    putInt(processingState);
+    putInt(rejectReason);
+    putLong(timeProcessed);
+    putLong(timeClosed);
+    end();
+  }
+
+  synchronized void bidCleared(long time, Bid bid, String bidString,
+			       String bidHash) {
+    begin(BID_CLEARED, time);
+    putInt(bid.getSequence());
+    texts[size] = bidString;
+    hashes[size] = bidHash;
+    end();
+  }
+
+  synchronized void bidReverted(long time, Bid bid, int status) {
+    begin(BID_REVERTED, time);
+    putInt(bid.getSequence());
+    putInt(status);
+    putInt(bid.getRejectReason());
+    putInt(bid.getProcessingState());
+    end();
+  }
+
+  private void begin(int type, long time) {
+    if (size == types.length) {
+      int newSize = size * 2;
+      byte[] tmpTypes = new byte[newSize];
+      long[] tmpTimes = new long[newSize];
+      int[] tmpStart = new int[newSize + 1];
+      String[] tmpTexts = new String[newSize];
+      String[] tmpHashes = new String[newSize];
+      System.arraycopy(types, 0, tmpTypes, 0, size);
+      System.arraycopy(times, 0, tmpTimes, 0, size);
+      System.arraycopy(dataStart, 0, tmpStart, 0, size + 1);
+      System.arraycopy(texts, 0, tmpTexts, 0, size);
+      System.arraycopy(hashes, 0, tmpHashes, 0, size);
+      types = tmpTypes;
+      times = tmpTimes;
+      dataStart = tmpStart;
+      texts = tmpTexts;
+      hashes = tmpHashes;
+    }
+    types[size] = (byte) type;
+    times[size] = time;
+    dataStart[size] = dataSize;
+  }
+
+  private void end() {
+    dataStart[++size] = dataSize;
+  }
+
+  private void putInt(int value) {
+    if (dataSize == data.length) {
+      int[] tmp = new int[dataSize * 2];
+      System.arraycopy(data, 0, tmp, 0, dataSize);
+      data = tmp;
+    }
+    data[dataSize++] = value;
+  }
+
+  private void putFloat(float value) {
+    putInt(Float.floatToRawIntBits(value));
+  }
+
+  private void putLong(long value) {
+    putInt((int) (value >>> 32));
+    putInt((int) value);
+  }
+
+
+  // -------------------------------------------------------------------
+  // Save and load
+  // -------------------------------------------------------------------
+
+  public synchronized void save(String fileName) throws IOException {
+    DataOutputStream out =
+      new DataOutputStream(new BufferedOutputStream
+			   (new FileOutputStream(fileName)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(size);
+      out.writeInt(dataSize);
+      for (int i = 0; i < size; i++) {
+	out.writeByte(types[i]);
+	out.writeLong(times[i]);
+	out.writeInt(dataStart[i + 1] - dataStart[i]);
+	writeString(out, texts[i]);
+	writeString(out, hashes[i]);
+      }
+      for (int i = 0; i < dataSize; i++) {
+	out.writeInt(data[i]);
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  public static EventLog load(String fileName) throws IOException {
+    DataInputStream in =
+      new DataInputStream(new BufferedInputStream
+			  (new FileInputStream(fileName)));
+    try {
+      if (in.readInt() != MAGIC) {
+	throw new IOException("not an event log: " + fileName);
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+	throw new IOException("unsupported event log version " + version
+			      + " in " + fileName);
+      }
+      int size = in.readInt();
+      int dataSize = in.readInt();
+      EventLog log = new EventLog();
+      log.types = new byte[size + 1];
+      log.times = new long[size + 1];
+      log.dataStart = new int[size + 2];
+      log.texts = new String[size + 1];
+      log.hashes = new String[size + 1];
+      log.data = new int[dataSize + 1];
+      int pos = 0;
+      for (int i = 0; i < size; i++) {
+	log.types[i] = in.readByte();
+	log.times[i] = in.readLong();
+	log.dataStart[i] = pos;
+	pos += in.readInt();
+	log.texts[i] = readString(in);
+	log.hashes[i] = readString(in);
+      }
+      log.dataStart[size] = pos;
+      if (pos != dataSize) {
+	throw new IOException("corrupt event log: " + fileName);
+      }
+      for (int i = 0; i < dataSize; i++) {
+	log.data[i] = in.readInt();
+      }
+      log.size = size;
+      log.dataSize = dataSize;
+      return log;
+    } finally {
+      in.close();
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String text)
+    throws IOException
+  {
+    out.writeBoolean(text != null);
+    if (text != null) {
+      out.writeUTF(text);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+} // EventLog
@@ -0,0 +1,155 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * EventReplayer
+ *
+ * Created : 18 October, 2026
+ * Purpose : Replays recorded event logs (saved by the agent ware when
+ *	     "eventLog=true") to an agent implementation offline and
+ *	     checks that it submits exactly the same bids as when the
+ *	     game was played. The replay can be repeated to profile the
+ *	     agent implementation against recorded games.
+ *
+ *	     Usage: java se.sics.tac.aw.EventReplayer [-config <file>]
+ *	            [-agentimpl <className>] [-repeat <n>] <eventlog>...
+ */
+
+package se.sics.tac.aw;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Properties;
+
+import se.sics.tac.util.ArgEnumerator;
+
+public class EventReplayer {
+
+  private final Properties config;
+  private final String agentClass;
+
+  public EventReplayer(Properties config, String agentClass) {
+    this.config = config;
+    this.agentClass = agentClass;
+  }
+
+  /**
+   * Replays all events in the log to a new instance of the agent
+   * implementation.
+   *
+   * @return the agent ware used for the replay (its event log contains
+   *	the bids submitted during the replay)
+   */
+  public TACAgent replay(EventLog events) throws Exception {
+    AgentImpl agent = (AgentImpl) Class.forName(agentClass)
+      .getDeclaredConstructor().newInstance();
+    TACAgent agentWare = TACAgent.createReplayAgent(agent, config);
+    for (int i = 0, n = events.size(); i < n; i++) {
+      agentWare.replayEvent(events, i);
+    }
+    return agentWare;
+  }
+
+  /**
+   * Compares the bids submitted in two event logs.
+   *
+   * @return the index of the first differing submitted bid or -1 if
+   *	the same bids were submitted in the same order
+   */
+  public static int compareBids(EventLog recorded, EventLog replayed) {
+    int i = 0, j = 0, bid = 0;
+    int n = recorded.size(), m = replayed.size();
+    while (true) {
+      while (i < n && recorded.getType(i) != EventLog.BID_SUBMITTED) i++;
+      while (j < m && replayed.getType(j) != EventLog.BID_SUBMITTED) j++;
+      if (i == n || j == m) {
+	return (i == n && j == m) ? -1 : bid;
+      }
+      if (recorded.getInt(i, 0) != replayed.getInt(j, 0)
+	  || recorded.getInt(i, 1) != replayed.getInt(j, 1)
+	  || !recorded.getText(i).equals(replayed.getText(j))) {
+	return bid;
+      }
+      i++;
+      j++;
+      bid++;
+    }
+  }
+
+  private static int countBids(EventLog events) {
+    int count = 0;
+    for (int i = 0, n = events.size(); i < n; i++) {
+      if (events.getType(i) == EventLog.BID_SUBMITTED) {
+	count++;
+      }
+    }
+    return count;
+  }
+
+  public static void main(String[] args) throws Exception {
+    String usage =
+      "Usage: EventReplayer [-options] <eventlog>...\n"
+      + "where options include:\n"
+      + "    -config <configfile>      set the config file to use\n"
+      + "    -agentimpl <className>    set the agent implementation\n"
+      + "    -repeat <n>               replay each game n times\n"
+      + "    -h                        show this help message\n";
+    ArgEnumerator a = new ArgEnumerator(args, usage, true);
+    String configFile = "agent.conf";
+    String agentClass = null;
+    int repeat = 1;
+    ArrayList files = new ArrayList();
+    while (a.hasNext()) {
+      String arg = a.next();
+      if (arg.equals("-config")) {
+	configFile = a.getString("-config");
+      } else if (arg.equals("-agentimpl")) {
+	agentClass = a.getString("-agentimpl");
+      } else if (arg.equals("-repeat")) {
+	repeat = a.getInt("-repeat");
+      } else if (arg.startsWith("-")) {
+	System.err.println("Unknown argument '" + arg + '\'');
+	a.usage(1);
+      } else {
+	files.add(arg);
+      }
+    }
+    if (files.size() == 0) {
+      a.usage(1);
+    }
+
+    Properties config = new File(configFile).exists()
+      ? TACAgent.getConfig(configFile)
+      : new Properties();
+    if (agentClass == null) {
+      agentClass = config.getProperty("agentimpl", "se.sics.tac.aw.DummyAgent")
+	.trim();
+    }
+
+    EventReplayer replayer = new EventReplayer(config, agentClass);
+    int failed = 0;
+    for (int f = 0, n = files.size(); f < n; f++) {
+      String file = (String) files.get(f);
+      EventLog events = EventLog.load(file);
+      for (int r = 0; r < repeat; r++) {
+	long time = System.nanoTime();
+	TACAgent agentWare = replayer.replay(events);
+	time = System.nanoTime() - time;
+	int diff = compareBids(events, agentWare.getEventLog());
+	System.out.println(file + ": " + events.size() + " events, "
+			   + countBids(events) + " bids, "
+			   + (time / 1000000) + " ms: "
+			   + (diff < 0 ? "identical" : "bid " + diff + " differs"));
+	if (diff >= 0) {
+	  failed++;
+	}
+      }
+    }
+    System.exit(failed > 0 ? 1 : 0);
+  }
+
+} // EventReplayer
@@ -0,0 +1,160 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * FlightEvents
+ *
+ * Created : 18 October, 2026
+ * Purpose : Java Flight Recorder events emitted by the agent ware so
+ *           that games recorded with "-XX:StartFlightRecording" can
+ *           be correlated with GC pauses and safepoints. The events
+ *           are always allocated but only filled in and committed
+ *           when recording is enabled (check shouldCommit() before
+ *           setting the fields). As the events use jdk.jfr, the
+ *           agent ware needs Java 11 or newer.
+ */
+
+package se.sics.tac.aw;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import jdk.jfr.Timestamp;
+
+public final class FlightEvents {
+
+  private final static String CATEGORY = "TAC AgentWare";
+
+  private FlightEvents() {
+  }
+
+  @Name("se.sics.tac.MessageSent")
+  @Label("Message Sent")
+  @Category({ CATEGORY, "Messages" })
+  @StackTrace(false)
+  public static final class MessageSent extends Event {
+
+    @Label("Type")
+    public String type;
+
+    @Label("Auction")
+    @Description("The auction position the message is about or -1")
+    public int auction;
+
+    @Label("Bytes")
+    public int bytes;
+
+  } // MessageSent
+
+  @Name("se.sics.tac.MessageReceived")
+  @Label("Message Received")
+  @Category({ CATEGORY, "Messages" })
+  @StackTrace(false)
+  public static final class MessageReceived extends Event {
+
+    @Label("Type")
+    public String type;
+
+    @Label("Auction")
+    @Description("The auction position the message is about or -1")
+    public int auction;
+
+    @Label("Bytes")
+    public int bytes;
+
+    @Label("Latency")
+    @Description("Time from sending the message until its reply")
+    @Timespan(Timespan.MICROSECONDS)
+    public long latency;
+
+  } // MessageReceived
+
+  @Name("se.sics.tac.BidTransition")
+  @Label("Bid Transition")
+  @Category({ CATEGORY, "Bids" })
+  @StackTrace(false)
+  public static final class BidTransition extends Event {
+
+    @Label("Auction")
+    public int auction;
+
+    @Label("Bid ID")
+    public int bidID;
+
+    @Label("From")
+    public String from;
+
+    @Label("To")
+    public String to;
+
+    @Label("Reject Reason")
+    public int rejectReason;
+
+  } // BidTransition
+
+  @Name("se.sics.tac.TimerTask")
+  @Label("Timer Task")
+  @Category({ CATEGORY, "Timers" })
+  @StackTrace(false)
+  public static final class TimerTask extends Event {
+
+    @Label("Key")
+    public String key;
+
+    @Label("Scheduled")
+    @Description("The server time the task was scheduled for")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    public long scheduled;
+
+    @Label("Lag")
+    @Description("Delay from the scheduled time until the task started")
+    @Timespan(Timespan.MILLISECONDS)
+    public long lag;
+
+  } // TimerTask
+
+  @Name("se.sics.tac.Reconnect")
+  @Label("Reconnect")
+  @Category({ CATEGORY, "Connection" })
+  public static final class Reconnect extends Event {
+
+    @Label("Game")
+    @Description("The game being played when the connection was reset")
+    public int game;
+
+    @Label("Timeout")
+    @Timespan(Timespan.MILLISECONDS)
+    public long timeout;
+
+  } // Reconnect
+
+  @Name("se.sics.tac.StrategyDecision")
+  @Label("Strategy Decision")
+  @Category({ CATEGORY, "Strategy" })
+  @StackTrace(false)
+  public static final class StrategyDecision extends Event {
+
+    @Label("Decision")
+    public String decision;
+
+    @Label("Auction")
+    public int auction;
+
+    @Label("Client")
+    @Description("The client the decision was made for or -1")
+    public int client = -1;
+
+    @Label("Detail")
+    public String detail;
+
+  } // StrategyDecision
+
+} // FlightEvents
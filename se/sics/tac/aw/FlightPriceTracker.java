@@ -0,0 +1,295 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * FlightPriceTracker
+ *
+ * Created : 18 October, 2026
+ * Purpose : Tracks the ask prices of the flight auctions and estimates
+ *	     the hidden price drift of each auction.
+ *
+ *	     In TAC Classic each flight auction has a hidden parameter x
+ *	     drawn from [-10, 30]. Every 10 seconds the price changes by
+ *	     a value drawn uniformly from [-10, x(t)] (or [x(t), 10] if
+ *	     x(t) is negative) where x(t) = 10 + (t / T) * (x - 10). The
+ *	     tracker keeps a discrete posterior over x for each auction,
+ *	     updated with every observed price change, and forecasts the
+ *	     expected minimum price over the rest of the game.
+ */
+
+package se.sics.tac.aw;
+
+public class FlightPriceTracker {
+
+	private static final int FLIGHTS = 8;
+
+	/** The flight prices are perturbed with this period */
+	public static final int UPDATE_PERIOD = 10000;
+
+	public static final float MIN_PRICE = 150f;
+	public static final float MAX_PRICE = 800f;
+
+	static final int MIN_X = -10;
+	static final int MAX_X = 30;
+	static final int HYPOTHESES = MAX_X - MIN_X + 1;
+
+	// Size of the price history (must be a power of two)
+	private static final int HISTORY = 64;
+
+	// Likelihood for observations outside the model (rounding, clamping)
+	private static final double OUTLIER = 1e-4;
+
+	private long gameLength = 540000;
+	private float waitMargin = 5f;
+
+	// Price history per flight as ring buffers
+	private final float[][] askHistory = new float[FLIGHTS][HISTORY];
+	private final long[][] timeHistory = new long[FLIGHTS][HISTORY];
+	private final int[] historySize = new int[FLIGHTS];
+
+	// Posterior over the hidden parameter x per flight
+	private final double[][] posterior = new double[FLIGHTS][HYPOTHESES];
+
+	// Last observed price change step and price per flight
+	private final int[] lastStep = new int[FLIGHTS];
+	private final float[] lastAsk = new float[FLIGHTS];
+	private final float[] currentAsk = new float[FLIGHTS];
+
+	// Cached forecasts (updated on every quote)
+	private final float[] expectedMin = new float[FLIGHTS];
+	private final float[] expectedDrift = new float[FLIGHTS];
+
+	public FlightPriceTracker() {
+		gameStarted(gameLength);
+	}
+
+	/**
+	 * Sets the price saving that must be expected before waiting with a
+	 * flight purchase.
+	 */
+	public void setWaitMargin(float waitMargin) {
+		this.waitMargin = waitMargin;
+	}
+
+	public void gameStarted(long gameLength) {
+		this.gameLength = gameLength;
+		double uniform = 1.0 / HYPOTHESES;
+		for (int f = 0; f < FLIGHTS; f++) {
+			historySize[f] = 0;
+			lastStep[f] = -1;
+			lastAsk[f] = 0f;
+			currentAsk[f] = 0f;
+			expectedMin[f] = 0f;
+			expectedDrift[f] = 0f;
+			double[] p = posterior[f];
+			for (int i = 0; i < HYPOTHESES; i++) {
+				p[i] = uniform;
+			}
+		}
+	}
+
+	/**
+	 * Adds the quote to the history of its flight auction and updates the
+	 * drift estimate.
+	 * @param quote the updated flight quote
+	 * @param gameTime the current game time in milliseconds
+	 */
+	public void quoteUpdated(Quote quote, long gameTime) {
+		int flight = quote.getAuction();
+		float ask = quote.getAskPrice();
+		if (ask <= 0f) {
+			// No quote yet
+			return;
+		}
+
+		int pos = historySize[flight]++ & (HISTORY - 1);
+		askHistory[flight][pos] = ask;
+		timeHistory[flight][pos] = gameTime;
+		currentAsk[flight] = ask;
+
+		int step = (int) (gameTime / UPDATE_PERIOD);
+		if (lastStep[flight] < 0) {
+			lastStep[flight] = step;
+			lastAsk[flight] = ask;
+		} else if (step > lastStep[flight]) {
+			updatePosterior(flight, lastStep[flight], step, ask - lastAsk[flight],
+					ask <= MIN_PRICE || ask >= MAX_PRICE
+					|| lastAsk[flight] <= MIN_PRICE || lastAsk[flight] >= MAX_PRICE);
+			lastStep[flight] = step;
+			lastAsk[flight] = ask;
+		}
+		updateForecast(flight, ask, step);
+	}
+
+	// Updates the posterior with the price change between two steps
+	private void updatePosterior(int flight, int fromStep, int toStep,
+			float delta, boolean clamped) {
+		if (clamped) {
+			// Price changes at the price limits tell nothing about x
+			return;
+		}
+		double[] p = posterior[flight];
+		int steps = toStep - fromStep;
+		double t = (fromStep + toStep + 1) * 0.5 * UPDATE_PERIOD;
+		double total = 0.0;
+		for (int i = 0; i < HYPOTHESES; i++) {
+			double xt = getDrift(MIN_X + i, t);
+			double lo = xt < 0 ? xt : -10.0;
+			double hi = xt > 0 ? xt : 10.0;
+			double likelihood;
+			if (steps == 1) {
+				likelihood = (delta >= lo - 0.5 && delta <= hi + 0.5)
+					? 1.0 / (hi - lo + 1.0) : 0.0;
+			} else {
+				// The sum of several uniform changes is close to normal
+				double mean = steps * (lo + hi) * 0.5;
+				double var = steps * ((hi - lo) * (hi - lo) / 12.0) + 1.0;
+				double z = (delta - mean) / Math.sqrt(var);
+				likelihood = Math.exp(-0.5 * z * z) / Math.sqrt(var);
+			}
+			p[i] *= likelihood + OUTLIER;
+			total += p[i];
+		}
+		if (total > 0.0) {
+			for (int i = 0; i < HYPOTHESES; i++) {
+				p[i] /= total;
+			}
+		}
+	}
+
+	// Forecasts the expected minimum price for the rest of the game
+	private void updateForecast(int flight, float ask, int step) {
+		double[] p = posterior[flight];
+		int lastGameStep = (int) (gameLength / UPDATE_PERIOD);
+		double min = 0.0;
+		double drift = 0.0;
+		for (int i = 0; i < HYPOTHESES; i++) {
+			int x = MIN_X + i;
+			double price = ask;
+			double lowest = ask;
+			for (int s = step + 1; s < lastGameStep; s++) {
+				double xt = getDrift(x, (double) s * UPDATE_PERIOD);
+				double lo = xt < 0 ? xt : -10.0;
+				double hi = xt > 0 ? xt : 10.0;
+				price += (lo + hi) * 0.5;
+				if (price < MIN_PRICE) {
+					price = MIN_PRICE;
+				} else if (price > MAX_PRICE) {
+					price = MAX_PRICE;
+				}
+				if (price < lowest) {
+					lowest = price;
+				}
+			}
+			min += p[i] * lowest;
+			drift += p[i] * x;
+		}
+		expectedMin[flight] = (float) min;
+		expectedDrift[flight] = (float) drift;
+	}
+
+	// Returns x(t) for the hidden parameter x at game time t
+	private double getDrift(int x, double t) {
+		return getDrift(x, t, gameLength);
+	}
+
+	static double getDrift(int x, double t, long gameLength) {
+		return 10.0 + (t / gameLength) * (x - 10);
+	}
+
+	long getGameLength() {
+		return gameLength;
+	}
+
+	/**
+	 * @return the last ask price seen for the flight or 0 if no quote
+	 * has been seen
+	 */
+	public float getCurrentPrice(int flight) {
+		return currentAsk[flight];
+	}
+
+	/**
+	 * @return the price update step of the last seen quote or -1 if no
+	 * quote has been seen
+	 */
+	public int getCurrentStep(int flight) {
+		return lastStep[flight];
+	}
+
+	/**
+	 * Copies the posterior over the hidden parameter x of the flight as a
+	 * cumulative distribution (index i is x = -10 + i).
+	 */
+	public void getPosteriorDistribution(int flight, double[] cdf, int offset) {
+		double[] p = posterior[flight];
+		double sum = 0.0;
+		for (int i = 0; i < HYPOTHESES; i++) {
+			sum += p[i];
+			cdf[offset + i] = sum;
+		}
+	}
+
+	/**
+	 * @return the expected lowest price of the flight for the rest of the
+	 * game (including the current price)
+	 */
+	public float getExpectedMinPrice(int flight) {
+		return expectedMin[flight];
+	}
+
+	/**
+	 * @return the posterior mean of the hidden price parameter x
+	 */
+	public float getExpectedDrift(int flight) {
+		return expectedDrift[flight];
+	}
+
+	/**
+	 * Returns true if the flight should be bought now, i.e. waiting is not
+	 * expected to save more than the wait margin.
+	 */
+	public boolean shouldBuyNow(int flight) {
+		return historySize[flight] > 0
+			&& currentAsk[flight] - expectedMin[flight] <= waitMargin;
+	}
+
+	/**
+	 * @return the number of prices recorded for the flight
+	 */
+	public int getHistorySize(int flight) {
+		int size = historySize[flight];
+		return size < HISTORY ? size : HISTORY;
+	}
+
+	/**
+	 * @param index the history index where 0 is the oldest recorded price
+	 * @return the recorded ask price
+	 */
+	public float getHistoryPrice(int flight, int index) {
+		return askHistory[flight][getHistoryPosition(flight, index)];
+	}
+
+	/**
+	 * @param index the history index where 0 is the oldest recorded price
+	 * @return the game time when the price was recorded
+	 */
+	public long getHistoryTime(int flight, int index) {
+		return timeHistory[flight][getHistoryPosition(flight, index)];
+	}
+
+	private int getHistoryPosition(int flight, int index) {
+		int size = getHistorySize(flight);
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index
+					+ ", Size: " + size);
+		}
+		return (historySize[flight] - size + index) & (HISTORY - 1);
+	}
+
+} // FlightPriceTracker
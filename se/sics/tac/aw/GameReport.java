@@ -0,0 +1,287 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * GameReport
+ *
+ * Created : 18 October, 2026
+ * Purpose : Collects the performance of the agent during one game and
+ *           appends it as a single JSON line to a report file when the
+ *           game has ended: the messages by type with their sizes and
+ *           response times, the bids submitted and rejected, the age of
+ *           the quotes when bids were submitted, the CPU time used by
+ *           the agent implementation, the garbage collections during
+ *           the game, and the final goods owned and their utility.
+ *
+ *           The report file is rolled over to "<file>.1" when it grows
+ *           larger than MAX_FILE_SIZE.
+ */
+
+package se.sics.tac.aw;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+public class GameReport {
+
+  /** The size in bytes at which the report file is rolled over */
+  public final static long MAX_FILE_SIZE = 10 * 1024 * 1024;
+
+  private final TACAgent agent;
+  private final MessageStatistics statistics = new MessageStatistics();
+  private final LatencyHistogram quoteAge = new LatencyHistogram();
+
+  private final int gameID;
+  private final String agentClass;
+  private final long startTime;
+  private final long startNanos;
+  private final long startCpuTime;
+  private final GarbageCollectorMXBean[] collectors;
+  private final long[] startCollections;
+  private final long[] startCollectionTime;
+
+  /**
+   * Creates the report of the game just started.
+   *
+   * @param agentClass the class name of the agent implementation
+   * @param cpuTime the CPU time in nanoseconds used by the agent
+   *	implementation so far
+   */
+  public GameReport(TACAgent agent, String agentClass, long cpuTime) {
+    this.agent = agent;
+    this.gameID = agent.getGameID();
+    this.agentClass = agentClass;
+    this.startTime = System.currentTimeMillis();
+    this.startNanos = System.nanoTime();
+    this.startCpuTime = cpuTime;
+
+    List beans = ManagementFactory.getGarbageCollectorMXBeans();
+    int n = beans.size();
+    this.collectors = new GarbageCollectorMXBean[n];
+    this.startCollections = new long[n];
+    this.startCollectionTime = new long[n];
+    for (int i = 0; i < n; i++) {
+      GarbageCollectorMXBean collector = (GarbageCollectorMXBean) beans.get(i);
+      collectors[i] = collector;
+      startCollections[i] = collector.getCollectionCount();
+      startCollectionTime[i] = collector.getCollectionTime();
+    }
+  }
+
+  public int getGameID() {
+    return gameID;
+  }
+
+  /**
+   * Returns the response times and message sizes of the game.
+   */
+  public MessageStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Records the age in milliseconds of the quote of an auction when a
+   * bid was submitted to it.
+   */
+  public void recordQuoteAge(long millis) {
+    quoteAge.record(millis * 1000);
+  }
+
+  public LatencyHistogram getQuoteAge() {
+    return quoteAge;
+  }
+
+  /**
+   * Returns the report as a single line of JSON.
+   *
+   * @param bidTracker the bid records of the game
+   * @param cpuTime the CPU time in nanoseconds used by the agent
+   *	implementation so far
+   */
+  public String toJSON(BidTracker bidTracker, long cpuTime) {
+    StringBuffer sb = new StringBuffer();
+    sb.append("{\"game\":").append(gameID);
+    sb.append(",\"user\":");
+    appendString(sb, agent.getUser());
+    sb.append(",\"agent\":");
+    appendString(sb, agentClass);
+    sb.append(",\"startTime\":").append(startTime);
+    sb.append(",\"wallSeconds\":")
+      .append((System.nanoTime() - startNanos) / 1000000 / 1000.0f);
+
+    // Messages
+    LatencyHistogram total = statistics.getTotal();
+    sb.append(",\"messages\":{\"count\":").append(total.getCount())
+      .append(",\"bytesSent\":").append(statistics.getBytesSent())
+      .append(",\"bytesReceived\":").append(statistics.getBytesReceived())
+      .append(",\"responseMs\":");
+    appendHistogram(sb, total);
+    sb.append(",\"types\":{");
+    String[] types = statistics.getTypes();
+    for (int i = 0, n = types.length; i < n; i++) {
+      if (i > 0) {
+	sb.append(',');
+      }
+      appendString(sb, types[i]);
+      sb.append(':');
+      appendHistogram(sb, statistics.findHistogram(types[i]));
+    }
+    sb.append("}}");
+
+    // Bids per auction category
+    int categories = TACAgent.CAT_ENTERTAINMENT + 1;
+    int[][] outcomes = new int[categories][BidTracker.ERROR + 1];
+    int[] submitted = new int[categories];
+    for (int r = 0, n = bidTracker.getRecordCount(); r < n; r++) {
+      int category = TACAgent.getAuctionCategory(bidTracker.getAuction(r));
+      submitted[category]++;
+      outcomes[category][bidTracker.getOutcome(r)]++;
+    }
+    sb.append(",\"bids\":{");
+    for (int c = 0; c < categories; c++) {
+      if (c > 0) {
+	sb.append(',');
+      }
+      appendString(sb, TACAgent.auctionCategoryToString(c));
+      sb.append(":{\"submitted\":").append(submitted[c]);
+      for (int o = 1, n = outcomes[c].length; o < n; o++) {
+	sb.append(',');
+	appendString(sb, BidTracker.outcomeToString(o));
+	sb.append(':').append(outcomes[c][o]);
+      }
+      sb.append('}');
+    }
+    sb.append('}');
+
+    sb.append(",\"quoteAgeMs\":");
+    appendHistogram(sb, quoteAge);
+    sb.append(",\"strategyCpuMs\":")
+      .append((cpuTime - startCpuTime) / 1000000);
+
+    // Garbage collections during the game
+    long gcTime = 0L;
+    sb.append(",\"gc\":{");
+    for (int i = 0, n = collectors.length; i < n; i++) {
+      long time = collectors[i].getCollectionTime() - startCollectionTime[i];
+      if (i > 0) {
+	sb.append(',');
+      }
+      appendString(sb, collectors[i].getName());
+      sb.append(":{\"count\":")
+	.append(collectors[i].getCollectionCount() - startCollections[i])
+	.append(",\"timeMs\":").append(time).append('}');
+      gcTime += time;
+    }
+    sb.append("},\"gcTimeMs\":").append(gcTime);
+
+    // The final goods and the utility of the trips they allow
+    // (entertainment excluded)
+    int auctions = TACAgent.getAuctionNo();
+    float cost = 0f;
+    AllocationSolver solver = new AllocationSolver();
+    solver.setClients(agent);
+    sb.append(",\"own\":[");
+    for (int a = 0; a < auctions; a++) {
+      int own = agent.getOwn(a);
+      if (a > 0) {
+	sb.append(',');
+      }
+      sb.append(own);
+      cost += agent.getCost(a);
+      if (a < TACAgent.MIN_ENTERTAINMENT) {
+	solver.setGood(a, own, 0f, own);
+      }
+    }
+    sb.append("],\"allocation\":[");
+    for (int a = 0; a < auctions; a++) {
+      if (a > 0) {
+	sb.append(',');
+      }
+      sb.append(agent.getAllocation(a));
+    }
+    sb.append("],\"cost\":").append(cost);
+    sb.append(",\"tripUtility\":").append(solver.solve());
+    sb.append('}');
+    return sb.toString();
+  }
+
+  /**
+   * Appends the report to the file (as one line) and rolls the file
+   * over first if it has grown larger than MAX_FILE_SIZE.
+   */
+  public void write(String file, BidTracker bidTracker, long cpuTime)
+    throws IOException
+  {
+    String json = toJSON(bidTracker, cpuTime);
+    File fp = new File(file);
+    if (fp.length() > MAX_FILE_SIZE) {
+      File old = new File(file + ".1");
+      if (old.exists() && !old.delete()) {
+	throw new IOException("could not remove " + old);
+      }
+      if (!fp.renameTo(old)) {
+	throw new IOException("could not rename " + fp + " to " + old);
+      }
+    }
+    FileWriter out = new FileWriter(fp, true);
+    try {
+      out.write(json);
+      out.write('\n');
+    } finally {
+      out.close();
+    }
+  }
+
+
+
+  // -------------------------------------------------------------------
+  // JSON output
+  // -------------------------------------------------------------------
+
+  private static void appendHistogram(StringBuffer sb,
+				      LatencyHistogram histogram) {
+    sb.append("{\"count\":").append(histogram.getCount())
+      .append(",\"p50\":")
+      .append(MessageStatistics.toMillis(histogram.getPercentile(0.5)))
+      .append(",\"p90\":")
+      .append(MessageStatistics.toMillis(histogram.getPercentile(0.9)))
+      .append(",\"p99\":")
+      .append(MessageStatistics.toMillis(histogram.getPercentile(0.99)))
+      .append(",\"max\":")
+      .append(MessageStatistics.toMillis(histogram.getMax()))
+      .append('}');
+  }
+
+  static void appendString(StringBuffer sb, String value) {
+    if (value == null) {
+      sb.append("null");
+      return;
+    }
+    sb.append('"');
+    for (int i = 0, n = value.length(); i < n; i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+	sb.append('\\').append(c);
+      } else if (c < ' ') {
+	String hex = Integer.toHexString(c);
+	sb.append("\\u");
+	for (int j = hex.length(); j < 4; j++) {
+	  sb.append('0');
+	}
+	sb.append(hex);
+      } else {
+	sb.append(c);
+      }
+    }
+    sb.append('"');
+  }
+
+} // GameReport
@@ -0,0 +1,146 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * HotelBidBuilder
+ *
+ * Created : 18 October, 2026
+ * Purpose : Builds hotel bids from the marginal value of each unit.
+ *
+ *	     The value of the k-th room in a hotel auction is the
+ *	     difference between the best allocation with k rooms and
+ *	     with k - 1 rooms in that auction, where all other goods are
+ *	     bought at their predicted prices. The resulting values form
+ *	     a descending bid curve that is sent as one multi-point bid.
+ *	     Rooms currently in the hypothetical quantity won are always
+ *	     bid at least the ask price + 1 as required by the auction.
+ */
+
+package se.sics.tac.aw;
+
+public class HotelBidBuilder {
+
+	// Only flights and hotels are allocated (auctions 0 - 15)
+	private static final int GOODS = TACAgent.MIN_ENTERTAINMENT;
+
+	private final AllocationSolver solver = new AllocationSolver();
+
+	private final float[] marginalValue = new float[AllocationSolver.CLIENTS];
+
+	private TACAgent agent;
+
+	/**
+	 * Takes a snapshot of the game for the following calls to
+	 * createBid().
+	 * @param agent the agent
+	 * @param flightPrices the expected price of each flight auction
+	 * @param hotels the predictor of the hotel closing prices
+	 */
+	public void prepare(TACAgent agent, float[] flightPrices,
+			HotelPricePredictor hotels) {
+		this.agent = agent;
+		solver.setClients(agent);
+		for (int a = 0; a < GOODS; a++) {
+			int own = agent.getOwn(a);
+			if (a < TACAgent.MIN_HOTEL) {
+				float price = flightPrices[a] > 0f
+					? flightPrices[a] : agent.getQuote(a).getAskPrice();
+				solver.setGood(a, own, price, AllocationSolver.NO_LIMIT);
+			} else if (agent.getQuote(a).isAuctionClosed()) {
+				solver.setGood(a, own, HotelPricePredictor.CLOSED_PRICE, own);
+			} else {
+				solver.setGood(a, own, hotels.getExpectedPrice(a),
+						AllocationSolver.NO_LIMIT);
+			}
+		}
+	}
+
+	/**
+	 * Creates a bid for an open hotel auction from the marginal values of
+	 * its rooms.
+	 * @return the bid or null if there is nothing to bid for
+	 */
+	public Bid createBid(int auction) {
+		Quote quote = agent.getQuote(auction);
+		if (quote.isAuctionClosed()) {
+			return null;
+		}
+		float ask = quote.getAskPrice();
+		int hqw = quote.getHQW();
+		int units = getMarginalValues(auction, ask, hqw);
+		if (units == 0 && hqw <= 0) {
+			return null;
+		}
+
+		Bid bid = new Bid(auction);
+		int quantity = 0;
+		float price = 0f;
+		for (int k = 0, n = Math.max(units, hqw); k < n; k++) {
+			float value = k < units ? marginalValue[k] : 0f;
+			if (k < hqw && value < ask + 1) {
+				value = ask + 1;
+			}
+			if (quantity > 0 && value != price) {
+				bid.addBidPoint(quantity, price);
+				quantity = 0;
+			}
+			price = value;
+			quantity++;
+		}
+		if (quantity > 0) {
+			bid.addBidPoint(quantity, price);
+		}
+		return bid;
+	}
+
+	/**
+	 * @return the marginal value of the k-th room (0 based) in the auction
+	 * as computed by the last call to createBid()
+	 */
+	public float getMarginalValue(int k) {
+		return marginalValue[k];
+	}
+
+	// The solver holding the market of the last call to prepare()
+	AllocationSolver getSolver() {
+		return solver;
+	}
+
+	// Computes the non increasing marginal values of the rooms in the
+	// auction until a room is worth no more than the ask price (or the
+	// hypothetical quantity won is covered) and returns the number of rooms
+	int getMarginalValues(int auction, float ask, int hqw) {
+		int free = solver.getFree(auction);
+		float price = solver.getPrice(auction);
+		int limit = solver.getLimit(auction);
+		int units = 0;
+		try {
+			solver.setGood(auction, free, 0f, free);
+			float previous = solver.solve();
+			float cap = Float.MAX_VALUE;
+			while (units < marginalValue.length) {
+				solver.setGood(auction, free + units + 1, 0f, free + units + 1);
+				float value = solver.solve();
+				float marginal = value - previous;
+				if (marginal > cap) {
+					marginal = cap;
+				}
+				if (marginal <= 0f || (marginal <= ask && units >= hqw)) {
+					break;
+				}
+				marginalValue[units++] = marginal;
+				cap = marginal;
+				previous = value;
+			}
+		} finally {
+			solver.setGood(auction, free, price, limit);
+		}
+		return units;
+	}
+
+} // HotelBidBuilder
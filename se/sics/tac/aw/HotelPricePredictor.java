@@ -0,0 +1,151 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * HotelPricePredictor
+ *
+ * Created : 18 October, 2026
+ * Purpose : Base class for the hotel closing price predictors used by
+ *	     Phobos. A predictor is updated with every hotel quote and
+ *	     describes the closing price of each hotel auction as a
+ *	     normal distribution (expected price and deviation).
+ *
+ *	     The predictor implementation is selected with the
+ *	     configuration parameter 'hotelPredictor'.
+ */
+
+package se.sics.tac.aw;
+
+public abstract class HotelPricePredictor {
+
+	/** The closing price used for auctions that are closed to us */
+	public static final float CLOSED_PRICE = 9999f;
+
+	protected TACAgent agent;
+
+	/**
+	 * Creates the predictor with the specified class name.
+	 * @param className the name of a HotelPricePredictor subclass
+	 * @return the new predictor
+	 */
+	public static HotelPricePredictor createPredictor(String className) {
+		try {
+			return (HotelPricePredictor) Class.forName(className)
+					.getDeclaredConstructor().newInstance();
+		} catch (Exception e) {
+			throw new IllegalArgumentException("could not create hotel predictor "
+					+ className + ": " + e);
+		}
+	}
+
+	/**
+	 * Initializes the predictor. Called during agent initialization so the
+	 * agent configuration is still available.
+	 */
+	public void init(TACAgent agent) {
+		this.agent = agent;
+	}
+
+	/**
+	 * Resets all auction models at the start of a game.
+	 */
+	public abstract void gameStarted();
+
+	/**
+	 * Updates the model for the quote's hotel auction. Called for every
+	 * hotel quote received and must be cheap.
+	 * @param quote the updated quote
+	 * @param gameTime the current game time in milliseconds
+	 */
+	public abstract void quoteUpdated(Quote quote, long gameTime);
+
+	/**
+	 * @return the expected closing price of the hotel auction
+	 */
+	public abstract float getExpectedPrice(int auction);
+
+	/**
+	 * @return the standard deviation of the closing price of the hotel auction
+	 */
+	public abstract float getPriceDeviation(int auction);
+
+	/**
+	 * Returns the price that the closing price will stay below with the
+	 * given probability.
+	 * @param auction the hotel auction
+	 * @param probability a probability in the range (0, 1)
+	 * @return the closing price quantile
+	 */
+	public float getPriceQuantile(int auction, float probability) {
+		return getExpectedPrice(auction)
+			+ getPriceDeviation(auction) * (float) inverseNormal(probability);
+	}
+
+	/**
+	 * Returns the probability that the hotel auction closes at or below
+	 * the given price.
+	 */
+	public float getProbabilityBelow(int auction, float price) {
+		float deviation = getPriceDeviation(auction);
+		float expected = getExpectedPrice(auction);
+		if (deviation <= 0f) {
+			return price >= expected ? 1f : 0f;
+		}
+		return (float) normal((price - expected) / deviation);
+	}
+
+	// Returns the index (0-7) used for hotel auctions in per hotel arrays
+	static int getHotelIndex(int auction) {
+		return auction - TACAgent.MIN_HOTEL;
+	}
+
+	// -------------------------------------------------------------------
+	// Normal distribution helpers
+	// -------------------------------------------------------------------
+
+	// Standard normal density
+	static double density(double x) {
+		return Math.exp(-0.5 * x * x) / Math.sqrt(2 * Math.PI);
+	}
+
+	// Standard normal cumulative distribution (Abramowitz & Stegun 26.2.17)
+	static double normal(double x) {
+		double t = 1.0 / (1.0 + 0.2316419 * Math.abs(x));
+		double p = density(x) * t * (0.319381530 + t * (-0.356563782
+				+ t * (1.781477937 + t * (-1.821255978 + t * 1.330274429))));
+		return x >= 0 ? 1.0 - p : p;
+	}
+
+	// Inverse of the standard normal distribution (Acklam's approximation)
+	static double inverseNormal(double p) {
+		if (p <= 0.0) {
+			return Double.NEGATIVE_INFINITY;
+		} else if (p >= 1.0) {
+			return Double.POSITIVE_INFINITY;
+		} else if (p < 0.02425) {
+			double q = Math.sqrt(-2 * Math.log(p));
+			return (((((-7.784894002430293e-03 * q - 3.223964580411365e-01) * q
+					- 2.400758277161838) * q - 2.549732539343734) * q
+					+ 4.374664141464968) * q + 2.938163982698783)
+				/ ((((7.784695709041462e-03 * q + 3.224671290700398e-01) * q
+						+ 2.445134137142996) * q + 3.754408661907416) * q + 1);
+		} else if (p > 1 - 0.02425) {
+			return -inverseNormal(1 - p);
+		} else {
+			double q = p - 0.5;
+			double r = q * q;
+			return (((((-3.969683028665376e+01 * r + 2.209460984245205e+02) * r
+					- 2.759285104469687e+02) * r + 1.383577518672690e+02) * r
+					- 3.066479806614716e+01) * r + 2.506628277459239) * q
+				/ (((((-5.447609879822406e+01 * r + 1.615858368580409e+02) * r
+						- 1.556989798598866e+02) * r + 6.680131188771972e+01) * r
+						- 1.328068155288572e+01) * r + 1);
+		}
+	}
+
+} // HotelPricePredictor
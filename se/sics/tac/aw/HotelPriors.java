@@ -0,0 +1,243 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * HotelPriors
+ *
+ * Created : 18 October, 2026
+ * Purpose : Historical closing price statistics for the hotel auctions
+ *	     by hotel type and day. The priors are read from a simple
+ *	     properties file which can be generated from the game logs
+ *	     (written at log level 0 or 1) by running
+ *
+ *	       java se.sics.tac.aw.HotelPriors <priorfile> <gamelog>...
+ *
+ *	     The priors can also be taken from the closing prices in a
+ *	     PriceHistory.
+ */
+
+package se.sics.tac.aw;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+public class HotelPriors {
+
+	private static final Logger log =
+			Logger.getLogger(HotelPriors.class.getName());
+
+	private static final String[] typeName = { "cheap", "good" };
+
+	// Used when no history is available for a hotel
+	private static final float[][] DEFAULT_MEAN = {
+		{ 30f, 80f, 80f, 30f },		// Cheap hotel
+		{ 70f, 140f, 140f, 70f }	// Good hotel
+	};
+	private static final float DEFAULT_DEVIATION = 50f;
+
+	private float[][] mean = new float[2][4];
+	private float[][] deviation = new float[2][4];
+	private int[][] samples = new int[2][4];
+
+	public HotelPriors() {
+		for (int type = 0; type < 2; type++) {
+			for (int day = 0; day < 4; day++) {
+				mean[type][day] = DEFAULT_MEAN[type][day];
+				deviation[type][day] = DEFAULT_DEVIATION;
+			}
+		}
+	}
+
+	/**
+	 * Reads the priors from the specified file. Hotels missing in the file
+	 * keep their default priors. Nothing is read if the file does not exist.
+	 * @return true if the file was read
+	 */
+	public boolean load(String fileName) {
+		Properties p = TACAgent.getConfig(fileName);
+		if (p == null) {
+			return false;
+		}
+		for (int type = 0; type < 2; type++) {
+			for (int day = 0; day < 4; day++) {
+				String name = typeName[type] + '.' + (day + 1);
+				mean[type][day] = getFloat(p, name + ".mean", mean[type][day]);
+				deviation[type][day] =
+					getFloat(p, name + ".deviation", deviation[type][day]);
+				samples[type][day] = (int) getFloat(p, name + ".samples", 0f);
+			}
+		}
+		log.fine("loaded hotel priors from " + fileName);
+		return true;
+	}
+
+	/**
+	 * Sets the priors from the closing prices of the most recent games in
+	 * the price history. Hotels without history keep their priors.
+	 * @return true if any prior was set
+	 */
+	public boolean load(PriceHistory history, int games) {
+		float[] prices = new float[Math.min(games, history.getGameCount())];
+		boolean loaded = false;
+		for (int auction = TACAgent.MIN_HOTEL; auction <= TACAgent.MAX_HOTEL; auction++) {
+			int count = history.getClosingPrices(auction, games, prices);
+			if (count > 0) {
+				setPrior(TACAgent.getAuctionType(auction),
+						TACAgent.getAuctionDay(auction), prices, count);
+				loaded = true;
+			}
+		}
+		return loaded;
+	}
+
+	public void save(String fileName) throws IOException {
+		Properties p = new Properties();
+		for (int type = 0; type < 2; type++) {
+			for (int day = 0; day < 4; day++) {
+				String name = typeName[type] + '.' + (day + 1);
+				p.setProperty(name + ".mean", Float.toString(mean[type][day]));
+				p.setProperty(name + ".deviation",
+						Float.toString(deviation[type][day]));
+				p.setProperty(name + ".samples",
+						Integer.toString(samples[type][day]));
+			}
+		}
+		FileOutputStream out = new FileOutputStream(fileName);
+		try {
+			p.store(out, "Hotel closing price priors");
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Sets the prior for the hotel from a set of observed closing prices.
+	 */
+	public void setPrior(int type, int day, float[] closingPrices, int count) {
+		if (count > 0) {
+			double sum = 0, sumSq = 0;
+			for (int i = 0; i < count; i++) {
+				sum += closingPrices[i];
+				sumSq += closingPrices[i] * closingPrices[i];
+			}
+			double m = sum / count;
+			double var = count > 1 ? (sumSq - sum * m) / (count - 1) : 0;
+			mean[type][day - 1] = (float) m;
+			// Never trust a prior to be sharper than a few dollars
+			deviation[type][day - 1] = (float) Math.max(Math.sqrt(var), 5.0);
+			samples[type][day - 1] = count;
+		}
+	}
+
+	public float getMean(int type, int day) {
+		return mean[type][day - 1];
+	}
+
+	public float getDeviation(int type, int day) {
+		return deviation[type][day - 1];
+	}
+
+	public int getSamples(int type, int day) {
+		return samples[type][day - 1];
+	}
+
+	private static float getFloat(Properties p, String name, float def) {
+		String v = p.getProperty(name);
+		if (v != null) {
+			try {
+				return Float.parseFloat(v.trim());
+			} catch (NumberFormatException e) {
+				log.warning("illegal value for " + name + ": " + v);
+			}
+		}
+		return def;
+	}
+
+	// -------------------------------------------------------------------
+	// Extraction of closing prices from game logs
+	// -------------------------------------------------------------------
+
+	// Adds the closing price of each hotel found in the game log to prices
+	private static void readGameLog(File file, float[][] prices, int[] count)
+			throws IOException {
+		BufferedReader input = new BufferedReader(new FileReader(file));
+		boolean[] closed = new boolean[8];
+		int auction = -1;
+		try {
+			String line;
+			while ((line = input.readLine()) != null) {
+				int index = line.indexOf("requesting quotes for auction ");
+				if (index >= 0) {
+					int start = index + 30;
+					int end = line.indexOf(' ', start);
+					try {
+						auction = Integer.parseInt(end > 0
+								? line.substring(start, end)
+								: line.substring(start));
+					} catch (NumberFormatException e) {
+						auction = -1;
+					}
+				} else if (auction >= TACAgent.MIN_HOTEL
+						&& auction <= TACAgent.MAX_HOTEL
+						&& line.indexOf("XML in: '<getQuote>") >= 0) {
+					int hotel = HotelPricePredictor.getHotelIndex(auction);
+					if (!closed[hotel]
+							&& "3".equals(getValue(line, "auctionStatus"))) {
+						String ask = getValue(line, "lastAskPrice");
+						if (ask != null) {
+							closed[hotel] = true;
+							prices[hotel][count[hotel]++] = Float.parseFloat(ask);
+						}
+					}
+					auction = -1;
+				}
+			}
+		} finally {
+			input.close();
+		}
+	}
+
+	private static String getValue(String line, String tag) {
+		int start = line.indexOf('<' + tag + '>');
+		if (start >= 0) {
+			start += tag.length() + 2;
+			int end = line.indexOf('<', start);
+			if (end > start) {
+				return line.substring(start, end);
+			}
+		}
+		return null;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: HotelPriors <priorfile> <gamelog>...");
+			System.exit(1);
+		}
+		float[][] prices = new float[8][args.length - 1];
+		int[] count = new int[8];
+		for (int i = 1; i < args.length; i++) {
+			readGameLog(new File(args[i]), prices, count);
+		}
+
+		HotelPriors priors = new HotelPriors();
+		for (int hotel = 0; hotel < 8; hotel++) {
+			int auction = TACAgent.MIN_HOTEL + hotel;
+			priors.setPrior(TACAgent.getAuctionType(auction),
+					TACAgent.getAuctionDay(auction), prices[hotel], count[hotel]);
+			System.out.println(TACAgent.getAuctionTypeAsString(auction) + ": "
+					+ count[hotel] + " games");
+		}
+		priors.save(args[0]);
+	}
+
+} // HotelPriors
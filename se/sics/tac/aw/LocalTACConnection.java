@@ -0,0 +1,120 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * LocalTACConnection
+ *
+ * Created : 18 October, 2026
+ * Purpose : Connects the agent ware to an in-process simulated TAC
+ *           server (se.sics.tac.sim.Market) instead of a TAC server on
+ *           the network. The host name selects the market so several
+ *           agents in the same JVM using the same host play in the
+ *           same games. Replies are delivered in order by a separate
+ *           thread just as TACReader delivers the server replies.
+ *
+ *           A message is an activity of the clock until its reply has
+ *           been delivered which lets the simulated games run in
+ *           virtual time (see se.sics.tac.util.VirtualClock).
+ */
+
+package se.sics.tac.aw;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.botbox.util.ArrayQueue;
+import se.sics.tac.sim.Market;
+import se.sics.tac.util.Clock;
+
+public class LocalTACConnection extends TACConnection implements Runnable {
+
+  private static final Logger log =
+    Logger.getLogger(LocalTACConnection.class.getName());
+
+  private Market market;
+  private int userID = -1;
+  private Clock clock;
+
+  private ArrayQueue queue = new ArrayQueue();
+  private boolean disconnected = true;
+
+  protected void init() {
+    clock = Clock.getDefault();
+    market = Market.getMarket(agent.getHost());
+    disconnected = false;
+    new Thread(this, "local." + agent.getUser()).start();
+
+    // Automatically login! -> give an auth to the agent...
+    TACMessage msg = new TACMessage("auth");
+    msg.setParameter("userName", agent.getUser());
+    msg.setParameter("userPW", agent.getPassword());
+    msg.setMessageReceiver(agent);
+    try {
+      sendMessage(msg);
+    } catch (IOException e) {
+      log.log(Level.SEVERE, "could not login to market", e);
+    }
+  }
+
+  public boolean isConnected() {
+    return !disconnected;
+  }
+
+  public synchronized void disconnect() {
+    disconnected = true;
+    // Messages that will never be answered are no longer activities
+    while (!queue.isEmpty()) {
+      queue.remove(0);
+      clock.endActivity();
+    }
+    notify();
+  }
+
+  public synchronized void sendMessage(TACMessage msg) throws IOException {
+    if (disconnected) {
+      throw new IOException("Disconnected from market");
+    }
+    // Generates the message string and timestamps the message
+    msg.getMessageString();
+    clock.beginActivity();
+    queue.add(msg);
+    notify();
+  }
+
+  private synchronized TACMessage getMessage() {
+    while (queue.isEmpty() && !disconnected) {
+      try {
+	wait();
+      } catch (InterruptedException e) {
+      }
+    }
+    return disconnected ? null : (TACMessage) queue.remove(0);
+  }
+
+  public void run() {
+    try {
+      TACMessage msg;
+      while ((msg = getMessage()) != null) {
+	if ("auth".equals(msg.getType())) {
+	  userID = market.login(msg.getParameter("userName"),
+				msg.getParameter("userPW"));
+	}
+	try {
+	  msg.setReceivedMessage(market.handle(userID, msg));
+	  msg.deliverMessage();
+	} finally {
+	  clock.endActivity();
+	}
+      }
+    } catch (Throwable e) {
+      log.log(Level.SEVERE, "could not handle message:", e);
+      agent.reset(0, this);
+    }
+  }
+
+} // LocalTACConnection
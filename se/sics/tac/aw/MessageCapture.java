@@ -0,0 +1,224 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * MessageCapture
+ *
+ * Created : 18 October, 2026
+ * Purpose : Writes a compact binary capture of the messages exchanged
+ *	     with the TAC server. The capture is an append-only file
+ *	     written through a memory mapped buffer so adding a message
+ *	     is just a copy into memory; a background thread flushes
+ *	     the buffer to disk once a second.
+ *
+ *	     File format: the 8 byte header "TACCAP01" followed by
+ *	     records of
+ *
+ *	       int   length of the rest of the record
+ *	       long  server time in milliseconds
+ *	       byte  SENT or RECEIVED
+ *	       byte  message type code (see getTypeCode())
+ *	       short auction index or -1
+ *	       byte  payload (the XML message, one byte per character)
+ *
+ *	     A record length of 0 marks the end of the capture (the
+ *	     file is truncated to its content when closed).
+ */
+
+package se.sics.tac.aw;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class MessageCapture implements Runnable {
+
+  private static final Logger log =
+    Logger.getLogger(MessageCapture.class.getName());
+
+  public final static byte[] HEADER = {
+    'T', 'A', 'C', 'C', 'A', 'P', '0', '1'
+  };
+
+  public final static int SENT = 0;
+  public final static int RECEIVED = 1;
+
+  // Size of the record fields before the payload
+  final static int RECORD_HEADER = 8 + 1 + 1 + 2;
+
+  private final static String[] TYPES = {
+    "auth", "serverTime", "nextGame", "getGameParams", "getGameAuctionIDs",
+    "getGameConsts", "submitBid", "replaceBid", "getQuote", "bidInfo",
+    "transIDs", "transInfo", "recoverBidIDs", "quit"
+  };
+
+  private final static int REGION_SIZE = 4 * 1024 * 1024;
+
+  private final String name;
+  private final RandomAccessFile file;
+  private final FileChannel channel;
+  private MappedByteBuffer buffer;
+  private long regionStart;
+  private byte[] payload = new byte[1024];
+
+  private boolean isDirty = false;
+  private boolean isClosed = false;
+
+  public MessageCapture(String name) throws IOException {
+    this.name = name;
+    this.file = new RandomAccessFile(name, "rw");
+    file.setLength(0L);
+    this.channel = file.getChannel();
+    map(0L, REGION_SIZE);
+    buffer.put(HEADER);
+
+    Thread flusher = new Thread(this, "capture.flusher");
+    flusher.setDaemon(true);
+    flusher.start();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the type code of the message type or 0 if the message type
+   * is unknown.
+   */
+  public static int getTypeCode(String type) {
+    for (int i = 0, n = TYPES.length; i < n; i++) {
+      if (TYPES[i].equals(type)) {
+	return i + 1;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the message type of the type code or null if the type code
+   * is unknown.
+   */
+  public static String getType(int typeCode) {
+    return typeCode > 0 && typeCode <= TYPES.length
+      ? TYPES[typeCode - 1] : null;
+  }
+
+  /**
+   * Adds a message and the reply to it to the capture.
+   *
+   * @param msg the message (with its reply received)
+   * @param timeDiff the difference between the local time and the
+   *    server time
+   */
+  public void addMessage(TACMessage msg, long timeDiff) {
+    int type = getTypeCode(msg.getType());
+    int auction = msg.getAuction();
+    long timeSent = msg.getTimeSent() - timeDiff;
+    add(timeSent, SENT, type, auction, msg.getSentMessage());
+    add(timeSent + msg.getResponseTime(), RECEIVED, type, auction,
+	msg.getReceivedMessage());
+  }
+
+  public synchronized void add(long time, int direction, int type,
+			       int auction, String message) {
+    if (isClosed || message == null) {
+      return;
+    }
+    int len = message.length();
+    if (len > payload.length) {
+      payload = new byte[len + 1024];
+    }
+    for (int i = 0; i < len; i++) {
+      char c = message.charAt(i);
+      payload[i] = (byte) (c < 256 ? c : '?');
+    }
+
+    int size = 4 + RECORD_HEADER + len;
+    try {
+      if (buffer.remaining() < size) {
+	// Continue in a new region directly after the last record
+	buffer.force();
+	map(regionStart + buffer.position(), Math.max(REGION_SIZE, size));
+      }
+      buffer.putInt(RECORD_HEADER + len);
+      buffer.putLong(time);
+      buffer.put((byte) direction);
+      buffer.put((byte) type);
+      buffer.putShort((short) auction);
+      buffer.put(payload, 0, len);
+      if (!isDirty) {
+	isDirty = true;
+	notify();
+      }
+    } catch (IOException e) {
+      log.log(Level.SEVERE, "could not write to capture " + name, e);
+      isClosed = true;
+    }
+  }
+
+  private void map(long position, int size) throws IOException {
+    buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+    regionStart = position;
+  }
+
+  /**
+   * Flushes the capture to disk and truncates the file to its content.
+   */
+  public synchronized void close() {
+    if (!isClosed) {
+      isClosed = true;
+      notify();
+      try {
+	buffer.force();
+	channel.truncate(regionStart + buffer.position());
+      } catch (IOException e) {
+	// Some platforms do not allow truncating a mapped file. The
+	// remaining zeros are read as the end of the capture.
+	log.log(Level.FINE, "could not truncate capture " + name, e);
+      }
+      try {
+	file.close();
+      } catch (IOException e) {
+	log.log(Level.WARNING, "could not close capture " + name, e);
+      }
+    }
+  }
+
+
+  // -------------------------------------------------------------------
+  // Background flushing
+  // -------------------------------------------------------------------
+
+  public void run() {
+    while (true) {
+      MappedByteBuffer buffer;
+      synchronized (this) {
+	while (!isDirty && !isClosed) {
+	  try {
+	    wait();
+	  } catch (InterruptedException e) {
+	  }
+	}
+	if (isClosed) {
+	  return;
+	}
+	isDirty = false;
+	buffer = this.buffer;
+      }
+      // Forcing the buffer does not block the writers
+      buffer.force();
+      try {
+	Thread.sleep(1000);
+      } catch (InterruptedException e) {
+      }
+    }
+  }
+
+} // MessageCapture
@@ -0,0 +1,105 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * MessageStatistics
+ *
+ * Created : 18 October, 2026
+ * Purpose : The response times of the messages sent over a connection,
+ *           as one LatencyHistogram per message type plus one for all
+ *           messages, and the number of bytes sent and received.
+ *           Recording never locks once a message type has been seen.
+ */
+
+package se.sics.tac.aw;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MessageStatistics extends MetricsRegistry.HistogramFamily {
+
+  private final LatencyHistogram total = new LatencyHistogram();
+  private final AtomicLong bytesSent = new AtomicLong();
+  private final AtomicLong bytesReceived = new AtomicLong();
+
+  public MessageStatistics() {
+    super("tac_response_time_seconds",
+	  "Time from sending a message to the server until its reply",
+	  "type");
+  }
+
+  /**
+   * Records the response time in microseconds of a message together
+   * with the size of the message and its reply.
+   */
+  public void record(String type, long micros, int sent, int received) {
+    getHistogram(type).record(micros);
+    total.record(micros);
+    bytesSent.addAndGet(sent);
+    bytesReceived.addAndGet(received);
+  }
+
+  /**
+   * Returns the number of bytes sent in the recorded messages.
+   */
+  public long getBytesSent() {
+    return bytesSent.get();
+  }
+
+  /**
+   * Returns the number of bytes received in the replies to the
+   * recorded messages.
+   */
+  public long getBytesReceived() {
+    return bytesReceived.get();
+  }
+
+  /**
+   * Returns the histogram of all messages.
+   */
+  public LatencyHistogram getTotal() {
+    return total;
+  }
+
+  /**
+   * Returns the message types seen so far in the order first seen.
+   */
+  public String[] getTypes() {
+    return getLabelValues();
+  }
+
+  /**
+   * Returns one line per message type (and a last line for all
+   * messages) with the count, p50, p99, and max response time in
+   * milliseconds.
+   */
+  public String toString() {
+    StringBuffer sb = new StringBuffer();
+    String[] types = getLabelValues();
+    for (int i = 0, n = types.length; i < n; i++) {
+      appendHistogram(sb, types[i], findHistogram(types[i]));
+    }
+    appendHistogram(sb, "all", total);
+    return sb.toString();
+  }
+
+  private static void appendHistogram(StringBuffer sb, String name,
+				      LatencyHistogram histogram) {
+    if (sb.length() > 0) {
+      sb.append('\n');
+    }
+    sb.append(name).append(": count=").append(histogram.getCount())
+      .append(" p50=").append(toMillis(histogram.getPercentile(0.5)))
+      .append(" p99=").append(toMillis(histogram.getPercentile(0.99)))
+      .append(" max=").append(toMillis(histogram.getMax()))
+      .append(" ms");
+  }
+
+  static float toMillis(long micros) {
+    return Math.round(micros / 10.0) / 100.0f;
+  }
+
+} // MessageStatistics
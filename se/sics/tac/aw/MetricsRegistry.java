@@ -0,0 +1,314 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * MetricsRegistry
+ *
+ * Created : 18 October, 2026
+ * Purpose : A small registry of the runtime metrics of an agent:
+ *           counters, gauges (read when the metrics are exported), and
+ *           latency histograms. The metrics are exported in the
+ *           Prometheus text format (see MetricsServer). Histograms are
+ *           exported as summaries in seconds with the 50th, 90th, and
+ *           99th percentiles and the max value (quantile 1).
+ *
+ *           Updating a counter or a histogram never locks.
+ */
+
+package se.sics.tac.aw;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MetricsRegistry {
+
+  private final static double[] QUANTILES = { 0.5, 0.9, 0.99, 1.0 };
+
+  private final ArrayList metrics = new ArrayList();
+
+  public MetricsRegistry() {
+  }
+
+  /**
+   * Adds a metric. The name must be unique within the registry.
+   */
+  public synchronized void addMetric(Metric metric) {
+    if (getMetric(metric.getName()) != null) {
+      throw new IllegalArgumentException("metric " + metric.getName()
+					 + " already exists");
+    }
+    metrics.add(metric);
+  }
+
+  public synchronized Metric getMetric(String name) {
+    for (int i = 0, n = metrics.size(); i < n; i++) {
+      Metric metric = (Metric) metrics.get(i);
+      if (metric.getName().equals(name)) {
+	return metric;
+      }
+    }
+    return null;
+  }
+
+  public Counter addCounter(String name, String help) {
+    Counter counter = new Counter(name, help);
+    addMetric(counter);
+    return counter;
+  }
+
+  public void addGauge(String name, String help, final Gauge gauge) {
+    addMetric(new Metric(name, help, "gauge") {
+	protected void writeSamples(StringBuffer sb) {
+	  writeSample(sb, getName(), null, gauge.getValue());
+	}
+      });
+  }
+
+  /**
+   * Adds an existing histogram (in microseconds) to be exported.
+   */
+  public void addHistogram(String name, String help,
+			   final LatencyHistogram histogram) {
+    addMetric(new Metric(name, help, "summary") {
+	protected void writeSamples(StringBuffer sb) {
+	  writeHistogram(sb, getName(), null, histogram);
+	}
+      });
+  }
+
+  /**
+   * Adds a family of histograms that are told apart by the value of a
+   * label.
+   */
+  public HistogramFamily addHistogramFamily(String name, String help,
+					    String label) {
+    HistogramFamily family = new HistogramFamily(name, help, label);
+    addMetric(family);
+    return family;
+  }
+
+  /**
+   * Writes all metrics in the Prometheus text format.
+   */
+  public void writePrometheus(StringBuffer sb) {
+    Metric[] list;
+    synchronized (this) {
+      list = (Metric[]) metrics.toArray(new Metric[metrics.size()]);
+    }
+    for (int i = 0, n = list.length; i < n; i++) {
+      list[i].write(sb);
+    }
+  }
+
+
+  // -------------------------------------------------------------------
+  // Prometheus text format
+  // -------------------------------------------------------------------
+
+  /**
+   * Writes a sample. The labels must already be formatted as
+   * name="value" pairs separated by commas (or be null).
+   */
+  public static void writeSample(StringBuffer sb, String name,
+				 String labels, double value) {
+    sb.append(name);
+    if (labels != null) {
+      sb.append('{').append(labels).append('}');
+    }
+    sb.append(' ');
+    if (Double.isNaN(value)) {
+      sb.append("NaN");
+    } else if (Double.isInfinite(value)) {
+      sb.append(value > 0 ? "+Inf" : "-Inf");
+    } else if (value == (long) value) {
+      sb.append((long) value);
+    } else {
+      sb.append(value);
+    }
+    sb.append('\n');
+  }
+
+  /**
+   * Writes the samples of a summary in seconds for a histogram in
+   * microseconds.
+   */
+  public static void writeHistogram(StringBuffer sb, String name,
+				    String labels, LatencyHistogram histogram) {
+    String prefix = labels == null ? "" : labels + ',';
+    for (int i = 0; i < QUANTILES.length; i++) {
+      writeSample(sb, name, prefix + "quantile=\"" + QUANTILES[i] + '"',
+		  histogram.getPercentile(QUANTILES[i]) / 1e6);
+    }
+    writeSample(sb, name + "_sum", labels, histogram.getSum() / 1e6);
+    writeSample(sb, name + "_count", labels, histogram.getCount());
+  }
+
+  /**
+   * Returns the label value escaped as required by the text format.
+   */
+  public static String escape(String value) {
+    if (value.indexOf('"') < 0 && value.indexOf('\\') < 0
+	&& value.indexOf('\n') < 0) {
+      return value;
+    }
+    StringBuffer sb = new StringBuffer();
+    for (int i = 0, n = value.length(); i < n; i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+	sb.append('\\').append(c);
+      } else if (c == '\n') {
+	sb.append("\\n");
+      } else {
+	sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+
+  // -------------------------------------------------------------------
+  // Metrics
+  // -------------------------------------------------------------------
+
+  public static abstract class Metric {
+
+    private final String name;
+    private final String help;
+    private final String type;
+
+    protected Metric(String name, String help, String type) {
+      this.name = name;
+      this.help = help;
+      this.type = type;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getHelp() {
+      return help;
+    }
+
+    void write(StringBuffer sb) {
+      sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+      sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+      writeSamples(sb);
+    }
+
+    protected abstract void writeSamples(StringBuffer sb);
+
+  } // Metric
+
+  public static class Counter extends Metric {
+
+    private final AtomicLong value = new AtomicLong();
+
+    Counter(String name, String help) {
+      super(name, help, "counter");
+    }
+
+    public void increment() {
+      value.incrementAndGet();
+    }
+
+    public void add(long delta) {
+      value.addAndGet(delta);
+    }
+
+    public long getValue() {
+      return value.get();
+    }
+
+    protected void writeSamples(StringBuffer sb) {
+      writeSample(sb, getName(), null, value.get());
+    }
+
+  } // Counter
+
+  public interface Gauge {
+
+    public double getValue();
+
+  } // Gauge
+
+  public static class HistogramFamily extends Metric {
+
+    private final String label;
+
+    // Replaced (never modified) when a new label value is seen. The
+    // histograms are published before the values.
+    private volatile String[] values = new String[0];
+    private volatile LatencyHistogram[] histograms = new LatencyHistogram[0];
+
+    protected HistogramFamily(String name, String help, String label) {
+      super(name, help, "summary");
+      this.label = label;
+    }
+
+    /**
+     * Returns the histogram for the label value, creating it if needed.
+     */
+    public LatencyHistogram getHistogram(String value) {
+      LatencyHistogram histogram = findHistogram(value);
+      return histogram != null ? histogram : addHistogram(value);
+    }
+
+    /**
+     * Returns the histogram for the label value or null if the value has
+     * not been seen.
+     */
+    public LatencyHistogram findHistogram(String value) {
+      String[] values = this.values;
+      LatencyHistogram[] histograms = this.histograms;
+      for (int i = 0, n = values.length; i < n; i++) {
+	if (values[i] == value || values[i].equals(value)) {
+	  return histograms[i];
+	}
+      }
+      return null;
+    }
+
+    /**
+     * Returns the label values seen so far in the order first seen.
+     */
+    public String[] getLabelValues() {
+      return (String[]) values.clone();
+    }
+
+    private synchronized LatencyHistogram addHistogram(String value) {
+      String[] values = this.values;
+      for (int i = 0, n = values.length; i < n; i++) {
+	if (values[i].equals(value)) {
+	  return histograms[i];
+	}
+      }
+      int n = values.length;
+      LatencyHistogram[] newHistograms = new LatencyHistogram[n + 1];
+      System.arraycopy(histograms, 0, newHistograms, 0, n);
+      LatencyHistogram histogram = new LatencyHistogram();
+      newHistograms[n] = histogram;
+      String[] newValues = new String[n + 1];
+      System.arraycopy(values, 0, newValues, 0, n);
+      newValues[n] = value;
+      this.histograms = newHistograms;
+      this.values = newValues;
+      return histogram;
+    }
+
+    protected void writeSamples(StringBuffer sb) {
+      String[] values = this.values;
+      LatencyHistogram[] histograms = this.histograms;
+      for (int i = 0, n = values.length; i < n; i++) {
+	writeHistogram(sb, getName(),
+		       label + "=\"" + escape(values[i]) + '"', histograms[i]);
+      }
+    }
+
+  } // HistogramFamily
+
+} // MetricsRegistry
@@ -0,0 +1,98 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * MetricsServer
+ *
+ * Created : 18 October, 2026
+ * Purpose : A small HTTP server that exports the metrics of a
+ *           MetricsRegistry at /metrics in the Prometheus text format
+ *           so that agents running without GUI can be charted.
+ */
+
+package se.sics.tac.aw;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class MetricsServer implements HttpHandler {
+
+  private static final Logger log =
+    Logger.getLogger(MetricsServer.class.getName());
+
+  private final static String CONTENT_TYPE = "text/plain; version=0.0.4";
+
+  private final MetricsRegistry registry;
+  private HttpServer server;
+
+  public MetricsServer(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * Starts serving the metrics on the port of all interfaces.
+   */
+  public synchronized void start(int port) throws IOException {
+    if (server != null) {
+      throw new IllegalStateException("already started");
+    }
+    server = HttpServer.create(new InetSocketAddress(port), 10);
+    server.createContext("/metrics", this);
+    // A single daemon thread is enough and never keeps the JVM running
+    server.setExecutor(Executors.newSingleThreadExecutor(new ThreadFactory() {
+	public Thread newThread(Runnable r) {
+	  Thread thread = new Thread(r, "metrics");
+	  thread.setDaemon(true);
+	  return thread;
+	}
+      }));
+    server.start();
+    log.info("serving metrics at http://localhost:" + getPort() + "/metrics");
+  }
+
+  public synchronized int getPort() {
+    return server != null ? server.getAddress().getPort() : -1;
+  }
+
+  public synchronized void stop() {
+    if (server != null) {
+      server.stop(0);
+      server = null;
+    }
+  }
+
+  public void handle(HttpExchange exchange) throws IOException {
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+	exchange.sendResponseHeaders(405, -1);
+	return;
+      }
+      StringBuffer sb = new StringBuffer();
+      registry.writePrometheus(sb);
+      byte[] data = sb.toString().getBytes("UTF-8");
+      exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+      exchange.sendResponseHeaders(200, data.length);
+      OutputStream output = exchange.getResponseBody();
+      output.write(data);
+      output.close();
+    } catch (IOException e) {
+      log.log(Level.FINE, "could not send metrics", e);
+    } finally {
+      exchange.close();
+    }
+  }
+
+} // MetricsServer
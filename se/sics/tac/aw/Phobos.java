@@ -145,10 +145,28 @@ public class Phobos extends AgentImpl {
 
 	private static final boolean DEBUG = false;
 
+	// Hotel quotes change once a minute so an older quote has missed an update
+	private static final long HOTEL_QUOTE_MAX_AGE = 65000;
+
 	private float[] prices;
-	private float[] previousPrices;
-	private float[] currentFlightPrices;
-	private float[] auctionDelta;
+
+	// The tunable constants of the strategy
+	private PhobosParameters params;
+
+	// Expected lowest price of each flight for the rest of the game
+	private float[] flightPriceEstimates;
+
+	// Tracks the flight prices and decides when to buy flights
+	private FlightPriceTracker flightTracker = new FlightPriceTracker();
+
+	// Predicts the closing prices of the hotel auctions
+	private HotelPricePredictor hotelPredictor;
+
+	// Builds the hotel bids from the marginal value of each room
+	private HotelBidBuilder hotelBidBuilder = new HotelBidBuilder();
+
+	// Confirms trip switches over sampled price scenarios (null if disabled)
+	private ScenarioEvaluator scenarioEvaluator;
 
 	// Store hotel price estimates
 	private float[] cheapHotelEstimates;
@@ -160,6 +178,49 @@ public class Phobos extends AgentImpl {
 
 	protected void init(ArgEnumerator args) {
 		prices = new float[TACAgent.getAuctionNo()];
+		params = PhobosParameters.fromConfig(agent);
+		log.fine("Parameters: " + params);
+		hotelPredictor = HotelPricePredictor.createPredictor(
+				agent.getConfig("hotelPredictor", "se.sics.tac.aw.SmoothingHotelPredictor"));
+		hotelPredictor.init(agent);
+		int scenarios = agent.getConfig("scenarios", 2000);
+		if (scenarios > 0) {
+			scenarioEvaluator = new ScenarioEvaluator(scenarios);
+		}
+	}
+
+	/**
+	 * Checks a trip switch against sampled price scenarios. The switch is
+	 * kept only if it is expected to increase the utility of the whole
+	 * allocation, so that a single noisy quote does not flip a trip.
+	 */
+	private boolean isSwitchExpectedToPay(Client client, Trip previous, Trip next) {
+		if (scenarioEvaluator == null) {
+			return true;
+		}
+		int[] inFlight = new int[8];
+		int[] outFlight = new int[8];
+		int[] hotelType = new int[8];
+		for (Client c : clients) {
+			Trip trip = c == client ? previous : c.getSelectedTrip();
+			if (trip != null) {
+				inFlight[c.clientNumber] = trip.getInFlight();
+				outFlight[c.clientNumber] = trip.getOutFlight();
+				hotelType[c.clientNumber] = trip.getHotelType();
+			}
+		}
+		scenarioEvaluator.prepare(agent, hotelPredictor, flightTracker);
+		int current = scenarioEvaluator.addCandidate(inFlight, outFlight, hotelType);
+		inFlight[client.clientNumber] = next.getInFlight();
+		outFlight[client.clientNumber] = next.getOutFlight();
+		hotelType[client.clientNumber] = next.getHotelType();
+		int alternative = scenarioEvaluator.addCandidate(inFlight, outFlight, hotelType);
+		scenarioEvaluator.evaluate(random.nextLong());
+
+		float gain = scenarioEvaluator.getDifferenceMean(current, alternative);
+		log.fine("Client " + client.clientNumber + " switch gain " + gain
+				+ " (variance " + scenarioEvaluator.getDifferenceVariance(current, alternative) + ')');
+		return gain > 0f;
 	}
 
 	// New information about the quotes on the auction (quote.getAuction())
@@ -169,20 +230,24 @@ public class Phobos extends AgentImpl {
 		int auctionCategory = TACAgent.getAuctionCategory(auction);
 
 		if (auctionCategory == TACAgent.CAT_FLIGHT) {
-			currentFlightPrices[auction] = quote.getAskPrice(); // Update currentFlightPrices[]
+			flightTracker.quoteUpdated(quote, agent.getGameTime());
+			flightPriceEstimates[auction] = flightTracker.getExpectedMinPrice(auction);
 
-			// If trend is negative, price going down
-			float trend = quote.getAskPrice() - previousPrices[auction];
-			int flightsNeeded = agent.getAllocation(auction) - agent.getOwn(auction);
+			// Flights already being bought are probably owned
+			int flightsNeeded = agent.getAllocation(auction) - agent.getOwn(auction)
+					- agent.getProbablyOwn(auction);
 
-			if (trend > 0 && flightsNeeded > 0) { // Prices are going up, so buy!
+			if (flightsNeeded > 0 && flightTracker.shouldBuyNow(auction)) { // Not expected to get cheaper, so buy!
 				Bid b = new Bid(auction);
 				b.addBidPoint(flightsNeeded, 1000);
 				agent.submitBid(b);
+				recordDecision("buyFlight", auction, -1, b);
 
 				// Remove the flights from monitoring and allocate them
 				assignAuctionItems(auction, flightsNeeded);
 			}
+		} else if (auctionCategory == TACAgent.CAT_HOTEL) {
+			hotelPredictor.quoteUpdated(quote, agent.getGameTime());
 		} else if (auctionCategory == TACAgent.CAT_ENTERTAINMENT && isInitialised) { //if type is entertainment and isInitialised is true
 	  
 			int owned = agent.getOwn(auction); //number of tickets of this type owned
@@ -191,7 +256,7 @@ public class Phobos extends AgentImpl {
 			//log.fine("Entertainment " + auction + ": alloc = " + alloc + ", owned = " + owned);
 			
 			Bid bid = new Bid(auction);
-			//sell all unallocated tickets for 101
+			//sell all unallocated tickets for 101 (by default)
 			//since if agents spend over 100 on a ticket
 			//the bonus they get must be less than 100
 			//and the amount we gain is greater than 100
@@ -200,16 +265,16 @@ public class Phobos extends AgentImpl {
 				if(alloc < owned) { //only if fewer tickets are allocated than owned
 					
 					if (TACAgent.getAuctionDay(auction) == 1) {
-						bid.addBidPoint(alloc - owned, 95f); //sell first day auction for lower price
+						bid.addBidPoint(alloc - owned, params.getFirstDaySellPrice()); //sell first day auction for lower price
 					} else {
-						bid.addBidPoint(alloc - owned, 101f);
+						bid.addBidPoint(alloc - owned, params.getEntertainmentSellPrice());
 					}
 				} 
 				
-				//for all allocated tickets sell at 200
+				//for all allocated tickets sell at 200 (by default)
 				for (int ticketNo = 0; ticketNo < alloc; ticketNo++) {
 					
-					bid.addBidPoint(-1, 200f);
+					bid.addBidPoint(-1, params.getAllocatedSellPrice());
 					
 				}
 			} else { //buy tickets here
@@ -222,8 +287,8 @@ public class Phobos extends AgentImpl {
 				//get the bonus for getting an extra ticket
 				float bonus = getAdditionalBonusForGivenTicket(new ETicket(type, day));
 				
-				//limit bonus to 103
-				if (bonus > 101) { bonus = 101; }
+				//limit bonus to 101 (by default)
+				if (bonus > params.getMaxEntertainmentBonus()) { bonus = params.getMaxEntertainmentBonus(); }
 				
 				if (bonus > 50) {
 					//set the price to bid to a random number between bonus-50 and bonus-10
@@ -242,8 +307,8 @@ public class Phobos extends AgentImpl {
 			}
 			
 			agent.submitBid(bid);
+			recordDecision("entertainmentBid", auction, -1, bid);
 		}
-		// previousPrices[auction] = quote.getAskPrice();
 	}
 
 
@@ -262,13 +327,7 @@ public class Phobos extends AgentImpl {
 				if (TACAgent.getAuctionCategory(auction) == TACAgent.CAT_HOTEL){
 					Quote quote = agent.getQuote(auction);
 
-					if (auctionDelta[auction] < quote.getAskPrice() - previousPrices[auction]) {
-						auctionDelta[auction] = quote.getAskPrice() - previousPrices[auction];
-					}
-
-					previousPrices[auction] = quote.getAskPrice();
-
-					prices[auction] = quote.getAskPrice() + auctionDelta[auction] + 5;
+					prices[auction] = hotelPredictor.getExpectedPrice(auction) + params.getHotelMargin();
 
 					// Update the estimates that are used in getUtility()
 					float[] estimates;
@@ -344,16 +403,14 @@ public class Phobos extends AgentImpl {
 	// game is available (preferences etc).
 	public void gameStarted() {
 		log.fine("Game " + agent.getGameID() + " started!");
+		// Same decisions when the game is replayed from its event log
+		random.setSeed(agent.getGameID());
 		isInitialised = false;
 		cheapHotelEstimates = new float[]{0,0,0,0};
 		expensiveHotelEstimates = new float[]{0,0,0,0};
-		currentFlightPrices = new float[TACAgent.getAuctionNo()]; // Reset flight prices array
-		previousPrices = new float[TACAgent.getAuctionNo()]; // Reset the previous prices array
-		auctionDelta  = new float[TACAgent.getAuctionNo()]; // Reset the auction delta
-
-		for (int i = 0; i < auctionDelta.length; ++i) {
-			auctionDelta[i] = 50;
-		}
+		flightPriceEstimates = new float[TACAgent.getAuctionNo()]; // Reset flight prices array
+		flightTracker.gameStarted(agent.getGameLength());
+		hotelPredictor.gameStarted();
 
 		clients = new ArrayList<Client>(); //
 	}
@@ -392,35 +449,75 @@ public class Phobos extends AgentImpl {
 
 		log.fine("*** Auction " + auction + " closed!");
 
-		for (int auctionNumber = 0, n = TACAgent.getAuctionNo(); auctionNumber < n; auctionNumber++) {
-			if (TACAgent.getAuctionCategory(auctionNumber) == TACAgent.CAT_HOTEL){
-				Quote quote = agent.getQuote(auctionNumber);
-				int alloc = agent.getAllocation(auctionNumber); // Allocation is number of items wanted from this auction
+		hotelBidBuilder.prepare(agent, flightPriceEstimates, hotelPredictor);
+		for (int auctionNumber = TACAgent.MIN_HOTEL; auctionNumber < TACAgent.MIN_ENTERTAINMENT; auctionNumber++) {
+			submitHotelBid(auctionNumber);
+		}
 
-				Bid hotelBid = new Bid(auctionNumber);
-				if(alloc > 0){
-					hotelBid.addBidPoint(alloc, prices[auctionNumber]);
-				}
+		log.fine("*** New bids submitted!");
+		refreshStaleHotelQuotes();
+	}
 
-				// Compulsary bid at lowest value
-				int unwanted = quote.getHQW() - alloc;
-				if(unwanted > 0){
-					hotelBid.addBidPoint(unwanted, quote.getAskPrice() + 1);
-				}
-				if(alloc > 0 && !quote.isAuctionClosed()){
-					// Only bid, if you have something to bid for
-					agent.submitBid(hotelBid);
-				}
+	/**
+	 * Requests new quotes for the open hotel auctions whose quote has missed
+	 * an update, so that the next hotel bids are based on current prices.
+	 */
+	private void refreshStaleHotelQuotes() {
+		for (int auction = TACAgent.MIN_HOTEL; auction < TACAgent.MIN_ENTERTAINMENT; auction++) {
+			if (!agent.getQuote(auction).isAuctionClosed()
+					&& agent.isQuoteStale(auction, HOTEL_QUOTE_MAX_AGE)) {
+				log.fine("Refreshing stale quote for hotel auction " + auction
+						+ " (age " + agent.getQuoteAge(auction) + " ms)");
+				agent.refreshQuote(auction);
 			}
-		} 
+		}
+	}
 
-		log.fine("*** New bids submitted!");
+	/**
+	 * Bids the marginal value of each room in the hotel auction. The hotel
+	 * bid builder must have been prepared.
+	 */
+	private void submitHotelBid(int auction) {
+		Bid hotelBid = hotelBidBuilder.createBid(auction);
+		if (hotelBid != null) {
+			// Only bid, if you have something to bid for
+			agent.submitBid(hotelBid);
+			recordDecision("hotelBid", auction, -1, hotelBid);
+		}
+	}
+
+	/**
+	 * Records a decision as a flight recorder event (only when recording)
+	 */
+	private static void recordDecision(String decision, int auction, int client, Object detail) {
+		FlightEvents.StrategyDecision event = new FlightEvents.StrategyDecision();
+		if (event.shouldCommit()) {
+			event.decision = decision;
+			event.auction = auction;
+			event.client = client;
+			event.detail = detail instanceof Bid ? ((Bid) detail).getBidString() : String.valueOf(detail);
+			event.commit();
+		}
+	}
+
+	/**
+	 * Evaluates every possible trip of every client with the current price
+	 * estimates and returns the summed utility (used by the benchmarks)
+	 */
+	float evaluateAllTrips() {
+		float total = 0;
+		for (Client client : clients) {
+			for (Trip trip : client.possibleTrips) {
+				total += trip.getUtility();
+			}
+		}
+		return total;
 	}
 
 	/**
 	 * The eticket list in clients
 	 */
-	private void updateAllEntertainmentBonuses() {
+	void updateAllEntertainmentBonuses() {
 		log.fine("Updating entertainment allocation information");
 		
 		//reset all arrays
@@ -614,18 +711,17 @@ public class Phobos extends AgentImpl {
 			switch (TACAgent.getAuctionCategory(i)) {
 			case TACAgent.CAT_HOTEL:
 				if (alloc > 0) {
-					price = 200;
-					prices[i] = 200f;
-					previousPrices[i] = 200f;
+					price = params.getInitialHotelBid();
+					prices[i] = price;
 				}
 				break;
 			case TACAgent.CAT_ENTERTAINMENT:
 				if (alloc < 0) {
-					price = 200;
-					prices[i] = 200f;
+					price = params.getInitialSellPrice();
+					prices[i] = price;
 				} else if (alloc > 0) {
-					price = 50;
-					prices[i] = 50f;
+					price = params.getInitialEntertainmentBid();
+					prices[i] = price;
 				}
 				break;
 			default:
@@ -747,6 +843,9 @@ public class Phobos extends AgentImpl {
 				clearAllocationTable();
 				Trip t = selectedTrip;
 				this.selectedTrip = getOptimalTrip();
+				if (t != selectedTrip && !isSwitchExpectedToPay(this, t, selectedTrip)) {
+					selectedTrip = t;
+				}
 
 				releaseUnusedItems();
 
@@ -770,6 +869,7 @@ public class Phobos extends AgentImpl {
 					log.fine("+++ Client " + clientNumber + " has switched trips");
 					log.fine("Previous: " + t.getInFlight() + " to " + t.getOutFlight() + ", type " + t.getHotelType());
 					log.fine("     New: " + selectedTrip.getInFlight() + " to " + selectedTrip.getOutFlight() + ", type " + selectedTrip.getHotelType());
+					recordDecision("switchTrip", -1, clientNumber, selectedTrip);
 					if(submitClientBid){
 						sendUpdatedBids();
 					} 
@@ -778,27 +878,10 @@ public class Phobos extends AgentImpl {
 		}
 
 		public void sendUpdatedBids() {
+			hotelBidBuilder.prepare(agent, flightPriceEstimates, hotelPredictor);
 			for (Integer auction : selectedTrip.getAuctions()) {
 				if (TACAgent.getAuctionCategory(auction) == TACAgent.CAT_HOTEL){
-
-					int alloc = agent.getAllocation(auction); // Allocation is number of items wanted from this auction
-
-					Bid hotelBid = new Bid(auction);
-					if(alloc > 0){
-						hotelBid.addBidPoint(alloc, prices[auction]);
-					}
-
-					// Compulsary bid at lowest value
-					Quote quote =  agent.getQuote(auction);
-					int unwanted = quote.getHQW() - alloc;
-					if(unwanted > 0){
-						hotelBid.addBidPoint(unwanted, quote.getAskPrice() + 1);
-					}
-					if(alloc > 0 && !quote.isAuctionClosed()){
-						// Only bid, if you have something to bid for
-						agent.submitBid(hotelBid);
-					}
-
+					submitHotelBid(auction);
 				}
 			}
 		}
@@ -1061,14 +1144,14 @@ public class Phobos extends AgentImpl {
 			int auction = TACAgent.getAuctionFor(TACAgent.CAT_FLIGHT, TACAgent.TYPE_INFLIGHT, inFlight);
 			if( !assignedItems.contains(auction) && agent.getAllocation(auction) >= agent.getOwn(auction)){
 				// Only apply inbound flight cost, if we need to buy a flight
-				flightCost += currentFlightPrices[auction];
+				flightCost += flightPriceEstimates[auction];
 			}
 			// If we own any unused flights, then consider it a cost
 			if( !assignedItems.contains(auction) ){
 				for(int ownedItem: assignedItems){
 					if(TACAgent.getAuctionCategory(ownedItem) == TACAgent.CAT_FLIGHT
 							&& TACAgent.getAuctionType(ownedItem) == TACAgent.TYPE_INFLIGHT){
-						flightCost += 380;
+						flightCost += params.getUnusedFlightCost();
 					}
 				}
 			}
@@ -1076,13 +1159,13 @@ public class Phobos extends AgentImpl {
 			auction = TACAgent.getAuctionFor(TACAgent.CAT_FLIGHT, TACAgent.TYPE_OUTFLIGHT, outFlight);
 			if( !assignedItems.contains(auction) && agent.getAllocation(auction) >= agent.getOwn(auction)){
 				// Only apply outbound flight cost, if we need to buy a flight
-				flightCost += currentFlightPrices[auction];
+				flightCost += flightPriceEstimates[auction];
 			}
 			if( !assignedItems.contains(auction) ){
 				for(int ownedItem: assignedItems){
 					if(TACAgent.getAuctionCategory(ownedItem) == TACAgent.CAT_FLIGHT
 							&& TACAgent.getAuctionType(ownedItem) == TACAgent.TYPE_OUTFLIGHT){
-						flightCost += 380;
+						flightCost += params.getUnusedFlightCost();
 					}
 				}
 			}
@@ -1118,7 +1201,7 @@ public class Phobos extends AgentImpl {
 						} else {
 							// If the auction is closed, then we add a fixed costs
 							if(!this.auctions.contains(existingAuction)){
-								hotelCost += 150;								
+								hotelCost += params.getClosedHotelCost();								
 							}
 						}
 					}
@@ -1156,7 +1239,7 @@ public class Phobos extends AgentImpl {
 				eBonus += preferences[i];
 			}
 			
-			eBonus /= 2;
+			eBonus = (int) (eBonus * params.getEntertainmentBonusFactor());
 			
 			// Calculate the overall utility of this trip
 			return 1000 - travelPenalty - flightCost - hotelCost + hotelBonus + eBonus;
@@ -0,0 +1,115 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * PhobosParameters
+ *
+ * Created : 18 October, 2026
+ * Purpose : The tunable constants of the Phobos strategy. Each parameter
+ *	     can be set in the agent configuration under its name and
+ *	     keeps the value Phobos has always used otherwise.
+ */
+
+package se.sics.tac.aw;
+
+public class PhobosParameters {
+
+	/** Price of the first bid for each needed hotel room */
+	public static final String INITIAL_HOTEL_BID = "initialHotelBid";
+	/** Price of the first bid for each needed entertainment ticket */
+	public static final String INITIAL_ENTERTAINMENT_BID = "initialEntertainmentBid";
+	/** Price of the first offer for each surplus entertainment ticket */
+	public static final String INITIAL_SELL_PRICE = "initialSellPrice";
+	/** Price at which unallocated entertainment tickets are sold */
+	public static final String ENTERTAINMENT_SELL_PRICE = "entertainmentSellPrice";
+	/** Price at which unallocated tickets for the first day are sold */
+	public static final String FIRST_DAY_SELL_PRICE = "firstDaySellPrice";
+	/** Price at which allocated entertainment tickets are offered */
+	public static final String ALLOCATED_SELL_PRICE = "allocatedSellPrice";
+	/** Highest bonus bid for an additional entertainment ticket */
+	public static final String MAX_ENTERTAINMENT_BONUS = "maxEntertainmentBonus";
+	/** Amount added to the predicted hotel prices */
+	public static final String HOTEL_MARGIN = "hotelMargin";
+	/** Cost of an owned flight that a trip does not use */
+	public static final String UNUSED_FLIGHT_COST = "unusedFlightCost";
+	/** Cost of giving up a room in a closed hotel auction */
+	public static final String CLOSED_HOTEL_COST = "closedHotelCost";
+	/** Share of the entertainment bonus counted in the trip utility */
+	public static final String ENTERTAINMENT_BONUS_FACTOR = "entertainmentBonusFactor";
+
+	private float initialHotelBid = 200f;
+	private float initialEntertainmentBid = 50f;
+	private float initialSellPrice = 200f;
+	private float entertainmentSellPrice = 101f;
+	private float firstDaySellPrice = 95f;
+	private float allocatedSellPrice = 200f;
+	private float maxEntertainmentBonus = 101f;
+	private float hotelMargin = 5f;
+	private float unusedFlightCost = 380f;
+	private float closedHotelCost = 150f;
+	private float entertainmentBonusFactor = 0.5f;
+
+	/**
+	 * Creates the parameters with their default values.
+	 */
+	public PhobosParameters() {
+	}
+
+	/**
+	 * Reads the parameters from the agent configuration. Must be called
+	 * during agent initialization while the configuration is available.
+	 * @param agent the agent
+	 * @return the parameters
+	 */
+	public static PhobosParameters fromConfig(TACAgent agent) {
+		PhobosParameters p = new PhobosParameters();
+		p.initialHotelBid = agent.getConfig(INITIAL_HOTEL_BID, p.initialHotelBid);
+		p.initialEntertainmentBid = agent.getConfig(INITIAL_ENTERTAINMENT_BID,
+				p.initialEntertainmentBid);
+		p.initialSellPrice = agent.getConfig(INITIAL_SELL_PRICE, p.initialSellPrice);
+		p.entertainmentSellPrice = agent.getConfig(ENTERTAINMENT_SELL_PRICE,
+				p.entertainmentSellPrice);
+		p.firstDaySellPrice = agent.getConfig(FIRST_DAY_SELL_PRICE, p.firstDaySellPrice);
+		p.allocatedSellPrice = agent.getConfig(ALLOCATED_SELL_PRICE, p.allocatedSellPrice);
+		p.maxEntertainmentBonus = agent.getConfig(MAX_ENTERTAINMENT_BONUS,
+				p.maxEntertainmentBonus);
+		p.hotelMargin = agent.getConfig(HOTEL_MARGIN, p.hotelMargin);
+		p.unusedFlightCost = agent.getConfig(UNUSED_FLIGHT_COST, p.unusedFlightCost);
+		p.closedHotelCost = agent.getConfig(CLOSED_HOTEL_COST, p.closedHotelCost);
+		p.entertainmentBonusFactor = agent.getConfig(ENTERTAINMENT_BONUS_FACTOR,
+				p.entertainmentBonusFactor);
+		return p;
+	}
+
+	public float getInitialHotelBid() { return initialHotelBid; }
+	public float getInitialEntertainmentBid() { return initialEntertainmentBid; }
+	public float getInitialSellPrice() { return initialSellPrice; }
+	public float getEntertainmentSellPrice() { return entertainmentSellPrice; }
+	public float getFirstDaySellPrice() { return firstDaySellPrice; }
+	public float getAllocatedSellPrice() { return allocatedSellPrice; }
+	public float getMaxEntertainmentBonus() { return maxEntertainmentBonus; }
+	public float getHotelMargin() { return hotelMargin; }
+	public float getUnusedFlightCost() { return unusedFlightCost; }
+	public float getClosedHotelCost() { return closedHotelCost; }
+	public float getEntertainmentBonusFactor() { return entertainmentBonusFactor; }
+
+	public String toString() {
+		return INITIAL_HOTEL_BID + '=' + initialHotelBid
+				+ ' ' + INITIAL_ENTERTAINMENT_BID + '=' + initialEntertainmentBid
+				+ ' ' + INITIAL_SELL_PRICE + '=' + initialSellPrice
+				+ ' ' + ENTERTAINMENT_SELL_PRICE + '=' + entertainmentSellPrice
+				+ ' ' + FIRST_DAY_SELL_PRICE + '=' + firstDaySellPrice
+				+ ' ' + ALLOCATED_SELL_PRICE + '=' + allocatedSellPrice
+				+ ' ' + MAX_ENTERTAINMENT_BONUS + '=' + maxEntertainmentBonus
+				+ ' ' + HOTEL_MARGIN + '=' + hotelMargin
+				+ ' ' + UNUSED_FLIGHT_COST + '=' + unusedFlightCost
+				+ ' ' + CLOSED_HOTEL_COST + '=' + closedHotelCost
+				+ ' ' + ENTERTAINMENT_BONUS_FACTOR + '=' + entertainmentBonusFactor;
+	}
+
+} // PhobosParameters
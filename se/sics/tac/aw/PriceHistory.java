@@ -0,0 +1,564 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * PriceHistory
+ *
+ * Created : 18 October, 2026
+ * Purpose : Store of the prices seen in completed games for use as
+ *	     priors by the price predictors. Each game is ingested from
+ *	     the event log of an agent into a partition file
+ *	     history/game_<id>_<agent>.col holding the quote time series
+ *	     of all auctions, the transactions of the agent, and the
+ *	     client preferences, each as a column. A summary file holds
+ *	     one column per auction with the closing (last quoted) price
+ *	     of each game so a scan over many games reads one contiguous
+ *	     column (the closing prices are the same for all agents).
+ *
+ *	     Several agents, also in separate processes, may share a
+ *	     store: the files are written to unique temporary files and
+ *	     the summary is updated under a file lock.
+ *
+ *	     All files are memory mapped when read so opening the store
+ *	     at agent startup only maps the summary file.
+ *
+ *	     Usage: java se.sics.tac.aw.PriceHistory <dir> <agent>
+ *	            <eventlog>...
+ *	     ingests saved event logs (see EventLog) of the agent into
+ *	     the store.
+ */
+
+package se.sics.tac.aw;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+
+public class PriceHistory {
+
+  private final static int SUMMARY_MAGIC = 0x54414853; // "TAHS"
+  private final static int GAME_MAGIC = 0x54414847; // "TAHG"
+  private final static int VERSION = 1;
+
+  private final static String SUMMARY_FILE = "summary.col";
+  private final static String LOCK_FILE = "summary.lock";
+
+  public final static int AUCTIONS = 28;
+  public final static int CLIENTS = 8;
+  public final static int PREFERENCES = 6;
+
+  private final File directory;
+
+  // Summary columns (null if the store is empty)
+  private final MappedByteBuffer summary;
+  private final int gameCount;
+  private final int startTimeColumn;
+  private final int closingColumn;
+
+  private PriceHistory(File directory, MappedByteBuffer summary) {
+    this.directory = directory;
+    this.summary = summary;
+    if (summary == null) {
+      gameCount = 0;
+      startTimeColumn = closingColumn = 0;
+    } else {
+      gameCount = summary.getInt(8);
+      // Header: magic, version, game count. Columns: game id (int),
+      // start time (long), and closing price per auction (float)
+      startTimeColumn = 12 + gameCount * 4;
+      closingColumn = startTimeColumn + gameCount * 8;
+    }
+  }
+
+  /**
+   * Opens the store in the specified directory. An empty store is
+   * returned if the directory does not contain a store.
+   */
+  public static PriceHistory open(String directory) throws IOException {
+    File dir = new File(directory);
+    File file = new File(dir, SUMMARY_FILE);
+    if (!file.exists()) {
+      return new PriceHistory(dir, null);
+    }
+    MappedByteBuffer summary = map(file, SUMMARY_MAGIC);
+    return new PriceHistory(dir, summary);
+  }
+
+  private static MappedByteBuffer map(File file, int magic)
+    throws IOException
+  {
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = raf.getChannel();
+      MappedByteBuffer buffer =
+	channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+      if (buffer.limit() < 12 || buffer.getInt(0) != magic
+	  || buffer.getInt(4) != VERSION) {
+	throw new IOException("not a price history file: " + file);
+      }
+      return buffer;
+    } finally {
+      // The mapping stays valid after the file has been closed
+      raf.close();
+    }
+  }
+
+  public String getDirectory() {
+    return directory.getPath();
+  }
+
+  /**
+   * Returns the number of games in the store. The games are ordered by
+   * game id.
+   */
+  public int getGameCount() {
+    return gameCount;
+  }
+
+  public int getGameID(int game) {
+    checkGame(game);
+    return summary.getInt(12 + game * 4);
+  }
+
+  public long getStartTime(int game) {
+    checkGame(game);
+    return summary.getLong(startTimeColumn + game * 8);
+  }
+
+  /**
+   * Returns the last quoted price of the auction in the game (the
+   * closing price for hotels) or NaN if the auction was never quoted.
+   */
+  public float getClosingPrice(int game, int auction) {
+    checkGame(game);
+    return summary.getFloat(getClosingPosition(auction) + game * 4);
+  }
+
+  /**
+   * Copies the closing prices of the auction in the most recent games
+   * (games where the auction was never quoted are skipped).
+   *
+   * @param auction the auction
+   * @param games the maximal number of games to scan
+   * @param prices the array to store the prices in
+   * @return the number of prices stored
+   */
+  public int getClosingPrices(int auction, int games, float[] prices) {
+    int position = getClosingPosition(auction);
+    int count = 0;
+    for (int game = Math.max(0, gameCount - games);
+	 game < gameCount && count < prices.length; game++) {
+      float price = summary.getFloat(position + game * 4);
+      if (!Float.isNaN(price)) {
+	prices[count++] = price;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the full history of the game as seen by the agent or null if
+   * the game of the agent is not in the store.
+   */
+  public Game getGame(int gameID, String agent) throws IOException {
+    File file = getGameFile(directory, gameID, agent);
+    return file.exists() ? new Game(map(file, GAME_MAGIC)) : null;
+  }
+
+  private int getClosingPosition(int auction) {
+    if (auction < 0 || auction >= AUCTIONS) {
+      throw new IndexOutOfBoundsException("auction: " + auction);
+    }
+    return closingColumn + auction * gameCount * 4;
+  }
+
+  private void checkGame(int game) {
+    if (game < 0 || game >= gameCount) {
+      throw new IndexOutOfBoundsException("game: " + game
+					  + " games: " + gameCount);
+    }
+  }
+
+  private static File getGameFile(File directory, int gameID,
+				  String agent) {
+    StringBuffer sb = new StringBuffer();
+    sb.append("game_").append(gameID).append('_');
+    // Only characters that are safe in file names on all platforms
+    for (int i = 0, n = agent.length(); i < n; i++) {
+      char c = agent.charAt(i);
+      sb.append(Character.isLetterOrDigit(c) || c == '-' ? c : '_');
+    }
+    return new File(directory, sb.append(".col").toString());
+  }
+
+
+  // -------------------------------------------------------------------
+  // Ingestion of completed games
+  // -------------------------------------------------------------------
+
+  /**
+   * Adds a completed game of an agent to the store in the specified
+   * directory (replacing any earlier version of the game of the agent).
+   *
+   * @param directory the store directory (created if needed)
+   * @param agent the name of the agent the event log is from
+   * @param events the event log of the game
+   * @return the game id or -1 if the event log contains no game
+   */
+  public static synchronized int ingest(String directory, String agent,
+					EventLog events)
+    throws IOException
+  {
+    int gameID = -1, gameLength = 0;
+    long startTime = 0L;
+    int[] prefs = new int[CLIENTS * PREFERENCES];
+    int[] own = new int[AUCTIONS];
+    int quotes = 0, transactions = 0;
+    for (int i = 0, n = events.size(); i < n; i++) {
+      switch (events.getType(i)) {
+      case EventLog.GAME_PARAMS:
+	gameID = events.getInt(i, 0);
+	gameLength = events.getInt(i, 1);
+	startTime = events.getLong(i, 2);
+	for (int j = 0; j < prefs.length; j++) {
+	  prefs[j] = events.getInt(i, 4 + j);
+	}
+	for (int j = 0; j < own.length; j++) {
+	  own[j] = events.getInt(i, 4 + prefs.length + j);
+	}
+	break;
+      case EventLog.QUOTE:
+	quotes++;
+	break;
+      case EventLog.TRANSACTION:
+	transactions++;
+	break;
+      }
+    }
+    if (gameID < 0) {
+      return -1;
+    }
+
+    int[] quoteTime = new int[quotes];
+    byte[] quoteAuction = new byte[quotes];
+    float[] quoteAsk = new float[quotes];
+    float[] quoteBid = new float[quotes];
+    int[] transTime = new int[transactions];
+    byte[] transAuction = new byte[transactions];
+    int[] transQuantity = new int[transactions];
+    float[] transPrice = new float[transactions];
+    float[] closing = new float[AUCTIONS];
+    boolean[] closed = new boolean[AUCTIONS];
+    for (int a = 0; a < AUCTIONS; a++) {
+      closing[a] = Float.NaN;
+    }
+    int q = 0, t = 0;
+    for (int i = 0, n = events.size(); i < n; i++) {
+      int type = events.getType(i);
+      if (type == EventLog.QUOTE) {
+	int auction = events.getInt(i, 0);
+	quoteTime[q] = (int) (events.getTime(i) - startTime);
+	quoteAuction[q] = (byte) auction;
+	quoteAsk[q] = events.getFloat(i, 4);
+	quoteBid[q] = events.getFloat(i, 5);
+	// The price of a closed auction never changes again
+	if (!closed[auction]) {
+	  closing[auction] = quoteAsk[q];
+	  closed[auction] = events.getInt(i, 1) == Quote.AUCTION_CLOSED;
+	}
+	q++;
+      } else if (type == EventLog.TRANSACTION) {
+	transTime[t] = (int) (events.getTime(i) - startTime);
+	transAuction[t] = (byte) events.getInt(i, 0);
+	transQuantity[t] = events.getInt(i, 1);
+	transPrice[t] = events.getFloat(i, 2);
+	t++;
+      }
+    }
+
+    File dir = new File(directory);
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("could not create directory " + directory);
+    }
+    File file = getGameFile(dir, gameID, agent);
+    File tmp = createTemporary(file);
+    DataOutputStream out = create(tmp);
+    try {
+      out.writeInt(GAME_MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(gameID);
+      out.writeInt(gameLength);
+      out.writeLong(startTime);
+      out.writeInt(quotes);
+      out.writeInt(transactions);
+      writeColumn(out, prefs);
+      writeColumn(out, own);
+      writeColumn(out, closing);
+      writeColumn(out, quoteTime);
+      out.write(quoteAuction);
+      writeColumn(out, quoteAsk);
+      writeColumn(out, quoteBid);
+      writeColumn(out, transTime);
+      out.write(transAuction);
+      writeColumn(out, transQuantity);
+      writeColumn(out, transPrice);
+    } finally {
+      out.close();
+    }
+    rename(tmp, file);
+
+    // Other processes may update the summary at the same time
+    RandomAccessFile lock = new RandomAccessFile(new File(dir, LOCK_FILE),
+						 "rw");
+    try {
+      FileLock fileLock = lock.getChannel().lock();
+      try {
+	updateSummary(dir, gameID, startTime, closing);
+      } finally {
+	fileLock.release();
+      }
+    } finally {
+      lock.close();
+    }
+    return gameID;
+  }
+
+  // Rewrites the summary with the game added (or replaced)
+  private static void updateSummary(File dir, int gameID, long startTime,
+				    float[] closing) throws IOException {
+    PriceHistory old = open(dir.getPath());
+    File file = new File(dir, SUMMARY_FILE);
+    File tmp = createTemporary(file);
+    int oldCount = old.getGameCount();
+    int index = 0;
+    while (index < oldCount && old.getGameID(index) < gameID) {
+      index++;
+    }
+    boolean replace = index < oldCount && old.getGameID(index) == gameID;
+    int count = replace ? oldCount : oldCount + 1;
+
+    DataOutputStream out = create(tmp);
+    try {
+      out.writeInt(SUMMARY_MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(count);
+      for (int i = 0, j = 0; i < count; i++) {
+	if (i == index) {
+	  out.writeInt(gameID);
+	  j = replace ? j + 1 : j;
+	} else {
+	  out.writeInt(old.getGameID(j++));
+	}
+      }
+      for (int i = 0, j = 0; i < count; i++) {
+	if (i == index) {
+	  out.writeLong(startTime);
+	  j = replace ? j + 1 : j;
+	} else {
+	  out.writeLong(old.getStartTime(j++));
+	}
+      }
+      for (int a = 0; a < AUCTIONS; a++) {
+	for (int i = 0, j = 0; i < count; i++) {
+	  if (i == index) {
+	    out.writeFloat(closing[a]);
+	    j = replace ? j + 1 : j;
+	  } else {
+	    out.writeFloat(old.getClosingPrice(j++, a));
+	  }
+	}
+      }
+    } finally {
+      out.close();
+    }
+    rename(tmp, file);
+  }
+
+  // Files are written to a temporary file and renamed when complete so
+  // that readers never see a partially written file. The temporary file
+  // has a unique name since other processes may write the same file.
+  private static File createTemporary(File file) throws IOException {
+    return File.createTempFile(file.getName() + '.', ".tmp",
+			       file.getParentFile());
+  }
+
+  private static DataOutputStream create(File tmp) throws IOException {
+    return new DataOutputStream(new BufferedOutputStream
+				(new FileOutputStream(tmp), 65536));
+  }
+
+  private static void rename(File tmp, File file) throws IOException {
+    if (!tmp.renameTo(file)) {
+      // Some platforms can not rename over an existing file
+      file.delete();
+      if (!tmp.renameTo(file)) {
+	tmp.delete();
+	throw new IOException("could not write " + file);
+      }
+    }
+  }
+
+  private static void writeColumn(DataOutputStream out, int[] values)
+    throws IOException
+  {
+    for (int i = 0, n = values.length; i < n; i++) {
+      out.writeInt(values[i]);
+    }
+  }
+
+  private static void writeColumn(DataOutputStream out, float[] values)
+    throws IOException
+  {
+    for (int i = 0, n = values.length; i < n; i++) {
+      out.writeFloat(values[i]);
+    }
+  }
+
+
+  // -------------------------------------------------------------------
+  // Game partition
+  // -------------------------------------------------------------------
+
+  public static class Game {
+
+    private final MappedByteBuffer buffer;
+    private final int quoteCount;
+    private final int transactionCount;
+
+    // Column positions
+    private final int prefsColumn;
+    private final int ownColumn;
+    private final int closingColumn;
+    private final int quoteTimeColumn;
+    private final int quoteAuctionColumn;
+    private final int quoteAskColumn;
+    private final int quoteBidColumn;
+    private final int transTimeColumn;
+    private final int transAuctionColumn;
+    private final int transQuantityColumn;
+    private final int transPriceColumn;
+
+    Game(MappedByteBuffer buffer) {
+      this.buffer = buffer;
+      quoteCount = buffer.getInt(24);
+      transactionCount = buffer.getInt(28);
+      prefsColumn = 32;
+      ownColumn = prefsColumn + CLIENTS * PREFERENCES * 4;
+      closingColumn = ownColumn + AUCTIONS * 4;
+      quoteTimeColumn = closingColumn + AUCTIONS * 4;
+      quoteAuctionColumn = quoteTimeColumn + quoteCount * 4;
+      quoteAskColumn = quoteAuctionColumn + quoteCount;
+      quoteBidColumn = quoteAskColumn + quoteCount * 4;
+      transTimeColumn = quoteBidColumn + quoteCount * 4;
+      transAuctionColumn = transTimeColumn + transactionCount * 4;
+      transQuantityColumn = transAuctionColumn + transactionCount;
+      transPriceColumn = transQuantityColumn + transactionCount * 4;
+    }
+
+    public int getGameID() {
+      return buffer.getInt(8);
+    }
+
+    public int getGameLength() {
+      return buffer.getInt(12);
+    }
+
+    public long getStartTime() {
+      return buffer.getLong(16);
+    }
+
+    /**
+     * Returns the client preference (types as in
+     * TACAgent.getClientPreference()).
+     */
+    public int getClientPreference(int client, int type) {
+      return buffer.getInt(prefsColumn + (client * PREFERENCES + type) * 4);
+    }
+
+    /** Returns the goods owned by the agent at the start of the game */
+    public int getInitialOwn(int auction) {
+      return buffer.getInt(ownColumn + auction * 4);
+    }
+
+    public float getClosingPrice(int auction) {
+      return buffer.getFloat(closingColumn + auction * 4);
+    }
+
+    public int getQuoteCount() {
+      return quoteCount;
+    }
+
+    /** Returns the game time of the quote in milliseconds */
+    public int getQuoteTime(int index) {
+      return buffer.getInt(quoteTimeColumn + index * 4);
+    }
+
+    public int getQuoteAuction(int index) {
+      return buffer.get(quoteAuctionColumn + index);
+    }
+
+    public float getQuoteAskPrice(int index) {
+      return buffer.getFloat(quoteAskColumn + index * 4);
+    }
+
+    public float getQuoteBidPrice(int index) {
+      return buffer.getFloat(quoteBidColumn + index * 4);
+    }
+
+    public int getTransactionCount() {
+      return transactionCount;
+    }
+
+    /** Returns the game time of the transaction in milliseconds */
+    public int getTransactionTime(int index) {
+      return buffer.getInt(transTimeColumn + index * 4);
+    }
+
+    public int getTransactionAuction(int index) {
+      return buffer.get(transAuctionColumn + index);
+    }
+
+    public int getTransactionQuantity(int index) {
+      return buffer.getInt(transQuantityColumn + index * 4);
+    }
+
+    public float getTransactionPrice(int index) {
+      return buffer.getFloat(transPriceColumn + index * 4);
+    }
+
+  } // Game
+
+
+  // -------------------------------------------------------------------
+  // Ingestion of saved event logs
+  // -------------------------------------------------------------------
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      System.err.println("Usage: PriceHistory <dir> <agent> <eventlog>...");
+      System.exit(1);
+    }
+    for (int i = 2; i < args.length; i++) {
+      int gameID = ingest(args[0], args[1], EventLog.load(args[i]));
+      System.out.println(args[i] + ": "
+			 + (gameID < 0 ? "no game found" : "game " + gameID));
+    }
+    long time = System.nanoTime();
+    PriceHistory history = open(args[0]);
+    time = System.nanoTime() - time;
+    System.out.println(history.getGameCount() + " games in "
+		       + history.getDirectory() + " (opened in "
+		       + (time / 1000) + " us)");
+  }
+
+} // PriceHistory
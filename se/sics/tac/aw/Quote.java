@@ -42,6 +42,7 @@ public class Quote {
 
   private long nextQuoteTime = -1L;
   private long lastQuoteTime = 0L;
+  private long receivedTime = 0L;
 
   private float askPrice;
   private float bidPrice;
@@ -56,6 +57,7 @@ public class Quote {
     bidPrice = 0f;
     nextQuoteTime = -1L;
     lastQuoteTime = 0L;
+    receivedTime = 0L;
     bid = null;
     status = AUCTION_INITIALIZING;
     hqw = -1;
@@ -125,6 +127,18 @@ public class Quote {
     this.lastQuoteTime = lastQuoteTime;
   }
 
+  /**
+   * Returns the server time when this quote was received by the agent
+   * ware or 0 if no quote has been received in the current game.
+   */
+  public long getReceivedTime() {
+    return receivedTime;
+  }
+
+  void setReceivedTime(long receivedTime) {
+    this.receivedTime = receivedTime;
+  }
+
   void setBid(Bid bid) {
     this.bid = bid;
   }
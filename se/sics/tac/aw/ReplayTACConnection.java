@@ -0,0 +1,413 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * ReplayTACConnection
+ *
+ * Created : 18 October, 2026
+ * Purpose : Feeds the server traffic recorded in a game log (the "XML
+ *	     out"/"XML in" lines logged at FINEST in games/*.log) or in a
+ *	     message capture (games/*.cap, see MessageCapture) back to
+ *	     the agent ware without any server. The host name is the
+ *	     game log or capture to replay. Each message gets the first
+ *	     unused recorded reply to the same message or, if the agent sends
+ *	     a message that was never sent in the recorded game, the
+ *	     first unused recorded reply of the same message type for the
+ *	     same auction and bid. When the agent asks for a game after
+ *	     the recorded one, the agent is told that the replay is
+ *	     complete.
+ *
+ *	     Game logs start when the game starts so the login, server
+ *	     time, and next game replies are generated from the game ID
+ *	     and the time stamps in the log. The agent plays the game
+ *	     in real time unless virtual time is used
+ *	     ("virtualTime=true") in which case the game is replayed as
+ *	     fast as the agent can handle it.
+ */
+
+package se.sics.tac.aw;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.SimpleTimeZone;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.botbox.util.ArrayQueue;
+import se.sics.tac.util.Clock;
+
+public class ReplayTACConnection extends TACConnection implements Runnable {
+
+  private static final Logger log =
+    Logger.getLogger(ReplayTACConnection.class.getName());
+
+  private final static String OUT_PREFIX = "XML out: '";
+  private final static String IN_PREFIX = "XML in: '";
+  private final static String IN_SUFFIX = "' responseTime:";
+
+  private Clock clock;
+
+  // The recorded messages and replies in the order they were received
+  private String[] sent;
+  private String[] received;
+  private boolean[] used;
+  private int messageCount;
+
+  // Recorded replies by sent message and by message type, auction, and bid
+  private HashMap<String, Replies> replyBySent =
+    new HashMap<String, Replies>();
+  private HashMap<String, Replies> replyByType =
+    new HashMap<String, Replies>();
+
+  private int gameID = -1;
+  private long startTime = 0L;
+  private boolean gameReplied = false;
+
+  private int replayed = 0;
+  private int substituted = 0;
+  private int unmatched = 0;
+  private long replayStartTime;
+
+  private ArrayQueue queue = new ArrayQueue();
+  private boolean disconnected = true;
+
+  protected void init() {
+    clock = Clock.getDefault();
+    try {
+      load(agent.getHost());
+    } catch (IOException e) {
+      log.log(Level.SEVERE, "could not read game log " + agent.getHost(), e);
+      return;
+    }
+    log.info("replaying " + messageCount + " messages of game " + gameID
+	     + " from " + agent.getHost());
+    replayStartTime = System.currentTimeMillis();
+    disconnected = false;
+    new Thread(this, "replay." + agent.getUser()).start();
+
+    TACMessage msg = new TACMessage("auth");
+    msg.setParameter("userName", agent.getUser());
+    msg.setParameter("userPW", agent.getPassword());
+    msg.setMessageReceiver(agent);
+    try {
+      sendMessage(msg);
+    } catch (IOException e) {
+      log.log(Level.SEVERE, "could not login", e);
+    }
+  }
+
+  public boolean isConnected() {
+    return !disconnected;
+  }
+
+  public synchronized void disconnect() {
+    if (!disconnected) {
+      disconnected = true;
+      logStatistics();
+    }
+    while (!queue.isEmpty()) {
+      queue.remove(0);
+      clock.endActivity();
+    }
+    notify();
+  }
+
+  public synchronized void sendMessage(TACMessage msg) throws IOException {
+    if (disconnected) {
+      throw new IOException("Replay disconnected");
+    }
+    // Generates the message string and timestamps the message
+    msg.getMessageString();
+    clock.beginActivity();
+    queue.add(msg);
+    notify();
+  }
+
+  private synchronized TACMessage getMessage() {
+    while (queue.isEmpty() && !disconnected) {
+      try {
+	wait();
+      } catch (InterruptedException e) {
+      }
+    }
+    return disconnected ? null : (TACMessage) queue.remove(0);
+  }
+
+  public void run() {
+    try {
+      TACMessage msg;
+      while ((msg = getMessage()) != null) {
+	try {
+	  String reply = getReply(msg);
+	  if (reply != null) {
+	    msg.setReceivedMessage(reply);
+	    msg.deliverMessage();
+	  }
+	} finally {
+	  clock.endActivity();
+	}
+      }
+    } catch (Throwable e) {
+      log.log(Level.SEVERE, "could not replay message:", e);
+      agent.reset(0, this);
+    }
+  }
+
+  private void logStatistics() {
+    log.info("replayed " + replayed + " of " + messageCount
+	     + " messages (" + substituted + " substituted, " + unmatched
+	     + " unmatched) in "
+	     + (System.currentTimeMillis() - replayStartTime) + " ms");
+  }
+
+
+  // -------------------------------------------------------------------
+  // Replies
+  // -------------------------------------------------------------------
+
+  private String getReply(TACMessage msg) {
+    String type = msg.getType();
+    String message = msg.getMessageString();
+    // Remove the message terminator
+    message = message.substring(0, message.length() - 1);
+
+    int index = nextUnused(replyBySent.get(message));
+    if (index >= 0) {
+      used[index] = true;
+      replayed++;
+      return received[index];
+    }
+    // A reply recorded for another message of the same type, auction,
+    // and bid (for example a bid with other prices)
+    index = nextUnused(replyByType.get(getTypeKey(message)));
+    if (index >= 0) {
+      used[index] = true;
+      substituted++;
+      return received[index];
+    }
+
+    if ("quit".equals(type)) {
+      // Never answered by the server
+      return null;
+    } else if ("auth".equals(type)) {
+      return "<auth><userID>1</userID></auth>";
+    } else if ("serverTime".equals(type)) {
+      return "<serverTime><time>" + (startTime / 1000)
+	+ "</time></serverTime>";
+    } else if ("nextGame".equals(type)) {
+      if (!gameReplied) {
+	gameReplied = true;
+	return "<nextGame><gameID>" + gameID + "</gameID><startTime>"
+	  + (startTime / 1000) + "</startTime><commandStatus>0"
+	  + "</commandStatus></nextGame>";
+      }
+      // The agent has finished the recorded game
+      log.info("replay of game " + gameID + " complete");
+      disconnect();
+      agent.connectionFinished(this);
+      return null;
+    }
+
+    unmatched++;
+    log.warning("no recorded reply for " + message);
+    return null;
+  }
+
+  private int nextUnused(Replies replies) {
+    if (replies != null) {
+      while (replies.next < replies.count) {
+	int index = replies.indices[replies.next];
+	if (!used[index]) {
+	  return index;
+	}
+	replies.next++;
+      }
+    }
+    return -1;
+  }
+
+  private void addReply(HashMap<String, Replies> map, String key, int index) {
+    Replies replies = map.get(key);
+    if (replies == null) {
+      replies = new Replies();
+      map.put(key, replies);
+    }
+    replies.add(index);
+  }
+
+
+  // -------------------------------------------------------------------
+  // Game log parsing
+  // -------------------------------------------------------------------
+
+  private void load(String file) throws IOException {
+    ArrayList<String> sentList = new ArrayList<String>();
+    ArrayList<String> receivedList = new ArrayList<String>();
+    long firstTime = file.endsWith(".cap")
+      ? loadCapture(file, sentList, receivedList)
+      : loadLog(file, sentList, receivedList);
+
+    if (sentList.size() == 0) {
+      throw new IOException("no recorded messages found");
+    }
+    messageCount = sentList.size();
+    sent = sentList.toArray(new String[sentList.size()]);
+    received = receivedList.toArray(new String[receivedList.size()]);
+    used = new boolean[messageCount];
+    for (int i = 0; i < messageCount; i++) {
+      addReply(replyBySent, sent[i], i);
+      addReply(replyByType, getTypeKey(sent[i]), i);
+      if (gameID < 0) {
+	gameID = getGameID(sent[i]);
+      }
+    }
+
+    // The game started one second before the first message was logged
+    // (the agent ware starts a game one second after its start time)
+    startTime = (firstTime > 0L ? firstTime : System.currentTimeMillis())
+      - 1000;
+  }
+
+  // Reads the messages of a game log and returns the time of the first
+  // log line
+  private long loadLog(String file, ArrayList<String> sentList,
+		       ArrayList<String> receivedList) throws IOException {
+    String lastSent = null;
+    long firstTime = 0L;
+    BufferedReader reader = new BufferedReader(new FileReader(file));
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+	if (firstTime == 0L) {
+	  firstTime = parseTime(line);
+	}
+
+	int index = line.indexOf(OUT_PREFIX);
+	if (index >= 0 && line.endsWith("'")) {
+	  lastSent = line.substring(index + OUT_PREFIX.length(),
+				    line.length() - 1);
+	} else if ((index = line.indexOf(IN_PREFIX)) >= 0
+		   && lastSent != null) {
+	  int end = line.lastIndexOf(IN_SUFFIX);
+	  if (end > index) {
+	    sentList.add(lastSent);
+	    receivedList.add(line.substring(index + IN_PREFIX.length(), end));
+	  }
+	  lastSent = null;
+	}
+      }
+    } finally {
+      reader.close();
+    }
+    return firstTime;
+  }
+
+  // Reads the messages of a binary message capture (see MessageCapture)
+  // and returns the time of the first message
+  private long loadCapture(String file, ArrayList<String> sentList,
+			   ArrayList<String> receivedList) throws IOException {
+    CaptureReader reader = new CaptureReader(file);
+    String lastSent = null;
+    long firstTime = 0L;
+    while (reader.next()) {
+      if (firstTime == 0L) {
+	firstTime = reader.getTime();
+      }
+      if (reader.isSent()) {
+	lastSent = reader.getPayload();
+      } else if (lastSent != null) {
+	sentList.add(lastSent);
+	receivedList.add(reader.getPayload());
+	lastSent = null;
+      }
+    }
+    return firstTime;
+  }
+
+  private static String getType(String message) {
+    int end = message.indexOf('>');
+    return end > 1 ? message.substring(1, end) : message;
+  }
+
+  // Returns the message type together with the auction and bid the
+  // message is about (if any)
+  private static String getTypeKey(String message) {
+    String key = getType(message);
+    String auctionID = getElement(message, "auctionID");
+    String bidID = getElement(message, "bidID");
+    if (auctionID != null) {
+      key = key + " auction " + auctionID;
+    }
+    if (bidID != null) {
+      key = key + " bid " + bidID;
+    }
+    return key;
+  }
+
+  private static int getGameID(String message) {
+    String gameID = getElement(message, "gameID");
+    if (gameID != null) {
+      try {
+	return Integer.parseInt(gameID);
+      } catch (NumberFormatException e) {
+      }
+    }
+    return -1;
+  }
+
+  private static String getElement(String message, String name) {
+    int start = message.indexOf('<' + name + '>');
+    int end = message.indexOf("</" + name + '>');
+    return start >= 0 && end > start
+      ? message.substring(start + name.length() + 2, end)
+      : null;
+  }
+
+  // Parses the "dd/MM HH:mm:ss" time stamp of a log line (in UTC). The
+  // year is not logged and is assumed to be the latest year that does
+  // not put the time stamp in the future.
+  private static long parseTime(String line) {
+    SimpleDateFormat format = new SimpleDateFormat("dd/MM HH:mm:ss");
+    format.setTimeZone(new SimpleTimeZone(0, "UTC"));
+    Date date = format.parse(line, new ParsePosition(0));
+    if (date == null) {
+      return 0L;
+    }
+    Calendar calendar = Calendar.getInstance(new SimpleTimeZone(0, "UTC"));
+    int year = calendar.get(Calendar.YEAR);
+    long now = calendar.getTime().getTime();
+    calendar.setTime(date);
+    calendar.set(Calendar.YEAR, year);
+    if (calendar.getTime().getTime() > now) {
+      calendar.set(Calendar.YEAR, year - 1);
+    }
+    return calendar.getTime().getTime();
+  }
+
+  private static class Replies {
+    private int[] indices = new int[4];
+    private int count;
+    private int next;
+
+    void add(int index) {
+      if (count == indices.length) {
+	int[] tmp = new int[count * 2];
+	System.arraycopy(indices, 0, tmp, 0, count);
+	indices = tmp;
+      }
+      indices[count++] = index;
+    }
+  }
+
+} // ReplayTACConnection
@@ -0,0 +1,360 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * ScenarioEvaluator
+ *
+ * Created : 18 October, 2026
+ * Purpose : Monte Carlo evaluation of candidate trip allocations.
+ *
+ *	     The evaluator samples a number of price scenarios from the
+ *	     hotel predictor (closing prices) and the flight tracker
+ *	     (simulated price paths, paying the lowest price seen) and
+ *	     evaluates each candidate allocation in every scenario. All
+ *	     candidates are evaluated on the same scenarios so they can be
+ *	     compared directly. Sampling and evaluation are split over the
+ *	     scenarios using fork-join and work on preallocated primitive
+ *	     arrays only.
+ *
+ *	     Entertainment is not part of the evaluation.
+ */
+
+package se.sics.tac.aw;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ScenarioEvaluator {
+
+	private static final int CLIENTS = 8;
+
+	// Only flights and hotels are priced (auctions 0 - 15)
+	private static final int GOODS = TACAgent.MIN_ENTERTAINMENT;
+
+	// Scenarios handled sequentially by one fork-join task
+	private static final int LEAF_SCENARIOS = 128;
+
+	private static final int MAX_CANDIDATES = 16;
+
+	static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private final int scenarios;
+	private final ForkJoinPool pool;
+
+	// Market snapshot taken by prepare()
+	private final int[] own = new int[GOODS];
+	private final int[] arrival = new int[CLIENTS];
+	private final int[] departure = new int[CLIENTS];
+	private final int[] hotelValue = new int[CLIENTS];
+	private final float[] hotelMean = new float[GOODS];
+	private final float[] hotelDeviation = new float[GOODS];
+	private final float[] askPrice = new float[GOODS];
+	private final boolean[] closed = new boolean[GOODS];
+	private final double[] flightCDF =
+		new double[TACAgent.MIN_HOTEL * FlightPriceTracker.HYPOTHESES];
+	private final int[] flightStep = new int[TACAgent.MIN_HOTEL];
+	private long gameLength;
+
+	// Sampled prices (scenario * GOODS + auction)
+	private final float[] prices;
+
+	// Candidates: units to buy per auction and price independent utility
+	private final int[][] buy = new int[MAX_CANDIDATES][GOODS];
+	private final float[] baseUtility = new float[MAX_CANDIDATES];
+	private int candidates = 0;
+
+	// Utility per candidate and scenario (candidate * scenarios + scenario)
+	private final float[] utilities;
+	private final double[] mean = new double[MAX_CANDIDATES];
+	private final double[] variance = new double[MAX_CANDIDATES];
+
+	public ScenarioEvaluator(int scenarios) {
+		this(scenarios, ForkJoinPool.commonPool());
+	}
+
+	public ScenarioEvaluator(int scenarios, ForkJoinPool pool) {
+		if (scenarios <= 0) {
+			throw new IllegalArgumentException("illegal number of scenarios: "
+					+ scenarios);
+		}
+		this.scenarios = scenarios;
+		this.pool = pool;
+		this.prices = new float[scenarios * GOODS];
+		this.utilities = new float[MAX_CANDIDATES * scenarios];
+	}
+
+	public int getScenarioCount() {
+		return scenarios;
+	}
+
+	/**
+	 * Takes a snapshot of the market and the price predictions and removes
+	 * all candidates. Must be called from the thread that updates the
+	 * predictors.
+	 */
+	public void prepare(TACAgent agent, HotelPricePredictor hotels,
+			FlightPriceTracker flights) {
+		candidates = 0;
+		gameLength = flights.getGameLength();
+		for (int client = 0; client < CLIENTS; client++) {
+			arrival[client] = agent.getClientPreference(client, TACAgent.ARRIVAL);
+			departure[client] = agent.getClientPreference(client, TACAgent.DEPARTURE);
+			hotelValue[client] = agent.getClientPreference(client, TACAgent.HOTEL_VALUE);
+		}
+		for (int a = 0; a < GOODS; a++) {
+			Quote quote = agent.getQuote(a);
+			own[a] = agent.getOwn(a);
+			askPrice[a] = quote.getAskPrice();
+			closed[a] = quote.isAuctionClosed();
+			if (a >= TACAgent.MIN_HOTEL) {
+				hotelMean[a] = hotels.getExpectedPrice(a);
+				hotelDeviation[a] = hotels.getPriceDeviation(a);
+			} else {
+				flights.getPosteriorDistribution(a, flightCDF,
+						a * FlightPriceTracker.HYPOTHESES);
+				flightStep[a] = flights.getCurrentStep(a);
+				if (askPrice[a] <= 0f) {
+					// No quote yet: use the expected initial price
+					askPrice[a] = 325f;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds a candidate allocation. A client is given no trip by setting
+	 * its in flight day to 0.
+	 * @param inFlight the in flight day (1 - 4) for each client
+	 * @param outFlight the out flight day (2 - 5) for each client
+	 * @param hotelType the hotel type for each client
+	 * @return the index of the candidate
+	 */
+	public int addCandidate(int[] inFlight, int[] outFlight, int[] hotelType) {
+		if (candidates == MAX_CANDIDATES) {
+			throw new IllegalStateException("too many candidates");
+		}
+		int candidate = candidates++;
+		int[] units = buy[candidate];
+		for (int a = 0; a < GOODS; a++) {
+			units[a] = -own[a];
+		}
+		float utility = 0f;
+		for (int client = 0; client < CLIENTS; client++) {
+			int in = inFlight[client];
+			if (in > 0) {
+				int out = outFlight[client];
+				int type = hotelType[client];
+				units[TACAgent.getAuctionFor(TACAgent.CAT_FLIGHT,
+						TACAgent.TYPE_INFLIGHT, in)]++;
+				units[TACAgent.getAuctionFor(TACAgent.CAT_FLIGHT,
+						TACAgent.TYPE_OUTFLIGHT, out)]++;
+				for (int day = in; day < out; day++) {
+					units[TACAgent.getAuctionFor(TACAgent.CAT_HOTEL, type, day)]++;
+				}
+				utility += 1000 - 100 * (Math.abs(in - arrival[client])
+						+ Math.abs(departure[client] - out));
+				if (type == TACAgent.TYPE_GOOD_HOTEL) {
+					utility += hotelValue[client];
+				}
+			}
+		}
+		baseUtility[candidate] = utility;
+		return candidate;
+	}
+
+	/**
+	 * Samples new price scenarios and evaluates all candidates in them.
+	 * @param seed the seed for the scenarios (the same seed gives the
+	 *	same scenarios for the same snapshot)
+	 */
+	public void evaluate(long seed) {
+		pool.invoke(new ScenarioTask(seed, 0, scenarios));
+
+		for (int c = 0; c < candidates; c++) {
+			int offset = c * scenarios;
+			double sum = 0.0, sumSq = 0.0;
+			for (int s = 0; s < scenarios; s++) {
+				double u = utilities[offset + s];
+				sum += u;
+				sumSq += u * u;
+			}
+			mean[c] = sum / scenarios;
+			variance[c] = scenarios > 1
+				? Math.max((sumSq - sum * mean[c]) / (scenarios - 1), 0.0)
+				: 0.0;
+		}
+	}
+
+	public float getExpectedUtility(int candidate) {
+		return (float) mean[candidate];
+	}
+
+	public float getUtilityVariance(int candidate) {
+		return (float) variance[candidate];
+	}
+
+	/**
+	 * @return the expected utility of candidate b minus the expected
+	 * utility of candidate a
+	 */
+	public float getDifferenceMean(int a, int b) {
+		return (float) (mean[b] - mean[a]);
+	}
+
+	/**
+	 * @return the variance of the utility difference between candidate b
+	 * and candidate a over the scenarios
+	 */
+	public float getDifferenceVariance(int a, int b) {
+		int offsetA = a * scenarios;
+		int offsetB = b * scenarios;
+		double m = mean[b] - mean[a];
+		double sumSq = 0.0;
+		for (int s = 0; s < scenarios; s++) {
+			double d = utilities[offsetB + s] - utilities[offsetA + s] - m;
+			sumSq += d * d;
+		}
+		return scenarios > 1 ? (float) (sumSq / (scenarios - 1)) : 0f;
+	}
+
+	/**
+	 * @return the sampled price of the auction in the scenario
+	 */
+	public float getScenarioPrice(int scenario, int auction) {
+		return prices[scenario * GOODS + auction];
+	}
+
+	// Samples and evaluates the scenarios in the range [from, to)
+	private void evaluateScenarios(long seed, int from, int to) {
+		int lastGameStep = (int) (gameLength / FlightPriceTracker.UPDATE_PERIOD);
+		for (int s = from; s < to; s++) {
+			long state = scenarioState(seed, s);
+			int offset = s * GOODS;
+
+			for (int a = 0; a < TACAgent.MIN_HOTEL; a++) {
+				if (closed[a]) {
+					prices[offset + a] = HotelPricePredictor.CLOSED_PRICE;
+					continue;
+				}
+				// Draw the hidden parameter and follow a price path
+				state += GOLDEN_GAMMA;
+				double u = draw(state);
+				int cdfOffset = a * FlightPriceTracker.HYPOTHESES;
+				int i = 0;
+				while (i < FlightPriceTracker.HYPOTHESES - 1
+						&& flightCDF[cdfOffset + i] < u) {
+					i++;
+				}
+				int x = FlightPriceTracker.MIN_X + i;
+				double price = askPrice[a];
+				double lowest = price;
+				for (int step = flightStep[a] + 1; step < lastGameStep; step++) {
+					double xt = FlightPriceTracker.getDrift(x,
+							(double) step * FlightPriceTracker.UPDATE_PERIOD, gameLength);
+					double lo = xt < 0 ? xt : -10.0;
+					double hi = xt > 0 ? xt : 10.0;
+					state += GOLDEN_GAMMA;
+					price += lo + (hi - lo) * draw(state);
+					if (price < FlightPriceTracker.MIN_PRICE) {
+						price = FlightPriceTracker.MIN_PRICE;
+					} else if (price > FlightPriceTracker.MAX_PRICE) {
+						price = FlightPriceTracker.MAX_PRICE;
+					}
+					if (price < lowest) {
+						lowest = price;
+					}
+				}
+				prices[offset + a] = (float) lowest;
+			}
+
+			for (int a = TACAgent.MIN_HOTEL; a < GOODS; a++) {
+				if (closed[a]) {
+					prices[offset + a] = HotelPricePredictor.CLOSED_PRICE;
+				} else {
+					// Box-Muller normal sample truncated at the ask price
+					state += GOLDEN_GAMMA;
+					double u1 = draw(state);
+					state += GOLDEN_GAMMA;
+					double u2 = draw(state);
+					double z = Math.sqrt(-2.0 * Math.log(1.0 - u1))
+						* Math.cos(2.0 * Math.PI * u2);
+					double price = hotelMean[a] + hotelDeviation[a] * z;
+					prices[offset + a] =
+						(float) (price > askPrice[a] ? price : askPrice[a]);
+				}
+			}
+
+			for (int c = 0; c < candidates; c++) {
+				int[] units = buy[c];
+				float utility = baseUtility[c];
+				for (int a = 0; a < GOODS; a++) {
+					if (units[a] > 0) {
+						utility -= units[a] * prices[offset + a];
+					}
+				}
+				utilities[c * scenarios + s] = utility;
+			}
+		}
+	}
+
+	/**
+	 * Returns the start of the random stream of a scenario. Each scenario
+	 * has its own stream (a stream is stepped by GOLDEN_GAMMA before each
+	 * draw so streams started GOLDEN_GAMMA apart would share their draws).
+	 */
+	static long scenarioState(long seed, int scenario) {
+		return mix(seed ^ mix(scenario * GOLDEN_GAMMA));
+	}
+
+	// Returns a double in [0, 1) for the stream state
+	static double draw(long state) {
+		return toDouble(mix(state));
+	}
+
+	// SplitMix64 finalizer
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	// Returns a double in [0, 1)
+	private static double toDouble(long bits) {
+		return (bits >>> 11) * 0x1.0p-53;
+	}
+
+
+	// -------------------------------------------------------------------
+	// Fork-join task over a range of scenarios
+	// -------------------------------------------------------------------
+
+	private class ScenarioTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long seed;
+		private final int from;
+		private final int to;
+
+		ScenarioTask(long seed, int from, int to) {
+			this.seed = seed;
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (to - from <= LEAF_SCENARIOS) {
+				evaluateScenarios(seed, from, to);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ScenarioTask(seed, from, middle),
+						new ScenarioTask(seed, middle, to));
+			}
+		}
+	}
+
+} // ScenarioEvaluator
@@ -0,0 +1,172 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * SmoothingHotelPredictor
+ *
+ * Created : 18 October, 2026
+ * Purpose : Hotel closing price predictor combining an online model of
+ *	     each auction with historical priors per hotel type and day.
+ *
+ *	     The online model keeps an exponentially smoothed ask price
+ *	     increment per minute. Since one random open hotel auction
+ *	     closes each minute, an auction with k open auctions left is
+ *	     expected to see (k + 1) / 2 more price rounds. The prior
+ *	     (truncated at the current ask price) and the online estimate
+ *	     are combined by precision weighting.
+ */
+
+package se.sics.tac.aw;
+
+public class SmoothingHotelPredictor extends HotelPricePredictor {
+
+	private static final int HOTELS = 8;
+
+	private HotelPriors priors = new HotelPriors();
+	private int historyGames = 500;
+
+	// The price history the priors were last taken from
+	private PriceHistory history;
+	private float alpha = 0.5f;
+
+	// Online model per hotel auction (indexed by getHotelIndex())
+	private float[] lastAsk = new float[HOTELS];
+	private int[] lastMinute = new int[HOTELS];
+	private float[] increment = new float[HOTELS];
+	private float[] incrementVariance = new float[HOTELS];
+	private int[] observations = new int[HOTELS];
+	private boolean[] closed = new boolean[HOTELS];
+
+	// Cached prediction (updated on every quote)
+	private float[] expected = new float[HOTELS];
+	private float[] deviation = new float[HOTELS];
+
+	public void init(TACAgent agent) {
+		super.init(agent);
+		priors.load(agent.getConfig("hotelPriors", "hotelpriors.conf"));
+		alpha = agent.getConfig("hotelSmoothing", alpha);
+		historyGames = agent.getConfig("priceHistoryGames", historyGames);
+		updatePriors();
+	}
+
+	// Takes the priors from the price history when it has been updated
+	private void updatePriors() {
+		PriceHistory history = agent.getPriceHistory();
+		if (history != null && history != this.history) {
+			this.history = history;
+			priors.load(history, historyGames);
+		}
+	}
+
+	public void gameStarted() {
+		updatePriors();
+		for (int i = 0; i < HOTELS; i++) {
+			lastAsk[i] = 0f;
+			lastMinute[i] = -1;
+			increment[i] = 0f;
+			incrementVariance[i] = 0f;
+			observations[i] = 0;
+			closed[i] = false;
+			updatePrediction(i);
+		}
+	}
+
+	public void quoteUpdated(Quote quote, long gameTime) {
+		int hotel = getHotelIndex(quote.getAuction());
+		float ask = quote.getAskPrice();
+		int minute = (int) (gameTime / 60000);
+
+		if (quote.isAuctionClosed()) {
+			closed[hotel] = true;
+			lastAsk[hotel] = ask;
+		} else if (lastMinute[hotel] < 0) {
+			lastAsk[hotel] = ask;
+			lastMinute[hotel] = minute;
+		} else if (minute > lastMinute[hotel]) {
+			// Hotel quotes are only updated once per minute
+			float inc = (ask - lastAsk[hotel]) / (minute - lastMinute[hotel]);
+			if (observations[hotel] == 0) {
+				increment[hotel] = inc;
+			} else {
+				float diff = inc - increment[hotel];
+				increment[hotel] += alpha * diff;
+				incrementVariance[hotel] =
+					(1 - alpha) * (incrementVariance[hotel] + alpha * diff * diff);
+			}
+			observations[hotel]++;
+			lastAsk[hotel] = ask;
+			lastMinute[hotel] = minute;
+		} else {
+			lastAsk[hotel] = ask;
+		}
+		updatePrediction(hotel);
+	}
+
+	public float getExpectedPrice(int auction) {
+		return expected[getHotelIndex(auction)];
+	}
+
+	public float getPriceDeviation(int auction) {
+		return deviation[getHotelIndex(auction)];
+	}
+
+	private void updatePrediction(int hotel) {
+		float ask = lastAsk[hotel];
+		if (closed[hotel]) {
+			expected[hotel] = ask;
+			deviation[hotel] = 0f;
+			return;
+		}
+
+		// The prior truncated at the current ask price
+		int auction = TACAgent.MIN_HOTEL + hotel;
+		int type = TACAgent.getAuctionType(auction);
+		int day = TACAgent.getAuctionDay(auction);
+		double m = priors.getMean(type, day);
+		double s = priors.getDeviation(type, day);
+		double a = (ask - m) / s;
+		double tail = 1.0 - normal(a);
+		double priorMean, priorVar;
+		if (tail > 1e-6) {
+			double lambda = density(a) / tail;
+			priorMean = m + s * lambda;
+			priorVar = s * s * Math.max(1.0 + a * lambda - lambda * lambda, 0.01);
+		} else {
+			// The ask price is far above anything seen before
+			priorMean = ask;
+			priorVar = s * s * 0.01;
+		}
+
+		if (observations[hotel] == 0) {
+			expected[hotel] = (float) priorMean;
+			deviation[hotel] = (float) Math.sqrt(priorVar);
+			return;
+		}
+
+		// Expected number of remaining price rounds with k open auctions
+		int open = 0;
+		for (int i = 0; i < HOTELS; i++) {
+			if (!closed[i]) {
+				open++;
+			}
+		}
+		double rounds = (open + 1) / 2.0;
+		double roundsVar = (open * open - 1) / 12.0;
+		double inc = increment[hotel] > 0f ? increment[hotel] : 0.0;
+		double onlineMean = ask + inc * rounds;
+		double onlineVar = incrementVariance[hotel] * rounds
+			+ inc * inc * roundsVar + 1.0;
+
+		double w = priorVar / (priorVar + onlineVar);
+		double mean = w * onlineMean + (1 - w) * priorMean;
+		expected[hotel] = (float) (mean > ask ? mean : ask);
+		deviation[hotel] = (float) Math.sqrt(priorVar * onlineVar
+				/ (priorVar + onlineVar));
+	}
+
+} // SmoothingHotelPredictor
@@ -33,13 +33,16 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.FileHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.table.AbstractTableModel;
 
 import se.sics.tac.util.ArgEnumerator;
+import se.sics.tac.util.Clock;
 import se.sics.tac.util.LogFormatter;
+import se.sics.tac.util.VirtualClock;
 
 public class TACAgent implements Task, TACMessageReceiver {
 
@@ -192,6 +195,10 @@ public class TACAgent implements Task, TACMessageReceiver {
 
   private int userID = -1;
   private long timeDiff = 0;
+  // The server time is given in whole seconds and arrives after a round
+  // trip so the time diff might be this much (in milliseconds) too large
+  private long timeDiffUncertainty = 0;
+  private Clock clock = Clock.getDefault();
 
   private boolean isNextGameTaskRunning = false;
 
@@ -232,14 +239,71 @@ public class TACAgent implements Task, TACMessageReceiver {
   private String connectionClassName;
 
   private int exitAfterGames = -1;
+  private boolean stopped = false;
   private int gamesPlayed = 0;
   private int lastGamePlayed = -1;
 
+  // All inputs to the agent implementation during the current game
+  private EventLog eventLog = new EventLog();
+  private boolean saveEventLog = false;
+  private int eventLogGame = -1;
+
+  // Prices of the completed games (null if not used)
+  private String priceHistoryDir;
+  private volatile PriceHistory priceHistory;
+  private Thread priceHistoryThread;
+
+  // Binary capture of the server messages during the current game
+  private boolean saveCapture = false;
+  private MessageCapture capture;
+
+  // Performance report of the current game (null if not used)
+  private boolean saveGameReport = false;
+  private volatile GameReport gameReport;
+
+  // All bid instances in the current game by sequence number
+  private Bid[] bidSequence = new Bid[64];
+  private int bidSequenceNum = 0;
+
+  // Replay of a recorded game without server connection
+  private boolean isReplaying = false;
+  private long replayTime = 0L;
+
+  // Runtime metrics (exported when "metricsPort" is configured)
+  private final MetricsRegistry metrics = new MetricsRegistry();
+  private final MetricsRegistry.Counter quotesReceived =
+    metrics.addCounter("tac_quotes_received_total",
+		       "Quotes received from the server");
+  private final MetricsRegistry.Counter bidsSubmitted =
+    metrics.addCounter("tac_bids_submitted_total",
+		       "Bids submitted or replaced by the agent");
+  private final MetricsRegistry.Counter bidsRejected =
+    metrics.addCounter("tac_bids_rejected_total",
+		       "Bids rejected by the server");
+  private final MetricsRegistry.Counter transactionsReceived =
+    metrics.addCounter("tac_transactions_total",
+		       "Transactions in the auctions");
+  private final MetricsRegistry.Counter reconnects =
+    metrics.addCounter("tac_reconnects_total",
+		       "Resets of the server connection");
+  private final MetricsRegistry.HistogramFamily quoteAge =
+    metrics.addHistogramFamily("tac_bid_quote_age_seconds",
+			       "Age of the auction quote when a bid was"
+			       + " submitted", "category");
+  private final CallbackTracer callbackTracer = new CallbackTracer();
+  // The response times are kept over reconnects
+  private final MessageStatistics messageStatistics =
+    new MessageStatistics();
+  private final BidTracker bidTracker = new BidTracker();
+  private MetricsServer metricsServer;
+  private DashboardServer dashboardServer;
+
   private TACAgent(AgentImpl agent) {
     this.agent = agent;
     for (int i = 0; i < NO_AUCTIONS; i++) {
       quotes[i] = new Quote(i);
     }
+    initMetrics();
   }
 
   /**
@@ -313,6 +377,15 @@ public class TACAgent implements Task, TACMessageReceiver {
     this.logPrefix =
       trim(a.getArgument("-logPrefix", config.getProperty("logPrefix", "aw")));
 
+    // Virtual time can only be used against the simulated server
+    // (se.sics.tac.aw.LocalTACConnection) or when replaying a game log
+    // (se.sics.tac.aw.ReplayTACConnection)
+    if ("true".equals(trim(config.getProperty("virtualTime", null)))
+	&& !(Clock.getDefault() instanceof VirtualClock)) {
+      Clock.setDefault(new VirtualClock());
+    }
+    clock = Clock.getDefault();
+
     initLogging(consoleLevel, fileLevel, true);
 
     // Create directories for logs
@@ -326,6 +399,51 @@ public class TACAgent implements Task, TACMessageReceiver {
 
     printOwnDelay = a.getArgument("-printOwnDelay",
 				  getInt(config, "printOwnDelay", 0)) * 1000;
+    saveEventLog = "true".equals(trim(config.getProperty("eventLog", null)));
+    saveCapture =
+      "true".equals(trim(config.getProperty("messageCapture", null)));
+    saveGameReport =
+      "true".equals(trim(config.getProperty("gameReport", null)));
+    priceHistoryDir = trim(config.getProperty("priceHistory", null));
+    if (priceHistoryDir != null) {
+      try {
+	priceHistory = PriceHistory.open(priceHistoryDir);
+	log.fine("loaded price history of " + priceHistory.getGameCount()
+		 + " games from " + priceHistoryDir);
+      } catch (IOException e) {
+	log.log(Level.SEVERE, "could not open price history "
+		+ priceHistoryDir, e);
+      }
+    }
+
+    callbackTracer.setBudget(getInt(config, "callbackBudget", 0),
+			     getInt(config, "callbackSampleInterval", 5),
+			     getInt(config, "callbackTraces", 10));
+
+    int metricsPort = getInt(config, "metricsPort", 0);
+    if (metricsPort > 0) {
+      metricsServer = new MetricsServer(metrics);
+      try {
+	metricsServer.start(metricsPort);
+      } catch (IOException e) {
+	log.log(Level.SEVERE, "could not export metrics at port "
+		+ metricsPort, e);
+	metricsServer = null;
+      }
+    }
+
+    int dashboardPort = getInt(config, "dashboardPort", 0);
+    if (dashboardPort > 0) {
+      dashboardServer =
+	new DashboardServer(this, getInt(config, "dashboardFrameRate", 4));
+      try {
+	dashboardServer.start(dashboardPort);
+      } catch (IOException e) {
+	log.log(Level.SEVERE, "could not serve dashboard at port "
+		+ dashboardPort, e);
+	dashboardServer = null;
+      }
+    }
 
     log.fine("Starting TAC AgentWare version " + VERSION);
     log.fine("Using agent implementation " + agent.getClass().getName());
@@ -361,6 +479,24 @@ public class TACAgent implements Task, TACMessageReceiver {
     return getInt(config, name, defaultValue);
   }
 
+  /**
+   * Returns a configuration value as a float.
+   *
+   * @throws IllegalArgumentException if the value is not a number
+   */
+  public float getConfig(String name, float defaultValue) {
+    String value = getConfig(name, (String) null);
+    if (value != null) {
+      try {
+	return Float.parseFloat(value);
+      } catch (NumberFormatException e) {
+	throw new IllegalArgumentException("illegal value for " + name
+					   + ": " + value);
+      }
+    }
+    return defaultValue;
+  }
+
 
   // -------------------------------------------------------------------
   // GUI handling
@@ -374,6 +510,15 @@ public class TACAgent implements Task, TACMessageReceiver {
     display.setVisible(true);
   }
 
+  // Called by the display in the event dispatch thread to show the rows
+  // changed since last called
+  void updateDisplay() {
+    AgentTableModel tableModel = this.tableModel;
+    if (tableModel != null) {
+      tableModel.fireDirtyRows();
+    }
+  }
+
 
 
   // -------------------------------------------------------------------
@@ -408,6 +553,33 @@ public class TACAgent implements Task, TACMessageReceiver {
   }
 
 
+  /**
+   * Stops the agent without exiting: cancels the timers, logs out from
+   * the server, and closes the log files and servers of the agent. The
+   * agent will not play any more games. Used when several agents share
+   * one process (see se.sics.tac.sim.GameRunner).
+   */
+  public synchronized void stop() {
+    if (!stopped) {
+      stopped = true;
+      cancelTimers();
+      disconnect(0);
+      exitGameLog();
+      closeCapture();
+      if (metricsServer != null) {
+	metricsServer.stop();
+      }
+      if (dashboardServer != null) {
+	dashboardServer.stop();
+      }
+      if (rootFileHandler != null) {
+	Logger.getLogger("se").removeHandler(rootFileHandler);
+	rootFileHandler.close();
+      }
+    }
+  }
+
+
   // -------------------------------------------------------------------
   // Timer tasks - handles game start/end, quote and bid requests, etc
   // -------------------------------------------------------------------
@@ -514,7 +686,10 @@ public class TACAgent implements Task, TACMessageReceiver {
   }
 
   public long getServerTime() {
-    return System.currentTimeMillis() - timeDiff;
+    if (isReplaying) {
+      return replayTime;
+    }
+    return clock.currentTimeMillis() - timeDiff;
   }
 
   public long getGameTime() {
@@ -655,6 +830,14 @@ public class TACAgent implements Task, TACMessageReceiver {
     return owns[auctionID];
   }
 
+  /**
+   * Returns the total amount paid for the goods bought in the auction
+   * minus the amount received for the goods sold.
+   */
+  public float getCost(int auctionID) {
+    return costs[auctionID];
+  }
+
     // What might be owned in addition  to "getOwn"
   public int getProbablyOwn(int auctionID) {
     Bid bid = getBid(auctionID);
@@ -675,6 +858,38 @@ public class TACAgent implements Task, TACMessageReceiver {
     return quotes[auctionID];
   }
 
+  /**
+   * Returns the time in milliseconds since the quote of the auction was
+   * received or -1 if no quote has been received in the current game.
+   */
+  public long getQuoteAge(int auctionID) {
+    long received = quotes[auctionID].getReceivedTime();
+    return received > 0L ? getServerTime() - received : -1L;
+  }
+
+  /**
+   * Returns true if no quote of the auction has been received within
+   * the specified number of milliseconds. Stale quotes can be refreshed
+   * using <code>refreshQuote</code> before bidding on them.
+   */
+  public boolean isQuoteStale(int auctionID, long maxAge) {
+    long age = getQuoteAge(auctionID);
+    return age < 0L || age > maxAge;
+  }
+
+  /**
+   * Requests a new quote for the auction unless one is already pending
+   * or the auction is closed. The agent implementation is notified by
+   * <code>quoteUpdated</code> when the quote arrives.
+   */
+  public void refreshQuote(int auctionID) {
+    Quote quote = quotes[auctionID];
+    TACConnection connection = this.connection;
+    if (!isReplaying && connection != null && !quote.isAuctionClosed()) {
+      requestQuote(quote, connection, false);
+    }
+  }
+
   public int getAllocation(int auction) {
     return allocate[auction];
   }
@@ -682,7 +897,7 @@ public class TACAgent implements Task, TACMessageReceiver {
   public void setAllocation(int auction, int alloc) {
     allocate[auction] = alloc;
     if (tableModel != null) {
-      tableModel.fireTableCellUpdated(auction, 8);
+      tableModel.rowChanged(auction);
     }
   }
 
@@ -696,6 +911,12 @@ public class TACAgent implements Task, TACMessageReceiver {
     isGameStarted = false;
     lastHotelAuction = -1;
     clearID = 0;
+    eventLog.clear();
+    bidTracker.clear();
+    for (int i = 0; i < bidSequenceNum; i++) {
+      bidSequence[i] = null;
+    }
+    bidSequenceNum = 0;
     for (int i = 0, n = clientPrefs.length; i < n; i++) {
       int[] tmp = clientPrefs[i];
       for (int j = 0, m = tmp.length; j < m; j++) {
@@ -713,7 +934,7 @@ public class TACAgent implements Task, TACMessageReceiver {
       pendingQuotes[i] = 0L;
     }
     if (tableModel != null) {
-      tableModel.fireTableDataChanged();
+      tableModel.allRowsChanged();
     }
   }
 
@@ -726,6 +947,12 @@ public class TACAgent implements Task, TACMessageReceiver {
     TACMessage msg = new TACMessage("submitBid");
     prepareBidMsg(msg, bid);
     updateBid(bid);
+    registerBid(bid);
+    eventLog.bidSubmitted(getServerTime(), bid);
+    bidsSubmitted.increment();
+    // A new bid replaces the active bid of the agent in the auction
+    bidTracker.submitted(bid, bid.getReplacing());
+    recordQuoteAge(auction);
     sendMessage(msg, this);
   }
 
@@ -745,11 +972,16 @@ public class TACAgent implements Task, TACMessageReceiver {
     if (oldBid != bids[auction]) {
       bid.setRejectReason(Bid.ACTIVE_BID_CHANGED);
       bid.setProcessingState(Bid.REJECTED);
+      bidsRejected.increment();
+      bidTracker.submitted(bid, null);
+      bidTracker.reverted(bid, NO_ERROR);
+      long start = callbackTracer.begin("bidRejected");
       try {
 	agent.bidRejected(bid);
       } catch (Exception e) {
 	log.log(Level.SEVERE, "agent could not handle bidRejected", e);
       }
+      callbackTracer.end("bidRejected", start);
     } else {
       TACMessage msg = new TACMessage("replaceBid");
       msg.setParameter("bidID", oldBid.getID());
@@ -757,10 +989,35 @@ public class TACAgent implements Task, TACMessageReceiver {
 
       prepareBidMsg(msg, bid);
       updateBid(bid);
+      registerBid(bid);
+      eventLog.bidSubmitted(getServerTime(), bid);
+      bidsSubmitted.increment();
+      bidTracker.submitted(bid, bid.getReplacing());
+      recordQuoteAge(auction);
       sendMessage(msg, this);
     }
   }
 
+  // Returns where the response times of the current game are recorded
+  // (null if no game report is made)
+  MessageStatistics getGameStatistics() {
+    GameReport report = gameReport;
+    return report != null ? report.getStatistics() : null;
+  }
+
+  // Records how old the quote was that the bid was based on
+  private void recordQuoteAge(int auction) {
+    long age = getQuoteAge(auction);
+    if (age >= 0L) {
+      String category = auctionCategoryToString(getAuctionCategory(auction));
+      quoteAge.getHistogram(category).record(age * 1000);
+      GameReport report = gameReport;
+      if (report != null) {
+	report.recordQuoteAge(age);
+      }
+    }
+  }
+
   // inflight((AllocDay1-Own|ProbablyOwn-BidQ[R][C])...)
   public void printOwn() {
     StringBuffer sb = new StringBuffer();
@@ -807,8 +1064,15 @@ public class TACAgent implements Task, TACMessageReceiver {
   // -------------------------------------------------------------------
 
   void reset(long timeout, TACConnection conn) {
-    if (connection == conn) {
+    if (connection == conn && !stopped) {
       log.fine("performing connection reset");
+      reconnects.increment();
+      FlightEvents.Reconnect event = new FlightEvents.Reconnect();
+      if (event.shouldCommit()) {
+	event.game = playingGame;
+	event.timeout = timeout;
+	event.commit();
+      }
       cancelTimers();
       // Clear transaction q
       transActionsNum = 0;
@@ -818,8 +1082,6 @@ public class TACAgent implements Task, TACMessageReceiver {
       nextGameID = -1;
       exitGameLog();
 
-      TACMessage.resetResponseTime();
-
       if (timeout > 0) {
 	try {
 	  Thread.sleep(timeout);
@@ -831,6 +1093,16 @@ public class TACAgent implements Task, TACMessageReceiver {
     }
   }
 
+  // Called by connections that have no more games to offer (such as a
+  // replay that has reached the end of the recorded game)
+  void connectionFinished(TACConnection conn) {
+    if (connection == conn) {
+      log.info("Exit after " + gamesPlayed + " played games as the"
+	       + " connection has no more games");
+      exit();
+    }
+  }
+
   private void disconnect(int timeout) {
     if (connection != null && connection.isConnected()) {
       TACMessage m = new TACMessage("quit");
@@ -846,9 +1118,15 @@ public class TACAgent implements Task, TACMessageReceiver {
 
   public void sendMessage(TACMessage msg, TACMessageReceiver recv) {
     TACConnection connection = this.connection;
-    if (connection != null) {
+    if (isReplaying) {
+      // The server responses are part of the replayed events
+    } else if (stopped) {
+      // A timer task or reply that raced with stop()
+    } else if (connection != null) {
       try {
 	msg.setMessageReceiver(recv);
+	msg.setStatistics(messageStatistics);
+	msg.setGameStatistics(getGameStatistics());
 	connection.sendMessage(msg);
       } catch (IOException e) {
 	log.log(Level.WARNING, "could not send message " + msg.getType(), e);
@@ -860,6 +1138,11 @@ public class TACAgent implements Task, TACMessageReceiver {
   }
 
   public void messageReceived(TACMessage msg) {
+    MessageCapture capture = this.capture;
+    if (capture != null) {
+      capture.addMessage(msg, timeDiff);
+    }
+
     if (msg.isTACError()) {
       // A TAC Error was received as reply for the message
       String type = msg.getType();
@@ -868,7 +1151,9 @@ public class TACAgent implements Task, TACMessageReceiver {
 	// server might return tacerror for unknown message types.
 	log.warning("ignoring error for getGameConst: " + msg.getValue());
       } else {
+	long start = callbackTracer.begin("tacerrorReceived");
 	agent.tacerrorReceived(msg);
+	callbackTracer.end("tacerrorReceived", start);
       }
 
     } else if (msg.nextTag() && (!msg.isDeclaration() || msg.nextTag())) {
@@ -918,11 +1203,11 @@ public class TACAgent implements Task, TACMessageReceiver {
     }
 
     // Set stat info if more than 5 messages sent!
-    if (TACMessage.getMessageCount() > 5) {
+    LatencyHistogram total = messageStatistics.getTotal();
+    if (total.getCount() > 5) {
       msg.setParameter("stat.avgResponseTime",
-		       "" + TACMessage.getAverageResponseTime());
-      msg.setParameter("stat.messageCount",
-		       "" + TACMessage.getMessageCount());
+		       "" + (float) (total.getMean() / 1000.0));
+      msg.setParameter("stat.messageCount", "" + total.getCount());
     }
 
     sendMessage(msg, this);
@@ -960,7 +1245,7 @@ public class TACAgent implements Task, TACMessageReceiver {
     int auctionID = auctionIDs[auction];
 
     if (auctionID > 0) {
-      long currentTime = System.currentTimeMillis();
+      long currentTime = clock.currentTimeMillis();
 
 //       log.info("requesting quote for " + auctionID);
 
@@ -1035,7 +1320,7 @@ public class TACAgent implements Task, TACMessageReceiver {
       transActionsNum++;
       TACMessage msg = new TACMessage("transIDs");
       msg.setParameter("earliestTransID", earliestTransID);
-      lastSentTransactionRequest = System.currentTimeMillis();
+      lastSentTransactionRequest = clock.currentTimeMillis();
       sendMessage(msg, this);
     } else {
       if (waitActionsNum == waitActions.length) {
@@ -1045,7 +1330,7 @@ public class TACAgent implements Task, TACMessageReceiver {
       }
       waitActions[waitActionsNum++] = call;
 
-      long currentTime = System.currentTimeMillis();
+      long currentTime = clock.currentTimeMillis();
       if ((currentTime - lastSentTransactionRequest) > 30000) {
 	// Too long time after last sent transaction
 	TACMessage msg = new TACMessage("transIDs");
@@ -1076,7 +1361,11 @@ public class TACAgent implements Task, TACMessageReceiver {
     playingGameType = null;
     gameLength = DEFAULT_GAME_LENGTH;
     earliestTransID = -1;
+    eventLogGame = nextGameID;
     enterGameLog(nextGameID);
+    if (saveCapture) {
+      openCapture(nextGameID);
+    }
     log.fine("Starting up game: " + playingGame);
 
     // If illegal state, end game and restart... should not happen?
@@ -1116,16 +1405,104 @@ public class TACAgent implements Task, TACMessageReceiver {
   }
 
   private synchronized void handleGameEnd() {
+    if (priceHistoryDir != null && eventLogGame >= 0 && eventLog.size() > 0) {
+      ingestPriceHistory(eventLogGame, eventLog.copy());
+    }
+    if (saveEventLog && eventLogGame >= 0 && eventLog.size() > 0) {
+      String name = childLogPrefix + "_GAME_" + eventLogGame + ".events";
+      try {
+	eventLog.save(name);
+	log.fine("saved event log for game " + eventLogGame + " to " + name);
+      } catch (IOException e) {
+	log.log(Level.SEVERE, "could not save event log " + name, e);
+      }
+      eventLogGame = -1;
+    }
+    closeCapture();
+    saveCallbackTraces();
+    saveGameReport();
+    if (log.isLoggable(Level.FINE)) {
+      log.fine("Bids since started:\n" + bidTracker);
+    }
+    if (messageStatistics.getTotal().getCount() > 0
+	&& log.isLoggable(Level.FINE)) {
+      log.fine("Response times since started:\n" + messageStatistics);
+    }
     exitGameLog();
     if (exitAfterGames > 0 && gamesPlayed >= exitAfterGames) {
       // We have played the specified number of games
       log.info("Exit as requested after " + exitAfterGames
 	       + " played games");
-      disconnect(500);
-      if (rootFileHandler != null) {
-	rootFileHandler.close();
+      exit();
+    }
+  }
+
+  private void exit() {
+    disconnect(500);
+    // Let the last game be added to the price history
+    Thread thread = priceHistoryThread;
+    if (thread != null) {
+      try {
+	thread.join();
+      } catch (InterruptedException e) {
+      }
+    }
+    if (rootFileHandler != null) {
+      rootFileHandler.close();
+    }
+    System.exit(0);
+  }
+
+  // Adds the game to the price history in a separate thread so that the
+  // reader thread is not held up by the file writes
+  private void ingestPriceHistory(final int gameID, final EventLog events) {
+    final String user = getUser();
+    Thread thread = new Thread("priceHistory." + user) {
+	public void run() {
+	  try {
+	    PriceHistory.ingest(priceHistoryDir, user, events);
+	    priceHistory = PriceHistory.open(priceHistoryDir);
+	  } catch (IOException e) {
+	    log.log(Level.SEVERE, "could not add game " + gameID
+		    + " to price history " + priceHistoryDir, e);
+	  }
+	}
+      };
+    priceHistoryThread = thread;
+    thread.start();
+  }
+
+  // Logs and saves the stacks of the slowest callbacks of the game
+  private void saveCallbackTraces() {
+    if (callbackTracer.getSlowestCount() > 0) {
+      log.info("Callbacks exceeding the budget of "
+	       + callbackTracer.getBudget() + " ms:\n"
+	       + callbackTracer.getSlowestSummary());
+      String name = childLogPrefix + "_GAME_" + lastGamePlayed + ".callbacks";
+      try {
+	callbackTracer.writeSlowest(name);
+	log.fine("saved callback stacks for game " + lastGamePlayed
+		 + " to " + name);
+      } catch (IOException e) {
+	log.log(Level.SEVERE, "could not save callback stacks " + name, e);
+      }
+      callbackTracer.clearSlowest();
+    }
+  }
+
+  // Appends the performance report of the game to the report file
+  private void saveGameReport() {
+    GameReport report = gameReport;
+    if (report != null) {
+      gameReport = null;
+      String name = childLogPrefix + "_report.jsonl";
+      try {
+	report.write(name, bidTracker, callbackTracer.getCpuTime());
+	log.fine("saved report for game " + report.getGameID() + " to "
+		 + name);
+      } catch (IOException e) {
+	log.log(Level.SEVERE, "could not save game report " + name, e);
       }
-      System.exit(0);
     }
   }
 
@@ -1173,6 +1550,10 @@ public class TACAgent implements Task, TACMessageReceiver {
 	status = mapCommandStatus(msg.getValueAsInt(NO_ERROR));
       }
     }
+    if (bid.getID() != Bid.NO_ID) {
+      eventLog.bidID(getServerTime(), bid, bid.getID(), bid.getBidHash());
+    }
+    bidTracker.acknowledged(bid);
 
     if (bid.isRejected()) {
       // reset the active bid!
@@ -1202,6 +1583,8 @@ public class TACAgent implements Task, TACMessageReceiver {
   // call agent
   private synchronized void revertBid(Bid bid, int status) {
     int auction = bid.getAuction();
+    eventLog.bidReverted(getServerTime(), bid, status);
+    bidTracker.reverted(bid, status);
 
     Bid activeBid = getBid(auction);
 
@@ -1227,17 +1610,22 @@ public class TACAgent implements Task, TACMessageReceiver {
     // if this was the active bid
     if (bid != null) {
       if (status == NO_ERROR) {
+	bidsRejected.increment();
+	long start = callbackTracer.begin("bidRejected");
 	try {
 	  agent.bidRejected(bid);
 	} catch (Exception e) {
 	  log.log(Level.SEVERE, "agent could not handle bidRejected", e);
 	}
+	callbackTracer.end("bidRejected", start);
       } else {
+	long start = callbackTracer.begin("bidError");
 	try {
 	  agent.bidError(bid, status);
 	} catch (Exception e) {
 	  log.log(Level.SEVERE, "agent could not handle bidError", e);
 	}
+	callbackTracer.end("bidError", start);
       }
     }
 
@@ -1280,17 +1668,25 @@ public class TACAgent implements Task, TACMessageReceiver {
       if (msg.isTag("/transInfo")) {
 	if (status == NO_ERROR) {
 	  Transaction trans = new Transaction(auction, quantity, price);
+	  eventLog.transaction(getServerTime(), auction, quantity, price);
 	  owns[auction] += quantity;
 	  costs[auction] += quantity * price;
+	  transactionsReceived.increment();
+	  Bid activeBid = getBid(auction);
+	  if (activeBid != null) {
+	    bidTracker.transacted(activeBid, quantity);
+	  }
+	  long start = callbackTracer.begin("transaction");
 	  try {
 	    if (tableModel != null) {
-	      tableModel.fireTableRowsUpdated(auction, auction);
+	      tableModel.rowChanged(auction);
 	    }
 	    agent.transaction(trans);
 	  } catch (Exception e) {
 	    log.log(Level.SEVERE, "agent could not handle transaction "
 		    + trans, e);
 	  }
+	  callbackTracer.end("transaction", start);
 	} else {
 	  // What should we do here??? FIX THIS!!!
 	}
@@ -1316,8 +1712,14 @@ public class TACAgent implements Task, TACMessageReceiver {
       if ((OP_CLEAR_BID & ival) != 0) {
 	clearBid(ival - OP_CLEAR_BID);
       } else {
+	String callback = null;
+	long start = 0L;
 	try {
 	  if ((OP_CLOSE_AUCTION & ival) != 0) {
+	    eventLog.event(EventLog.AUCTION_CLOSED, getServerTime(),
+			   ival - OP_CLOSE_AUCTION);
+	    callback = "auctionClosed";
+	    start = callbackTracer.begin(callback);
 	    agent.auctionClosed(ival - OP_CLOSE_AUCTION);
 	  } else if (ival == OP_GAME_STARTS) {
 	    // Another game is being played
@@ -1325,8 +1727,18 @@ public class TACAgent implements Task, TACMessageReceiver {
 	      lastGamePlayed = playingGame;
 	      gamesPlayed++;
 	    }
+	    eventLog.event(EventLog.GAME_STARTED, getServerTime());
+	    if (saveGameReport) {
+	      gameReport = new GameReport(this, agent.getClass().getName(),
+					  callbackTracer.getCpuTime());
+	    }
+	    callback = "gameStarted";
+	    start = callbackTracer.begin(callback);
 	    agent.gameStarted();
 	  } else if (ival == OP_GAME_ENDS) {
+	    eventLog.event(EventLog.GAME_STOPPED, getServerTime());
+	    callback = "gameStopped";
+	    start = callbackTracer.begin(callback);
 	    agent.gameStopped();
 	  }
 	} catch (Throwable e) {
@@ -1337,6 +1749,9 @@ public class TACAgent implements Task, TACMessageReceiver {
 	    throw (ThreadDeath) e;
 	  }
 	}
+	if (callback != null) {
+	  callbackTracer.end(callback, start);
+	}
 
 	if (ival == OP_GAME_ENDS) {
 	  handleGameEnd();
@@ -1412,6 +1827,7 @@ public class TACAgent implements Task, TACMessageReceiver {
 
     // Quote is no longer pending
     pendingQuotes[auction] = 0L;
+    quote.setReceivedTime(getServerTime());
 
     int oldAuctionStatus = quote.getAuctionStatus();
     while (msg.nextTag()) {
@@ -1425,21 +1841,31 @@ public class TACAgent implements Task, TACMessageReceiver {
 	quote.setAuctionStatus(msg.getValueAsInt(Quote.AUCTION_INITIALIZING));
       } else if (msg.isTag("nextQuoteTime")) {
 	quote.setNextQuoteTime(1000 * msg.getValueAsLong(0));
-      } else if (msg.isTag("auctionStatus")) {
+      } else if (msg.isTag("lastQuoteTime")) {
 	quote.setLastQuoteTime(1000 * msg.getValueAsLong(0));
       }
     }
 
+    Bid quoteBid = quote.getBid();
+    eventLog.quote(getServerTime(), quote,
+		   quoteBid != null ? quoteBid.getSequence() : -1);
+    quotesReceived.increment();
+    long start = callbackTracer.begin("quoteUpdated");
     try {
       agent.quoteUpdated(quote);
     } catch (Exception e) {
       log.log(Level.SEVERE,
 	      "agent could not handle quoteUpdated for " + quote, e);
     }
+    callbackTracer.end("quoteUpdated", start);
 
     try {
       if (isLastAuction(quote)) {
+	eventLog.event(EventLog.QUOTE_CATEGORY, getServerTime(),
+		       getAuctionCategory(auction));
+	start = callbackTracer.begin("quoteUpdatedCategory");
 	agent.quoteUpdated(getAuctionCategory(auction));
+	callbackTracer.end("quoteUpdatedCategory", start);
       }
     } catch (Exception e) {
       log.log(Level.SEVERE,
@@ -1450,7 +1876,7 @@ public class TACAgent implements Task, TACMessageReceiver {
       requestTransactions(OP_CLOSE_AUCTION + auction);
     }
     if (tableModel != null) {
-      tableModel.fireTableRowsUpdated(auction, auction);
+      tableModel.rowChanged(auction);
     }
   }
 
@@ -1527,6 +1953,9 @@ public class TACAgent implements Task, TACMessageReceiver {
       bid.setRejectReason(rejectReason);
       bid.setTimeProcessed(timeProcessed);
       bid.setTimeClosed(timeClosed);
+      eventLog.bidInfo(getServerTime(), bid, processingState, rejectReason,
+		       timeProcessed, timeClosed);
+      bidTracker.updated(bid);
 
       String oldHash = bid.getBidHash();
       if (oldHash == null && !isGameStarted) {
@@ -1542,15 +1971,19 @@ public class TACAgent implements Task, TACMessageReceiver {
 	requestTransactions(OP_CLEAR_BID + (clearID << 5) + auction);
 	bid.setBidTransacted(clearID, bidHash, bidString);
       } else {
+	eventLog.event(EventLog.BID_UPDATED, getServerTime(),
+		       bid.getSequence());
+	long start = callbackTracer.begin("bidUpdated");
 	try {
 	  agent.bidUpdated(bid);
 	} catch (Exception e) {
 	  log.log(Level.SEVERE, "agent could not handle bidUpdated", e);
 	}
+	callbackTracer.end("bidUpdated", start);
       }
       int row = bid.getAuction();
       if (tableModel != null) {
-	tableModel.fireTableRowsUpdated(row, row);
+	tableModel.rowChanged(row);
       }
     }
   }
@@ -1562,24 +1995,8 @@ public class TACAgent implements Task, TACMessageReceiver {
     Bid activeBid = getBid(auction);
     while (activeBid != null) {
       if (activeBid.getClearID() == clearID) {
-	String bidString = activeBid.getClearString();
-	Bid newBid = new Bid(activeBid, bidString, activeBid.getClearHash());
-	boolean isActiveBid = activeBid == getBid(auction);
-	if (bidString.equals(Bid.EMPTY_BID_STRING)) {
-	  removeBid(auction, activeBid);
-	} else {
-	  changeBid(auction, activeBid, newBid);
-	}
-	if (isActiveBid) {
-	  try {
-	    agent.bidUpdated(newBid);
-	  } catch (Exception e) {
-	    log.log(Level.SEVERE, "agent could not handle bidUpdated", e);
-	  }
-	  if (tableModel != null) {
-	    tableModel.fireTableRowsUpdated(auction, auction);
-	  }
-	}
+	clearBid(auction, activeBid, activeBid.getClearString(),
+		 activeBid.getClearHash());
 	activeBid = null;
 
       } else {
@@ -1588,6 +2005,33 @@ public class TACAgent implements Task, TACMessageReceiver {
     }
   }
 
+  // Replaces the bid with its transacted version (which is given to the
+  // agent if the bid was the active bid)
+  private synchronized void clearBid(int auction, Bid activeBid,
+				     String bidString, String bidHash) {
+    eventLog.bidCleared(getServerTime(), activeBid, bidString, bidHash);
+    Bid newBid = new Bid(activeBid, bidString, bidHash);
+    registerBid(newBid);
+    boolean isActiveBid = activeBid == getBid(auction);
+    if (bidString.equals(Bid.EMPTY_BID_STRING)) {
+      removeBid(auction, activeBid);
+    } else {
+      changeBid(auction, activeBid, newBid);
+    }
+    if (isActiveBid) {
+      long start = callbackTracer.begin("bidUpdated");
+      try {
+	agent.bidUpdated(newBid);
+      } catch (Exception e) {
+	log.log(Level.SEVERE, "agent could not handle bidUpdated", e);
+      }
+      callbackTracer.end("bidUpdated", start);
+      if (tableModel != null) {
+	tableModel.rowChanged(auction);
+      }
+    }
+  }
+
   private synchronized void recoverBid(Bid bid) {
     int auction = bid.getAuction();
     if (bids[auction] != null) {
@@ -1596,11 +2040,23 @@ public class TACAgent implements Task, TACMessageReceiver {
 		  + " when recovering bid");
     } else {
       bids[auction] = bid;
+      registerBid(bid);
       log.finer("bid " + bid.getID() + " for "
 		+ getAuctionTypeAsString(auction) + " has been recovered");
     }
   }
 
+  // Gives the bid instance the next sequence number in the game
+  private synchronized void registerBid(Bid bid) {
+    if (bidSequenceNum == bidSequence.length) {
+      Bid[] tmp = new Bid[bidSequenceNum * 2];
+      System.arraycopy(bidSequence, 0, tmp, 0, bidSequenceNum);
+      bidSequence = tmp;
+    }
+    bid.setSequence(bidSequenceNum);
+    bidSequence[bidSequenceNum++] = bid;
+  }
+
   private synchronized void updateBid(Bid bid) {
     int auction = bid.getAuction();
     bid.setReplacing(bids[auction]);
@@ -1785,6 +2241,8 @@ public class TACAgent implements Task, TACMessageReceiver {
     }
 
     if (gameRunning) {
+      eventLog.gameParams(getServerTime(), playingGame, gameLength,
+			  startTime, clientPrefs, owns);
       TimeDispatcher.getDefault()
 	.addTask(startTime + 1000 + gameLength, "gameEnds",
 		 connection, this);
@@ -1923,10 +2381,12 @@ public class TACAgent implements Task, TACMessageReceiver {
     while (msg.nextTag()) {
       if (msg.isTag("time")) {
 	long serverTime = msg.getValueAsLong(-1) * 1000;
-	long time = System.currentTimeMillis();
+	long time = clock.currentTimeMillis();
 	timeDiff = time - serverTime;
+	timeDiffUncertainty = 1000 + msg.getResponseTime();
 	log.fine("Setting server time diff to " + (timeDiff / 1000)
-		 + " seconds");
+		 + " seconds (" + timeDiff + " ms, at most "
+		 + timeDiffUncertainty + " ms too large)");
 	// Make sure the log formatter uses the server time instead of
 	// local time
 	logFormatter.setTimeDiff(timeDiff);
@@ -1945,6 +2405,283 @@ public class TACAgent implements Task, TACMessageReceiver {
 
 
 
+  // -------------------------------------------------------------------
+  // Event log and replay of recorded games
+  // -------------------------------------------------------------------
+
+  /**
+   * Returns the log of all inputs to the agent implementation and all
+   * bids submitted during the current (or last) game.
+   */
+  public EventLog getEventLog() {
+    return eventLog;
+  }
+
+  /**
+   * Returns the prices of the completed games ("priceHistory" in the
+   * configuration) or null if no price history is used. The history is
+   * updated at the end of each game.
+   */
+  public PriceHistory getPriceHistory() {
+    return priceHistory;
+  }
+
+  /**
+   * Returns the response times of the messages sent to the server since
+   * the agent started (over all connections).
+   */
+  public MessageStatistics getMessageStatistics() {
+    return messageStatistics;
+  }
+
+  /**
+   * Returns the lifecycle records of the bids in the current game and
+   * the bid latency and outcome statistics over all games.
+   */
+  public BidTracker getBidTracker() {
+    return bidTracker;
+  }
+
+  /**
+   * Returns the runtime metrics of this agent ware. Agent
+   * implementations may add their own metrics to the registry.
+   */
+  public MetricsRegistry getMetrics() {
+    return metrics;
+  }
+
+  private void initMetrics() {
+    metrics.addMetric(callbackTracer);
+    metrics.addMetric(callbackTracer.getOverruns());
+    bidTracker.addMetrics(metrics);
+    metrics.addGauge("tac_game_id", "The game being played or -1",
+		     new MetricsRegistry.Gauge() {
+	public double getValue() {
+	  return getGameID();
+	}
+      });
+    metrics.addGauge("tac_game_time_left_seconds",
+		     "Time left of the game being played",
+		     new MetricsRegistry.Gauge() {
+	public double getValue() {
+	  return getGameID() >= 0 ? getGameTimeLeft() / 1000.0 : 0.0;
+	}
+      });
+    metrics.addGauge("tac_games_played", "Games played since started",
+		     new MetricsRegistry.Gauge() {
+	public double getValue() {
+	  return gamesPlayed;
+	}
+      });
+    final TimeDispatcher dispatcher = TimeDispatcher.getDefault();
+    metrics.addHistogram("tac_timer_lag_seconds",
+			 "Delay of the timer tasks after their scheduled time",
+			 dispatcher.getLagHistogram());
+    metrics.addMetric(dispatcher.getTaskLagHistograms());
+    metrics.addMetric(new MetricsRegistry.Metric("tac_timer_recent_lag_seconds",
+			"Delay of the timer tasks during the last minute",
+			"summary") {
+	protected void writeSamples(StringBuffer sb) {
+	  MetricsRegistry.writeHistogram(sb, getName(), null,
+					 dispatcher.getRecentLagHistogram());
+	}
+      });
+    metrics.addGauge("tac_clock_skew_seconds",
+		     "Local time minus server time", new MetricsRegistry.Gauge() {
+	public double getValue() {
+	  return timeDiff / 1000.0;
+	}
+      });
+    metrics.addGauge("tac_clock_skew_uncertainty_seconds",
+		     "How much the local time minus server time might be"
+		     + " overestimated", new MetricsRegistry.Gauge() {
+	public double getValue() {
+	  return timeDiffUncertainty / 1000.0;
+	}
+      });
+    metrics.addMetric(new MetricsRegistry.Metric("tac_response_time_seconds",
+			"Time from sending a message to the server until"
+			+ " its reply", "summary") {
+	protected void writeSamples(StringBuffer sb) {
+	  messageStatistics.writeSamples(sb);
+	}
+      });
+  }
+
+
+  /**
+   * Creates an agent ware without server connection that replays
+   * recorded games to the agent implementation. Bids submitted by the
+   * agent implementation are recorded in the event log but never sent.
+   */
+  static TACAgent createReplayAgent(AgentImpl agent, Properties config) {
+    TACAgent agentWare = new TACAgent(agent);
+    agentWare.isReplaying = true;
+    agentWare.config = config;
+    agent.init(agentWare, new ArgEnumerator(new String[0], "", false));
+    agentWare.config = null;
+    return agentWare;
+  }
+
+  /**
+   * Applies a recorded event to the agent ware and makes the same call
+   * to the agent implementation as when the event was recorded. Events
+   * must be replayed in order from the start of a game.
+   */
+  void replayEvent(EventLog events, int index) {
+    if (!isReplaying) {
+      throw new IllegalStateException("not replaying");
+    }
+    replayTime = events.getTime(index);
+    int type = events.getType(index);
+    try {
+      switch (type) {
+      case EventLog.GAME_PARAMS:
+	{
+	  clearAll();
+	  playingGame = events.getInt(index, 0);
+	  gameLength = events.getInt(index, 1);
+	  startTime = events.getLong(index, 2);
+	  int pos = 4;
+	  for (int i = 0, n = clientPrefs.length; i < n; i++) {
+	    int[] prefs = clientPrefs[i];
+	    for (int j = 0, m = prefs.length; j < m; j++) {
+	      prefs[j] = events.getInt(index, pos++);
+	    }
+	  }
+	  for (int i = 0; i < NO_AUCTIONS; i++) {
+	    owns[i] = events.getInt(index, pos++);
+	  }
+	  eventLog.gameParams(replayTime, playingGame, gameLength,
+			      startTime, clientPrefs, owns);
+	}
+	break;
+      case EventLog.GAME_STARTED:
+	isGameStarted = true;
+	eventLog.event(type, replayTime);
+	agent.gameStarted();
+	break;
+      case EventLog.GAME_STOPPED:
+	playingGame = -1;
+	isGameStarted = false;
+	eventLog.event(type, replayTime);
+	agent.gameStopped();
+	break;
+      case EventLog.QUOTE:
+	{
+	  Quote quote = quotes[events.getInt(index, 0)];
+	  quote.setAuctionStatus(events.getInt(index, 1));
+	  quote.setHQW(events.getInt(index, 2));
+	  quote.setBid(getReplayBid(events.getInt(index, 3)));
+	  quote.setAskPrice(events.getFloat(index, 4));
+	  quote.setBidPrice(events.getFloat(index, 5));
+	  quote.setNextQuoteTime(events.getLong(index, 6));
+	  quote.setLastQuoteTime(events.getLong(index, 8));
+	  quote.setReceivedTime(replayTime);
+	  eventLog.quote(replayTime, quote, events.getInt(index, 3));
+	  agent.quoteUpdated(quote);
+	}
+	break;
+      case EventLog.QUOTE_CATEGORY:
+	eventLog.event(type, replayTime, events.getInt(index, 0));
+	agent.quoteUpdated(events.getInt(index, 0));
+	break;
+      case EventLog.TRANSACTION:
+	{
+	  int auction = events.getInt(index, 0);
+	  int quantity = events.getInt(index, 1);
+	  float price = events.getFloat(index, 2);
+	  eventLog.transaction(replayTime, auction, quantity, price);
+	  owns[auction] += quantity;
+	  costs[auction] += quantity * price;
+	  agent.transaction(new Transaction(auction, quantity, price));
+	}
+	break;
+      case EventLog.AUCTION_CLOSED:
+	eventLog.event(type, replayTime, events.getInt(index, 0));
+	agent.auctionClosed(events.getInt(index, 0));
+	break;
+      case EventLog.BID_SUBMITTED:
+	// Submitted by the agent implementation when replaying
+	break;
+      case EventLog.BID_ID:
+	{
+	  Bid bid = getReplayBid(events.getInt(index, 0));
+	  if (bid != null) {
+	    if (bid.getID() == Bid.NO_ID) {
+	      bid.setID(events.getInt(index, 1));
+	    }
+	    bid.setBidHash(events.getHash(index));
+	    eventLog.bidID(replayTime, bid, bid.getID(), bid.getBidHash());
+	  }
+	}
+	break;
+      case EventLog.BID_INFO:
+	{
+	  Bid bid = getReplayBid(events.getInt(index, 0));
+	  if (bid != null) {
+	    bid.setReplacing(null);
+	    bid.setProcessingState(events.getInt(index, 1));
+	    bid.setRejectReason(events.getInt(index, 2));
+	    bid.setTimeProcessed(events.getLong(index, 3));
+	    bid.setTimeClosed(events.getLong(index, 5));
+	    eventLog.bidInfo(replayTime, bid, bid.getProcessingState(),
+			     bid.getRejectReason(), bid.getTimeProcessed(),
+			     bid.getTimeClosed());
+	  }
+	}
+	break;
+      case EventLog.BID_CLEARED:
+	{
+	  Bid bid = getReplayBid(events.getInt(index, 0));
+	  if (bid != null) {
+	    clearBid(bid.getAuction(), bid, events.getText(index),
+		     events.getHash(index));
+	  }
+	}
+	break;
+      case EventLog.BID_UPDATED:
+	{
+	  Bid bid = getReplayBid(events.getInt(index, 0));
+	  if (bid != null) {
+	    eventLog.event(type, replayTime, bid.getSequence());
+	    agent.bidUpdated(bid);
+	  }
+	}
+	break;
+      case EventLog.BID_REVERTED:
+	{
+	  Bid bid = getReplayBid(events.getInt(index, 0));
+	  if (bid != null) {
+	    bid.setRejectReason(events.getInt(index, 2));
+	    bid.setProcessingState(events.getInt(index, 3));
+	    revertBid(bid, events.getInt(index, 1));
+	  }
+	}
+	break;
+      default:
+	log.warning("unknown event type " + type + " at " + index);
+	break;
+      }
+    } catch (Exception e) {
+      log.log(Level.SEVERE, "agent could not handle event "
+	      + EventLog.getTypeAsString(type) + " at " + index, e);
+    }
+  }
+
+  private Bid getReplayBid(int sequence) {
+    if (sequence < 0) {
+      return null;
+    }
+    if (sequence >= bidSequenceNum) {
+      log.warning("bid " + sequence + " has not been submitted in replay");
+      return null;
+    }
+    return bidSequence[sequence];
+  }
+
+
+
   // -------------------------------------------------------------------
   // Logging handling
   // -------------------------------------------------------------------
@@ -1978,6 +2715,7 @@ public class TACAgent implements Task, TACMessageReceiver {
     }
 
     this.logFormatter = new LogFormatter();
+    this.logFormatter.setClock(clock);
     // Set shorter names for the log
     this.logFormatter.setAliasLevel(2);
     LogFormatter.setFormatterForAllHandlers(this.logFormatter);
@@ -2007,6 +2745,24 @@ public class TACAgent implements Task, TACMessageReceiver {
     }
   }
 
+  private synchronized void openCapture(int gameID) {
+    closeCapture();
+    String name = childLogPrefix + "_GAME_" + gameID + ".cap";
+    try {
+      capture = new MessageCapture(name);
+    } catch (IOException e) {
+      log.log(Level.SEVERE, "could not open message capture " + name, e);
+    }
+  }
+
+  private synchronized void closeCapture() {
+    if (capture != null) {
+      capture.close();
+      log.fine("saved message capture to " + capture.getName());
+      capture = null;
+    }
+  }
+
   private synchronized void exitGameLog() {
     if (childFileHandler != null && rootFileHandler != null) {
       Logger root = Logger.getLogger("");
@@ -2029,13 +2785,50 @@ public class TACAgent implements Task, TACMessageReceiver {
   //
   // -------------------------------------------------------------------
 
-  private class AgentTableModel extends AbstractTableModel {
+  class AgentTableModel extends AbstractTableModel {
 
     private final String[] columnName = new String[] {
       "ID", "Type", "Ask Price", "Bid Price", "Status", "PS",
       "BidString", "HQW", "Allocation", "Own", "Cost"
     };
 
+    // The rows changed since last shown, one bit per auction. The bits
+    // are set by any thread and only the display fires the table events
+    // (in the event dispatch thread).
+    private final AtomicLong dirtyRows = new AtomicLong();
+
+    void rowChanged(int row) {
+      long bit = 1L << row;
+      long rows;
+      do {
+	rows = dirtyRows.get();
+      } while ((rows & bit) == 0
+	       && !dirtyRows.compareAndSet(rows, rows | bit));
+    }
+
+    void allRowsChanged() {
+      dirtyRows.set(-1L);
+    }
+
+    // Fires one update per range of consecutive dirty rows
+    void fireDirtyRows() {
+      long rows = dirtyRows.getAndSet(0L);
+      int row = 0;
+      int n = getRowCount();
+      while (rows != 0L && row < n) {
+	if ((rows & (1L << row)) == 0) {
+	  row++;
+	} else {
+	  int first = row;
+	  while (row < n && (rows & (1L << row)) != 0) {
+	    rows &= ~(1L << row);
+	    row++;
+	  }
+	  fireTableRowsUpdated(first, row - 1);
+	}
+      }
+    }
+
     public String getColumnName(int col) {
       return columnName[col];
     }
@@ -43,6 +43,10 @@ public abstract class TACConnection {
   public void sendMessage(TACMessage msg, TACMessageReceiver rcv)
     throws IOException {
     msg.setMessageReceiver(rcv);
+    if (agent != null) {
+      msg.setStatistics(agent.getMessageStatistics());
+      msg.setGameStatistics(agent.getGameStatistics());
+    }
     sendMessage(msg);
   }
 }
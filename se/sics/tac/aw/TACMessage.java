@@ -28,11 +28,15 @@ import java.util.ArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import se.sics.tac.util.Clock;
+
 public class TACMessage {
 
   private static final Logger log =
     Logger.getLogger(TACMessage.class.getName());
 
+  // Response times of all messages (in microseconds) for the deprecated
+  // static statistics
   private static long msgCount = 0;
   private static long totalResponseTime = 0;
 
@@ -41,6 +45,8 @@ public class TACMessage {
 
   private String sentMessage;
   private long timeSent;
+  private long nanoSent;
+  private int bytesSent;
   private String receivedMessage;
   private int pos = 0;
   private long responseTime;
@@ -48,6 +54,8 @@ public class TACMessage {
 
   private TACMessageReceiver receiver;
   private Object userData;
+  private MessageStatistics statistics;
+  private MessageStatistics gameStatistics;
 
   public TACMessage(String type) {
     this.type = type;
@@ -70,6 +78,16 @@ public class TACMessage {
     return userData;
   }
 
+  // Sets where the response time is recorded when the reply arrives
+  void setStatistics(MessageStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  // Sets where the response time is also recorded for the current game
+  void setGameStatistics(MessageStatistics gameStatistics) {
+    this.gameStatistics = gameStatistics;
+  }
+
   void setMessageReceiver(TACMessageReceiver receiver) {
     this.receiver = receiver;
   }
@@ -93,46 +111,49 @@ public class TACMessage {
     return responseTime;
   }
 
+  // Returns the auction of the quote or bid this message is about or -1
+  // if unknown
+  int getAuction() {
+    Object data = userData;
+    if (data instanceof Quote) {
+      return ((Quote) data).getAuction();
+    } else if (data instanceof Bid) {
+      return ((Bid) data).getAuction();
+    }
+    return -1;
+  }
+
+  long getTimeSent() {
+    return timeSent;
+  }
+
+  String getSentMessage() {
+    return sentMessage;
+  }
+
+  String getReceivedMessage() {
+    return receivedMessage;
+  }
+
   void setReceivedMessage(String receivedMessage) {
     if (this.receivedMessage != null) {
       throw new IllegalStateException("Message alredy received: " +
 				      this.receivedMessage);
     }
     if (timeSent > 0) {
-      responseTime = System.currentTimeMillis() - timeSent;
+      responseTime = Clock.getDefault().currentTimeMillis() - timeSent;
     }
     this.receivedMessage = receivedMessage;
-    totalResponseTime += responseTime;
-    msgCount++;
-
-    // Check if extra information should be displayed
-    if ("getQuote".equals(type)) {
-      Object data = userData;
-      int auction = -1;
-      if (data instanceof Quote) {
-	auction = ((Quote) data).getAuction();
-      } else if (data instanceof Bid) {
-	auction = ((Bid) data).getAuction();
-      }
-      if (auction >= 0) {
-	log.finest("requesting quotes for auction " + auction + " ("
-		   + TACAgent.getAuctionTypeAsString(auction) + ')');
-      }
-    } else if ("submitBid".equals(type) || "replaceBid".equals(type)) {
-      Object data = userData;
-      if (data instanceof Bid) {
-	int auction = ((Bid) data).getAuction();
-	log.finest("submitting bid (" + type
-		   + ") to auction " + auction + " ("
-		   + TACAgent.getAuctionTypeAsString(auction) + ')');
-      }
+    if (nanoSent != 0L) {
+      recordResponse((System.nanoTime() - nanoSent) / 1000);
     }
 
-    log.finest("XML out: '" + sentMessage + '\'');
-    log.finest("XML in: '" + receivedMessage + "' responseTime: " +
-	       getResponseTime() + " avg: " +
-	       getAverageResponseTime() + " count: " +
-	       getMessageCount());
+    // Check if extra information should be displayed (the log messages
+    // are only created when they will be logged to avoid garbage for
+    // every received message)
+    if (log.isLoggable(Level.FINEST)) {
+      logExchange();
+    }
 
     pos = 0;
     if (nextTag() && (!isDeclaration() || nextTag())) {
@@ -150,6 +171,51 @@ public class TACMessage {
     }
   }
 
+  // Kept out of setReceivedMessage so that it stays small enough to be
+  // inlined (the message is then often never allocated by the parsers)
+  private void recordResponse(long micros) {
+    int bytesReceived = receivedMessage.length();
+    msgCount++;
+    totalResponseTime += micros;
+    MessageStatistics statistics = this.statistics;
+    if (statistics != null) {
+      statistics.record(type, micros, bytesSent, bytesReceived);
+    }
+    statistics = this.gameStatistics;
+    if (statistics != null) {
+      statistics.record(type, micros, bytesSent, bytesReceived);
+    }
+    FlightEvents.MessageReceived event = new FlightEvents.MessageReceived();
+    if (event.shouldCommit()) {
+      event.type = type;
+      event.auction = getAuction();
+      event.bytes = bytesReceived;
+      event.latency = micros;
+      event.commit();
+    }
+  }
+
+  private void logExchange() {
+    if ("getQuote".equals(type)) {
+      int auction = getAuction();
+      if (auction >= 0) {
+	log.finest("requesting quotes for auction " + auction + " ("
+		   + TACAgent.getAuctionTypeAsString(auction) + ')');
+      }
+    } else if ("submitBid".equals(type) || "replaceBid".equals(type)) {
+      if (userData instanceof Bid) {
+	int auction = ((Bid) userData).getAuction();
+	log.finest("submitting bid (" + type
+		   + ") to auction " + auction + " ("
+		   + TACAgent.getAuctionTypeAsString(auction) + ')');
+      }
+    }
+
+    log.finest("XML out: '" + sentMessage + '\'');
+    log.finest("XML in: '" + receivedMessage + "' responseTime: " +
+	       getResponseTime());
+  }
+
   public void setParameter(String name, String value) {
     msg.add(name);
     msg.add(value);
@@ -197,6 +263,10 @@ public class TACMessage {
   }
 
   public int getValueAsInt(int def) {
+    long value = parseValue();
+    if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+      return (int) value;
+    }
     String val = getValue();
     if (val != null) {
       try {
@@ -208,6 +278,10 @@ public class TACMessage {
   }
 
   public long getValueAsLong(long def) {
+    long value = parseValue();
+    if (value != Long.MIN_VALUE) {
+      return value;
+    }
     String val = getValue();
     if (val != null) {
       try {
@@ -218,6 +292,41 @@ public class TACMessage {
     return def;
   }
 
+  // Parses the value of the current tag as a decimal integer without
+  // creating a string. Returns Long.MIN_VALUE if the value is not a
+  // plain integer of at most 18 digits, in which case the caller falls
+  // back to the string parsing.
+  private long parseValue() {
+    String message = receivedMessage;
+    int start = message.indexOf('>', pos);
+    if (start < 0) {
+      return Long.MIN_VALUE;
+    }
+    int i = start + 1;
+    int len = message.length();
+    boolean negative = false;
+    if (i < len && message.charAt(i) == '-') {
+      negative = true;
+      i++;
+    }
+    long value = 0L;
+    int digits = 0;
+    for (; i < len; i++) {
+      char c = message.charAt(i);
+      if (c >= '0' && c <= '9') {
+	if (++digits > 18) {
+	  return Long.MIN_VALUE;
+	}
+	value = value * 10 + (c - '0');
+      } else if (c == '<' && digits > 0) {
+	return negative ? -value : value;
+      } else {
+	return Long.MIN_VALUE;
+      }
+    }
+    return Long.MIN_VALUE;
+  }
+
   public float getValueAsFloat(float def) {
     String val = getValue();
     if (val != null) {
@@ -243,9 +352,11 @@ public class TACMessage {
   }
 
   public boolean isTag(String name) {
-    name = name + '>';
     int len = name.length();
-    return receivedMessage.regionMatches(pos, name, 0, len);
+    int end = pos + len;
+    return end < receivedMessage.length()
+      && receivedMessage.charAt(end) == '>'
+      && receivedMessage.regionMatches(pos, name, 0, len);
   }
 
 //   public void reset() {
@@ -265,27 +376,58 @@ public class TACMessage {
       }
       sb.append("</").append(type).append('>');
       this.sentMessage = sb.toString();
-      // Timestamp the generation of this message (when it was sent)
-      this.timeSent = System.currentTimeMillis();
+      messageSent(sb.length());
       return sb.append('\0').toString();
     } else {
-      // Timestamp the generation of this message (when it was sent)
-      this.timeSent = System.currentTimeMillis();
+      messageSent(message.length());
       return message + '\0';
     }
   }
 
+  private void messageSent(int length) {
+    // Timestamp the generation of this message (when it was sent)
+    this.timeSent = Clock.getDefault().currentTimeMillis();
+    this.nanoSent = System.nanoTime();
+    // Including the terminating null character
+    this.bytesSent = length + 1;
+
+    FlightEvents.MessageSent event = new FlightEvents.MessageSent();
+    if (event.shouldCommit()) {
+      event.type = type;
+      event.auction = getAuction();
+      event.bytes = length;
+      event.commit();
+    }
+  }
+
+  /**
+   * @deprecated Use the response times of the agent,
+   * <code>TACAgent.getMessageStatistics()</code>
+   */
+  @Deprecated
   public static long getMessageCount() {
     return msgCount;
   }
 
+  /**
+   * Returns the average response time in milliseconds.
+   *
+   * @deprecated Use the response times of the agent,
+   * <code>TACAgent.getMessageStatistics()</code>
+   */
+  @Deprecated
   public static float getAverageResponseTime() {
     if (msgCount == 0) {
       return 0f;
     }
-    return (float) (totalResponseTime / msgCount);
+    return (float) (totalResponseTime / 1000.0 / msgCount);
   }
 
+  /**
+   * @deprecated Use the response times of the agent,
+   * <code>TACAgent.getMessageStatistics()</code>
+   */
+  @Deprecated
   public static void resetResponseTime() {
     totalResponseTime = 0;
     msgCount = 0;
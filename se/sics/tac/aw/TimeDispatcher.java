@@ -32,6 +32,9 @@
 
 package se.sics.tac.aw;
 import java.util.ArrayList;
+import java.util.logging.Logger;
+
+import se.sics.tac.util.Clock;
 
 public class TimeDispatcher extends Thread {
 
@@ -48,22 +51,76 @@ public class TimeDispatcher extends Thread {
     return dispatcher;
   }
 
+  private static final Logger log =
+    Logger.getLogger(TimeDispatcher.class.getName());
+
+  // Tasks performed later than this (in milliseconds) are logged
+  private final static long LAG_WARNING = 1000;
+
   private ArrayList list = new ArrayList();
-  private long timeDiff;
+  private volatile long timeDiff;
+
+  // How late the tasks are performed compared to their scheduled time,
+  // in total, per task key, and during the last minute
+  private final LatencyHistogram lag = new LatencyHistogram();
+  private final MetricsRegistry.HistogramFamily taskLag =
+    new MetricsRegistry.HistogramFamily("tac_timer_task_lag_seconds",
+					"Delay of each timer task after its"
+					+ " scheduled time", "task") { };
+  private final WindowedHistogram recentLag =
+    new WindowedHistogram(60000, 12);
 
   private TimeDispatcher() {
     super("timer");
     start();
   }
 
-  public void setTimeDiff(long timeDiff) {
+  /**
+   * Sets the difference in milliseconds between the local time and the
+   * server time and wakes the dispatcher so that the tasks are
+   * rescheduled according to the new server time.
+   */
+  public synchronized void setTimeDiff(long timeDiff) {
     this.timeDiff = timeDiff;
+    Clock.getDefault().wakeUp(this);
+  }
+
+  /**
+   * Returns the difference in milliseconds between the local time and
+   * the server time that the tasks are scheduled in.
+   */
+  public long getTimeDiff() {
+    return timeDiff;
+  }
+
+  /**
+   * Returns the histogram of how late (in microseconds) the tasks have
+   * been started compared to their scheduled time.
+   */
+  public LatencyHistogram getLagHistogram() {
+    return lag;
+  }
+
+  /**
+   * Returns the lag histograms per task key (keys are converted to
+   * strings).
+   */
+  public MetricsRegistry.HistogramFamily getTaskLagHistograms() {
+    return taskLag;
+  }
+
+  /**
+   * Returns the lag of the tasks performed during the last minute.
+   */
+  public LatencyHistogram getRecentLagHistogram() {
+    return recentLag.getSnapshot(Clock.getDefault().currentTimeMillis()
+				 - timeDiff);
   }
 
   public synchronized
     void addTask(long time, Object key, Object value, Task task) {
     list.add(new TaskHolder(time, key, value, task));
-    notify();
+    Clock.getDefault().wakeUp(this);
   }
 
   public synchronized void cancelTask(Object key, Task task) {
@@ -78,29 +135,70 @@ public class TimeDispatcher extends Thread {
 
   private synchronized TaskHolder nextTask() {
     do {
-      long currentTime = System.currentTimeMillis() - timeDiff;
+      Clock clock = Clock.getDefault();
+      long currentTime = clock.currentTimeMillis() - timeDiff;
+      long nextTime = Long.MAX_VALUE;
       for (int i = 0, n = list.size(); i < n; i++) {
 	TaskHolder h = (TaskHolder) list.get(i);
 	if (h.time <= currentTime) {
 	  list.remove(i);
+	  recordLag(h, currentTime);
+	  // Time must not pass while the task is performed
+	  clock.beginActivity();
 	  return h;
+	} else if (h.time < nextTime) {
+	  nextTime = h.time;
 	}
       }
       try {
-	wait(1000);
+	clock.waitUntil(this, nextTime == Long.MAX_VALUE
+			? nextTime : nextTime + timeDiff);
       } catch (Exception e) {
 	e.printStackTrace();
       }
     } while (true);
   }
 
+  // Tasks keyed by an object (such as the quote of a retried quote
+  // request) are named by the class of the key so that the number of
+  // task names stays fixed
+  private static String getTaskName(Object key) {
+    return key instanceof String
+      ? (String) key
+      : key.getClass().getSimpleName();
+  }
+
+  private void recordLag(TaskHolder h, long currentTime) {
+    long delay = currentTime - h.time;
+    long micros = delay * 1000;
+    h.lag = delay;
+    lag.record(micros);
+    recentLag.record(micros, currentTime);
+    Object key = h.key;
+    taskLag.getHistogram(getTaskName(key)).record(micros);
+    if (delay > LAG_WARNING) {
+      log.warning("timer task " + key + " performed " + delay
+		  + " ms after its scheduled time");
+    }
+  }
+
   public void run() {
     do {
       TaskHolder h = nextTask();
+      FlightEvents.TimerTask event = new FlightEvents.TimerTask();
+      event.begin();
       try {
 	h.task.performWork(h.time, h.key, h.value);
       } catch (Exception e) {
 	e.printStackTrace();
+      } finally {
+	Clock.getDefault().endActivity();
+      }
+      if (event.shouldCommit()) {
+	event.key = getTaskName(h.key);
+	event.scheduled = h.time;
+	event.lag = h.lag;
+	event.commit();
       }
     } while (true);
   }
@@ -111,6 +209,7 @@ public class TimeDispatcher extends Thread {
     public Object key;
     public Object value;
     public Task task;
+    public long lag;
 
     public TaskHolder(long time, Object key, Object value, Task task) {
       this.time = time;
@@ -0,0 +1,75 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * WindowedHistogram
+ *
+ * Created : 18 October, 2026
+ * Purpose : A latency histogram over a sliding time window. The window
+ *           is divided into slices, each a LatencyHistogram, and the
+ *           oldest slice is reused when time has moved past it so that
+ *           recording never allocates.
+ */
+
+package se.sics.tac.aw;
+
+public class WindowedHistogram {
+
+  private final long sliceMillis;
+  private final LatencyHistogram[] slices;
+  // The start time of the period each slice currently holds
+  private final long[] sliceStart;
+
+  /**
+   * Creates a new histogram over the specified window in milliseconds
+   * divided into the number of slices.
+   */
+  public WindowedHistogram(long windowMillis, int sliceCount) {
+    this.sliceMillis = Math.max(1L, windowMillis / sliceCount);
+    this.slices = new LatencyHistogram[sliceCount];
+    this.sliceStart = new long[sliceCount];
+    for (int i = 0; i < sliceCount; i++) {
+      slices[i] = new LatencyHistogram();
+      sliceStart[i] = Long.MIN_VALUE;
+    }
+  }
+
+  public long getWindow() {
+    return sliceMillis * slices.length;
+  }
+
+  /**
+   * Records a latency in microseconds at the specified time in
+   * milliseconds.
+   */
+  public synchronized void record(long micros, long time) {
+    long start = time - time % sliceMillis;
+    int index = (int) ((start / sliceMillis) % slices.length);
+    if (sliceStart[index] != start) {
+      slices[index].reset();
+      sliceStart[index] = start;
+    }
+    slices[index].record(micros);
+  }
+
+  /**
+   * Returns a new histogram with the latencies recorded during the
+   * window ending at the specified time in milliseconds.
+   */
+  public synchronized LatencyHistogram getSnapshot(long time) {
+    LatencyHistogram snapshot = new LatencyHistogram();
+    long oldest = time - time % sliceMillis - getWindow() + sliceMillis;
+    for (int i = 0, n = slices.length; i < n; i++) {
+      if (sliceStart[i] >= oldest && sliceStart[i] <= time) {
+	snapshot.add(slices[i]);
+      }
+    }
+    return snapshot;
+  }
+
+} // WindowedHistogram
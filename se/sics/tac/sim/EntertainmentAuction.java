@@ -0,0 +1,130 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * EntertainmentAuction
+ *
+ * Created : 18 October, 2026
+ * Purpose : A simulated TAC Classic entertainment auction: a continuous
+ *           double auction where bid points with positive quantities
+ *           are buy offers and negative quantities are sell offers. A
+ *           new offer transacts at once against the best standing
+ *           offers of the other agents at the standing offer's price.
+ *           The quote is the lowest sell price and the highest buy
+ *           price of the standing offers.
+ */
+
+package se.sics.tac.sim;
+
+final class EntertainmentAuction extends SimAuction {
+
+  EntertainmentAuction(SimGame game, int id, int index, int type, int day) {
+    super(game, id, index, SimGame.CAT_ENTERTAINMENT, type, day);
+  }
+
+  int validate(SimBid bid) {
+    float highestBuy = Float.NEGATIVE_INFINITY;
+    float lowestSell = Float.POSITIVE_INFINITY;
+    for (int i = 0, n = bid.getNoBidPoints(); i < n; i++) {
+      float price = bid.getPrice(i);
+      if (bid.getQuantity(i) > 0) {
+	if (price > highestBuy) {
+	  highestBuy = price;
+	}
+      } else if (price < lowestSell) {
+	lowestSell = price;
+      }
+    }
+    return highestBuy >= lowestSell ? SimGame.SELF_TRANSACTION : 0;
+  }
+
+  protected void bidPlaced(SimBid bid, long time) {
+    boolean matched;
+    do {
+      matched = false;
+      for (int i = 0, n = bid.getNoBidPoints(); i < n && !matched; i++) {
+	matched = matchPoint(bid, i, time);
+      }
+    } while (matched && bid.isActive());
+    updateQuote(time);
+  }
+
+  // Transacts the bid point against the best standing offer of the
+  // other agents and returns true if any units transacted
+  private boolean matchPoint(SimBid bid, int point, long time) {
+    int quantity = bid.getQuantity(point);
+    boolean isBuy = quantity > 0;
+    float price = bid.getPrice(point);
+    SimBid best = null;
+    int bestPoint = -1;
+    for (int a = 0, n = activeBids.length; a < n; a++) {
+      SimBid other = a == bid.agent ? null : getActiveBid(a);
+      if (other != null) {
+	for (int i = 0, m = other.getNoBidPoints(); i < m; i++) {
+	  int q = other.getQuantity(i);
+	  float p = other.getPrice(i);
+	  if (isBuy ? (q < 0 && p <= price) : (q > 0 && p >= price)) {
+	    if (best == null || isBetter(other, i, best, bestPoint)) {
+	      best = other;
+	      bestPoint = i;
+	    }
+	  }
+	}
+      }
+    }
+    if (best == null) {
+      return false;
+    }
+    int standing = best.getQuantity(bestPoint);
+    int units = Math.min(Math.abs(quantity), Math.abs(standing));
+    float tradePrice = best.getPrice(bestPoint);
+    if (isBuy) {
+      transact(best, bestPoint, -units, tradePrice, time);
+      transact(bid, point, units, tradePrice, time);
+    } else {
+      transact(best, bestPoint, units, tradePrice, time);
+      transact(bid, point, -units, tradePrice, time);
+    }
+    return true;
+  }
+
+  // Returns true if offer (b1, p1) is better than offer (b2, p2) of the
+  // same kind: a higher buy price, a lower sell price, or an older bid
+  private boolean isBetter(SimBid b1, int p1, SimBid b2, int p2) {
+    float price1 = b1.getPrice(p1);
+    float price2 = b2.getPrice(p2);
+    if (price1 != price2) {
+      return b1.getQuantity(p1) > 0 ? price1 > price2 : price1 < price2;
+    }
+    return b1.id < b2.id;
+  }
+
+  private void updateQuote(long time) {
+    float ask = 0f;
+    float bid = 0f;
+    for (int a = 0, n = activeBids.length; a < n; a++) {
+      SimBid other = getActiveBid(a);
+      if (other != null) {
+	for (int i = 0, m = other.getNoBidPoints(); i < m; i++) {
+	  float price = other.getPrice(i);
+	  if (other.getQuantity(i) > 0) {
+	    if (price > bid) {
+	      bid = price;
+	    }
+	  } else if (ask == 0f || price < ask) {
+	    ask = price;
+	  }
+	}
+      }
+    }
+    askPrice = ask;
+    bidPrice = bid;
+    lastQuoteTime = time;
+  }
+
+} // EntertainmentAuction
@@ -0,0 +1,92 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * FlightAuction
+ *
+ * Created : 18 October, 2026
+ * Purpose : A simulated TAC Classic flight auction. The seller has an
+ *           unlimited supply and a hidden parameter x drawn from
+ *           [-10, 30]. Every 10 seconds the price changes by an integer
+ *           drawn uniformly from [-10, x(t)] (or [x(t), 10] if x(t) is
+ *           negative) where x(t) = 10 + (t / T) * (x - 10), and is kept
+ *           within [150, 800]. Bid units at or above the ask price
+ *           transact immediately at the ask price.
+ */
+
+package se.sics.tac.sim;
+import java.util.Random;
+
+final class FlightAuction extends SimAuction {
+
+  final static float MIN_PRICE = 150f;
+  final static float MAX_PRICE = 800f;
+
+  private final int x;
+
+  FlightAuction(SimGame game, int id, int index, int type, int day,
+		Random random) {
+    super(game, id, index, SimGame.CAT_FLIGHT, type, day);
+    this.askPrice = 250 + random.nextInt(151);
+    this.x = -10 + random.nextInt(41);
+  }
+
+  int validate(SimBid bid) {
+    for (int i = 0, n = bid.getNoBidPoints(); i < n; i++) {
+      if (bid.getQuantity(i) < 0) {
+	return SimGame.SELL_NOT_ALLOWED;
+      }
+    }
+    return 0;
+  }
+
+  protected void bidPlaced(SimBid bid, long time) {
+    match(bid, time);
+  }
+
+  // Perturbs the price at the specified time (elapsed milliseconds
+  // since the game started) and lets standing bids transact
+  void perturb(long time, long elapsed, Random random) {
+    double xt = 10.0 + ((double) elapsed / game.length) * (x - 10);
+    int lo, hi;
+    if (xt > 0.0) {
+      lo = -10;
+      hi = (int) Math.round(xt);
+    } else if (xt < 0.0) {
+      lo = (int) Math.round(xt);
+      hi = 10;
+    } else {
+      lo = -10;
+      hi = 10;
+    }
+    float price = askPrice + lo + random.nextInt(hi - lo + 1);
+    if (price < MIN_PRICE) {
+      price = MIN_PRICE;
+    } else if (price > MAX_PRICE) {
+      price = MAX_PRICE;
+    }
+    askPrice = price;
+    lastQuoteTime = time;
+
+    for (int i = 0, n = activeBids.length; i < n; i++) {
+      SimBid bid = activeBids[i];
+      if (bid != null && bid.isActive()) {
+	match(bid, time);
+      }
+    }
+  }
+
+  private void match(SimBid bid, long time) {
+    for (int i = bid.getNoBidPoints() - 1; i >= 0; i--) {
+      if (bid.getPrice(i) >= askPrice) {
+	transact(bid, i, bid.getQuantity(i), askPrice, time);
+      }
+    }
+  }
+
+} // FlightAuction
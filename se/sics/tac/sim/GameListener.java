@@ -0,0 +1,27 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * GameListener
+ *
+ * Created : 18 October, 2026
+ * Purpose : Notified by a Market when a simulated game has finished.
+ */
+
+package se.sics.tac.sim;
+
+public interface GameListener {
+
+  /**
+   * Called when a game has ended and has been scored. The market is
+   * locked during the call so the listener must not send messages to
+   * the market.
+   */
+  public void gameFinished(Market market, GameResult result);
+
+} // GameListener
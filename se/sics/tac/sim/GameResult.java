@@ -0,0 +1,81 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * GameResult
+ *
+ * Created : 18 October, 2026
+ * Purpose : The outcome of a simulated game: the utility, the cost of
+ *           all transactions, the penalty for entertainment tickets sold
+ *           short, and the score of each agent in the game.
+ */
+
+package se.sics.tac.sim;
+
+public class GameResult {
+
+  private final int gameID;
+  private final long startTime;
+  private final String[] agentNames;
+  private final int[] utility;
+  private final float[] cost;
+  private final int[] penalty;
+
+  GameResult(int gameID, long startTime, String[] agentNames,
+	     int[] utility, float[] cost, int[] penalty) {
+    this.gameID = gameID;
+    this.startTime = startTime;
+    this.agentNames = agentNames;
+    this.utility = utility;
+    this.cost = cost;
+    this.penalty = penalty;
+  }
+
+  public int getGameID() {
+    return gameID;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public int getAgentCount() {
+    return agentNames.length;
+  }
+
+  public String getAgentName(int agent) {
+    return agentNames[agent];
+  }
+
+  // Returns the index of the named agent or -1 if it was not in the game
+  public int getAgentIndex(String name) {
+    for (int i = 0, n = agentNames.length; i < n; i++) {
+      if (agentNames[i].equals(name)) {
+	return i;
+      }
+    }
+    return -1;
+  }
+
+  public int getUtility(int agent) {
+    return utility[agent];
+  }
+
+  public float getCost(int agent) {
+    return cost[agent];
+  }
+
+  public int getPenalty(int agent) {
+    return penalty[agent];
+  }
+
+  public float getScore(int agent) {
+    return utility[agent] - cost[agent] - penalty[agent];
+  }
+
+} // GameResult
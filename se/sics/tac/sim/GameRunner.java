@@ -0,0 +1,334 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * GameRunner
+ *
+ * Created : 18 October, 2026
+ * Purpose : Plays a batch of simulated games without a TAC server. The
+ *	     games are spread over a number of markets that run in
+ *	     parallel in virtual time, each with its own eight agents.
+ *	     All markets share the default virtual clock and timer
+ *	     dispatcher, so virtual time only advances when every agent
+ *	     in every market is idle. Parallel markets therefore mostly
+ *	     overlap the agents' own computation and the throughput
+ *	     does not grow with the number of processors.
+ *	     The utility, cost, penalty, and score of every agent in
+ *	     every game are written to a tab separated results file and
+ *	     the mean score of each agent implementation is printed.
+ *
+ *	     Usage: java se.sics.tac.sim.GameRunner [-games <n>]
+ *	            [-parallel <n>] [-agent <className>]... [-out <file>]
+ */
+
+package se.sics.tac.sim;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Properties;
+
+import se.sics.tac.aw.AgentImpl;
+import se.sics.tac.aw.TACAgent;
+import se.sics.tac.util.ArgEnumerator;
+import se.sics.tac.util.Clock;
+import se.sics.tac.util.VirtualClock;
+
+public class GameRunner implements GameListener {
+
+  public final static int AGENTS = SimGame.AGENTS;
+
+  private final Properties config;
+  private final String[] agentClasses;
+  private final int parallel;
+
+  private Market[] markets;
+  private ArrayList<TACAgent> agents = new ArrayList<TACAgent>();
+  private int[] quota;
+  private int[] played;
+  private int remaining;
+
+  // The results in the order the games finished
+  private ArrayList<GameResult> results = new ArrayList<GameResult>();
+  private ArrayList<Integer> resultMarkets = new ArrayList<Integer>();
+
+  /**
+   * @param config the agent configuration (given to all agents)
+   * @param agentClasses the agent implementation of each agent in a game
+   * @param parallel the number of games to run in parallel
+   */
+  public GameRunner(Properties config, String[] agentClasses, int parallel) {
+    if (agentClasses.length != AGENTS) {
+      throw new IllegalArgumentException("a game needs " + AGENTS
+					 + " agents");
+    }
+    this.config = config;
+    this.agentClasses = agentClasses;
+    this.parallel = parallel;
+  }
+
+  /**
+   * Plays the games and returns when all of them have finished. The
+   * agents are stopped and the markets removed afterwards.
+   */
+  public void run(int games, long seed) throws Exception {
+    Clock clock = Clock.getDefault();
+    if (!(clock instanceof VirtualClock)) {
+      clock = new VirtualClock();
+      Clock.setDefault(clock);
+    }
+    int marketCount = Math.min(parallel, games);
+    synchronized (this) {
+      markets = new Market[marketCount];
+      quota = new int[marketCount];
+      played = new int[marketCount];
+      remaining = games;
+    }
+
+    // Time must not pass until all agents have asked for their first game
+    clock.beginActivity();
+    try {
+      for (int m = 0; m < marketCount; m++) {
+	Market market = new Market(seed + m, clock);
+	String host = "sim" + m;
+	quota[m] = games / marketCount + (m < games % marketCount ? 1 : 0);
+	markets[m] = market;
+	market.addGameListener(this);
+	Market.setMarket(host, market);
+	for (int a = 0; a < AGENTS; a++) {
+	  createAgent(host, getAgentName(a), agentClasses[a]);
+	}
+      }
+    } finally {
+      clock.endActivity();
+    }
+
+    try {
+      synchronized (this) {
+	while (remaining > 0) {
+	  wait();
+	}
+      }
+    } finally {
+      stop();
+    }
+  }
+
+  // Stops the agents of this batch and removes the markets
+  private void stop() {
+    TACAgent[] stopping;
+    synchronized (this) {
+      stopping = agents.toArray(new TACAgent[agents.size()]);
+      agents.clear();
+    }
+    for (int i = 0; i < stopping.length; i++) {
+      stopping[i].stop();
+    }
+    for (int m = 0; m < markets.length; m++) {
+      if (markets[m] != null) {
+	markets[m].removeGameListener(this);
+	Market.setMarket("sim" + m, null);
+      }
+    }
+  }
+
+  private void createAgent(String host, String name, String className)
+    throws Exception
+  {
+    Properties p = new Properties();
+    p.putAll(config);
+    p.setProperty("agent", name);
+    p.setProperty("password", name);
+    p.setProperty("host", host);
+    p.setProperty("connection", "se.sics.tac.aw.LocalTACConnection");
+    p.setProperty("virtualTime", "true");
+    p.setProperty("fileLogLevel", "6");
+    p.remove("exitAfterGames");
+    p.remove("printOwnDelay");
+    p.remove("eventLog");
+    p.remove("messageCapture");
+    p.remove("priceHistory");
+    AgentImpl agent = (AgentImpl) Class.forName(className)
+      .getDeclaredConstructor().newInstance();
+    TACAgent tacAgent =
+      new TACAgent(agent, new ArgEnumerator(new String[0], "", false), p);
+    synchronized (this) {
+      agents.add(tacAgent);
+    }
+  }
+
+  private String getAgentName(int agent) {
+    String name = agentClasses[agent];
+    return name.substring(name.lastIndexOf('.') + 1) + (agent + 1);
+  }
+
+  public synchronized void gameFinished(Market market, GameResult result) {
+    for (int m = 0, n = markets.length; m < n; m++) {
+      if (markets[m] == market) {
+	if (played[m] < quota[m]) {
+	  played[m]++;
+	  results.add(result);
+	  resultMarkets.add(m);
+	  if (--remaining == 0) {
+	    notifyAll();
+	  }
+	}
+	break;
+      }
+    }
+  }
+
+  /**
+   * Writes one line per agent and game: market, game, agent name, agent
+   * implementation, utility, cost, penalty, and score.
+   */
+  public synchronized void writeResults(String file) throws IOException {
+    PrintWriter out = new PrintWriter(new FileWriter(file));
+    try {
+      out.println("market\tgame\tagent\tclass\tutility\tcost\tpenalty\tscore");
+      for (int i = 0, n = results.size(); i < n; i++) {
+	GameResult result = results.get(i);
+	int market = resultMarkets.get(i);
+	for (int a = 0, m = result.getAgentCount(); a < m; a++) {
+	  out.println(market + "\t" + result.getGameID()
+		      + '\t' + result.getAgentName(a)
+		      + '\t' + getAgentClass(result.getAgentName(a))
+		      + '\t' + result.getUtility(a)
+		      + '\t' + result.getCost(a)
+		      + '\t' + result.getPenalty(a)
+		      + '\t' + result.getScore(a));
+	}
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Prints the number of games, the mean score, and the standard error of
+   * the mean score of each agent implementation.
+   */
+  public synchronized void printSummary() {
+    ArrayList<String> classes = new ArrayList<String>();
+    for (int a = 0; a < AGENTS; a++) {
+      if (!classes.contains(agentClasses[a])) {
+	classes.add(agentClasses[a]);
+      }
+    }
+    for (int c = 0, nc = classes.size(); c < nc; c++) {
+      String className = classes.get(c);
+      int count = 0;
+      double sum = 0.0, sumSquares = 0.0;
+      for (int i = 0, n = results.size(); i < n; i++) {
+	GameResult result = results.get(i);
+	for (int a = 0, m = result.getAgentCount(); a < m; a++) {
+	  if (className.equals(getAgentClass(result.getAgentName(a)))) {
+	    double score = result.getScore(a);
+	    sum += score;
+	    sumSquares += score * score;
+	    count++;
+	  }
+	}
+      }
+      if (count > 0) {
+	double mean = sum / count;
+	double variance = count > 1
+	  ? (sumSquares - sum * mean) / (count - 1) : 0.0;
+	System.out.println(className + ": " + count + " scores, mean "
+			   + (float) mean + " +- "
+			   + (float) Math.sqrt(variance / count));
+      }
+    }
+  }
+
+  private String getAgentClass(String name) {
+    for (int a = 0; a < AGENTS; a++) {
+      if (name.equals(getAgentName(a))) {
+	return agentClasses[a];
+      }
+    }
+    return "?";
+  }
+
+  // Agent implementations in the agent ware package may be given by
+  // their short class name
+  static String getClassName(String name) {
+    return name.indexOf('.') < 0 ? "se.sics.tac.aw." + name : name;
+  }
+
+  public static void main(String[] args) throws Exception {
+    String usage =
+      "Usage: GameRunner [-options]\n"
+      + "where options include:\n"
+      + "    -config <configfile>      set the agent config file to use\n"
+      + "    -games <n>                set the number of games to play\n"
+      + "    -parallel <n>             set the number of parallel games\n"
+      + "    -agent <className>        add an agent implementation (the\n"
+      + "                              last one fills the game)\n"
+      + "    -seed <seed>              set the seed of the markets\n"
+      + "    -out <file>               set the results file\n"
+      + "    -consoleLogLevel <level>  set the console log level\n"
+      + "    -h                        show this help message\n";
+    ArgEnumerator a = new ArgEnumerator(args, usage, true);
+    String configFile = "agent.conf";
+    int games = 100;
+    int parallel = Runtime.getRuntime().availableProcessors();
+    long seed = System.currentTimeMillis();
+    String outFile = "results.tsv";
+    String logLevel = "5";
+    ArrayList<String> agents = new ArrayList<String>();
+    while (a.hasNext()) {
+      String arg = a.next();
+      if (arg.equals("-config")) {
+	configFile = a.getString("-config");
+      } else if (arg.equals("-games")) {
+	games = a.getInt("-games");
+      } else if (arg.equals("-parallel")) {
+	parallel = a.getInt("-parallel");
+      } else if (arg.equals("-agent")) {
+	agents.add(getClassName(a.getString("-agent")));
+      } else if (arg.equals("-seed")) {
+	seed = Long.parseLong(a.getString("-seed"));
+      } else if (arg.equals("-out")) {
+	outFile = a.getString("-out");
+      } else if (arg.equals("-consoleLogLevel")) {
+	logLevel = a.getString("-consoleLogLevel");
+      } else {
+	System.err.println("Unknown argument '" + arg + '\'');
+	a.usage(1);
+      }
+    }
+    if (agents.size() > AGENTS || games <= 0 || parallel <= 0) {
+      a.usage(1);
+    }
+    if (agents.size() == 0) {
+      agents.add("se.sics.tac.aw.Phobos");
+      agents.add("se.sics.tac.aw.DummyAgent");
+    }
+    String[] agentClasses = new String[AGENTS];
+    for (int i = 0; i < AGENTS; i++) {
+      agentClasses[i] = agents.get(Math.min(i, agents.size() - 1));
+    }
+
+    Properties config = new File(configFile).exists()
+      ? TACAgent.getConfig(configFile)
+      : new Properties();
+    config.setProperty("consoleLogLevel", logLevel);
+
+    GameRunner runner = new GameRunner(config, agentClasses, parallel);
+    long time = System.currentTimeMillis();
+    runner.run(games, seed);
+    time = System.currentTimeMillis() - time;
+    runner.writeResults(outFile);
+    System.out.println(games + " games in " + (time / 1000) + " sec");
+    runner.printSummary();
+    System.exit(0);
+  }
+
+} // GameRunner
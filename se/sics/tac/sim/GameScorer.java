@@ -0,0 +1,231 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * GameScorer
+ *
+ * Created : 18 October, 2026
+ * Purpose : Computes the utility of the goods an agent owns at the end
+ *           of a game as the TAC server does: the goods are allocated to
+ *           the clients so that the total client utility is maximized.
+ *
+ *           A client with a feasible trip gets the utility
+ *           1000 - 100 * (days off the preferred arrival and departure)
+ *           + the hotel bonus (if in the good hotel) + the value of the
+ *           entertainment tickets (at most one per night and one of
+ *           each type). The options of each client that the goods owned
+ *           allow are searched depth first with the sum of the best
+ *           remaining option of each client as bound.
+ */
+
+package se.sics.tac.sim;
+
+final class GameScorer {
+
+  private final static int MAX_NODES = 2000000;
+
+  private final int[][] optionValue = new int[SimGame.CLIENTS][];
+  private final int[][][] optionGoods = new int[SimGame.CLIENTS][][];
+  private final int[] optionCount = new int[SimGame.CLIENTS];
+
+  private final int[] remaining = new int[SimGame.AUCTIONS];
+  private int best;
+  private int nodes;
+
+  // Scratch space for building the options of one client
+  private int[] values = new int[256];
+  private int[][] goods = new int[256][];
+  private int count;
+  private final int[] scratch = new int[9];
+
+  /**
+   * Returns the maximum total utility the agent can get from its goods.
+   */
+  synchronized int getUtility(SimGame game, int agent) {
+    for (int a = 0; a < SimGame.AUCTIONS; a++) {
+      int own = game.getOwn(agent, a);
+      remaining[a] = own > 0 ? own : 0;
+    }
+    for (int c = 0; c < SimGame.CLIENTS; c++) {
+      createOptions(game, agent, c);
+    }
+
+    // Greedy allocation as initial lower bound
+    int value = 0;
+    for (int c = 0; c < SimGame.CLIENTS; c++) {
+      int o = getBestOption(c);
+      if (o >= 0) {
+	value += optionValue[c][o];
+	use(optionGoods[c][o], -1);
+      }
+    }
+    for (int a = 0; a < SimGame.AUCTIONS; a++) {
+      int own = game.getOwn(agent, a);
+      remaining[a] = own > 0 ? own : 0;
+    }
+    best = value;
+    nodes = 0;
+    search(0, 0);
+    return best;
+  }
+
+  private void search(int client, int value) {
+    if (client == SimGame.CLIENTS) {
+      if (value > best) {
+	best = value;
+      }
+      return;
+    }
+    if (++nodes > MAX_NODES || value + getBound(client) <= best) {
+      return;
+    }
+    int[] values = optionValue[client];
+    int[][] goods = optionGoods[client];
+    for (int o = 0, n = optionCount[client]; o < n; o++) {
+      if (isAvailable(goods[o])) {
+	use(goods[o], -1);
+	search(client + 1, value + values[o]);
+	use(goods[o], 1);
+      }
+    }
+    // The client may also stay home
+    search(client + 1, value);
+  }
+
+  // The sum of the best available option of each remaining client
+  private int getBound(int client) {
+    int bound = 0;
+    for (int c = client; c < SimGame.CLIENTS; c++) {
+      int o = getBestOption(c);
+      if (o >= 0) {
+	bound += optionValue[c][o];
+      }
+    }
+    return bound;
+  }
+
+  // Options are sorted by value so the first available is the best
+  private int getBestOption(int client) {
+    int[][] goods = optionGoods[client];
+    for (int o = 0, n = optionCount[client]; o < n; o++) {
+      if (isAvailable(goods[o])) {
+	return o;
+      }
+    }
+    return -1;
+  }
+
+  private boolean isAvailable(int[] goods) {
+    for (int i = 0, n = goods.length; i < n; i++) {
+      if (remaining[goods[i]] <= 0) {
+	return false;
+      }
+    }
+    return true;
+  }
+
+  private void use(int[] goods, int delta) {
+    for (int i = 0, n = goods.length; i < n; i++) {
+      remaining[goods[i]] += delta;
+    }
+  }
+
+  // -------------------------------------------------------------------
+  // Client options
+  // -------------------------------------------------------------------
+
+  private void createOptions(SimGame game, int agent, int client) {
+    int prefArrival = game.getPreference(agent, client, SimGame.ARRIVAL);
+    int prefDeparture = game.getPreference(agent, client, SimGame.DEPARTURE);
+    int hotelValue = game.getPreference(agent, client, SimGame.HOTEL_VALUE);
+    count = 0;
+    for (int in = 1; in <= 4; in++) {
+      if (remaining[in - 1] <= 0) {
+	continue;
+      }
+      for (int out = in + 1; out <= 5; out++) {
+	if (remaining[out + 2] <= 0) {
+	  continue;
+	}
+	int penalty = 100 * (Math.abs(prefArrival - in)
+			     + Math.abs(prefDeparture - out));
+	for (int type = 0; type < 2; type++) {
+	  int n = 0;
+	  scratch[n++] = in - 1;
+	  scratch[n++] = out + 2;
+	  boolean hasRooms = true;
+	  for (int day = in; day < out && hasRooms; day++) {
+	    int hotel = 8 + type * 4 + day - 1;
+	    hasRooms = remaining[hotel] > 0;
+	    scratch[n++] = hotel;
+	  }
+	  if (hasRooms) {
+	    int value = 1000 - penalty + (type == 1 ? hotelValue : 0);
+	    addTickets(game, agent, client, in, out, 0, value, n);
+	  }
+	}
+      }
+    }
+
+    // Sort the options by value (highest first)
+    for (int i = 1; i < count; i++) {
+      int v = values[i];
+      int[] g = goods[i];
+      int j = i;
+      while (j > 0 && values[j - 1] < v) {
+	values[j] = values[j - 1];
+	goods[j] = goods[j - 1];
+	j--;
+      }
+      values[j] = v;
+      goods[j] = g;
+    }
+    int[] v = new int[count];
+    int[][] g = new int[count][];
+    System.arraycopy(values, 0, v, 0, count);
+    System.arraycopy(goods, 0, g, 0, count);
+    optionValue[client] = v;
+    optionGoods[client] = g;
+    optionCount[client] = count;
+  }
+
+  // Adds the options with all assignments of entertainment tickets to the
+  // nights from the specified day
+  private void addTickets(SimGame game, int agent, int client, int day,
+			  int out, int usedTypes, int value, int n) {
+    if (day == out) {
+      if (count == values.length) {
+	int[] tmp = new int[count * 2];
+	System.arraycopy(values, 0, tmp, 0, count);
+	values = tmp;
+	int[][] tmp2 = new int[count * 2][];
+	System.arraycopy(goods, 0, tmp2, 0, count);
+	goods = tmp2;
+      }
+      int[] g = new int[n];
+      System.arraycopy(scratch, 0, g, 0, n);
+      values[count] = value;
+      goods[count] = g;
+      count++;
+      return;
+    }
+    // No ticket this night
+    addTickets(game, agent, client, day + 1, out, usedTypes, value, n);
+    for (int type = 0; type < 3; type++) {
+      int ticket = 16 + type * 4 + day - 1;
+      int fun = game.getPreference(agent, client, SimGame.E1 + type);
+      if ((usedTypes & (1 << type)) == 0 && fun > 0
+	  && remaining[ticket] > 0) {
+	scratch[n] = ticket;
+	addTickets(game, agent, client, day + 1, out,
+		   usedTypes | (1 << type), value + fun, n + 1);
+      }
+    }
+  }
+
+} // GameScorer
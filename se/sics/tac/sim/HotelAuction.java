@@ -0,0 +1,142 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * HotelAuction
+ *
+ * Created : 18 October, 2026
+ * Purpose : A simulated TAC Classic hotel auction: a 16th price
+ *           ascending auction for 16 rooms. The quote (the 16th highest
+ *           bid unit) and the hypothetical quantity won of each agent
+ *           are updated at the end of every minute and the auction
+ *           closes at the end of one of the first eight minutes, when
+ *           the 16 highest units transact at the 16th highest price.
+ *           A new bid must offer at least the hypothetical quantity
+ *           won of the previous bid at ask price + 1 or more.
+ */
+
+package se.sics.tac.sim;
+
+final class HotelAuction extends SimAuction {
+
+  final static int ROOMS = 16;
+
+  private final int[] hqw = new int[SimGame.AGENTS];
+  private long nextQuoteTime;
+
+  // The highest bid units sorted by price and by bid age for equal prices
+  private final SimBid[] topBid = new SimBid[ROOMS];
+  private final int[] topPoint = new int[ROOMS];
+  private final float[] topPrice = new float[ROOMS];
+  private int topCount;
+
+  HotelAuction(SimGame game, int id, int index, int type, int day) {
+    super(game, id, index, SimGame.CAT_HOTEL, type, day);
+    this.nextQuoteTime = game.startTime + SimGame.HOTEL_PERIOD;
+  }
+
+  int validate(SimBid bid) {
+    int units = 0;
+    for (int i = 0, n = bid.getNoBidPoints(); i < n; i++) {
+      int quantity = bid.getQuantity(i);
+      if (quantity < 0) {
+	return SimGame.SELL_NOT_ALLOWED;
+      }
+      if (bid.getPrice(i) >= askPrice + 1) {
+	units += quantity;
+      }
+    }
+    return units < hqw[bid.agent] ? SimGame.PRICE_NOT_BEAT : 0;
+  }
+
+  protected void bidPlaced(SimBid bid, long time) {
+    // The quote is only updated once every minute
+  }
+
+  int getHQW(int agent) {
+    return hqw[agent];
+  }
+
+  long getNextQuoteTime() {
+    return closed ? 0L : nextQuoteTime;
+  }
+
+  // Updates the quote and the hypothetical quantity won of each agent
+  void clear(long time) {
+    collectTopUnits();
+    askPrice = topCount == ROOMS ? topPrice[ROOMS - 1] : 0f;
+    for (int i = 0, n = hqw.length; i < n; i++) {
+      hqw[i] = 0;
+    }
+    for (int i = 0; i < topCount; i++) {
+      hqw[topBid[i].agent]++;
+    }
+    lastQuoteTime = time;
+    nextQuoteTime = time + SimGame.HOTEL_PERIOD;
+  }
+
+  void close(long time) {
+    clear(time);
+    float price = askPrice;
+    for (int a = 0, n = activeBids.length; a < n; a++) {
+      SimBid bid = getActiveBid(a);
+      if (bid != null && hqw[a] > 0) {
+	// Transact the winning units of each bid point starting with
+	// the last point to keep the indices of the remaining points
+	for (int p = bid.getNoBidPoints() - 1; p >= 0; p--) {
+	  int won = 0;
+	  for (int i = 0; i < topCount; i++) {
+	    if (topBid[i] == bid && topPoint[i] == p) {
+	      won++;
+	    }
+	  }
+	  if (won > 0) {
+	    transact(bid, p, won, price, time);
+	  }
+	}
+      }
+    }
+    super.close(time);
+  }
+
+  private void collectTopUnits() {
+    topCount = 0;
+    for (int a = 0, n = activeBids.length; a < n; a++) {
+      SimBid bid = getActiveBid(a);
+      if (bid != null) {
+	for (int p = 0, m = bid.getNoBidPoints(); p < m; p++) {
+	  int units = bid.getQuantity(p);
+	  float price = bid.getPrice(p);
+	  for (int u = 0; u < units && addTopUnit(bid, p, price); u++);
+	}
+      }
+    }
+  }
+
+  // Returns false if the unit was not among the highest units
+  private boolean addTopUnit(SimBid bid, int point, float price) {
+    int pos = topCount;
+    while (pos > 0 && (topPrice[pos - 1] < price
+		       || (topPrice[pos - 1] == price
+			   && topBid[pos - 1].id > bid.id))) {
+      pos--;
+    }
+    if (pos == ROOMS) {
+      return false;
+    }
+    int last = topCount < ROOMS ? topCount++ : ROOMS - 1;
+    System.arraycopy(topBid, pos, topBid, pos + 1, last - pos);
+    System.arraycopy(topPoint, pos, topPoint, pos + 1, last - pos);
+    System.arraycopy(topPrice, pos, topPrice, pos + 1, last - pos);
+    topBid[pos] = bid;
+    topPoint[pos] = point;
+    topPrice[pos] = price;
+    return true;
+  }
+
+} // HotelAuction
@@ -0,0 +1,577 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * Market
+ *
+ * Created : 18 October, 2026
+ * Purpose : An in-process TAC Classic server. The market schedules
+ *           games for the agents that ask for the next game (agents
+ *           asking before a scheduled game has started join that game)
+ *           and answers the same XML messages as the TAC server.
+ *
+ *           Markets are registered by name and the agent ware connects
+ *           to one with se.sics.tac.aw.LocalTACConnection using the
+ *           market name as host.
+ */
+
+package se.sics.tac.sim;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import se.sics.tac.aw.TACMessage;
+import se.sics.tac.util.Clock;
+
+public class Market {
+
+  private static final Logger log =
+    Logger.getLogger(Market.class.getName());
+
+  /** Command status (as sent by the TAC server) */
+  private final static int NO_ERROR = 0;
+  private final static int AGENT_NOT_AUTH = 2;
+  private final static int GAME_NOT_FOUND = 4;
+  private final static int NOT_MEMBER_OF_GAME = 5;
+  private final static int GAME_FUTURE = 9;
+  private final static int GAME_COMPLETE = 10;
+  private final static int AUCTION_NOT_FOUND = 11;
+  private final static int AUCTION_CLOSED = 12;
+  private final static int BID_NOT_FOUND = 13;
+  private final static int TRANS_NOT_FOUND = 14;
+  private final static int BAD_BIDSTRING_FORMAT = 16;
+  private final static int NOT_SUPPORTED = 17;
+
+  private final static String GAME_TYPE = "tacClassic";
+
+  // Finished games are kept this long for late requests
+  private final static long GAME_RETENTION = 600000;
+
+  private static Hashtable markets = new Hashtable();
+
+  public static synchronized Market getMarket(String name) {
+    Market market = (Market) markets.get(name);
+    if (market == null) {
+      market = new Market(System.currentTimeMillis());
+      markets.put(name, market);
+    }
+    return market;
+  }
+
+  public static synchronized void setMarket(String name, Market market) {
+    if (market == null) {
+      markets.remove(name);
+    } else {
+      markets.put(name, market);
+    }
+  }
+
+  private final Random random;
+  private final Clock clock;
+  private long gameDelay = 5000;
+  private int gameLength = SimGame.DEFAULT_GAME_LENGTH;
+
+  private Hashtable users = new Hashtable();
+  private ArrayList userList = new ArrayList();
+
+  private final GameScorer scorer = new GameScorer();
+  private GameListener[] listeners;
+
+  private ArrayList games = new ArrayList();
+  private int gameCount = 0;
+  private int auctionCount = 0;
+  private int bidCount = 0;
+  private int transactionCount = 0;
+
+  public Market(long seed) {
+    this(seed, Clock.getDefault());
+  }
+
+  public Market(long seed, Clock clock) {
+    this.random = new Random(seed);
+    this.clock = clock;
+  }
+
+  // -------------------------------------------------------------------
+  // Configuration
+  // -------------------------------------------------------------------
+
+  /**
+   * Sets the time between the first request for a new game and the
+   * start of that game (other agents asking for a game before it has
+   * started will join the same game).
+   */
+  public synchronized void setGameDelay(long gameDelay) {
+    this.gameDelay = gameDelay;
+  }
+
+  public synchronized long getGameDelay() {
+    return gameDelay;
+  }
+
+  public synchronized void setGameLength(int gameLength) {
+    this.gameLength = gameLength;
+  }
+
+  public synchronized int getGameLength() {
+    return gameLength;
+  }
+
+  public long getServerTime() {
+    return clock.currentTimeMillis();
+  }
+
+  public synchronized void addGameListener(GameListener listener) {
+    int n = listeners == null ? 0 : listeners.length;
+    GameListener[] tmp = new GameListener[n + 1];
+    if (n > 0) {
+      System.arraycopy(listeners, 0, tmp, 0, n);
+    }
+    tmp[n] = listener;
+    listeners = tmp;
+  }
+
+  public synchronized void removeGameListener(GameListener listener) {
+    for (int i = 0, n = listeners == null ? 0 : listeners.length; i < n; i++) {
+      if (listeners[i] == listener) {
+	if (n == 1) {
+	  listeners = null;
+	} else {
+	  GameListener[] tmp = new GameListener[n - 1];
+	  System.arraycopy(listeners, 0, tmp, 0, i);
+	  System.arraycopy(listeners, i + 1, tmp, i, n - i - 1);
+	  listeners = tmp;
+	}
+	break;
+      }
+    }
+  }
+
+  // -------------------------------------------------------------------
+  // Id handling
+  // -------------------------------------------------------------------
+
+  int nextTransactionID() {
+    return ++transactionCount;
+  }
+
+  // -------------------------------------------------------------------
+  // Message handling
+  // -------------------------------------------------------------------
+
+  /**
+   * Logs in the user (a new user is created the first time a user name
+   * is seen).
+   *
+   * @return the user id or -1 if the password is wrong
+   */
+  public synchronized int login(String name, String password) {
+    User user = (User) users.get(name);
+    if (user == null) {
+      user = new User(userList.size() + 1, name, password);
+      users.put(name, user);
+      userList.add(user);
+      log.fine("created user " + name + " with id " + user.id);
+    } else if (password == null ? user.password != null
+	       : !password.equals(user.password)) {
+      return -1;
+    }
+    return user.id;
+  }
+
+  /**
+   * Handles a message from the user and returns the XML reply.
+   */
+  public synchronized String handle(int userID, TACMessage msg) {
+    String type = msg.getType();
+    StringBuffer sb = new StringBuffer();
+    sb.append('<').append(type).append('>');
+    User user = userID > 0 && userID <= userList.size()
+      ? (User) userList.get(userID - 1) : null;
+    long time = getServerTime();
+    if ("auth".equals(type)) {
+      if (user != null) {
+	tag(sb, "userID", user.id);
+      } else {
+	tag(sb, "commandStatus", AGENT_NOT_AUTH);
+      }
+    } else if ("quit".equals(type)) {
+      // Nothing to reply
+    } else if (user == null) {
+      tag(sb, "commandStatus", AGENT_NOT_AUTH);
+    } else if ("serverTime".equals(type)) {
+      tag(sb, "time", time / 1000);
+    } else if ("nextGame".equals(type)) {
+      handleNextGame(user, time, sb);
+    } else if ("getGameAuctionIDs".equals(type)) {
+      if (checkGame(user, msg, time, sb)) {
+	handleGetAuctionIDs(user.game, sb);
+      }
+    } else if ("getGameConsts".equals(type)) {
+      tag(sb, "gameLength", gameLength / 1000);
+      tag(sb, "gameType", GAME_TYPE);
+      tag(sb, "commandStatus", NO_ERROR);
+    } else if ("getGameParams".equals(type)) {
+      if (checkGame(user, msg, time, sb)) {
+	handleGetGameParams(user, sb);
+      }
+    } else if (user.game == null) {
+      tag(sb, "commandStatus", NOT_MEMBER_OF_GAME);
+    } else {
+      SimGame game = user.game;
+      updateGame(game, time);
+      if ("submitBid".equals(type) || "replaceBid".equals(type)) {
+	handleSubmitBid(user, msg, time, sb);
+      } else if ("bidInfo".equals(type)) {
+	handleBidInfo(user, msg, sb);
+      } else if ("getQuote".equals(type)) {
+	handleGetQuote(user, msg, sb);
+      } else if ("transIDs".equals(type)) {
+	handleTransIDs(user, msg, sb);
+      } else if ("transInfo".equals(type)) {
+	handleTransInfo(user, msg, sb);
+      } else if ("recoverBidIDs".equals(type)) {
+	handleRecoverBidIDs(user, sb);
+      } else {
+	return "<tacerror><commandStatus>" + NOT_SUPPORTED
+	  + "</commandStatus></tacerror>";
+      }
+    }
+    sb.append("</").append(type).append('>');
+    return sb.toString();
+  }
+
+  private void handleNextGame(User user, long time, StringBuffer sb) {
+    SimGame game = user.game;
+    if (game == null || time >= game.getEndTime()) {
+      game = getScheduledGame(time);
+      user.game = game;
+      user.agent = game.addAgent(user.id);
+      log.fine("user " + user.name + " joined game " + game.id);
+    }
+    tag(sb, "gameID", game.id);
+    tag(sb, "startTime", game.startTime / 1000);
+    tag(sb, "commandStatus", NO_ERROR);
+  }
+
+  // Returns a game that has not yet started and has room for another
+  // agent, scheduling a new game if needed
+  private SimGame getScheduledGame(long time) {
+    long lastEndTime = 0L;
+    for (int i = games.size() - 1; i >= 0; i--) {
+      SimGame game = (SimGame) games.get(i);
+      if (game.getEndTime() + GAME_RETENTION < time) {
+	games.remove(i);
+      } else if (!game.isStarted(time) && !game.isFull()) {
+	return game;
+      } else if (game.getEndTime() > lastEndTime) {
+	lastEndTime = game.getEndTime();
+      }
+    }
+    // Games start at whole seconds after the game delay
+    long startTime = ((time + gameDelay + 999) / 1000) * 1000;
+    SimGame game = new SimGame(this, ++gameCount, startTime, gameLength,
+			       auctionCount + 1, random.nextLong());
+    auctionCount += SimGame.AUCTIONS;
+    games.add(game);
+    log.fine("scheduled game " + game.id + " at " + startTime);
+    return game;
+  }
+
+  // Checks that the user is a member of the requested game and that the
+  // game is running
+  private boolean checkGame(User user, TACMessage msg, long time,
+			    StringBuffer sb) {
+    int gameID = getInt(msg, "gameID", -1);
+    SimGame game = user.game;
+    if (game == null || game.id != gameID) {
+      tag(sb, "commandStatus", findGame(gameID) == null
+	  ? GAME_NOT_FOUND : NOT_MEMBER_OF_GAME);
+      return false;
+    }
+    updateGame(game, time);
+    if (!game.isStarted(time)) {
+      tag(sb, "commandStatus", GAME_FUTURE);
+      return false;
+    }
+    if (game.isEnded()) {
+      tag(sb, "commandStatus", GAME_COMPLETE);
+      return false;
+    }
+    return true;
+  }
+
+  // Advances the game and scores it when it has ended
+  private void updateGame(SimGame game, long time) {
+    game.update(time);
+    if (game.isEnded() && !game.isScored()) {
+      game.setScored();
+      int agents = game.getAgentCount();
+      String[] names = new String[agents];
+      int[] utility = new int[agents];
+      float[] cost = new float[agents];
+      int[] penalty = new int[agents];
+      for (int a = 0; a < agents; a++) {
+	User user = (User) userList.get(game.getAgentUserID(a) - 1);
+	names[a] = user.name;
+	utility[a] = scorer.getUtility(game, a);
+	cost[a] = game.getCost(a);
+	penalty[a] = game.getPenalty(a);
+      }
+      GameResult result = new GameResult(game.id, game.startTime, names,
+					 utility, cost, penalty);
+      log.fine("game " + game.id + " finished");
+      GameListener[] listeners = this.listeners;
+      if (listeners != null) {
+	for (int i = 0, n = listeners.length; i < n; i++) {
+	  try {
+	    listeners[i].gameFinished(this, result);
+	  } catch (Exception e) {
+	    log.log(Level.SEVERE, "game listener could not handle game "
+		    + game.id, e);
+	  }
+	}
+      }
+    }
+  }
+
+  private SimGame findGame(int gameID) {
+    for (int i = 0, n = games.size(); i < n; i++) {
+      SimGame game = (SimGame) games.get(i);
+      if (game.id == gameID) {
+	return game;
+      }
+    }
+    return null;
+  }
+
+  private void handleGetAuctionIDs(SimGame game, StringBuffer sb) {
+    sb.append("<auctionIDs><list>");
+    for (int i = 0; i < SimGame.AUCTIONS; i++) {
+      SimAuction auction = game.getAuction(i);
+      sb.append("<TACAuctionTuple>");
+      tag(sb, "category", auction.getCategoryName());
+      tag(sb, "type", auction.type);
+      tag(sb, "day", auction.day);
+      tag(sb, "ID", auction.id);
+      sb.append("</TACAuctionTuple>");
+    }
+    sb.append("</list></auctionIDs>");
+    tag(sb, "commandStatus", NO_ERROR);
+  }
+
+  private void handleGetGameParams(User user, StringBuffer sb) {
+    SimGame game = user.game;
+    int agent = user.agent;
+    sb.append("<clientPreferences><list>");
+    for (int c = 0; c < SimGame.CLIENTS; c++) {
+      sb.append("<clientPrefTuple>");
+      tag(sb, "client", c + 1);
+      tag(sb, "arrival", game.getPreference(agent, c, SimGame.ARRIVAL));
+      tag(sb, "departure", game.getPreference(agent, c, SimGame.DEPARTURE));
+      tag(sb, "hotel", game.getPreference(agent, c, SimGame.HOTEL_VALUE));
+      sb.append("<ticketPreferences><list>");
+      for (int e = 0; e < 3; e++) {
+	sb.append("<typePriceTuple>");
+	tag(sb, "type", e + 1);
+	tag(sb, "price", game.getPreference(agent, c, SimGame.E1 + e));
+	sb.append("</typePriceTuple>");
+      }
+      sb.append("</list></ticketPreferences>");
+      sb.append("</clientPrefTuple>");
+    }
+    sb.append("</list></clientPreferences>");
+
+    sb.append("<ticketEndowments><list>");
+    for (int i = 16; i < SimGame.AUCTIONS; i++) {
+      int quantity = game.getEndowment(agent, i);
+      if (quantity > 0) {
+	SimAuction auction = game.getAuction(i);
+	sb.append("<ticketEndowmentTuple>");
+	tag(sb, "type", auction.type);
+	tag(sb, "day", auction.day);
+	tag(sb, "quantity", quantity);
+	sb.append("</ticketEndowmentTuple>");
+      }
+    }
+    sb.append("</list></ticketEndowments>");
+    tag(sb, "commandStatus", NO_ERROR);
+  }
+
+  private void handleSubmitBid(User user, TACMessage msg, long time,
+			       StringBuffer sb) {
+    SimGame game = user.game;
+    SimAuction auction = game.getAuctionByID(getInt(msg, "auctionID", -1));
+    if (auction == null) {
+      tag(sb, "commandStatus", AUCTION_NOT_FOUND);
+      return;
+    }
+    if (auction.isClosed() || !game.isStarted(time)) {
+      tag(sb, "commandStatus", AUCTION_CLOSED);
+      return;
+    }
+
+    SimBid bid = new SimBid(++bidCount, user.agent, auction, time);
+    if (!bid.parse(msg.getParameter("bidString"))) {
+      tag(sb, "commandStatus", BAD_BIDSTRING_FORMAT);
+      return;
+    }
+    game.addBid(bid);
+    String bidHash = bid.getBidHash();
+    if ("replaceBid".equals(msg.getType())) {
+      SimBid active = auction.getActiveBid(user.agent);
+      if (active == null
+	  || active.id != getInt(msg, "bidID", -1)
+	  || !active.getBidHash().equals(msg.getParameter("bidHash"))) {
+	bid.reject(SimGame.ACTIVE_BID_CHANGED);
+      }
+    }
+    if (bid.getRejectReason() == 0) {
+      auction.submit(bid, time);
+    }
+    tag(sb, "bidID", bid.id);
+    tag(sb, "bidHash", bidHash);
+    tag(sb, "rejectReason", bid.getRejectReason());
+    tag(sb, "commandStatus", NO_ERROR);
+  }
+
+  private void handleBidInfo(User user, TACMessage msg, StringBuffer sb) {
+    SimBid bid = user.game.getBid(getInt(msg, "bidID", -1));
+    if (bid == null || bid.agent != user.agent) {
+      tag(sb, "commandStatus", BID_NOT_FOUND);
+      return;
+    }
+    tag(sb, "bidID", bid.id);
+    tag(sb, "auctionID", bid.auction.id);
+    tag(sb, "bidString", bid.getBidString());
+    tag(sb, "bidHash", bid.getBidHash());
+    tag(sb, "rejectReason", bid.getRejectReason());
+    tag(sb, "processingState", bid.getProcessingState());
+    tag(sb, "timeClosed", bid.getTimeClosed() / 1000);
+    tag(sb, "timeProcessed", bid.timeProcessed / 1000);
+    tag(sb, "commandStatus", NO_ERROR);
+  }
+
+  private void handleGetQuote(User user, TACMessage msg, StringBuffer sb) {
+    SimAuction auction =
+      user.game.getAuctionByID(getInt(msg, "auctionID", -1));
+    if (auction == null) {
+      tag(sb, "commandStatus", AUCTION_NOT_FOUND);
+      return;
+    }
+    tag(sb, "auctionID", auction.id);
+    tag(sb, "lastAskPrice", auction.getAskPrice());
+    tag(sb, "lastBidPrice", auction.getBidPrice());
+    if (msg.getParameter("bidID") != null) {
+      int hqw = auction.getHQW(user.agent);
+      if (hqw >= 0) {
+	tag(sb, "hypotheticalQuantityWon", hqw);
+      }
+    }
+    tag(sb, "auctionStatus", auction.getStatus());
+    tag(sb, "nextQuoteTime", auction.getNextQuoteTime() / 1000);
+    tag(sb, "lastQuoteTime", auction.getLastQuoteTime() / 1000);
+    tag(sb, "commandStatus", NO_ERROR);
+  }
+
+  private void handleTransIDs(User user, TACMessage msg, StringBuffer sb) {
+    SimGame game = user.game;
+    int earliest = getInt(msg, "earliestTransID", -1);
+    sb.append("<list>");
+    for (int i = 0, n = game.getTransactionCount(); i < n; i++) {
+      int id = game.getTransactionID(i);
+      if (id > earliest && game.getTransactionAgent(i) == user.agent) {
+	tag(sb, "transID", id);
+      }
+    }
+    sb.append("</list>");
+    tag(sb, "commandStatus", NO_ERROR);
+  }
+
+  private void handleTransInfo(User user, TACMessage msg, StringBuffer sb) {
+    SimGame game = user.game;
+    int index = game.getTransactionIndex(getInt(msg, "transID", -1));
+    if (index < 0 || game.getTransactionAgent(index) != user.agent) {
+      tag(sb, "commandStatus", TRANS_NOT_FOUND);
+      return;
+    }
+    tag(sb, "transID", game.getTransactionID(index));
+    tag(sb, "auctionID",
+	game.getAuction(game.getTransactionAuction(index)).id);
+    tag(sb, "quantity", game.getTransactionQuantity(index));
+    tag(sb, "price", game.getTransactionPrice(index));
+    tag(sb, "commandStatus", NO_ERROR);
+  }
+
+  private void handleRecoverBidIDs(User user, StringBuffer sb) {
+    SimGame game = user.game;
+    sb.append("<list>");
+    for (int i = 0; i < SimGame.AUCTIONS; i++) {
+      SimAuction auction = game.getAuction(i);
+      SimBid bid = auction.getActiveBid(user.agent);
+      if (bid != null) {
+	sb.append("<auctionBidIDsTuple>");
+	tag(sb, "auctionID", auction.id);
+	tag(sb, "bidID", bid.id);
+	sb.append("</auctionBidIDsTuple>");
+      }
+    }
+    sb.append("</list>");
+    tag(sb, "commandStatus", NO_ERROR);
+  }
+
+  private static int getInt(TACMessage msg, String name, int defaultValue) {
+    String value = msg.getParameter(name);
+    if (value != null) {
+      try {
+	return Integer.parseInt(value);
+      } catch (NumberFormatException e) {
+      }
+    }
+    return defaultValue;
+  }
+
+  private static void tag(StringBuffer sb, String name, String value) {
+    sb.append('<').append(name).append('>').append(value)
+      .append("</").append(name).append('>');
+  }
+
+  private static void tag(StringBuffer sb, String name, long value) {
+    sb.append('<').append(name).append('>').append(value)
+      .append("</").append(name).append('>');
+  }
+
+  private static void tag(StringBuffer sb, String name, float value) {
+    sb.append('<').append(name).append('>').append(value)
+      .append("</").append(name).append('>');
+  }
+
+
+  // -------------------------------------------------------------------
+  // User information
+  // -------------------------------------------------------------------
+
+  private static class User {
+    public final int id;
+    public final String name;
+    public final String password;
+
+    // The last game the user joined and the user's agent index in it
+    public SimGame game;
+    public int agent;
+
+    public User(int id, String name, String password) {
+      this.id = id;
+      this.name = name;
+      this.password = password;
+    }
+  }
+
+} // Market
@@ -0,0 +1,679 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * ParameterTuner
+ *
+ * Created : 18 October, 2026
+ * Purpose : Searches for the best values of agent configuration
+ *	     parameters (such as the PhobosParameters) by playing
+ *	     simulated games with GameRunner. The candidates are raced:
+ *	     each round plays a batch of games with every remaining
+ *	     candidate (using the same market seeds for all of them) and
+ *	     drops the candidates whose scores are significantly below
+ *	     those of the best one in the same games (a paired test on
+ *	     the per game differences). The scores of each round are
+ *	     cached on disk
+ *	     under a hash of the candidate so that a rerun only plays the
+ *	     rounds that are missing.
+ *
+ *	     Usage: java se.sics.tac.sim.ParameterTuner
+ *	            -param <name>=<value>,<value>,...
+ *	            [-param <name>=<min>:<max>:<step>]...
+ *	            [-games <n>] [-rounds <n>] [-cache <dir>]
+ */
+
+package se.sics.tac.sim;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeMap;
+
+import se.sics.tac.aw.TACAgent;
+import se.sics.tac.util.ArgEnumerator;
+
+public class ParameterTuner {
+
+  private final Properties config;
+  private final String[] agents;
+  private final String tunedClass;
+  private final int gamesPerRound;
+  private final int parallel;
+  private final long seed;
+  private final File cacheDir;
+
+  private String[] names = new String[0];
+  private String[][] values = new String[0][];
+
+  // The number of standard errors of the paired score differences a
+  // candidate must be below the best candidate to be dropped
+  private double confidence = 2.0;
+
+  // Candidates are never dropped before this number of rounds
+  private int minRounds = 2;
+
+  private Candidate[] candidates;
+
+  /**
+   * @param config the agent configuration the candidates are based on
+   * @param agents the agent implementations in a game (the first is the
+   *    one being tuned) or an empty array for the GameRunner default
+   * @param gamesPerRound the number of games played per candidate and round
+   * @param parallel the number of parallel games
+   * @param seed the seed of the first round
+   * @param cacheDir the directory to cache the scores in
+   */
+  public ParameterTuner(Properties config, String[] agents,
+			int gamesPerRound, int parallel, long seed,
+			File cacheDir) {
+    this.config = config;
+    this.agents = agents;
+    this.tunedClass = agents.length > 0 ? agents[0] : "se.sics.tac.aw.Phobos";
+    this.gamesPerRound = gamesPerRound;
+    this.parallel = parallel;
+    this.seed = seed;
+    this.cacheDir = cacheDir;
+  }
+
+  public void setConfidence(double confidence) {
+    this.confidence = confidence;
+  }
+
+  public void setMinRounds(int minRounds) {
+    this.minRounds = minRounds;
+  }
+
+  /**
+   * Adds a parameter to tune.
+   *
+   * @param name the name of the parameter in the agent configuration
+   * @param values the values to try
+   */
+  public void addParameter(String name, String[] values) {
+    int n = names.length;
+    String[] tmpNames = new String[n + 1];
+    String[][] tmpValues = new String[n + 1][];
+    System.arraycopy(names, 0, tmpNames, 0, n);
+    System.arraycopy(this.values, 0, tmpValues, 0, n);
+    tmpNames[n] = name;
+    tmpValues[n] = values;
+    this.names = tmpNames;
+    this.values = tmpValues;
+  }
+
+  /**
+   * Creates the candidates from all combinations of the parameter values.
+   *
+   * @param sample the number of combinations to pick at random or 0 for
+   *    all combinations
+   */
+  public void createCandidates(int sample) {
+    int count = 1;
+    for (int i = 0, n = values.length; i < n; i++) {
+      count *= values[i].length;
+    }
+    Integer[] order = new Integer[count];
+    for (int i = 0; i < count; i++) {
+      order[i] = Integer.valueOf(i);
+    }
+    if (sample > 0 && sample < count) {
+      Collections.shuffle(Arrays.asList(order), new Random(seed));
+      count = sample;
+    }
+
+    candidates = new Candidate[count];
+    for (int c = 0; c < count; c++) {
+      int index = order[c].intValue();
+      String[] v = new String[names.length];
+      for (int i = names.length - 1; i >= 0; i--) {
+	v[i] = values[i][index % values[i].length];
+	index /= values[i].length;
+      }
+      candidates[c] = new Candidate(names, v);
+    }
+  }
+
+  /**
+   * Races the candidates until one remains or the maximal number of
+   * rounds has been played.
+   */
+  public void run(int maxRounds) throws IOException, InterruptedException {
+    if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+      throw new IOException("could not create cache directory " + cacheDir);
+    }
+    for (int c = 0; c < candidates.length; c++) {
+      loadCache(candidates[c]);
+    }
+
+    int alive = candidates.length;
+    for (int round = 0; round < maxRounds && alive > 1; round++) {
+      for (int c = 0; c < candidates.length; c++) {
+	Candidate candidate = candidates[c];
+	if (candidate.isAlive() && !candidate.hasRound(round)) {
+	  System.out.println("Round " + round + ": playing "
+			     + candidate.label);
+	  float[] scores = playRound(candidate, round);
+	  candidate.addRound(round, scores);
+	  saveRound(candidate, round, scores);
+	}
+      }
+      if (round + 1 >= minRounds) {
+	alive = dropDominated(round);
+      }
+      Candidate best = getBest();
+      System.out.println("Round " + round + ": " + alive
+			 + " candidates left, best " + best.label
+			 + " (" + (float) best.getMean() + " +- "
+			 + (float) best.getStandardError() + ')');
+    }
+  }
+
+  private int dropDominated(int round) {
+    Candidate best = getBest();
+    int alive = 0;
+    for (int c = 0; c < candidates.length; c++) {
+      Candidate candidate = candidates[c];
+      if (candidate.isAlive() && candidate != best
+	  && best.getPairedScore(candidate, round) > confidence) {
+	candidate.droppedRound = round;
+      }
+      if (candidate.isAlive()) {
+	alive++;
+      }
+    }
+    return alive;
+  }
+
+  private Candidate getBest() {
+    Candidate best = null;
+    for (int c = 0; c < candidates.length; c++) {
+      Candidate candidate = candidates[c];
+      if (candidate.isAlive()
+	  && (best == null || candidate.getMean() > best.getMean())) {
+	best = candidate;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Prints all candidates sorted by their mean score.
+   */
+  public void printResults() {
+    Candidate[] sorted = (Candidate[]) candidates.clone();
+    Arrays.sort(sorted, new Comparator() {
+	public int compare(Object o1, Object o2) {
+	  double m1 = ((Candidate) o1).getMean();
+	  double m2 = ((Candidate) o2).getMean();
+	  return m1 > m2 ? -1 : (m1 < m2 ? 1 : 0);
+	}
+      });
+    for (int c = 0; c < sorted.length; c++) {
+      Candidate candidate = sorted[c];
+      System.out.println((float) candidate.getMean() + " +- "
+			 + (float) candidate.getStandardError()
+			 + " (" + candidate.getCount() + " scores"
+			 + (candidate.isAlive() ? ""
+			    : ", dropped after round " + candidate.droppedRound)
+			 + "): " + candidate.label);
+    }
+  }
+
+
+  // -------------------------------------------------------------------
+  // Game playing
+  // -------------------------------------------------------------------
+
+  // Plays one round in a separate JVM (the agents of a process share one
+  // virtual clock, timer dispatcher, and logging setup) and returns the
+  // scores of the tuned agent implementation
+  private float[] playRound(Candidate candidate, int round)
+    throws IOException, InterruptedException
+  {
+    File configFile = File.createTempFile("tuner", ".conf");
+    File resultFile = File.createTempFile("tuner", ".tsv");
+    try {
+      Properties p = new Properties();
+      p.putAll(config);
+      p.remove("CONFIG_FILE");
+      for (int i = 0; i < candidate.names.length; i++) {
+	p.setProperty(candidate.names[i], candidate.values[i]);
+      }
+      FileOutputStream out = new FileOutputStream(configFile);
+      try {
+	p.store(out, candidate.label);
+      } finally {
+	out.close();
+      }
+
+      ArrayList command = new ArrayList();
+      command.add(System.getProperty("java.home") + File.separator + "bin"
+		  + File.separator + "java");
+      command.add("-cp");
+      command.add(System.getProperty("java.class.path"));
+      command.add(GameRunner.class.getName());
+      command.add("-config");
+      command.add(configFile.getPath());
+      command.add("-games");
+      command.add(Integer.toString(gamesPerRound));
+      command.add("-parallel");
+      command.add(Integer.toString(parallel));
+      command.add("-seed");
+      command.add(Long.toString(getRoundSeed(round)));
+      command.add("-out");
+      command.add(resultFile.getPath());
+      for (int i = 0; i < agents.length; i++) {
+	command.add("-agent");
+	command.add(agents[i]);
+      }
+      ProcessBuilder pb = new ProcessBuilder(command);
+      pb.redirectErrorStream(true);
+      Process process = pb.start();
+
+      // Keep the last output lines for error reports
+      ArrayList output = new ArrayList();
+      BufferedReader reader =
+	new BufferedReader(new InputStreamReader(process.getInputStream()));
+      try {
+	String line;
+	while ((line = reader.readLine()) != null) {
+	  output.add(line);
+	  if (output.size() > 20) {
+	    output.remove(0);
+	  }
+	}
+      } finally {
+	reader.close();
+      }
+      int status = process.waitFor();
+      if (status != 0) {
+	for (int i = 0, n = output.size(); i < n; i++) {
+	  System.err.println(output.get(i));
+	}
+	throw new IOException("game runner failed with status " + status);
+      }
+      return readScores(resultFile);
+    } finally {
+      configFile.delete();
+      resultFile.delete();
+    }
+  }
+
+  // Each round uses its own range of market seeds (GameRunner seeds its
+  // markets with seed + market)
+  private long getRoundSeed(int round) {
+    return seed + round * 0x10000L;
+  }
+
+  // Returns the mean score of the tuned agents in each game, ordered by
+  // market and game so that the games of different candidates line up
+  // (the results file is in the order the games finished)
+  private float[] readScores(File file) throws IOException {
+    TreeMap<Long, double[]> games = new TreeMap<Long, double[]>();
+    BufferedReader reader = new BufferedReader(new FileReader(file));
+    try {
+      // Skip the header
+      String line = reader.readLine();
+      while ((line = reader.readLine()) != null) {
+	String[] fields = line.split("\t");
+	if (fields.length >= 8 && tunedClass.equals(fields[3])) {
+	  Long key = Long.valueOf((Long.parseLong(fields[0]) << 32)
+				  + Long.parseLong(fields[1]));
+	  double[] game = games.get(key);
+	  if (game == null) {
+	    game = new double[2];
+	    games.put(key, game);
+	  }
+	  game[0] += Float.parseFloat(fields[7]);
+	  game[1]++;
+	}
+      }
+    } finally {
+      reader.close();
+    }
+    float[] scores = new float[games.size()];
+    int index = 0;
+    for (Iterator<double[]> it = games.values().iterator(); it.hasNext(); ) {
+      double[] game = it.next();
+      scores[index++] = (float) (game[0] / game[1]);
+    }
+    return scores;
+  }
+
+
+  // -------------------------------------------------------------------
+  // Score cache
+  // -------------------------------------------------------------------
+
+  // The cache key covers everything that affects the scores of a round
+  private String getCacheKey(Candidate candidate) {
+    StringBuffer sb = new StringBuffer();
+    sb.append("agents=").append(Arrays.asList(agents))
+      .append(" games=").append(gamesPerRound)
+      .append(" scores=perGame")
+      .append(" seed=").append(seed);
+    ArrayList keys = new ArrayList(config.keySet());
+    Collections.sort(keys);
+    for (int i = 0, n = keys.size(); i < n; i++) {
+      String key = (String) keys.get(i);
+      if (!key.equals("CONFIG_FILE")) {
+	sb.append(' ').append(key).append('=').append(config.getProperty(key));
+      }
+    }
+    sb.append(" |").append(candidate.label);
+    return sb.toString();
+  }
+
+  // 64 bit FNV-1a hash of the cache key
+  private static String getHash(String key) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0, n = key.length(); i < n; i++) {
+      hash ^= key.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    String hex = Long.toHexString(hash);
+    return "0000000000000000".substring(hex.length()) + hex;
+  }
+
+  private File getCacheFile(Candidate candidate) {
+    return new File(cacheDir, getHash(getCacheKey(candidate)) + ".tsv");
+  }
+
+  private void loadCache(Candidate candidate) throws IOException {
+    File file = getCacheFile(candidate);
+    if (!file.exists()) {
+      return;
+    }
+    BufferedReader reader = new BufferedReader(new FileReader(file));
+    try {
+      String line = reader.readLine();
+      if (line == null || !line.equals("# " + getCacheKey(candidate))) {
+	// Hash collision with another candidate
+	return;
+      }
+      while ((line = reader.readLine()) != null) {
+	String[] fields = line.split("\t");
+	int round = Integer.parseInt(fields[0]);
+	float[] scores = new float[fields.length - 1];
+	for (int i = 1; i < fields.length; i++) {
+	  scores[i - 1] = Float.parseFloat(fields[i]);
+	}
+	candidate.addRound(round, scores);
+      }
+    } finally {
+      reader.close();
+    }
+    if (candidate.getCount() > 0) {
+      System.out.println("Cached " + candidate.getCount() + " scores for "
+			 + candidate.label);
+    }
+  }
+
+  private void saveRound(Candidate candidate, int round, float[] scores)
+    throws IOException
+  {
+    File file = getCacheFile(candidate);
+    boolean isNew = !file.exists();
+    PrintWriter out = new PrintWriter(new FileWriter(file, true));
+    try {
+      if (isNew) {
+	out.println("# " + getCacheKey(candidate));
+      }
+      out.print(round);
+      for (int i = 0; i < scores.length; i++) {
+	out.print('\t');
+	out.print(scores[i]);
+      }
+      out.println();
+    } finally {
+      out.close();
+    }
+  }
+
+
+  // -------------------------------------------------------------------
+  // Candidate
+  // -------------------------------------------------------------------
+
+  private static class Candidate {
+
+    final String[] names;
+    final String[] values;
+    final String label;
+
+    // The per game scores of each round played (null if not played)
+    private float[][] rounds = new float[8][];
+    private int count;
+    private double sum;
+    private double sumSquares;
+
+    int droppedRound = -1;
+
+    Candidate(String[] names, String[] values) {
+      this.names = names;
+      this.values = values;
+      StringBuffer sb = new StringBuffer();
+      for (int i = 0; i < names.length; i++) {
+	if (i > 0) {
+	  sb.append(' ');
+	}
+	sb.append(names[i]).append('=').append(values[i]);
+      }
+      this.label = sb.toString();
+    }
+
+    boolean isAlive() {
+      return droppedRound < 0;
+    }
+
+    boolean hasRound(int round) {
+      return round < rounds.length && rounds[round] != null;
+    }
+
+    void addRound(int round, float[] scores) {
+      if (hasRound(round)) {
+	return;
+      }
+      if (round >= rounds.length) {
+	float[][] tmp = new float[round * 2][];
+	System.arraycopy(rounds, 0, tmp, 0, rounds.length);
+	rounds = tmp;
+      }
+      rounds[round] = scores;
+      for (int i = 0; i < scores.length; i++) {
+	sum += scores[i];
+	sumSquares += (double) scores[i] * scores[i];
+      }
+      count += scores.length;
+    }
+
+    int getCount() {
+      return count;
+    }
+
+    double getMean() {
+      return count > 0 ? sum / count : 0.0;
+    }
+
+    double getStandardError() {
+      if (count < 2) {
+	return Double.MAX_VALUE / 4;
+      }
+      double variance = (sumSquares - sum * getMean()) / (count - 1);
+      return Math.sqrt(Math.max(variance, 0.0) / count);
+    }
+
+    // Returns the mean of the score differences to the other candidate in
+    // the games both have played up to the round, in standard errors of
+    // the differences (0 if there are too few games to tell)
+    double getPairedScore(Candidate other, int lastRound) {
+      int n = 0;
+      double sum = 0.0, sumSquares = 0.0;
+      for (int r = 0; r <= lastRound; r++) {
+	if (hasRound(r) && other.hasRound(r)) {
+	  float[] a = rounds[r];
+	  float[] b = other.rounds[r];
+	  for (int i = 0, m = Math.min(a.length, b.length); i < m; i++) {
+	    double diff = (double) a[i] - b[i];
+	    sum += diff;
+	    sumSquares += diff * diff;
+	    n++;
+	  }
+	}
+      }
+      if (n < 2) {
+	return 0.0;
+      }
+      double mean = sum / n;
+      double variance = Math.max((sumSquares - sum * mean) / (n - 1), 0.0);
+      if (variance == 0.0) {
+	return mean > 0.0 ? Double.POSITIVE_INFINITY : 0.0;
+      }
+      return mean / Math.sqrt(variance / n);
+    }
+
+  } // Candidate
+
+
+  // -------------------------------------------------------------------
+  // Startup
+  // -------------------------------------------------------------------
+
+  // Parses "v1,v2,..." or "min:max:step". The range is stepped in
+  // decimal so that the values are written as given (integer parameters
+  // such as "scenarios" are read with TACAgent.getInt and must not get
+  // a fraction).
+  private static String[] parseValues(String text) {
+    if (text.indexOf(':') > 0) {
+      String[] range = text.split(":");
+      BigDecimal min = new BigDecimal(range[0].trim());
+      BigDecimal max = new BigDecimal(range[1].trim());
+      BigDecimal step = range.length > 2
+	? new BigDecimal(range[2].trim()) : BigDecimal.ONE;
+      if (step.signum() <= 0) {
+	throw new IllegalArgumentException("illegal step in " + text);
+      }
+      ArrayList list = new ArrayList();
+      for (BigDecimal value = min; value.compareTo(max) <= 0;
+	   value = value.add(step)) {
+	list.add(toString(value));
+      }
+      return (String[]) list.toArray(new String[list.size()]);
+    }
+    return text.split(",");
+  }
+
+  private static String toString(BigDecimal value) {
+    value = value.stripTrailingZeros();
+    return value.scale() < 0
+      ? value.setScale(0).toPlainString()
+      : value.toPlainString();
+  }
+
+  public static void main(String[] args) throws Exception {
+    String usage =
+      "Usage: ParameterTuner [-options]\n"
+      + "where options include:\n"
+      + "    -param <name>=<values>    add a parameter to tune (values are\n"
+      + "                              v1,v2,... or min:max:step)\n"
+      + "    -config <configfile>      set the agent config file to use\n"
+      + "    -games <n>                set the games per candidate and round\n"
+      + "    -rounds <n>               set the maximal number of rounds\n"
+      + "    -minRounds <n>            set the rounds before dropping\n"
+      + "    -confidence <z>           set the standard errors needed to\n"
+      + "                              drop a candidate\n"
+      + "    -sample <n>               only try n random combinations\n"
+      + "    -parallel <n>             set the number of parallel games\n"
+      + "    -agent <className>        add an agent implementation (the\n"
+      + "                              first one is tuned)\n"
+      + "    -seed <seed>              set the seed of the first round\n"
+      + "    -cache <dir>              set the score cache directory\n"
+      + "    -h                        show this help message\n";
+    ArgEnumerator a = new ArgEnumerator(args, usage, true);
+    String configFile = "agent.conf";
+    int games = 16;
+    int rounds = 10;
+    int minRounds = 2;
+    double confidence = 2.0;
+    int sample = 0;
+    int parallel = Runtime.getRuntime().availableProcessors();
+    long seed = 1L;
+    String cache = "tuning";
+    ArrayList agents = new ArrayList();
+    ArrayList params = new ArrayList();
+    while (a.hasNext()) {
+      String arg = a.next();
+      if (arg.equals("-param")) {
+	params.add(a.getString("-param"));
+      } else if (arg.equals("-config")) {
+	configFile = a.getString("-config");
+      } else if (arg.equals("-games")) {
+	games = a.getInt("-games");
+      } else if (arg.equals("-rounds")) {
+	rounds = a.getInt("-rounds");
+      } else if (arg.equals("-minRounds")) {
+	minRounds = a.getInt("-minRounds");
+      } else if (arg.equals("-confidence")) {
+	confidence = Double.parseDouble(a.getString("-confidence"));
+      } else if (arg.equals("-sample")) {
+	sample = a.getInt("-sample");
+      } else if (arg.equals("-parallel")) {
+	parallel = a.getInt("-parallel");
+      } else if (arg.equals("-agent")) {
+	agents.add(GameRunner.getClassName(a.getString("-agent")));
+      } else if (arg.equals("-seed")) {
+	seed = Long.parseLong(a.getString("-seed"));
+      } else if (arg.equals("-cache")) {
+	cache = a.getString("-cache");
+      } else {
+	System.err.println("Unknown argument '" + arg + '\'');
+	a.usage(1);
+      }
+    }
+    if (params.size() == 0 || games <= 0 || rounds <= 0) {
+      a.usage(1);
+    }
+
+    Properties config = new File(configFile).exists()
+      ? TACAgent.getConfig(configFile)
+      : new Properties();
+    ParameterTuner tuner =
+      new ParameterTuner(config,
+			 (String[]) agents.toArray(new String[agents.size()]),
+			 games, parallel, seed, new File(cache));
+    tuner.setConfidence(confidence);
+    tuner.setMinRounds(minRounds);
+    for (int i = 0, n = params.size(); i < n; i++) {
+      String param = (String) params.get(i);
+      int index = param.indexOf('=');
+      if (index <= 0) {
+	System.err.println("Illegal parameter '" + param + '\'');
+	a.usage(1);
+      }
+      tuner.addParameter(param.substring(0, index),
+			 parseValues(param.substring(index + 1)));
+    }
+    tuner.createCandidates(sample);
+    tuner.run(rounds);
+    tuner.printResults();
+  }
+
+} // ParameterTuner
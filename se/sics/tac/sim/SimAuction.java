@@ -0,0 +1,137 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * SimAuction
+ *
+ * Created : 18 October, 2026
+ * Purpose : Base class for the auctions in a simulated game. Each
+ *           agent in the game has at most one active bid per auction
+ *           and a new bid replaces the previous active bid.
+ */
+
+package se.sics.tac.sim;
+
+abstract class SimAuction {
+
+  /** Auction status as reported in quotes */
+  final static int OPEN = 1;
+  final static int CLOSED = 3;
+
+  final SimGame game;
+  final int id;
+  final int index;
+  final int category;
+  final int type;
+  final int day;
+
+  protected final SimBid[] activeBids;
+
+  protected float askPrice;
+  protected float bidPrice;
+  protected long lastQuoteTime;
+  protected boolean closed = false;
+
+  SimAuction(SimGame game, int id, int index, int category,
+	     int type, int day) {
+    this.game = game;
+    this.id = id;
+    this.index = index;
+    this.category = category;
+    this.type = type;
+    this.day = day;
+    this.activeBids = new SimBid[SimGame.AGENTS];
+  }
+
+  // Returns the reject reason for the bid or 0 if the bid is accepted
+  abstract int validate(SimBid bid);
+
+  // Called when an accepted bid has become the active bid of its agent
+  protected abstract void bidPlaced(SimBid bid, long time);
+
+  void submit(SimBid bid, long time) {
+    int reject = validate(bid);
+    if (reject != 0) {
+      bid.reject(reject);
+    } else {
+      SimBid old = activeBids[bid.agent];
+      if (old != null) {
+	old.replaced();
+      }
+      activeBids[bid.agent] = bid;
+      bidPlaced(bid, time);
+    }
+  }
+
+  SimBid getActiveBid(int agent) {
+    SimBid bid = activeBids[agent];
+    return bid != null && bid.isActive() ? bid : null;
+  }
+
+  // Transacts units of an active bid and records the transaction
+  protected void transact(SimBid bid, int point, int quantity, float price,
+			  long time) {
+    bid.transact(point, quantity);
+    game.addTransaction(bid.agent, index, quantity, price, time);
+  }
+
+  void close(long time) {
+    closed = true;
+    lastQuoteTime = time;
+    for (int i = 0, n = activeBids.length; i < n; i++) {
+      SimBid bid = activeBids[i];
+      if (bid != null) {
+	bid.close(time);
+      }
+    }
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  float getAskPrice() {
+    return askPrice;
+  }
+
+  float getBidPrice() {
+    return bidPrice;
+  }
+
+  long getLastQuoteTime() {
+    return lastQuoteTime;
+  }
+
+  // Returns the hypothetical quantity won by the agent or -1 if the
+  // auction has no such concept
+  int getHQW(int agent) {
+    return -1;
+  }
+
+  // Returns the time of the next quote update or 0 if the quote is
+  // updated continuously
+  long getNextQuoteTime() {
+    return 0L;
+  }
+
+  int getStatus() {
+    return closed ? CLOSED : OPEN;
+  }
+
+  String getCategoryName() {
+    switch (category) {
+    case SimGame.CAT_FLIGHT:
+      return "flight";
+    case SimGame.CAT_HOTEL:
+      return "hotel";
+    default:
+      return "entertainment";
+    }
+  }
+
+} // SimAuction
@@ -0,0 +1,174 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * SimBid
+ *
+ * Created : 18 October, 2026
+ * Purpose : A bid in the simulated market. The bid points hold the
+ *           units that have not yet transacted and the bid hash
+ *           changes each time some of its units transact.
+ */
+
+package se.sics.tac.sim;
+import java.util.StringTokenizer;
+
+final class SimBid {
+
+  /** Processing states as reported by the TAC server */
+  final static int REJECTED = 1;
+  final static int VALID = 2;
+  final static int REPLACED = 5;
+  final static int EXPIRED = 6;
+  final static int TRANSACTED = 7;
+
+  final int id;
+  final int agent;
+  final SimAuction auction;
+  final long timeProcessed;
+
+  private int[] quantity;
+  private float[] price;
+  private int len;
+
+  private int state = VALID;
+  private int rejectReason = 0;
+  private long timeClosed = 0L;
+  private int version = 0;
+  private boolean hasTransacted = false;
+  private String bidString;
+
+  SimBid(int id, int agent, SimAuction auction, long timeProcessed) {
+    this.id = id;
+    this.agent = agent;
+    this.auction = auction;
+    this.timeProcessed = timeProcessed;
+  }
+
+  // Returns false if the bid string is malformed
+  boolean parse(String bidString) {
+    int[] q = new int[8];
+    float[] p = new float[8];
+    int n = 0;
+    try {
+      StringTokenizer tok = new StringTokenizer(bidString, "() \t\r\n");
+      while (tok.hasMoreTokens()) {
+	int quantity = (int) Float.parseFloat(tok.nextToken());
+	float price = Float.parseFloat(tok.nextToken());
+	if (quantity == 0) {
+	  continue;
+	}
+	if (n == q.length) {
+	  int[] tmp = new int[n * 2];
+	  System.arraycopy(q, 0, tmp, 0, n);
+	  q = tmp;
+	  float[] tmp2 = new float[n * 2];
+	  System.arraycopy(p, 0, tmp2, 0, n);
+	  p = tmp2;
+	}
+	q[n] = quantity;
+	p[n] = price;
+	n++;
+      }
+    } catch (RuntimeException e) {
+      return false;
+    }
+    this.quantity = q;
+    this.price = p;
+    this.len = n;
+    this.bidString = null;
+    return true;
+  }
+
+  int getNoBidPoints() {
+    return len;
+  }
+
+  int getQuantity(int index) {
+    return quantity[index];
+  }
+
+  float getPrice(int index) {
+    return price[index];
+  }
+
+  // Removes the specified number of units from the bid point (a
+  // positive number for buy points and a negative for sell points)
+  void transact(int index, int units) {
+    quantity[index] -= units;
+    hasTransacted = true;
+    if (quantity[index] == 0) {
+      len--;
+      System.arraycopy(quantity, index + 1, quantity, index, len - index);
+      System.arraycopy(price, index + 1, price, index, len - index);
+    }
+    bidString = null;
+    version++;
+    if (len == 0) {
+      state = TRANSACTED;
+    }
+  }
+
+  boolean isActive() {
+    return state == VALID;
+  }
+
+  void reject(int rejectReason) {
+    this.rejectReason = rejectReason;
+    this.state = REJECTED;
+  }
+
+  int getRejectReason() {
+    return rejectReason;
+  }
+
+  void replaced() {
+    if (state == VALID) {
+      state = REPLACED;
+    }
+  }
+
+  void close(long time) {
+    if (state == VALID) {
+      state = hasTransacted ? TRANSACTED : EXPIRED;
+    }
+    timeClosed = time;
+  }
+
+  int getProcessingState() {
+    return state;
+  }
+
+  long getTimeClosed() {
+    return timeClosed;
+  }
+
+  String getBidHash() {
+    return getBidHash(version);
+  }
+
+  String getBidHash(int version) {
+    return Integer.toHexString(id) + '-' + version;
+  }
+
+  String getBidString() {
+    String bidString = this.bidString;
+    if (bidString == null) {
+      StringBuffer sb = new StringBuffer();
+      sb.append('(');
+      for (int i = 0; i < len; i++) {
+	sb.append('(').append(quantity[i]).append(' ')
+	  .append(price[i]).append(')');
+      }
+      sb.append(')');
+      this.bidString = bidString = sb.toString();
+    }
+    return bidString;
+  }
+
+} // SimBid
@@ -0,0 +1,355 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * SimGame
+ *
+ * Created : 18 October, 2026
+ * Purpose : A simulated TAC Classic game with up to eight agents. The
+ *           game generates the client preferences and the ticket
+ *           endowments of each agent, holds the 28 auctions and the
+ *           transactions, and is advanced lazily to the current time:
+ *           flight prices change every 10 seconds and the hotel
+ *           auctions are cleared every minute with one random hotel
+ *           auction closing at the end of each of the first 8 minutes.
+ */
+
+package se.sics.tac.sim;
+import java.util.Hashtable;
+import java.util.Random;
+
+final class SimGame {
+
+  final static int AGENTS = 8;
+  final static int CLIENTS = 8;
+  final static int AUCTIONS = 28;
+
+  final static int CAT_FLIGHT = 0;
+  final static int CAT_HOTEL = 1;
+  final static int CAT_ENTERTAINMENT = 2;
+
+  /** Client preferences */
+  final static int ARRIVAL = 0;
+  final static int DEPARTURE = 1;
+  final static int HOTEL_VALUE = 2;
+  final static int E1 = 3;
+  final static int PREFERENCES = 6;
+
+  /** Reject reasons (as sent by the TAC server) */
+  final static int ACTIVE_BID_CHANGED = 1;
+  final static int SELF_TRANSACTION = 5;
+  final static int SELL_NOT_ALLOWED = 8;
+  final static int PRICE_NOT_BEAT = 15;
+
+  // Penalty per entertainment ticket sold short
+  final static int SHORT_PENALTY = 200;
+
+  final static int DEFAULT_GAME_LENGTH = 540000;
+  final static long FLIGHT_PERIOD = 10000;
+  final static long HOTEL_PERIOD = 60000;
+
+  final int id;
+  final long startTime;
+  final int length;
+
+  private final Market market;
+  private final Random random;
+
+  private final int[] agents = new int[AGENTS];
+  private int agentCount = 0;
+
+  private final int[][][] preferences = new int[AGENTS][CLIENTS][PREFERENCES];
+  private final int[][] endowments = new int[AGENTS][AUCTIONS];
+  private final int[][] owns = new int[AGENTS][AUCTIONS];
+  private final float[] costs = new float[AGENTS];
+
+  private final SimAuction[] auctions = new SimAuction[AUCTIONS];
+  private final int firstAuctionID;
+  private final int[] hotelClosingOrder = new int[8];
+
+  private final Hashtable bids = new Hashtable();
+
+  private int[] transID = new int[64];
+  private int[] transAgent = new int[64];
+  private int[] transAuction = new int[64];
+  private int[] transQuantity = new int[64];
+  private float[] transPrice = new float[64];
+  private int transCount = 0;
+
+  private long lastUpdateTime;
+  private boolean isEnded = false;
+  private boolean isScored = false;
+
+  SimGame(Market market, int id, long startTime, int length,
+	  int firstAuctionID, long seed) {
+    this.market = market;
+    this.id = id;
+    this.startTime = startTime;
+    this.length = length;
+    this.firstAuctionID = firstAuctionID;
+    this.lastUpdateTime = startTime;
+    this.random = new Random(seed);
+
+    for (int i = 0; i < AUCTIONS; i++) {
+      int auctionID = firstAuctionID + i;
+      if (i < 4) {
+	auctions[i] = new FlightAuction(this, auctionID, i, 1, i + 1, random);
+      } else if (i < 8) {
+	auctions[i] = new FlightAuction(this, auctionID, i, 0, i - 2, random);
+      } else if (i < 16) {
+	auctions[i] =
+	  new HotelAuction(this, auctionID, i, (i - 8) / 4, (i & 3) + 1);
+      } else {
+	auctions[i] = new EntertainmentAuction(this, auctionID, i,
+					       (i - 16) / 4 + 1, (i & 3) + 1);
+      }
+    }
+
+    // The order in which the hotel auctions close
+    for (int i = 0; i < 8; i++) {
+      hotelClosingOrder[i] = 8 + i;
+    }
+    for (int i = 7; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int tmp = hotelClosingOrder[i];
+      hotelClosingOrder[i] = hotelClosingOrder[j];
+      hotelClosingOrder[j] = tmp;
+    }
+
+    for (int a = 0; a < AGENTS; a++) {
+      for (int c = 0; c < CLIENTS; c++) {
+	int[] prefs = preferences[a][c];
+	prefs[ARRIVAL] = 1 + random.nextInt(4);
+	prefs[DEPARTURE] =
+	  prefs[ARRIVAL] + 1 + random.nextInt(5 - prefs[ARRIVAL]);
+	prefs[HOTEL_VALUE] = 50 + random.nextInt(101);
+	for (int e = 0; e < 3; e++) {
+	  prefs[E1 + e] = random.nextInt(201);
+	}
+      }
+
+      // Two tickets of each type for day 1 or 4 and two for day 2 or 3
+      for (int type = 0; type < 3; type++) {
+	int auction = 16 + type * 4;
+	endowments[a][auction + (random.nextBoolean() ? 0 : 3)] += 2;
+	endowments[a][auction + (random.nextBoolean() ? 1 : 2)] += 2;
+      }
+      System.arraycopy(endowments[a], 0, owns[a], 0, AUCTIONS);
+    }
+  }
+
+  // -------------------------------------------------------------------
+  // Agents
+  // -------------------------------------------------------------------
+
+  boolean isFull() {
+    return agentCount == AGENTS;
+  }
+
+  int addAgent(int userID) {
+    agents[agentCount] = userID;
+    return agentCount++;
+  }
+
+  int getAgentCount() {
+    return agentCount;
+  }
+
+  int getAgentUserID(int agent) {
+    return agents[agent];
+  }
+
+  int getPreference(int agent, int client, int type) {
+    return preferences[agent][client][type];
+  }
+
+  int getEndowment(int agent, int auction) {
+    return endowments[agent][auction];
+  }
+
+  int getOwn(int agent, int auction) {
+    return owns[agent][auction];
+  }
+
+  float getCost(int agent) {
+    return costs[agent];
+  }
+
+  int getPenalty(int agent) {
+    int penalty = 0;
+    for (int i = 16; i < AUCTIONS; i++) {
+      if (owns[agent][i] < 0) {
+	penalty -= owns[agent][i] * SHORT_PENALTY;
+      }
+    }
+    return penalty;
+  }
+
+  // -------------------------------------------------------------------
+  // Auctions and bids
+  // -------------------------------------------------------------------
+
+  SimAuction getAuction(int index) {
+    return auctions[index];
+  }
+
+  SimAuction getAuctionByID(int auctionID) {
+    int index = auctionID - firstAuctionID;
+    return index >= 0 && index < AUCTIONS ? auctions[index] : null;
+  }
+
+  void addBid(SimBid bid) {
+    bids.put(Integer.valueOf(bid.id), bid);
+  }
+
+  SimBid getBid(int bidID) {
+    return (SimBid) bids.get(Integer.valueOf(bidID));
+  }
+
+  // -------------------------------------------------------------------
+  // Transactions
+  // -------------------------------------------------------------------
+
+  void addTransaction(int agent, int auction, int quantity, float price,
+		      long time) {
+    if (transCount == transID.length) {
+      int n = transCount * 2;
+      transID = grow(transID, n);
+      transAgent = grow(transAgent, n);
+      transAuction = grow(transAuction, n);
+      transQuantity = grow(transQuantity, n);
+      float[] tmp = new float[n];
+      System.arraycopy(transPrice, 0, tmp, 0, transCount);
+      transPrice = tmp;
+    }
+    transID[transCount] = market.nextTransactionID();
+    transAgent[transCount] = agent;
+    transAuction[transCount] = auction;
+    transQuantity[transCount] = quantity;
+    transPrice[transCount] = price;
+    transCount++;
+    owns[agent][auction] += quantity;
+    costs[agent] += quantity * price;
+  }
+
+  private static int[] grow(int[] array, int size) {
+    int[] tmp = new int[size];
+    System.arraycopy(array, 0, tmp, 0, array.length);
+    return tmp;
+  }
+
+  int getTransactionCount() {
+    return transCount;
+  }
+
+  int getTransactionID(int index) {
+    return transID[index];
+  }
+
+  int getTransactionAgent(int index) {
+    return transAgent[index];
+  }
+
+  int getTransactionAuction(int index) {
+    return transAuction[index];
+  }
+
+  int getTransactionQuantity(int index) {
+    return transQuantity[index];
+  }
+
+  float getTransactionPrice(int index) {
+    return transPrice[index];
+  }
+
+  // Returns the index of the transaction or -1 if not found
+  int getTransactionIndex(int id) {
+    int low = 0, high = transCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (transID[mid] < id) {
+	low = mid + 1;
+      } else if (transID[mid] > id) {
+	high = mid - 1;
+      } else {
+	return mid;
+      }
+    }
+    return -1;
+  }
+
+  // -------------------------------------------------------------------
+  // Game time
+  // -------------------------------------------------------------------
+
+  boolean isStarted(long time) {
+    return time >= startTime;
+  }
+
+  boolean isEnded() {
+    return isEnded;
+  }
+
+  boolean isScored() {
+    return isScored;
+  }
+
+  void setScored() {
+    isScored = true;
+  }
+
+  long getEndTime() {
+    return startTime + length;
+  }
+
+  // Advances the game to the specified time
+  void update(long time) {
+    long endTime = startTime + length;
+    while (!isEnded) {
+      long next = lastUpdateTime - (lastUpdateTime - startTime) % FLIGHT_PERIOD
+	+ FLIGHT_PERIOD;
+      if (next > endTime) {
+	next = endTime;
+      }
+      if (next > time) {
+	break;
+      }
+      lastUpdateTime = next;
+
+      long elapsed = next - startTime;
+      if (next < endTime) {
+	for (int i = 0; i < 8; i++) {
+	  ((FlightAuction) auctions[i]).perturb(next, elapsed, random);
+	}
+      }
+      if (elapsed % HOTEL_PERIOD == 0) {
+	int minute = (int) (elapsed / HOTEL_PERIOD);
+	int closing = minute <= 8 ? hotelClosingOrder[minute - 1] : -1;
+	for (int i = 8; i < 16; i++) {
+	  HotelAuction hotel = (HotelAuction) auctions[i];
+	  if (hotel.isClosed()) {
+	    // Already closed
+	  } else if (i == closing) {
+	    hotel.close(next);
+	  } else {
+	    hotel.clear(next);
+	  }
+	}
+      }
+      if (next == endTime) {
+	for (int i = 0; i < AUCTIONS; i++) {
+	  if (!auctions[i].isClosed()) {
+	    auctions[i].close(next);
+	  }
+	}
+	isEnded = true;
+      }
+    }
+  }
+
+} // SimGame
@@ -0,0 +1,83 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * Clock
+ *
+ * Created : 18 October, 2026
+ * Purpose : The source of time for the agent ware. The default clock is
+ *           the system clock. A VirtualClock can be installed with
+ *           Clock.setDefault() before the agent ware is started to let
+ *           time advance as fast as the agents and the simulated
+ *           server can handle their messages.
+ *
+ *           Threads that wait for a point in time must do so with
+ *           waitUntil() and be woken up with wakeUp(). Work that is not
+ *           triggered by waiting for time (such as handling a message)
+ *           should be surrounded by beginActivity() and endActivity()
+ *           so that a virtual clock never moves while the work is in
+ *           progress.
+ */
+
+package se.sics.tac.util;
+
+public class Clock {
+
+  private static Clock defaultClock = new Clock();
+
+  public static Clock getDefault() {
+    return defaultClock;
+  }
+
+  public static void setDefault(Clock clock) {
+    if (clock == null) {
+      throw new NullPointerException();
+    }
+    defaultClock = clock;
+  }
+
+  public long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  /**
+   * Waits on the monitor until the specified time or until the monitor
+   * is notified. The caller must hold the lock of the monitor and
+   * should check for the condition it waits for when this method
+   * returns.
+   */
+  public void waitUntil(Object monitor, long time)
+    throws InterruptedException
+  {
+    long delay = time - currentTimeMillis();
+    if (delay > 0) {
+      monitor.wait(delay);
+    }
+  }
+
+  /**
+   * Wakes up the threads waiting on the monitor. The caller must hold
+   * the lock of the monitor.
+   */
+  public void wakeUp(Object monitor) {
+    monitor.notifyAll();
+  }
+
+  /**
+   * Marks the start of work that time should not pass during.
+   */
+  public void beginActivity() {
+  }
+
+  /**
+   * Marks the end of work started with beginActivity().
+   */
+  public void endActivity() {
+  }
+
+} // Clock
@@ -0,0 +1,112 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * IntIntMap
+ *
+ * Created : 18 October, 2026
+ * Purpose : A map from int keys to int values with open addressing
+ *           (linear probing) in two primitive arrays. Neither keys
+ *           nor values are boxed and lookups never allocate.
+ */
+
+package se.sics.tac.util;
+
+public class IntIntMap {
+
+  private final int missingValue;
+
+  private int[] keys;
+  private int[] values;
+  private boolean[] used;
+  private int size = 0;
+
+  /**
+   * Creates a new map.
+   *
+   * @param missingValue the value returned for keys not in the map
+   */
+  public IntIntMap(int missingValue) {
+    this(16, missingValue);
+  }
+
+  public IntIntMap(int initialCapacity, int missingValue) {
+    int capacity = 8;
+    while (capacity < initialCapacity * 2) {
+      capacity <<= 1;
+    }
+    this.missingValue = missingValue;
+    this.keys = new int[capacity];
+    this.values = new int[capacity];
+    this.used = new boolean[capacity];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int get(int key) {
+    int index = indexOf(key);
+    return used[index] ? values[index] : missingValue;
+  }
+
+  public boolean containsKey(int key) {
+    return used[indexOf(key)];
+  }
+
+  public void put(int key, int value) {
+    int index = indexOf(key);
+    if (!used[index]) {
+      if ((size + 1) * 2 > keys.length) {
+	rehash(keys.length * 2);
+	index = indexOf(key);
+      }
+      used[index] = true;
+      keys[index] = key;
+      size++;
+    }
+    values[index] = value;
+  }
+
+  public void clear() {
+    for (int i = 0, n = used.length; i < n; i++) {
+      used[i] = false;
+    }
+    size = 0;
+  }
+
+  // Returns the slot of the key or the free slot where it belongs
+  private int indexOf(int key) {
+    int mask = keys.length - 1;
+    // Spread the bits since bid ids are often sequential
+    int hash = key * 0x9E3779B9;
+    int index = (hash ^ (hash >>> 16)) & mask;
+    while (used[index] && keys[index] != key) {
+      index = (index + 1) & mask;
+    }
+    return index;
+  }
+
+  private void rehash(int capacity) {
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+    boolean[] oldUsed = used;
+    keys = new int[capacity];
+    values = new int[capacity];
+    used = new boolean[capacity];
+    for (int i = 0, n = oldKeys.length; i < n; i++) {
+      if (oldUsed[i]) {
+	int index = indexOf(oldKeys[i]);
+	used[index] = true;
+	keys[index] = oldKeys[i];
+	values[index] = oldValues[i];
+      }
+    }
+  }
+
+} // IntIntMap
@@ -45,10 +45,15 @@ public class LogFormatter extends Formatter {
   private Date date = new Date(0L);
   private boolean isUTC = false;
   private long timeDiff = 0L;
+  private Clock clock;
 
   public synchronized String format(LogRecord record) {
     StringBuffer sb = new StringBuffer();
-    date.setTime(record.getMillis() + timeDiff);
+    // Records are formatted when logged so a virtual clock gives their
+    // time (the record time is kept for the system clock)
+    long time = clock instanceof VirtualClock
+      ? clock.currentTimeMillis() : record.getMillis();
+    date.setTime(time + timeDiff);
     sb.append(dFormat.format(date)).append(' ')
       .append(record.getLevel()).append(' ')
       .append(getAliasFor(record.getLoggerName())).append('|')
@@ -69,6 +74,14 @@ public class LogFormatter extends Formatter {
     return sb.toString();
   }
 
+  /**
+   * Sets the clock used for the time of log records. A virtual clock
+   * replaces the system time when the records were created.
+   */
+  public synchronized void setClock(Clock clock) {
+    this.clock = clock;
+  }
+
   public synchronized void setTimeDiff(long timeDiff) {
     this.timeDiff = timeDiff;
     // Make sure the date formatter is set to timezone UTC (0)
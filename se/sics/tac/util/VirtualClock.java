@@ -0,0 +1,157 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * VirtualClock
+ *
+ * Created : 18 October, 2026
+ * Purpose : A discrete event clock. Time only moves when no activity is
+ *           in progress and then jumps directly to the earliest time any
+ *           thread waits for, which lets a complete game against the
+ *           simulated server run in a fraction of a second.
+ */
+
+package se.sics.tac.util;
+import java.util.ArrayList;
+
+public class VirtualClock extends Clock {
+
+  private long time;
+  private int activities = 0;
+  private ArrayList waiters = new ArrayList();
+
+  public VirtualClock() {
+    this(System.currentTimeMillis());
+  }
+
+  public VirtualClock(long startTime) {
+    this.time = startTime;
+  }
+
+  public synchronized long currentTimeMillis() {
+    return time;
+  }
+
+  public void waitUntil(Object monitor, long wakeTime)
+    throws InterruptedException
+  {
+    Waiter waiter = new Waiter(monitor, wakeTime);
+    Object[] wake;
+    synchronized (this) {
+      if (wakeTime <= time) {
+	return;
+      }
+      waiters.add(waiter);
+      wake = advance();
+    }
+    try {
+      // The monitor is notified by advance() when the time is reached
+      // but can not be notified until this thread waits because the
+      // caller holds its lock
+      wakeMonitors(wake, monitor);
+      if (!isDue(waiter)) {
+	monitor.wait();
+      }
+    } finally {
+      synchronized (this) {
+	waiters.remove(waiter);
+      }
+    }
+  }
+
+  public void wakeUp(Object monitor) {
+    synchronized (this) {
+      // The waiters will wait again with their new times
+      for (int i = waiters.size() - 1; i >= 0; i--) {
+	if (((Waiter) waiters.get(i)).monitor == monitor) {
+	  waiters.remove(i);
+	}
+      }
+    }
+    monitor.notifyAll();
+  }
+
+  public void beginActivity() {
+    synchronized (this) {
+      activities++;
+    }
+  }
+
+  public void endActivity() {
+    Object[] wake;
+    synchronized (this) {
+      if (activities > 0) {
+	activities--;
+      }
+      wake = advance();
+    }
+    wakeMonitors(wake, null);
+  }
+
+  private synchronized boolean isDue(Waiter waiter) {
+    return waiter.time <= time;
+  }
+
+  // Moves the time to the earliest waiting time if no activity is in
+  // progress and returns the monitors of the waiters that are due
+  private Object[] advance() {
+    if (activities > 0 || waiters.isEmpty()) {
+      return null;
+    }
+    long next = Long.MAX_VALUE;
+    for (int i = 0, n = waiters.size(); i < n; i++) {
+      Waiter w = (Waiter) waiters.get(i);
+      if (w.time < next) {
+	next = w.time;
+      }
+    }
+    if (next == Long.MAX_VALUE) {
+      // Nothing to wait for
+      return null;
+    }
+    if (next > time) {
+      time = next;
+    }
+    ArrayList wake = null;
+    for (int i = 0, n = waiters.size(); i < n; i++) {
+      Waiter w = (Waiter) waiters.get(i);
+      if (w.time <= time) {
+	if (wake == null) {
+	  wake = new ArrayList();
+	}
+	wake.add(w.monitor);
+      }
+    }
+    return wake == null ? null : wake.toArray();
+  }
+
+  // Must be called without holding the lock of this clock
+  private void wakeMonitors(Object[] monitors, Object ownMonitor) {
+    if (monitors != null) {
+      for (int i = 0, n = monitors.length; i < n; i++) {
+	Object monitor = monitors[i];
+	if (monitor != ownMonitor) {
+	  synchronized (monitor) {
+	    monitor.notifyAll();
+	  }
+	}
+      }
+    }
+  }
+
+  private static class Waiter {
+    public final Object monitor;
+    public final long time;
+
+    public Waiter(Object monitor, long time) {
+      this.monitor = monitor;
+      this.time = time;
+    }
+  }
+
+} // VirtualClock
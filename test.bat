@@ -0,0 +1,10 @@
+call compile.bat
+if not exist test\classes mkdir test\classes
+javac -classpath . -d test\classes test\se\sics\tac\aw\*.java test\se\sics\tac\sim\*.java
+java -classpath .;test\classes se.sics.tac.aw.ScenarioEvaluatorTest
+java -classpath .;test\classes se.sics.tac.aw.AllocationSolverTest
+java -classpath .;test\classes se.sics.tac.aw.HotelBidBuilderTest
+java -classpath .;test\classes se.sics.tac.aw.EventLogTest
+java -classpath .;test\classes se.sics.tac.aw.LatencyHistogramTest
+java -Djava.awt.headless=true -classpath .;test\classes se.sics.tac.aw.AgentTableModelTest
+java -classpath .;test\classes se.sics.tac.sim.SimGameTest
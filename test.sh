@@ -0,0 +1,16 @@
+# Compiles the agent ware and the tests and runs the tests. Each test is
+# a class with a main method that exits with status 1 if a check fails.
+sh compile.sh || exit 1
+mkdir -p test/classes
+javac -classpath . -d test/classes test/se/sics/tac/aw/*.java test/se/sics/tac/sim/*.java || exit 1
+for test in se.sics.tac.aw.ScenarioEvaluatorTest \
+	    se.sics.tac.aw.AllocationSolverTest \
+	    se.sics.tac.aw.HotelBidBuilderTest \
+	    se.sics.tac.aw.EventLogTest \
+	    se.sics.tac.aw.LatencyHistogramTest \
+	    se.sics.tac.aw.AgentTableModelTest \
+	    se.sics.tac.sim.SimGameTest
+do
+  echo "Running $test"
+  java -Djava.awt.headless=true -classpath .:test/classes $test || exit 1
+done
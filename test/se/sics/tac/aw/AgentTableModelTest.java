@@ -0,0 +1,163 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * AgentTableModelTest
+ *
+ * Created : 18 October, 2026
+ * Purpose : Checks that the agent display table model fires one rows
+ *           updated event per range of consecutive changed rows, only
+ *           once per change, and that no change marked by concurrent
+ *           threads is lost.
+ *
+ *           Usage: java se.sics.tac.aw.AgentTableModelTest (exits
+ *           with status 1 if a check fails)
+ */
+
+package se.sics.tac.aw;
+import java.util.ArrayList;
+import java.util.Properties;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+public class AgentTableModelTest implements TableModelListener {
+
+  private final static int ROWS = 28;
+
+  private static int failures = 0;
+
+  private final ArrayList<String> events = new ArrayList<String>();
+
+  public static void main(String[] args) throws InterruptedException {
+    TACAgent agent =
+      TACAgent.createReplayAgent(new DummyAgent(), new Properties());
+    AgentTableModelTest test = new AgentTableModelTest();
+    TACAgent.AgentTableModel model = agent.new AgentTableModel();
+    model.addTableModelListener(test);
+
+    test.testRanges(model);
+    test.testAllRows(model);
+    test.testConcurrentChanges(model);
+    if (failures > 0) {
+      System.out.println(failures + " check(s) failed");
+      System.exit(1);
+    }
+    System.out.println("All checks passed");
+    // The timer thread of the agent ware keeps running
+    System.exit(0);
+  }
+
+  public void tableChanged(TableModelEvent e) {
+    if (e.getType() != TableModelEvent.UPDATE) {
+      fail("unexpected table event type " + e.getType());
+    }
+    events.add(e.getFirstRow() + "-" + e.getLastRow());
+  }
+
+  private void testRanges(TACAgent.AgentTableModel model) {
+    check(model, "nothing changed", new int[0], "");
+    check(model, "single row", new int[] { 7 }, "7-7");
+    check(model, "same row twice", new int[] { 7, 7 }, "7-7");
+    check(model, "first and last rows", new int[] { 0, 27 }, "0-0 27-27");
+    check(model, "ranges", new int[] { 5, 3, 4, 10, 12, 11, 26, 27 },
+	  "3-5 10-12 26-27");
+    check(model, "every other row", new int[] { 0, 2, 4, 6 },
+	  "0-0 2-2 4-4 6-6");
+    // The rows are only fired once
+    check(model, "after firing", new int[0], "");
+  }
+
+  private void testAllRows(TACAgent.AgentTableModel model) {
+    events.clear();
+    model.rowChanged(3);
+    model.allRowsChanged();
+    model.fireDirtyRows();
+    expect("all rows", "0-" + (ROWS - 1));
+    check(model, "after all rows", new int[0], "");
+  }
+
+  // Each thread marks its own rows many times while the rows are fired
+  // and every row must have been fired at least once afterwards
+  private void testConcurrentChanges(final TACAgent.AgentTableModel model)
+    throws InterruptedException
+  {
+    events.clear();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final int first = t;
+      threads[t] = new Thread() {
+	  public void run() {
+	    for (int i = 0; i < 10000; i++) {
+	      for (int row = first; row < ROWS; row += 4) {
+		model.rowChanged(row);
+	      }
+	    }
+	  }
+	};
+      threads[t].start();
+    }
+    boolean running = true;
+    while (running) {
+      model.fireDirtyRows();
+      running = false;
+      for (int t = 0; t < threads.length; t++) {
+	running |= threads[t].isAlive();
+      }
+    }
+    for (int t = 0; t < threads.length; t++) {
+      threads[t].join();
+    }
+    model.fireDirtyRows();
+
+    boolean[] fired = new boolean[ROWS];
+    for (int i = 0, n = events.size(); i < n; i++) {
+      String range = events.get(i);
+      int dash = range.indexOf('-');
+      int firstRow = Integer.parseInt(range.substring(0, dash));
+      int lastRow = Integer.parseInt(range.substring(dash + 1));
+      for (int row = firstRow; row <= lastRow; row++) {
+	fired[row] = true;
+      }
+    }
+    for (int row = 0; row < ROWS; row++) {
+      if (!fired[row]) {
+	fail("concurrent change of row " + row + " was lost");
+      }
+    }
+    check(model, "after concurrent changes", new int[0], "");
+  }
+
+  private void check(TACAgent.AgentTableModel model, String name,
+		     int[] rows, String expected) {
+    events.clear();
+    for (int i = 0; i < rows.length; i++) {
+      model.rowChanged(rows[i]);
+    }
+    model.fireDirtyRows();
+    expect(name, expected);
+  }
+
+  private void expect(String name, String expected) {
+    StringBuffer sb = new StringBuffer();
+    for (int i = 0, n = events.size(); i < n; i++) {
+      if (i > 0) {
+	sb.append(' ');
+      }
+      sb.append(events.get(i));
+    }
+    if (!expected.equals(sb.toString())) {
+      fail(name + ": fired [" + sb + "] instead of [" + expected + ']');
+    }
+  }
+
+  private static void fail(String message) {
+    System.out.println("FAILED: " + message);
+    failures++;
+  }
+
+} // AgentTableModelTest
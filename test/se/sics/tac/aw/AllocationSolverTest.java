@@ -0,0 +1,253 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * AllocationSolverTest
+ *
+ * Created : 18 October, 2026
+ * Purpose : Checks the branch and bound search of AllocationSolver
+ *           against a brute force search over all allocations on small
+ *           random markets (only trips within day 1 - 3 can be bought,
+ *           with random free units, prices and limits).
+ *
+ *           Usage: java se.sics.tac.aw.AllocationSolverTest (exits
+ *           with status 1 if a check fails)
+ */
+
+package se.sics.tac.aw;
+
+import java.util.Random;
+
+public class AllocationSolverTest {
+
+	private static final int INSTANCES = 30;
+	private static final int CLIENTS = AllocationSolver.CLIENTS;
+	private static final int GOODS = TACAgent.MIN_ENTERTAINMENT;
+	private static final float EPSILON = 0.01f;
+
+	private static int failures = 0;
+
+	// The market of the current instance
+	private static final int[] arrival = new int[CLIENTS];
+	private static final int[] departure = new int[CLIENTS];
+	private static final int[] hotelValue = new int[CLIENTS];
+	private static final int[] free = new int[GOODS];
+	private static final float[] price = new float[GOODS];
+	private static final int[] limit = new int[GOODS];
+
+	private static final int[][] tripGoods =
+		new int[AllocationSolver.getTripCount()][];
+
+	public static void main(String[] args) {
+		for (int trip = 0; trip < tripGoods.length; trip++) {
+			tripGoods[trip] = getGoods(trip);
+		}
+		testAgainstBruteForce();
+		testUnlimitedMarket();
+		if (failures > 0) {
+			System.out.println(failures + " check(s) failed");
+			System.exit(1);
+		}
+		System.out.println("All checks passed");
+	}
+
+	private static void testAgainstBruteForce() {
+		Random random = new Random(4711L);
+		for (int instance = 0; instance < INSTANCES; instance++) {
+			createMarket(random);
+			AllocationSolver solver = createSolver();
+			float value = solver.solve();
+			float expected = bruteForce(0, new int[GOODS]);
+			if (Math.abs(value - expected) > EPSILON) {
+				fail("instance " + instance + ": solver found " + value
+						+ " but the best allocation is worth " + expected);
+			}
+			checkAllocation("instance " + instance, solver, value);
+		}
+	}
+
+	// Without limits the best trip of each client is independent of the
+	// other clients once the free units are used up
+	private static void testUnlimitedMarket() {
+		for (int c = 0; c < CLIENTS; c++) {
+			arrival[c] = 1 + c % 4;
+			departure[c] = arrival[c] + 1;
+			hotelValue[c] = 50 + 10 * c;
+		}
+		for (int a = 0; a < GOODS; a++) {
+			free[a] = 0;
+			price[a] = 0f;
+			limit[a] = AllocationSolver.NO_LIMIT;
+		}
+		AllocationSolver solver = createSolver();
+		float value = solver.solve();
+		float expected = 0f;
+		for (int c = 0; c < CLIENTS; c++) {
+			expected += 1000 + hotelValue[c];
+		}
+		if (Math.abs(value - expected) > EPSILON) {
+			fail("free market: solver found " + value + " but expected "
+					+ expected);
+		}
+		checkAllocation("free market", solver, value);
+	}
+
+	// Only the flights and hotels of day 1 - 3 can be used which leaves
+	// six trips (or none) per client
+	private static void createMarket(Random random) {
+		for (int c = 0; c < CLIENTS; c++) {
+			arrival[c] = 1 + random.nextInt(4);
+			departure[c] = arrival[c] + 1 + random.nextInt(5 - arrival[c]);
+			hotelValue[c] = 50 + random.nextInt(101);
+		}
+		for (int a = 0; a < GOODS; a++) {
+			free[a] = 0;
+			price[a] = 0f;
+			limit[a] = 0;
+		}
+		for (int day = 1; day <= 3; day++) {
+			if (day < 3) {
+				setGood(random, TACAgent.getAuctionFor(TACAgent.CAT_FLIGHT,
+						TACAgent.TYPE_INFLIGHT, day));
+				setGood(random, TACAgent.getAuctionFor(TACAgent.CAT_HOTEL,
+						TACAgent.TYPE_CHEAP_HOTEL, day));
+				setGood(random, TACAgent.getAuctionFor(TACAgent.CAT_HOTEL,
+						TACAgent.TYPE_GOOD_HOTEL, day));
+			}
+			if (day > 1) {
+				setGood(random, TACAgent.getAuctionFor(TACAgent.CAT_FLIGHT,
+						TACAgent.TYPE_OUTFLIGHT, day));
+			}
+		}
+	}
+
+	private static void setGood(Random random, int auction) {
+		free[auction] = random.nextInt(3);
+		price[auction] = 10 * random.nextInt(40);
+		limit[auction] = random.nextInt(3) == 0
+			? AllocationSolver.NO_LIMIT
+			: free[auction] + random.nextInt(4);
+	}
+
+	private static AllocationSolver createSolver() {
+		AllocationSolver solver = new AllocationSolver();
+		for (int c = 0; c < CLIENTS; c++) {
+			solver.setClient(c, arrival[c], departure[c], hotelValue[c]);
+		}
+		for (int a = 0; a < GOODS; a++) {
+			solver.setGood(a, free[a], price[a], limit[a]);
+		}
+		return solver;
+	}
+
+	// The allocation of the solver must be within the limits and worth the
+	// value returned by the solver
+	private static void checkAllocation(String name, AllocationSolver solver,
+			float value) {
+		int[] usage = new int[GOODS];
+		float utility = 0f;
+		for (int c = 0; c < CLIENTS; c++) {
+			int trip = solver.getTrip(c);
+			if (trip >= 0) {
+				utility += getUtility(c, trip);
+				int[] goods = tripGoods[trip];
+				for (int i = 0; i < goods.length; i++) {
+					usage[goods[i]]++;
+				}
+			}
+		}
+		for (int a = 0; a < GOODS; a++) {
+			if (usage[a] != solver.getUsage(a)) {
+				fail(name + ": usage of auction " + a + " is " + usage[a]
+						+ " but the solver reports " + solver.getUsage(a));
+			}
+			if (limit[a] != AllocationSolver.NO_LIMIT && usage[a] > limit[a]) {
+				fail(name + ": auction " + a + " is used " + usage[a]
+						+ " times with limit " + limit[a]);
+			}
+		}
+		float allocated = utility - getCost(usage);
+		if (Math.abs(allocated - value) > EPSILON) {
+			fail(name + ": allocation is worth " + allocated
+					+ " but the solver reports " + value);
+		}
+	}
+
+	// Tries every trip (or none) for each client from the given one
+	private static float bruteForce(int client, int[] usage) {
+		if (client == CLIENTS) {
+			return -getCost(usage);
+		}
+		float best = bruteForce(client + 1, usage);
+		for (int trip = 0; trip < tripGoods.length; trip++) {
+			int[] goods = tripGoods[trip];
+			boolean feasible = true;
+			for (int i = 0; i < goods.length; i++) {
+				int a = goods[i];
+				if (limit[a] != AllocationSolver.NO_LIMIT && usage[a] >= limit[a]) {
+					feasible = false;
+				}
+			}
+			if (feasible) {
+				for (int i = 0; i < goods.length; i++) {
+					usage[goods[i]]++;
+				}
+				float value = getUtility(client, trip) + bruteForce(client + 1, usage);
+				for (int i = 0; i < goods.length; i++) {
+					usage[goods[i]]--;
+				}
+				if (value > best) {
+					best = value;
+				}
+			}
+		}
+		return best;
+	}
+
+	private static float getCost(int[] usage) {
+		float cost = 0f;
+		for (int a = 0; a < GOODS; a++) {
+			if (usage[a] > free[a]) {
+				cost += (usage[a] - free[a]) * price[a];
+			}
+		}
+		return cost;
+	}
+
+	private static float getUtility(int client, int trip) {
+		int in = AllocationSolver.getInFlight(trip);
+		int out = AllocationSolver.getOutFlight(trip);
+		float utility = 1000 - 100 * (Math.abs(in - arrival[client])
+				+ Math.abs(departure[client] - out));
+		if (AllocationSolver.getHotelType(trip) == TACAgent.TYPE_GOOD_HOTEL) {
+			utility += hotelValue[client];
+		}
+		return utility;
+	}
+
+	private static int[] getGoods(int trip) {
+		int in = AllocationSolver.getInFlight(trip);
+		int out = AllocationSolver.getOutFlight(trip);
+		int[] goods = new int[2 + out - in];
+		goods[0] = TACAgent.getAuctionFor(TACAgent.CAT_FLIGHT,
+				TACAgent.TYPE_INFLIGHT, in);
+		goods[1] = TACAgent.getAuctionFor(TACAgent.CAT_FLIGHT,
+				TACAgent.TYPE_OUTFLIGHT, out);
+		for (int day = in; day < out; day++) {
+			goods[2 + day - in] = TACAgent.getAuctionFor(TACAgent.CAT_HOTEL,
+					AllocationSolver.getHotelType(trip), day);
+		}
+		return goods;
+	}
+
+	private static void fail(String message) {
+		System.out.println("FAILED: " + message);
+		failures++;
+	}
+
+} // AllocationSolverTest
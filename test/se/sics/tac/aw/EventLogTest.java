@@ -0,0 +1,205 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * EventLogTest
+ *
+ * Created : 18 October, 2026
+ * Purpose : Checks that an event log of every event type is read back
+ *           unchanged (bit exact floats and longs, texts and hashes)
+ *           after being saved and loaded, and that a loaded log can be
+ *           appended to.
+ *
+ *           Usage: java se.sics.tac.aw.EventLogTest (exits with
+ *           status 1 if a check fails)
+ */
+
+package se.sics.tac.aw;
+import java.io.File;
+import java.io.IOException;
+
+public class EventLogTest {
+
+  private static int failures = 0;
+
+  public static void main(String[] args) throws IOException {
+    testRoundTrip();
+    testEmptyLog();
+    if (failures > 0) {
+      System.out.println(failures + " check(s) failed");
+      System.exit(1);
+    }
+    System.out.println("All checks passed");
+  }
+
+  private static void testRoundTrip() throws IOException {
+    EventLog log = createLog();
+    EventLog loaded = saveAndLoad(log);
+    compare("loaded", log, loaded);
+    compare("copy", log, log.copy());
+
+    // Values that are only bit exact if stored as raw bits
+    int quote = findEvent(loaded, EventLog.QUOTE);
+    if (quote < 0) {
+      fail("no quote in loaded log");
+    } else {
+      if (Float.floatToRawIntBits(loaded.getFloat(quote, 4))
+	  != Float.floatToRawIntBits(-0.0f)) {
+	fail("ask price -0.0 was not kept");
+      }
+      if (!Float.isNaN(loaded.getFloat(quote, 5))) {
+	fail("bid price NaN was not kept");
+      }
+      if (loaded.getLong(quote, 6) != Long.MIN_VALUE) {
+	fail("next quote time " + loaded.getLong(quote, 6)
+	     + " instead of " + Long.MIN_VALUE);
+      }
+      if (loaded.getLong(quote, 8) != Long.MAX_VALUE) {
+	fail("last quote time " + loaded.getLong(quote, 8)
+	     + " instead of " + Long.MAX_VALUE);
+      }
+    }
+
+    // A loaded log has no spare capacity and must grow when appended to
+    int size = loaded.size();
+    for (int i = 0; i < 1000; i++) {
+      loaded.transaction(100000L + i, i % 28, i, i * 0.5f);
+    }
+    if (loaded.size() != size + 1000) {
+      fail("appended log has " + loaded.size() + " events instead of "
+	   + (size + 1000));
+    } else if (loaded.getInt(size + 999, 1) != 999
+	       || loaded.getFloat(size + 999, 2) != 499.5f) {
+      fail("appended transaction was not kept");
+    }
+    compare("loaded after append", log, loaded, log.size());
+  }
+
+  private static void testEmptyLog() throws IOException {
+    EventLog loaded = saveAndLoad(new EventLog());
+    if (loaded.size() != 0) {
+      fail("empty log loaded with " + loaded.size() + " events");
+    }
+    loaded.event(EventLog.GAME_STARTED, 1L);
+    if (loaded.size() != 1 || loaded.getType(0) != EventLog.GAME_STARTED) {
+      fail("could not append to a loaded empty log");
+    }
+  }
+
+  // A log with every event type
+  private static EventLog createLog() {
+    EventLog log = new EventLog();
+    int[][] prefs = new int[8][6];
+    for (int c = 0; c < 8; c++) {
+      for (int p = 0; p < 6; p++) {
+	prefs[c][p] = c * 10 + p;
+      }
+    }
+    int[] owns = new int[28];
+    for (int a = 0; a < 28; a++) {
+      owns[a] = a % 5 - 1;
+    }
+    log.gameParams(1000L, 4711, 540000, 1234567890123L, prefs, owns);
+    log.event(EventLog.GAME_STARTED, 1001L);
+
+    Quote quote = new Quote(9);
+    quote.setAuctionStatus(Quote.AUCTION_INTERMEDIATE_CLEAR);
+    quote.setHQW(3);
+    quote.setAskPrice(-0.0f);
+    quote.setBidPrice(Float.NaN);
+    quote.setNextQuoteTime(Long.MIN_VALUE);
+    quote.setLastQuoteTime(Long.MAX_VALUE);
+    log.quote(2000L, quote, 17);
+    log.event(EventLog.QUOTE_CATEGORY, 2001L, TACAgent.CAT_HOTEL);
+    log.transaction(3000L, 9, 2, 123.45f);
+    log.event(EventLog.AUCTION_CLOSED, 3001L, 9);
+
+    Bid bid = new Bid(9);
+    bid.setSequence(5);
+    bid.addBidPoint(2, 100.5f);
+    bid.addBidPoint(1, 80f);
+    log.bidSubmitted(4000L, bid);
+    log.bidID(4001L, bid, 123456, "hash\u00e5");
+    log.bidInfo(4002L, bid, 2, 15, Long.MAX_VALUE, -1L);
+    log.bidCleared(4003L, bid, "((1 100.5))", null);
+    log.event(EventLog.BID_UPDATED, 4004L, bid.getSequence());
+    log.bidReverted(4005L, bid, 3);
+    log.event(EventLog.GAME_STOPPED, 540000L);
+    return log;
+  }
+
+  private static EventLog saveAndLoad(EventLog log) throws IOException {
+    File file = File.createTempFile("eventlog", ".log");
+    try {
+      log.save(file.getPath());
+      return EventLog.load(file.getPath());
+    } finally {
+      file.delete();
+    }
+  }
+
+  private static void compare(String name, EventLog expected,
+			      EventLog actual) {
+    if (actual.size() != expected.size()) {
+      fail(name + ": " + actual.size() + " events instead of "
+	   + expected.size());
+    } else {
+      compare(name, expected, actual, expected.size());
+    }
+  }
+
+  // Compares the first events of the logs value by value
+  private static void compare(String name, EventLog expected,
+			      EventLog actual, int size) {
+    for (int i = 0; i < size; i++) {
+      String event = name + " event " + i + " ("
+	+ EventLog.getTypeAsString(expected.getType(i)) + ')';
+      if (actual.getType(i) != expected.getType(i)) {
+	fail(event + ": type " + actual.getType(i));
+      } else if (actual.getTime(i) != expected.getTime(i)) {
+	fail(event + ": time " + actual.getTime(i) + " instead of "
+	     + expected.getTime(i));
+      } else if (actual.getValueCount(i) != expected.getValueCount(i)) {
+	fail(event + ": " + actual.getValueCount(i) + " values instead of "
+	     + expected.getValueCount(i));
+      } else if (!equals(actual.getText(i), expected.getText(i))) {
+	fail(event + ": text " + actual.getText(i) + " instead of "
+	     + expected.getText(i));
+      } else if (!equals(actual.getHash(i), expected.getHash(i))) {
+	fail(event + ": hash " + actual.getHash(i) + " instead of "
+	     + expected.getHash(i));
+      } else {
+	for (int v = 0, n = expected.getValueCount(i); v < n; v++) {
+	  if (actual.getInt(i, v) != expected.getInt(i, v)) {
+	    fail(event + ": value " + v + " is " + actual.getInt(i, v)
+		 + " instead of " + expected.getInt(i, v));
+	  }
+	}
+      }
+    }
+  }
+
+  private static int findEvent(EventLog log, int type) {
+    for (int i = 0, n = log.size(); i < n; i++) {
+      if (log.getType(i) == type) {
+	return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean equals(String a, String b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  private static void fail(String message) {
+    System.out.println("FAILED: " + message);
+    failures++;
+  }
+
+} // EventLogTest
@@ -0,0 +1,124 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * HotelBidBuilderTest
+ *
+ * Created : 18 October, 2026
+ * Purpose : Checks that the marginal room values of HotelBidBuilder on
+ *           random markets are positive and non increasing, equal the
+ *           differences between the best allocations with one more
+ *           room (capped by the value of the previous room), and that
+ *           the market of the solver is restored afterwards.
+ *
+ *           Usage: java se.sics.tac.aw.HotelBidBuilderTest (exits
+ *           with status 1 if a check fails)
+ */
+
+package se.sics.tac.aw;
+
+import java.util.Random;
+
+public class HotelBidBuilderTest {
+
+	private static final int INSTANCES = 40;
+	private static final int CLIENTS = AllocationSolver.CLIENTS;
+	private static final int GOODS = TACAgent.MIN_ENTERTAINMENT;
+	private static final float EPSILON = 0.01f;
+
+	private static int failures = 0;
+
+	public static void main(String[] args) {
+		testMarginalValues();
+		if (failures > 0) {
+			System.out.println(failures + " check(s) failed");
+			System.exit(1);
+		}
+		System.out.println("All checks passed");
+	}
+
+	private static void testMarginalValues() {
+		for (int instance = 0; instance < INSTANCES; instance++) {
+			HotelBidBuilder builder = new HotelBidBuilder();
+			AllocationSolver solver = builder.getSolver();
+			AllocationSolver reference = new AllocationSolver();
+			long seed = 1000L + instance;
+			createMarket(solver, new Random(seed));
+			createMarket(reference, new Random(seed));
+
+			Random random = new Random(~seed);
+			int auction = TACAgent.MIN_HOTEL + random.nextInt(8);
+			float ask = 20 * random.nextInt(10);
+			int hqw = random.nextInt(4);
+			int free = solver.getFree(auction);
+			float price = solver.getPrice(auction);
+			int limit = solver.getLimit(auction);
+
+			String name = "instance " + instance + " (auction " + auction
+				+ ", ask " + ask + ", hqw " + hqw + ")";
+			int units = builder.getMarginalValues(auction, ask, hqw);
+			if (solver.getFree(auction) != free || solver.getPrice(auction) != price
+					|| solver.getLimit(auction) != limit) {
+				fail(name + ": market of the auction was not restored");
+			}
+
+			// The difference between the best allocations with k + 1 and k
+			// rooms capped by the value of the previous room
+			reference.setGood(auction, free, 0f, free);
+			float previous = reference.solve();
+			float cap = Float.MAX_VALUE;
+			for (int k = 0; k <= units && k < CLIENTS; k++) {
+				reference.setGood(auction, free + k + 1, 0f, free + k + 1);
+				float value = reference.solve();
+				float marginal = Math.min(value - previous, cap);
+				if (k == units) {
+					if (marginal > 0f && (marginal > ask || units < hqw)) {
+						fail(name + ": stopped after " + units
+								+ " rooms although the next room is worth " + marginal);
+					}
+					break;
+				}
+				float built = builder.getMarginalValue(k);
+				if (built <= 0f) {
+					fail(name + ": room " + k + " has value " + built);
+				}
+				if (k > 0 && built > builder.getMarginalValue(k - 1)) {
+					fail(name + ": room " + k + " is worth " + built
+							+ " which is more than the previous room");
+				}
+				if (Math.abs(built - marginal) > EPSILON) {
+					fail(name + ": room " + k + " is worth " + built
+							+ " but the allocations differ by " + marginal);
+				}
+				cap = marginal;
+				previous = value;
+			}
+		}
+	}
+
+	private static void createMarket(AllocationSolver solver, Random random) {
+		for (int c = 0; c < CLIENTS; c++) {
+			int arrival = 1 + random.nextInt(4);
+			int departure = arrival + 1 + random.nextInt(5 - arrival);
+			solver.setClient(c, arrival, departure, 50 + random.nextInt(101));
+		}
+		for (int a = 0; a < GOODS; a++) {
+			int free = random.nextInt(3);
+			float price = a < TACAgent.MIN_HOTEL
+				? 250 + 10 * random.nextInt(20)
+				: 20 * random.nextInt(15);
+			solver.setGood(a, free, price, AllocationSolver.NO_LIMIT);
+		}
+	}
+
+	private static void fail(String message) {
+		System.out.println("FAILED: " + message);
+		failures++;
+	}
+
+} // HotelBidBuilderTest
@@ -0,0 +1,162 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * LatencyHistogramTest
+ *
+ * Created : 18 October, 2026
+ * Purpose : Checks the bucket bounds of LatencyHistogram (values below
+ *           64 are exact, larger values are at most 1/32 too high and
+ *           buckets neither overlap nor leave gaps) and its percentiles,
+ *           merging and reset.
+ *
+ *           Usage: java se.sics.tac.aw.LatencyHistogramTest (exits
+ *           with status 1 if a check fails)
+ */
+
+package se.sics.tac.aw;
+
+public class LatencyHistogramTest {
+
+  // Larger than any value checked so it never caps a bucket bound
+  private final static long LARGE = 1L << 40;
+
+  private static int failures = 0;
+
+  public static void main(String[] args) {
+    testBucketBounds();
+    testPercentiles();
+    testEmptyAndNegative();
+    testAddAndReset();
+    if (failures > 0) {
+      System.out.println(failures + " check(s) failed");
+      System.exit(1);
+    }
+    System.out.println("All checks passed");
+  }
+
+  // The highest value of the bucket of each value, found as the median
+  // of the value and a much larger value
+  private static void testBucketBounds() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    long previous = -1L;
+    for (long value = 0L; value < 1L << 16; value++) {
+      long high = getHighestValue(histogram, value);
+      if (value < 64L && high != value) {
+	fail("value " + value + " is reported as " + high);
+	return;
+      }
+      if (high < value || high - value > value / 32) {
+	fail("value " + value + " is in a bucket up to " + high);
+	return;
+      }
+      // A value either starts a new bucket right after the previous one
+      // or shares the bucket of the previous value
+      if (previous >= 0L && high != previous && previous != value - 1) {
+	fail("value " + value + " starts a bucket that overlaps the bucket "
+	     + "of " + (value - 1));
+	return;
+      }
+      previous = high;
+    }
+    for (int bits = 16; bits < 36; bits++) {
+      long value = (1L << bits) + 12345L;
+      long high = getHighestValue(histogram, value);
+      if (high < value || high - value > value / 32) {
+	fail("value " + value + " is in a bucket up to " + high);
+      }
+    }
+  }
+
+  private static long getHighestValue(LatencyHistogram histogram, long value) {
+    histogram.reset();
+    histogram.record(value);
+    histogram.record(LARGE);
+    return histogram.getPercentile(0.5);
+  }
+
+  private static void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1L; value <= 10000L; value++) {
+      histogram.record(value);
+    }
+    checkPercentile(histogram, 0.0, 1L);
+    checkPercentile(histogram, 0.5, 5000L);
+    checkPercentile(histogram, 0.99, 9900L);
+    checkPercentile(histogram, 0.999, 9990L);
+    if (histogram.getPercentile(1.0) != 10000L) {
+      fail("max percentile is " + histogram.getPercentile(1.0)
+	   + " instead of 10000");
+    }
+    if (histogram.getCount() != 10000L || histogram.getMax() != 10000L
+	|| histogram.getSum() != 50005000L) {
+      fail("count " + histogram.getCount() + ", max " + histogram.getMax()
+	   + " and sum " + histogram.getSum() + " of 1 - 10000");
+    }
+    if (histogram.getMean() != 5000.5) {
+      fail("mean of 1 - 10000 is " + histogram.getMean());
+    }
+
+    // All values in one bucket are reported as the max value
+    histogram.reset();
+    histogram.record(1000L);
+    histogram.record(1001L);
+    if (histogram.getPercentile(0.5) != 1001L) {
+      fail("percentile in the bucket of the max is "
+	   + histogram.getPercentile(0.5) + " instead of 1001");
+    }
+  }
+
+  private static void checkPercentile(LatencyHistogram histogram,
+				      double quantile, long expected) {
+    long value = histogram.getPercentile(quantile);
+    if (value < expected || value - expected > expected / 32) {
+      fail("percentile " + quantile + " is " + value + " instead of about "
+	   + expected);
+    }
+  }
+
+  private static void testEmptyAndNegative() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    if (histogram.getPercentile(0.5) != 0L || histogram.getMean() != 0.0) {
+      fail("empty histogram reports a latency");
+    }
+    histogram.record(-5L);
+    if (histogram.getCount() != 1L || histogram.getPercentile(1.0) != 0L
+	|| histogram.getSum() != 0L) {
+      fail("negative latency not recorded as 0");
+    }
+  }
+
+  private static void testAddAndReset() {
+    LatencyHistogram a = new LatencyHistogram();
+    LatencyHistogram b = new LatencyHistogram();
+    for (long value = 1L; value <= 100L; value++) {
+      a.record(value);
+      b.record(value + 100L);
+    }
+    a.add(b);
+    if (a.getCount() != 200L || a.getMax() != 200L || a.getSum() != 20100L) {
+      fail("merged histogram has count " + a.getCount() + ", max "
+	   + a.getMax() + " and sum " + a.getSum());
+    }
+    checkPercentile(a, 0.25, 50L);
+    checkPercentile(a, 0.75, 150L);
+    a.reset();
+    if (a.getCount() != 0L || a.getMax() != 0L || a.getSum() != 0L
+	|| a.getPercentile(0.5) != 0L) {
+      fail("reset histogram is not empty");
+    }
+  }
+
+  private static void fail(String message) {
+    System.out.println("FAILED: " + message);
+    failures++;
+  }
+
+} // LatencyHistogramTest
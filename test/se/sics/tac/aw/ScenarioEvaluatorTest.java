@@ -0,0 +1,110 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * ScenarioEvaluatorTest
+ *
+ * Created : 18 October, 2026
+ * Purpose : Checks that the Monte Carlo scenarios of ScenarioEvaluator
+ *           draw from their own random streams (overlapping streams
+ *           make the scenarios dependent and bias the mean and variance
+ *           of the utility differences).
+ *
+ *           Usage: java se.sics.tac.aw.ScenarioEvaluatorTest (exits
+ *           with status 1 if a check fails)
+ */
+
+package se.sics.tac.aw;
+
+public class ScenarioEvaluatorTest {
+
+	private static final int DRAWS = 64;
+	private static final int SCENARIOS = 200;
+	private static final long[] SEEDS = { 0L, 1L, 12345L, -1L, 0x9E3779B97F4A7C15L };
+
+	private static int failures = 0;
+
+	public static void main(String[] args) {
+		testSameSeedSameStream();
+		testNeighbourScenariosDiffer();
+		testNeighbourScenariosDoNotOverlap();
+		if (failures > 0) {
+			System.out.println(failures + " check(s) failed");
+			System.exit(1);
+		}
+		System.out.println("All checks passed");
+	}
+
+	// The draws of a scenario in the order evaluateScenarios makes them
+	private static double[] draws(long seed, int scenario) {
+		double[] draws = new double[DRAWS];
+		long state = ScenarioEvaluator.scenarioState(seed, scenario);
+		for (int i = 0; i < DRAWS; i++) {
+			state += ScenarioEvaluator.GOLDEN_GAMMA;
+			draws[i] = ScenarioEvaluator.draw(state);
+		}
+		return draws;
+	}
+
+	private static void testSameSeedSameStream() {
+		for (long seed : SEEDS) {
+			double[] a = draws(seed, 7);
+			double[] b = draws(seed, 7);
+			for (int i = 0; i < DRAWS; i++) {
+				if (a[i] != b[i]) {
+					fail("seed " + seed + ": scenario 7 is not repeatable at draw " + i);
+					break;
+				}
+			}
+		}
+	}
+
+	private static void testNeighbourScenariosDiffer() {
+		for (long seed : SEEDS) {
+			for (int s = 0; s < SCENARIOS; s++) {
+				double[] a = draws(seed, s);
+				double[] b = draws(seed, s + 1);
+				for (int i = 0; i < DRAWS; i++) {
+					if (a[i] == b[i]) {
+						fail("seed " + seed + ": scenarios " + s + " and " + (s + 1)
+								+ " share draw " + i);
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	// Draw k of scenario s + 1 must not be a later draw of scenario s
+	private static void testNeighbourScenariosDoNotOverlap() {
+		for (long seed : SEEDS) {
+			for (int s = 0; s < SCENARIOS; s++) {
+				double[] a = draws(seed, s);
+				double[] b = draws(seed, s + 1);
+				int shared = 0;
+				for (int i = 0; i < DRAWS; i++) {
+					for (int j = 0; j < DRAWS; j++) {
+						if (b[i] == a[j]) {
+							shared++;
+						}
+					}
+				}
+				if (shared > 0) {
+					fail("seed " + seed + ": scenarios " + s + " and " + (s + 1)
+							+ " share " + shared + " of " + DRAWS + " draws");
+				}
+			}
+		}
+	}
+
+	private static void fail(String message) {
+		System.out.println("FAILED: " + message);
+		failures++;
+	}
+
+} // ScenarioEvaluatorTest
@@ -0,0 +1,215 @@
+/**
+ * IA Trader Coursework - extensions to the TAC AgentWare
+ *
+ * This file is not part of the original SICS TAC AgentWare. It was
+ * added to this derived version of the agent ware for the Phobos agent
+ * (the original files keep their SICS headers).
+ *
+ * -----------------------------------------------------------------
+ *
+ * SimGameTest
+ *
+ * Created : 18 October, 2026
+ * Purpose : Checks the hotel auctions of the simulated game: the ask
+ *           price is the 16th highest unit price (0 with fewer than 16
+ *           units), equal prices are won by the earlier bid, exactly
+ *           one hotel auction closes at the end of each of the first 8
+ *           minutes in an order given by the game seed, and a closing
+ *           auction sells the winning units at the ask price.
+ *
+ *           Usage: java se.sics.tac.sim.SimGameTest (exits with
+ *           status 1 if a check fails)
+ */
+
+package se.sics.tac.sim;
+
+public class SimGameTest {
+
+  private final static long START = 100000L;
+  private final static int FIRST_HOTEL = 8;
+  private final static int HOTELS = 8;
+
+  private static int failures = 0;
+
+  public static void main(String[] args) {
+    testClearingAndClosing();
+    testFewerThanSixteenUnits();
+    testClosingOrderBySeed();
+    if (failures > 0) {
+      System.out.println(failures + " check(s) failed");
+      System.exit(1);
+    }
+    System.out.println("All checks passed");
+  }
+
+  // The same bids in every hotel auction: the 16 highest units are six
+  // at 200 and two at 120 by agent 0 and eight at 150 by agent 1 (agent
+  // 3 bids 120 after agent 0 and loses the tie)
+  private static void testClearingAndClosing() {
+    SimGame game = createGame(7L);
+    for (int i = FIRST_HOTEL; i < FIRST_HOTEL + HOTELS; i++) {
+      submit(game, i, 0, "((6 200) (4 120))");
+      submit(game, i, 1, "((8 150))");
+      submit(game, i, 2, "((5 90))");
+      submit(game, i, 3, "((2 120))");
+    }
+
+    boolean[] closed = new boolean[HOTELS];
+    for (int minute = 1; minute <= HOTELS; minute++) {
+      int transactions = game.getTransactionCount();
+      game.update(START + minute * SimGame.HOTEL_PERIOD);
+      int closing = getNewlyClosed(game, closed, "minute " + minute);
+      if (closing < 0) {
+	continue;
+      }
+      for (int i = FIRST_HOTEL; i < FIRST_HOTEL + HOTELS; i++) {
+	HotelAuction hotel = (HotelAuction) game.getAuction(i);
+	String name = "minute " + minute + ", hotel " + i;
+	if (hotel.getAskPrice() != 120f) {
+	  fail(name + ": ask price " + hotel.getAskPrice() + " instead of 120");
+	}
+	if (!hotel.isClosed()
+	    && (hotel.getHQW(0) != 8 || hotel.getHQW(1) != 8
+		|| hotel.getHQW(2) != 0 || hotel.getHQW(3) != 0)) {
+	  fail(name + ": hqw " + hotel.getHQW(0) + ", " + hotel.getHQW(1)
+	       + ", " + hotel.getHQW(2) + ", " + hotel.getHQW(3)
+	       + " instead of 8, 8, 0, 0");
+	}
+      }
+
+      // Only the closing auction sells rooms, all at the ask price
+      int[] won = new int[SimGame.AGENTS];
+      for (int t = transactions, n = game.getTransactionCount(); t < n; t++) {
+	if (game.getTransactionAuction(t) != closing) {
+	  fail("minute " + minute + ": transaction in open auction "
+	       + game.getTransactionAuction(t));
+	} else if (game.getTransactionPrice(t) != 120f) {
+	  fail("minute " + minute + ": room sold for "
+	       + game.getTransactionPrice(t) + " instead of 120");
+	}
+	won[game.getTransactionAgent(t)] += game.getTransactionQuantity(t);
+      }
+      if (won[0] != 8 || won[1] != 8 || won[2] != 0 || won[3] != 0) {
+	fail("minute " + minute + ": hotel " + closing + " sold " + won[0]
+	     + ", " + won[1] + ", " + won[2] + ", " + won[3]
+	     + " rooms instead of 8, 8, 0, 0");
+      }
+      if (game.getOwn(0, closing) != 8 || game.getOwn(1, closing) != 8) {
+	fail("minute " + minute + ": agents own " + game.getOwn(0, closing)
+	     + " and " + game.getOwn(1, closing) + " rooms of hotel "
+	     + closing + " instead of 8");
+      }
+    }
+  }
+
+  private static void testFewerThanSixteenUnits() {
+    SimGame game = createGame(11L);
+    submit(game, FIRST_HOTEL, 0, "((3 300))");
+    submit(game, FIRST_HOTEL + 1, 1, "((10 50) (6 40))");
+    game.update(START + SimGame.HOTEL_PERIOD);
+    SimAuction few = game.getAuction(FIRST_HOTEL);
+    SimAuction full = game.getAuction(FIRST_HOTEL + 1);
+    if (few.getAskPrice() != 0f) {
+      fail("ask price with 3 units is " + few.getAskPrice() + " instead of 0");
+    }
+    if (full.getAskPrice() != 40f) {
+      fail("ask price with 16 units is " + full.getAskPrice()
+	   + " instead of 40");
+    }
+
+    game.update(START + SimGame.DEFAULT_GAME_LENGTH);
+    if (!game.isEnded()) {
+      fail("game has not ended");
+    }
+    if (game.getOwn(0, FIRST_HOTEL) != 3
+	|| game.getOwn(1, FIRST_HOTEL + 1) != 16) {
+      fail("agents own " + game.getOwn(0, FIRST_HOTEL) + " and "
+	   + game.getOwn(1, FIRST_HOTEL + 1)
+	   + " rooms instead of 3 and 16");
+    }
+    for (int t = 0, n = game.getTransactionCount(); t < n; t++) {
+      int auction = game.getTransactionAuction(t);
+      float expected = auction == FIRST_HOTEL ? 0f : 40f;
+      if (game.getTransactionPrice(t) != expected) {
+	fail("room in hotel " + auction + " sold for "
+	     + game.getTransactionPrice(t) + " instead of " + expected);
+      }
+    }
+  }
+
+  // The closing order only depends on the seed of the game
+  private static void testClosingOrderBySeed() {
+    String first = getClosingOrder(1L);
+    if (!first.equals(getClosingOrder(1L))) {
+      fail("games with the same seed close the hotels in different orders");
+    }
+    boolean differs = false;
+    for (long seed = 2L; seed < 20L && !differs; seed++) {
+      differs = !first.equals(getClosingOrder(seed));
+    }
+    if (!differs) {
+      fail("all seeds close the hotels in the order " + first);
+    }
+  }
+
+  private static String getClosingOrder(long seed) {
+    SimGame game = createGame(seed);
+    boolean[] closed = new boolean[HOTELS];
+    StringBuffer sb = new StringBuffer();
+    for (int minute = 1; minute <= HOTELS; minute++) {
+      game.update(START + minute * SimGame.HOTEL_PERIOD);
+      sb.append(getNewlyClosed(game, closed, "seed " + seed + ", minute "
+			       + minute)).append(' ');
+    }
+    return sb.toString();
+  }
+
+  // Returns the hotel auction that has closed since last called or -1
+  // if not exactly one has closed
+  private static int getNewlyClosed(SimGame game, boolean[] closed,
+				    String name) {
+    int closing = -1;
+    int count = 0;
+    for (int i = 0; i < HOTELS; i++) {
+      boolean isClosed = game.getAuction(FIRST_HOTEL + i).isClosed();
+      if (closed[i] && !isClosed) {
+	fail(name + ": hotel " + (FIRST_HOTEL + i) + " has reopened");
+      } else if (isClosed && !closed[i]) {
+	closed[i] = true;
+	closing = FIRST_HOTEL + i;
+	count++;
+      }
+    }
+    if (count != 1) {
+      fail(name + ": " + count + " hotels closed instead of one");
+      return -1;
+    }
+    return closing;
+  }
+
+  private static SimGame createGame(long seed) {
+    return new SimGame(new Market(seed), 1, START,
+		       SimGame.DEFAULT_GAME_LENGTH, 100, seed);
+  }
+
+  private static void submit(SimGame game, int auction, int agent,
+			     String bidString) {
+    SimBid bid = new SimBid(auction * 10 + agent, agent,
+			    game.getAuction(auction), START);
+    if (!bid.parse(bidString)) {
+      fail("could not parse bid " + bidString);
+    } else {
+      game.getAuction(auction).submit(bid, START);
+      if (bid.getRejectReason() != 0) {
+	fail("bid " + bidString + " rejected with reason "
+	     + bid.getRejectReason());
+      }
+    }
+  }
+
+  private static void fail(String message) {
+    System.out.println("FAILED: " + message);
+    failures++;
+  }
+
+} // SimGameTest